@@ -0,0 +1,373 @@
+/*
+ * Copyright (c) 2024 - 2025 Harman International
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.eclipse.ecsp.audit.logger;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.ecsp.audit.entity.AuditEvent;
+import org.eclipse.ecsp.audit.enums.AuditEventResult;
+import org.eclipse.ecsp.sql.multitenancy.TenantContext;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes audit events in the background, so logging an audit event costs the request thread neither a transaction
+ * nor a database round trip.
+ *
+ * <p>{@link #submit(AuditEvent)} puts the event, together with the current tenant, into a bounded lock-free
+ * {@link AuditRingBuffer}. A single writer thread drains the buffer and writes the events with
+ * {@link AuditBatchInserter}, one JDBC batch per tenant, as soon as {@code uidam.audit.async.batch.size} events are
+ * waiting or the oldest waiting event is {@code uidam.audit.async.flush.interval.ms} old. When the buffer is full the
+ * configured {@link AuditOverflowPolicy} applies. On shutdown the writer stops accepting events and drains the
+ * buffer for at most {@code uidam.audit.async.drain.timeout.ms}.
+ *
+ * <p>A tenant's events that cannot be written are spilled under the SPILL policy, or counted as failed otherwise;
+ * the events of the other tenants in the same batch are written nevertheless. The SPILL policy requires an explicit
+ * {@code uidam.audit.async.spill.directory}, as spilled events hold personal data such as IP addresses.
+ *
+ * <p>The number of waiting events is published as the gauge {@code audit.writer.queue.depth} and the time to write a
+ * batch as the timer {@code audit.writer.flush}. Dropped, spilled and failed events are counted in
+ * {@code audit.writer.dropped}, {@code audit.writer.spilled} and {@code audit.writer.failed}.
+ */
+@Slf4j
+@Component
+public class AsyncAuditWriter implements DisposableBean {
+
+    private static final String METRIC_PREFIX = "audit.writer.";
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final long REPLAY_RETRY_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final AuditBatchInserter batchInserter;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final AuditOverflowPolicy overflowPolicy;
+    private final Duration drainTimeout;
+    private final AuditRingBuffer<PendingAuditEvent> buffer;
+    private final AuditSpillFile spillFile;
+    private final Timer flushTimer;
+    private final Counter droppedCounter;
+    private final Counter spilledCounter;
+    private final Counter failedCounter;
+    private final Thread writerThread;
+    // Submits that passed the running check; the writer keeps draining until they published their event
+    private final AtomicInteger activeSubmits = new AtomicInteger();
+    private volatile boolean running;
+    private long nextReplayNanos = System.nanoTime();
+
+    /**
+     * Constructor for AsyncAuditWriter. Starts the writer thread if asynchronous writing is enabled.
+     *
+     * @param batchInserter the inserter writing a batch of events
+     * @param meterRegistry the registry the writer metrics are published to
+     * @param enabled whether audit events are written asynchronously
+     * @param capacity the number of events the buffer holds, rounded up to a power of two
+     * @param batchSize the maximum number of events per batch
+     * @param flushIntervalMs the maximum time an event waits for its batch to fill up
+     * @param overflowPolicy what to do with an event when the buffer is full
+     * @param spillDirectory the directory of the spill file of the SPILL policy
+     * @param drainTimeoutMs the maximum time to wait for the buffer to drain on shutdown
+     * @throws IOException if the spill directory cannot be created
+     * @throws IllegalStateException if the SPILL policy is configured without a spill directory
+     */
+    public AsyncAuditWriter(AuditBatchInserter batchInserter,
+                            MeterRegistry meterRegistry,
+                            @Value("${uidam.audit.async.enabled:false}") boolean enabled,
+                            @Value("${uidam.audit.async.capacity:8192}") int capacity,
+                            @Value("${uidam.audit.async.batch.size:200}") int batchSize,
+                            @Value("${uidam.audit.async.flush.interval.ms:200}") long flushIntervalMs,
+                            @Value("${uidam.audit.async.overflow.policy:BLOCK}") AuditOverflowPolicy overflowPolicy,
+                            @Value("${uidam.audit.async.spill.directory:}") String spillDirectory,
+                            @Value("${uidam.audit.async.drain.timeout.ms:10000}") long drainTimeoutMs)
+        throws IOException {
+        this.batchInserter = batchInserter;
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushIntervalMs));
+        this.overflowPolicy = overflowPolicy;
+        this.drainTimeout = Duration.ofMillis(drainTimeoutMs);
+        this.buffer = new AuditRingBuffer<>(capacity);
+        this.spillFile = enabled && overflowPolicy == AuditOverflowPolicy.SPILL ? spillFile(spillDirectory) : null;
+        Gauge.builder(METRIC_PREFIX + "queue.depth", buffer, AuditRingBuffer::size)
+            .description("Number of audit events waiting to be written")
+            .register(meterRegistry);
+        this.flushTimer = Timer.builder(METRIC_PREFIX + "flush")
+            .description("Time to write a batch of audit events")
+            .register(meterRegistry);
+        this.droppedCounter = Counter.builder(METRIC_PREFIX + "dropped")
+            .description("Audit events dropped because the buffer was full")
+            .register(meterRegistry);
+        this.spilledCounter = Counter.builder(METRIC_PREFIX + "spilled")
+            .description("Audit events spilled to disk because the buffer was full")
+            .register(meterRegistry);
+        this.failedCounter = Counter.builder(METRIC_PREFIX + "failed")
+            .description("Audit events that could not be written")
+            .register(meterRegistry);
+        if (enabled) {
+            this.running = true;
+            this.writerThread = Thread.ofPlatform().name("audit-writer").daemon(true).start(this::runWriter);
+        } else {
+            this.writerThread = null;
+        }
+        log.info("Audit writer enabled: {}, capacity: {}, batch size: {}, flush interval: {} ms, overflow policy: {}",
+            enabled, buffer.capacity(), this.batchSize, flushIntervalMs, overflowPolicy);
+    }
+
+    /**
+     * Queues an audit event for writing in the background, together with the current tenant.
+     *
+     * @param event the audit event
+     * @return true if the writer took over the event, which includes dropping or spilling it on overflow; false if
+     *     the writer is disabled or stopped and the caller must write the event itself
+     */
+    public boolean submit(AuditEvent event) {
+        activeSubmits.incrementAndGet();
+        try {
+            return running && enqueue(event);
+        } finally {
+            activeSubmits.decrementAndGet();
+        }
+    }
+
+    private boolean enqueue(AuditEvent event) {
+        if (event.getTimestamp() == null) {
+            // Stamped when logged rather than when written
+            event.setTimestamp(Instant.now());
+        }
+        if (event.getResult() == null) {
+            event.setResult(AuditEventResult.SUCCESS);
+        }
+        PendingAuditEvent pending = new PendingAuditEvent(currentTenant(), event);
+        if (buffer.offer(pending)) {
+            if (buffer.size() >= batchSize) {
+                LockSupport.unpark(writerThread);
+            }
+            return true;
+        }
+        return overflow(pending);
+    }
+
+    /**
+     * Returns the number of events waiting to be written.
+     *
+     * @return the queue depth
+     */
+    public int getQueueDepth() {
+        return buffer.size();
+    }
+
+    /**
+     * Stops accepting events and waits for the writer thread to write the events still in the buffer.
+     *
+     * @throws InterruptedException if interrupted while waiting for the writer thread
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        if (writerThread == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writerThread);
+        writerThread.join(drainTimeout);
+        if (writerThread.isAlive()) {
+            log.warn("Audit writer did not drain within {}; {} audit events were not written", drainTimeout,
+                buffer.size());
+        }
+    }
+
+    private boolean overflow(PendingAuditEvent pending) {
+        switch (overflowPolicy) {
+            case DROP -> {
+                droppedCounter.increment();
+                log.debug("Audit buffer full, dropped audit event: eventType={}", pending.event().getEventType());
+                return true;
+            }
+            case SPILL -> {
+                spill(List.of(pending));
+                return true;
+            }
+            default -> {
+                // BLOCK: wait for the writer to free a slot, or write synchronously once it stopped
+                while (!buffer.offer(pending)) {
+                    if (!running) {
+                        return false;
+                    }
+                    LockSupport.unpark(writerThread);
+                    LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                }
+                return true;
+            }
+        }
+    }
+
+    private void runWriter() {
+        List<PendingAuditEvent> batch = new ArrayList<>(batchSize);
+        long batchStart = 0;
+        while (running || !buffer.isEmpty() || activeSubmits.get() > 0) {
+            PendingAuditEvent pending = buffer.poll();
+            if (pending != null) {
+                if (batch.isEmpty()) {
+                    batchStart = System.nanoTime();
+                }
+                batch.add(pending);
+                if (batch.size() >= batchSize) {
+                    flush(batch, true);
+                }
+                continue;
+            }
+            long waited = System.nanoTime() - batchStart;
+            if (!batch.isEmpty() && (waited >= flushIntervalNanos || !running)) {
+                flush(batch, true);
+                continue;
+            }
+            if (batch.isEmpty() && buffer.isEmpty() && spillFile != null && spillFile.hasPending()
+                && System.nanoTime() - nextReplayNanos >= 0) {
+                replaySpilled();
+            }
+            if (running) {
+                LockSupport.parkNanos(batch.isEmpty() ? flushIntervalNanos : flushIntervalNanos - waited);
+            } else {
+                // A producer claimed a slot but has not published its event yet
+                Thread.onSpinWait();
+            }
+        }
+        flush(batch, true);
+        log.info("Audit writer stopped");
+    }
+
+    private void flush(List<PendingAuditEvent> batch, boolean spillOnFailure) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            List<PendingAuditEvent> failed = write(batch);
+            if (failed.isEmpty()) {
+                return;
+            }
+            if (spillOnFailure && spillFile != null) {
+                spill(failed);
+            } else {
+                failedCounter.increment(failed.size());
+            }
+        } finally {
+            batch.clear();
+        }
+    }
+
+    /**
+     * Writes the events of each tenant in one JDBC batch.
+     *
+     * @param batch the events to write
+     * @return the events of the tenants whose batch could not be written
+     */
+    private List<PendingAuditEvent> write(List<PendingAuditEvent> batch) {
+        Map<String, List<PendingAuditEvent>> eventsByTenant = new LinkedHashMap<>();
+        for (PendingAuditEvent pending : batch) {
+            eventsByTenant.computeIfAbsent(pending.tenantId(), t -> new ArrayList<>()).add(pending);
+        }
+        List<PendingAuditEvent> failed = new ArrayList<>();
+        long start = System.nanoTime();
+        for (Map.Entry<String, List<PendingAuditEvent>> entry : eventsByTenant.entrySet()) {
+            List<AuditEvent> events = entry.getValue().stream().map(PendingAuditEvent::event).toList();
+            try {
+                writeForTenant(entry.getKey(), events);
+            } catch (RuntimeException e) {
+                log.error("Failed to write {} audit events of tenant {}", events.size(), entry.getKey(), e);
+                failed.addAll(entry.getValue());
+            }
+        }
+        flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        log.debug("Wrote {} audit events", batch.size() - failed.size());
+        return failed;
+    }
+
+    private void writeForTenant(String tenantId, List<AuditEvent> events) {
+        if (tenantId == null) {
+            batchInserter.insert(events);
+            return;
+        }
+        TenantContext.setCurrentTenant(tenantId);
+        try {
+            batchInserter.insert(events);
+        } finally {
+            TenantContext.clear();
+        }
+    }
+
+    private void spill(List<PendingAuditEvent> events) {
+        try {
+            for (PendingAuditEvent pending : events) {
+                spillFile.append(pending);
+            }
+            spilledCounter.increment(events.size());
+        } catch (IOException e) {
+            failedCounter.increment(events.size());
+            log.error("Failed to spill {} audit events", events.size(), e);
+        }
+    }
+
+    private void replaySpilled() {
+        AtomicInteger respilled = new AtomicInteger();
+        try {
+            // Events that fail again go to a new spill file, so written batches are not replayed a second time
+            int replayed = spillFile.replay(batchSize, events -> {
+                List<PendingAuditEvent> failed = write(events);
+                if (!failed.isEmpty()) {
+                    respilled.addAndGet(failed.size());
+                    spill(failed);
+                }
+            });
+            log.info("Replayed {} spilled audit events, {} of them spilled again", replayed, respilled.get());
+        } catch (IOException | RuntimeException e) {
+            // The spilled events stay on disk and are replayed again later
+            log.error("Failed to replay spilled audit events", e);
+            respilled.incrementAndGet();
+        }
+        if (respilled.get() > 0) {
+            nextReplayNanos = System.nanoTime() + REPLAY_RETRY_NANOS;
+        }
+    }
+
+    private static AuditSpillFile spillFile(String spillDirectory) throws IOException {
+        if (spillDirectory == null || spillDirectory.isBlank()) {
+            throw new IllegalStateException(
+                "uidam.audit.async.spill.directory must be set for the SPILL audit overflow policy");
+        }
+        return new AuditSpillFile(Path.of(spillDirectory));
+    }
+
+    private static String currentTenant() {
+        return TenantContext.hasTenant() ? TenantContext.getCurrentTenant() : null;
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2024 - 2025 Harman International
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.eclipse.ecsp.audit.logger;
+
+import org.eclipse.ecsp.audit.entity.AuditEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Writes audit events with one JDBC batch insert per call, committed as a single transaction.
+ *
+ * <p>The audit_log ID is generated by the database, so the events cannot be inserted through JPA in batches; the
+ * INSERT statement leaves the ID to its column default. Statements go through the tenant routing datasource, so
+ * the events are written to the database of the current tenant.
+ */
+@Component
+public class AuditBatchInserter {
+
+    private static final Pattern SCHEMA_NAME = Pattern.compile("^[A-Za-z0-9_]+$");
+    private static final String TABLE_NAME = "audit_log";
+    private static final String INSERT = " (EVENT_TYPE, COMPONENT, RESULT, TIMESTAMP, TENANT_ID, ACTOR_ID, ACTOR_TYPE,"
+        + " TARGET_ID, TARGET_TYPE, SOURCE_IP_ADDRESS, CORRELATION_ID, ACTOR_CONTEXT, TARGET_CONTEXT, REQUEST_CONTEXT,"
+        + " AUTHENTICATION_CONTEXT, FAILURE_CODE, FAILURE_REASON, BEFORE_VALUE, AFTER_VALUE, ADDITIONAL_DATA, MESSAGE)"
+        + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, CAST(? AS JSONB), CAST(? AS JSONB), CAST(? AS JSONB),"
+        + " CAST(? AS JSONB), ?, ?, CAST(? AS JSONB), CAST(? AS JSONB), CAST(? AS JSONB), ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String insertSql;
+
+    /**
+     * Constructor for AuditBatchInserter.
+     *
+     * @param dataSource the tenant routing datasource
+     * @param schema the schema of the audit_log table, empty to use the search path
+     */
+    public AuditBatchInserter(DataSource dataSource, @Value("${uidam.default.db.schema:}") String schema) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        if (schema != null && !schema.isEmpty() && !SCHEMA_NAME.matcher(schema).matches()) {
+            throw new IllegalArgumentException("Invalid schema name for audit_log: " + schema);
+        }
+        String table = schema == null || schema.isEmpty() ? TABLE_NAME : schema + "." + TABLE_NAME;
+        this.insertSql = "INSERT INTO " + table + INSERT;
+    }
+
+    /**
+     * Inserts the events into the audit_log table of the current tenant in one transaction.
+     *
+     * @param events the events to insert
+     * @throws org.springframework.dao.DataAccessException if the batch could not be written; no event is written
+     */
+    public void insert(List<AuditEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(insertSql)) {
+                for (AuditEvent event : events) {
+                    bind(statement, event);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                rollbackQuietly(connection, e);
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+            return null;
+        });
+    }
+
+    private static void bind(PreparedStatement statement, AuditEvent event) throws SQLException {
+        int index = 1;
+        statement.setString(index++, event.getEventType());
+        statement.setString(index++, event.getComponent());
+        statement.setString(index++, event.getResult() != null ? event.getResult().name() : null);
+        statement.setTimestamp(index++, event.getTimestamp() != null ? Timestamp.from(event.getTimestamp()) : null);
+        statement.setString(index++, event.getTenantId());
+        statement.setString(index++, event.getActorId());
+        statement.setString(index++, event.getActorType());
+        statement.setString(index++, event.getTargetId());
+        statement.setString(index++, event.getTargetType());
+        statement.setString(index++, event.getSourceIpAddress());
+        statement.setString(index++, event.getCorrelationId());
+        statement.setString(index++, event.getActorContext());
+        statement.setString(index++, event.getTargetContext());
+        statement.setString(index++, event.getRequestContext());
+        statement.setString(index++, event.getAuthenticationContext());
+        statement.setString(index++, event.getFailureCode());
+        statement.setString(index++, event.getFailureReason());
+        statement.setString(index++, event.getBeforeValue());
+        statement.setString(index++, event.getAfterValue());
+        statement.setString(index++, event.getAdditionalData());
+        statement.setString(index, event.getMessage());
+    }
+
+    private static void rollbackQuietly(Connection connection, Exception cause) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            cause.addSuppressed(e);
+        }
+    }
+}
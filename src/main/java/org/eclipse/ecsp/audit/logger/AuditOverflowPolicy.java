@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) 2024 - 2025 Harman International
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.eclipse.ecsp.audit.logger;
+
+/**
+ * What {@link AsyncAuditWriter} does with an audit event when its buffer is full.
+ */
+public enum AuditOverflowPolicy {
+    /** Wait until the writer frees a slot. No event is lost, but request threads slow down to the write rate. */
+    BLOCK,
+    /** Drop the event and count it in the audit.writer.dropped metric. */
+    DROP,
+    /** Append the event to a spill file on local disk, from which the writer replays it once the buffer drained. */
+    SPILL
+}
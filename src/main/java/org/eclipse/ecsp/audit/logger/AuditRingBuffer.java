@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2024 - 2025 Harman International
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.eclipse.ecsp.audit.logger;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free ring buffer with many producers and a single consumer, used by {@link AsyncAuditWriter} to hand
+ * audit events from request threads to the writer thread.
+ *
+ * <p>Each slot carries a sequence number. A producer claims a slot by advancing the enqueue position with a CAS and
+ * publishes its element by advancing the slot sequence; the consumer takes the element once the sequence shows it
+ * was published and releases the slot for the next lap. Producers never block: {@link #offer(Object)} fails when
+ * the buffer is full.
+ *
+ * @param <E> the element type
+ */
+final class AuditRingBuffer<E> {
+
+    private final int mask;
+    private final Object[] elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong enqueuePosition = new AtomicLong();
+    private volatile long dequeuePosition;
+
+    /**
+     * Constructor for AuditRingBuffer.
+     *
+     * @param requestedCapacity the minimum capacity, rounded up to the next power of two
+     */
+    AuditRingBuffer(int requestedCapacity) {
+        if (requestedCapacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + requestedCapacity);
+        }
+        int capacity = Integer.highestOneBit(requestedCapacity);
+        if (capacity < requestedCapacity) {
+            capacity <<= 1;
+        }
+        this.mask = capacity - 1;
+        this.elements = new Object[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds an element if the buffer is not full. Safe to call from any thread.
+     *
+     * @param element the element to add
+     * @return true if the element was added, false if the buffer is full
+     */
+    boolean offer(E element) {
+        long position = enqueuePosition.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (enqueuePosition.compareAndSet(position, position + 1)) {
+                    elements[index] = element;
+                    // Publishes the element to the consumer
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = enqueuePosition.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = enqueuePosition.get();
+            }
+        }
+    }
+
+    /**
+     * Removes the oldest element. Must only be called from the single consumer thread.
+     *
+     * @return the oldest element, or null if the buffer is empty
+     */
+    @SuppressWarnings("unchecked")
+    E poll() {
+        long position = dequeuePosition;
+        int index = (int) (position & mask);
+        if (sequences.get(index) != position + 1) {
+            return null;
+        }
+        E element = (E) elements[index];
+        elements[index] = null;
+        // Releases the slot for the producers of the next lap
+        sequences.set(index, position + mask + 1);
+        dequeuePosition = position + 1;
+        return element;
+    }
+
+    /**
+     * Returns the number of claimed slots, including elements that are still being published.
+     *
+     * @return the number of elements in the buffer
+     */
+    int size() {
+        return (int) Math.max(0, enqueuePosition.get() - dequeuePosition);
+    }
+
+    /**
+     * Returns whether the buffer holds no claimed slots.
+     *
+     * @return true if the buffer is empty
+     */
+    boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Returns the capacity of the buffer.
+     *
+     * @return the capacity
+     */
+    int capacity() {
+        return elements.length;
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2024 - 2025 Harman International
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.eclipse.ecsp.audit.logger;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Overflow file of {@link AsyncAuditWriter} for the {@link AuditOverflowPolicy#SPILL} policy.
+ *
+ * <p>Events are appended as JSON lines to the spill file. To replay them, the writer thread moves the spill file
+ * aside, so producers start a new one, and hands the moved events to the writer in batches. The writer appends the
+ * events of a batch it cannot write to the new spill file, so the moved file is deleted once all its batches were
+ * handed over, and written batches are not replayed again. Only if the replay itself fails, e.g. the moved file
+ * cannot be read, is the moved file kept and replayed again, so events are written at least once.
+ */
+final class AuditSpillFile {
+
+    private static final String SPILL_FILE = "audit-spill.jsonl";
+    private static final String REPLAY_FILE = "audit-spill.replay.jsonl";
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final Path spillPath;
+    private final Path replayPath;
+
+    /**
+     * Constructor for AuditSpillFile.
+     *
+     * @param directory the directory holding the spill files, created if missing
+     * @throws IOException if the directory cannot be created
+     */
+    AuditSpillFile(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        this.spillPath = directory.resolve(SPILL_FILE);
+        this.replayPath = directory.resolve(REPLAY_FILE);
+    }
+
+    /**
+     * Appends an event to the spill file.
+     *
+     * @param pending the event to spill
+     * @throws IOException if the event cannot be written
+     */
+    void append(PendingAuditEvent pending) throws IOException {
+        String line = objectMapper.writeValueAsString(pending) + System.lineSeparator();
+        appendLock.lock();
+        try {
+            Files.writeString(spillPath, line, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Returns whether spilled events are waiting to be replayed.
+     *
+     * @return true if a spill or replay file exists
+     */
+    boolean hasPending() {
+        return Files.exists(replayPath) || Files.exists(spillPath);
+    }
+
+    /**
+     * Hands all spilled events to the sink in batches and deletes them once every batch was handed over. Must only
+     * be called from the writer thread.
+     *
+     * @param batchSize the maximum number of events per batch
+     * @param sink the consumer writing a batch, which appends the events it cannot write to the spill file again
+     * @return the number of replayed events
+     * @throws IOException if the spill files cannot be read or moved
+     */
+    int replay(int batchSize, Consumer<List<PendingAuditEvent>> sink) throws IOException {
+        if (!Files.exists(replayPath)) {
+            appendLock.lock();
+            try {
+                if (!Files.exists(spillPath)) {
+                    return 0;
+                }
+                Files.move(spillPath, replayPath, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                appendLock.unlock();
+            }
+        }
+        int replayed = 0;
+        List<PendingAuditEvent> batch = new ArrayList<>(batchSize);
+        try (BufferedReader reader = Files.newBufferedReader(replayPath, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                batch.add(objectMapper.readValue(line, PendingAuditEvent.class));
+                if (batch.size() >= batchSize) {
+                    sink.accept(List.copyOf(batch));
+                    replayed += batch.size();
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            sink.accept(List.copyOf(batch));
+            replayed += batch.size();
+        }
+        Files.delete(replayPath);
+        return replayed;
+    }
+}
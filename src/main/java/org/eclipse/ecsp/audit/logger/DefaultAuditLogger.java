@@ -17,7 +17,6 @@
 
 package org.eclipse.ecsp.audit.logger;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.eclipse.ecsp.audit.context.ActorContext;
 import org.eclipse.ecsp.audit.context.AuthenticationContext;
@@ -27,16 +26,20 @@ import org.eclipse.ecsp.audit.entity.AuditEvent;
 import org.eclipse.ecsp.audit.enums.AuditEventResult;
 import org.eclipse.ecsp.audit.repository.AuditRepository;
 import org.eclipse.ecsp.audit.util.PiiMasker;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * Default Audit Logger Implementation.
  * 
  * <p>Key features:</p>
  * <ul>
- *   <li>Uses REQUIRES_NEW transaction to ensure audit log is saved even if main transaction fails</li>
+ *   <li>Hands events to the {@link AsyncAuditWriter}, which writes them in batches off the request thread</li>
+ *   <li>Falls back to saving in a REQUIRES_NEW transaction when the writer is disabled or stopped, so the audit log
+ *       is saved even if the main transaction fails</li>
  *   <li>Automatically masks PII in context fields before saving</li>
  *   <li>Never throws exceptions - logs errors instead to avoid breaking main application flow</li>
  * </ul>
@@ -44,13 +47,43 @@ import org.springframework.transaction.annotation.Transactional;
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class DefaultAuditLogger implements AuditLogger {
     
     private final AuditRepository auditRepository;
+    private final AsyncAuditWriter auditWriter;
+    private final TransactionTemplate transactionTemplate;
+    
+    /**
+     * Constructor for DefaultAuditLogger saving every event synchronously.
+     *
+     * @param auditRepository the audit repository
+     */
+    public DefaultAuditLogger(AuditRepository auditRepository) {
+        this(auditRepository, null, null);
+    }
+    
+    /**
+     * Constructor for DefaultAuditLogger.
+     *
+     * @param auditRepository the audit repository, used when the writer does not take the event
+     * @param auditWriter the asynchronous batch writer, or null to save every event synchronously
+     * @param transactionManager the transaction manager for synchronous saves, or null to save without a
+     *     separate transaction
+     */
+    @Autowired
+    public DefaultAuditLogger(AuditRepository auditRepository, AsyncAuditWriter auditWriter,
+                              PlatformTransactionManager transactionManager) {
+        this.auditRepository = auditRepository;
+        this.auditWriter = auditWriter;
+        if (transactionManager != null) {
+            this.transactionTemplate = new TransactionTemplate(transactionManager);
+            this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        } else {
+            this.transactionTemplate = null;
+        }
+    }
     
     @Override
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void log(String eventType,
                     String component,
                     AuditEventResult result,
@@ -77,9 +110,9 @@ public class DefaultAuditLogger implements AuditLogger {
                 .authenticationContext(maskAndSerialize(authContext))
                 .build();
             
-            auditRepository.save(event);
+            persist(event);
             
-            log.debug("Audit event saved: eventType={}, component={}, actorId={}", 
+            log.debug("Audit event logged: eventType={}, component={}, actorId={}", 
                 eventType, component, event.getActorId());
                 
         } catch (Exception e) {
@@ -89,7 +122,6 @@ public class DefaultAuditLogger implements AuditLogger {
     }
     
     @Override
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void log(String eventType,
                     String component,
                     AuditEventResult result,
@@ -113,9 +145,9 @@ public class DefaultAuditLogger implements AuditLogger {
                 .authenticationContext(null)
                 .build();
             
-            auditRepository.save(event);
+            persist(event);
             
-            log.debug("Audit event saved: eventType={}, component={}, actorId={}", 
+            log.debug("Audit event logged: eventType={}, component={}, actorId={}", 
                 eventType, component, event.getActorId());
                 
         } catch (Exception e) {
@@ -125,7 +157,6 @@ public class DefaultAuditLogger implements AuditLogger {
     }
     
     @Override
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void log(String eventType,
                     String component,
                     AuditEventResult result,
@@ -146,9 +177,9 @@ public class DefaultAuditLogger implements AuditLogger {
                 .requestContext(maskAndSerialize(requestContext))
                 .build();
             
-            auditRepository.save(event);
+            persist(event);
             
-            log.debug("Audit event with message saved: eventType={}, actorId={}", 
+            log.debug("Audit event with message logged: eventType={}, actorId={}", 
                 eventType, event.getActorId());
                 
         } catch (Exception e) {
@@ -158,7 +189,6 @@ public class DefaultAuditLogger implements AuditLogger {
     }
     
     @Override
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void logFailure(String eventType,
                           String component,
                           String failureCode,
@@ -180,7 +210,7 @@ public class DefaultAuditLogger implements AuditLogger {
                 .requestContext(maskAndSerialize(requestContext))
                 .build();
             
-            auditRepository.save(event);
+            persist(event);
             
             log.debug("Audit failure logged: eventType={}, failureCode={}, actorId={}", 
                 eventType, failureCode, event.getActorId());
@@ -193,6 +223,17 @@ public class DefaultAuditLogger implements AuditLogger {
     
     // ========== Helper Methods ==========
     
+    private void persist(AuditEvent event) {
+        if (auditWriter != null && auditWriter.submit(event)) {
+            return;
+        }
+        if (transactionTemplate == null) {
+            auditRepository.save(event);
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> auditRepository.save(event));
+    }
+    
     private String maskAndSerialize(Object context) {
         if (context == null) {
             return null;
@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2024 - 2025 Harman International
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.eclipse.ecsp.audit.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides how the value of a field is masked, by the patterns contained in the field name.
+ *
+ * <p>All patterns are compiled into one Aho-Corasick automaton over the letters a-z, so a field name is classified in
+ * a single pass over its characters, whatever the number of patterns. A field name containing a full mask pattern is
+ * fully masked, otherwise one containing a partial mask pattern is partially masked. Matching ignores case.
+ *
+ * <p>Audit contexts use a small set of field names, so classifications are memoized per field name; the memo stops
+ * growing at {@value #MAX_MEMO_SIZE} names.
+ */
+final class PiiFieldClassifier {
+
+    static final int MAX_MEMO_SIZE = 1024;
+
+    private static final int ALPHABET_SIZE = 26;
+    private static final int ROOT = 0;
+    private static final byte FULL = 1;
+    private static final byte PARTIAL = 2;
+
+    /**
+     * How the value of a field is masked.
+     */
+    enum MaskMode {
+        /** The value is written as is. */
+        NONE,
+        /** The value is replaced completely. */
+        FULL,
+        /** First characters of the local part and the domain of an email address stay visible. */
+        EMAIL,
+        /** The last four digits of a phone number stay visible. */
+        PHONE,
+        /** The first two and last two characters of a user name stay visible. */
+        USERNAME,
+        /** The last four characters of a VIN stay visible. */
+        VIN,
+        /** The last four characters stay visible. */
+        PARTIAL;
+
+        /**
+         * Returns whether the value is partially masked.
+         *
+         * @return true for the partial mask modes
+         */
+        boolean isPartial() {
+            return this != NONE && this != FULL;
+        }
+    }
+
+    private final int[] transitions;
+    private final byte[] outputs;
+    private final ConcurrentHashMap<String, MaskMode> memo = new ConcurrentHashMap<>();
+
+    /**
+     * Compiles the patterns into the automaton.
+     *
+     * @param fullMaskPatterns patterns of fully masked field names
+     * @param partialMaskPatterns patterns of partially masked field names
+     * @throws IllegalArgumentException if a pattern is empty or contains anything but letters a-z in any case
+     */
+    PiiFieldClassifier(Collection<String> fullMaskPatterns, Collection<String> partialMaskPatterns) {
+        List<int[]> gotos = new ArrayList<>();
+        List<Byte> flags = new ArrayList<>();
+        gotos.add(newRow());
+        flags.add((byte) 0);
+        for (String pattern : fullMaskPatterns) {
+            addPattern(pattern, FULL, gotos, flags);
+        }
+        for (String pattern : partialMaskPatterns) {
+            addPattern(pattern, PARTIAL, gotos, flags);
+        }
+        int states = gotos.size();
+        this.transitions = new int[states * ALPHABET_SIZE];
+        this.outputs = new byte[states];
+        for (int state = 0; state < states; state++) {
+            outputs[state] = flags.get(state);
+        }
+        compile(gotos);
+    }
+
+    /**
+     * Returns how the value of the given field is masked.
+     *
+     * @param fieldName the field name, may be null
+     * @return the mask mode
+     */
+    MaskMode classify(String fieldName) {
+        if (fieldName == null) {
+            return MaskMode.NONE;
+        }
+        MaskMode mode = memo.get(fieldName);
+        if (mode == null) {
+            mode = compute(fieldName.toLowerCase(Locale.ROOT));
+            if (memo.size() < MAX_MEMO_SIZE) {
+                memo.putIfAbsent(fieldName, mode);
+            }
+        }
+        return mode;
+    }
+
+    private MaskMode compute(String lowerFieldName) {
+        byte matched = 0;
+        int state = ROOT;
+        for (int i = 0; i < lowerFieldName.length(); i++) {
+            int letter = lowerFieldName.charAt(i) - 'a';
+            if (letter < 0 || letter >= ALPHABET_SIZE) {
+                // No pattern contains anything but letters
+                state = ROOT;
+                continue;
+            }
+            state = transitions[state * ALPHABET_SIZE + letter];
+            matched |= outputs[state];
+            if ((matched & FULL) != 0) {
+                return MaskMode.FULL;
+            }
+        }
+        if ((matched & PARTIAL) == 0) {
+            return MaskMode.NONE;
+        }
+        return partialMode(lowerFieldName);
+    }
+
+    private static MaskMode partialMode(String lowerFieldName) {
+        if (lowerFieldName.contains("email")) {
+            return MaskMode.EMAIL;
+        }
+        if (lowerFieldName.contains("phone") || lowerFieldName.contains("mobile")) {
+            return MaskMode.PHONE;
+        }
+        if (lowerFieldName.contains("username") || lowerFieldName.contains("accountname")) {
+            return MaskMode.USERNAME;
+        }
+        if (lowerFieldName.contains("vin") || lowerFieldName.contains("vehicleidentification")) {
+            return MaskMode.VIN;
+        }
+        return MaskMode.PARTIAL;
+    }
+
+    private static void addPattern(String pattern, byte flag, List<int[]> gotos, List<Byte> flags) {
+        String lower = pattern.toLowerCase(Locale.ROOT);
+        if (lower.isEmpty()) {
+            throw new IllegalArgumentException("Empty field pattern");
+        }
+        int state = ROOT;
+        for (int i = 0; i < lower.length(); i++) {
+            int letter = lower.charAt(i) - 'a';
+            if (letter < 0 || letter >= ALPHABET_SIZE) {
+                throw new IllegalArgumentException("Field pattern must only contain letters: " + pattern);
+            }
+            int next = gotos.get(state)[letter];
+            if (next < 0) {
+                next = gotos.size();
+                gotos.add(newRow());
+                flags.add((byte) 0);
+                gotos.get(state)[letter] = next;
+            }
+            state = next;
+        }
+        flags.set(state, (byte) (flags.get(state) | flag));
+    }
+
+    /**
+     * Turns the trie into a complete transition table, following failure links breadth first.
+     */
+    private void compile(List<int[]> gotos) {
+        int[] failure = new int[gotos.size()];
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int letter = 0; letter < ALPHABET_SIZE; letter++) {
+            int next = gotos.get(ROOT)[letter];
+            if (next < 0) {
+                transitions[ROOT * ALPHABET_SIZE + letter] = ROOT;
+            } else {
+                transitions[ROOT * ALPHABET_SIZE + letter] = next;
+                failure[next] = ROOT;
+                queue.add(next);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.remove();
+            // A state matches everything its longest proper suffix state matches
+            outputs[state] |= outputs[failure[state]];
+            for (int letter = 0; letter < ALPHABET_SIZE; letter++) {
+                int next = gotos.get(state)[letter];
+                int fallback = transitions[failure[state] * ALPHABET_SIZE + letter];
+                if (next < 0) {
+                    transitions[state * ALPHABET_SIZE + letter] = fallback;
+                } else {
+                    transitions[state * ALPHABET_SIZE + letter] = next;
+                    failure[next] = fallback;
+                    queue.add(next);
+                }
+            }
+        }
+    }
+
+    private static int[] newRow() {
+        int[] row = new int[ALPHABET_SIZE];
+        Arrays.fill(row, -1);
+        return row;
+    }
+}
@@ -17,13 +17,19 @@
 
 package org.eclipse.ecsp.audit.util;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import lombok.extern.slf4j.Slf4j;
+import org.eclipse.ecsp.audit.util.PiiFieldClassifier.MaskMode;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -38,6 +44,9 @@ import java.util.Map;
  *   (password, token, keys)</li>
  * </ul>
  *
+ * <p>Field names are classified by a {@link PiiFieldClassifier} compiled from the field lists below, and maps are
+ * masked while they are serialized, without building a JSON tree first.</p>
+ *
  */
 @Slf4j
 public final class PiiMasker {
@@ -128,6 +137,9 @@ public final class PiiMasker {
         "birthDate"
     );
     
+    private static final PiiFieldClassifier CLASSIFIER = new PiiFieldClassifier(
+        concat(FULL_MASK_FIELDS, SENSITIVE_PERSONAL_FIELDS), PARTIAL_MASK_FIELDS);
+    
     private PiiMasker() {
         // Utility class
     }
@@ -164,14 +176,14 @@ public final class PiiMasker {
             return null;
         }
         
-        try {
-            JsonNode node = OBJECT_MAPPER.valueToTree(map);
-            maskNode(node);
-            return OBJECT_MAPPER.writeValueAsString(node);
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = OBJECT_MAPPER.createGenerator(writer)) {
+            writeMaskedObject(generator, map);
         } catch (Exception e) {
             log.error("Failed to mask and serialize map: {}", e.getMessage());
             return null;
         }
+        return writer.toString();
     }
     
     /**
@@ -190,10 +202,11 @@ public final class PiiMasker {
             JsonNode value = entry.getValue();
             
             // Determine masking strategy
-            if (shouldFullyMask(fieldName)) {
+            MaskMode mode = CLASSIFIER.classify(fieldName);
+            if (mode == MaskMode.FULL) {
                 objectNode.put(fieldName, MASK_VALUE);
-            } else if (shouldPartiallyMask(fieldName) && value.isTextual()) {
-                String maskedValue = applyPartialMask(fieldName, value.asText());
+            } else if (mode.isPartial() && value.isTextual()) {
+                String maskedValue = applyPartialMask(mode, value.asText());
                 objectNode.put(fieldName, maskedValue);
             } else if (value.isObject()) {
                 // Recursively mask nested objects
@@ -205,43 +218,102 @@ public final class PiiMasker {
         });
     }
     
+    /**
+     * Write a map as a JSON object, masking PII fields the same way {@link #maskNode(JsonNode)} masks the JSON tree
+     * of the map.
+     *
+     * @param generator generator to write to
+     * @param map map to write
+     * @throws IOException if writing fails
+     */
+    private static void writeMaskedObject(JsonGenerator generator, Map<?, ?> map) throws IOException {
+        generator.writeStartObject();
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (entry.getKey() == null) {
+                throw new IllegalArgumentException("Null key for a Map not allowed in JSON");
+            }
+            String fieldName = entry.getKey().toString();
+            generator.writeFieldName(fieldName);
+            writeMaskedValue(generator, fieldName, entry.getValue());
+        }
+        generator.writeEndObject();
+    }
+    
+    private static void writeMaskedValue(JsonGenerator generator, String fieldName, Object value) throws IOException {
+        MaskMode mode = CLASSIFIER.classify(fieldName);
+        if (mode == MaskMode.FULL) {
+            generator.writeString(MASK_VALUE);
+        } else if (value instanceof String text) {
+            generator.writeString(mode.isPartial() ? applyPartialMask(mode, text) : text);
+        } else if (value instanceof Map<?, ?> nested) {
+            writeMaskedObject(generator, nested);
+        } else if (value instanceof Collection<?> elements) {
+            generator.writeStartArray();
+            for (Object element : elements) {
+                writeMaskedElement(generator, element);
+            }
+            generator.writeEndArray();
+        } else if (value == null || value instanceof Number || value instanceof Boolean) {
+            generator.writeObject(value);
+        } else {
+            // Other values, e.g. enums or POJOs, are masked in the tree form their serializer produces
+            JsonNode node = OBJECT_MAPPER.valueToTree(value);
+            if (mode.isPartial() && node.isTextual()) {
+                generator.writeString(applyPartialMask(mode, node.asText()));
+                return;
+            }
+            maskValueNode(node);
+            generator.writeTree(node);
+        }
+    }
+    
+    private static void writeMaskedElement(JsonGenerator generator, Object element) throws IOException {
+        if (element instanceof Map<?, ?> nested) {
+            writeMaskedObject(generator, nested);
+        } else if (element instanceof String || element instanceof Collection<?>
+            || element == null || element instanceof Number || element instanceof Boolean) {
+            // Only objects within arrays are masked
+            generator.writeObject(element);
+        } else {
+            JsonNode node = OBJECT_MAPPER.valueToTree(element);
+            maskNode(node);
+            generator.writeTree(node);
+        }
+    }
+    
+    private static void maskValueNode(JsonNode node) {
+        if (node.isArray()) {
+            node.forEach(PiiMasker::maskNode);
+        } else {
+            maskNode(node);
+        }
+    }
+    
     /**
      * Apply partial masking to a value based on field type.
      * Uses industry-standard masking strategies for different field types.
      *
-     * @param fieldName field name to determine masking strategy
+     * @param mode partial mask mode of the field
      * @param value original value
      * @return partially masked value
      */
-    private static String applyPartialMask(String fieldName, String value) {
+    private static String applyPartialMask(MaskMode mode, String value) {
         if (value == null || value.isEmpty()) {
             return MASK_VALUE;
         }
         
-        String lowerFieldName = fieldName.toLowerCase();
-        
-        // Email masking: show first 2-3 chars + full domain (te***@example.com)
-        if (lowerFieldName.contains("email")) {
-            return maskEmail(value);
-        }
-        
-        // Phone masking: show last 4 digits only (******7890)
-        if (lowerFieldName.contains("phone") || lowerFieldName.contains("mobile")) {
-            return maskPhone(value);
-        }
-        
-        // Username masking: show first 2 + last 2 chars (jo***th)
-        if (lowerFieldName.contains("username") || lowerFieldName.contains("accountname")) {
-            return maskUsername(value);
-        }
-        
-        // VIN masking: show last 4 chars (******2345)
-        if (lowerFieldName.contains("vin") || lowerFieldName.contains("vehicleidentification")) {
-            return maskVin(value);
-        }
-        
-        // Default: show last 4 characters for other identification fields
-        return maskDefault(value);
+        return switch (mode) {
+            // Email masking: show first 2-3 chars + full domain (te***@example.com)
+            case EMAIL -> maskEmail(value);
+            // Phone masking: show last 4 digits only (******7890)
+            case PHONE -> maskPhone(value);
+            // Username masking: show first 2 + last 2 chars (jo***th)
+            case USERNAME -> maskUsername(value);
+            // VIN masking: show last 4 chars (******2345)
+            case VIN -> maskVin(value);
+            // Default: show last 4 characters for other identification fields
+            default -> maskDefault(value);
+        };
     }
     
     /**
@@ -341,37 +413,9 @@ public final class PiiMasker {
         return PARTIAL_MASK_PREFIX + visiblePart;
     }
     
-    /**
-     * Check if a field should be fully masked (no visible characters).
-     *
-     * @param fieldName field name to check
-     * @return true if field should be fully masked
-     */
-    private static boolean shouldFullyMask(String fieldName) {
-        if (fieldName == null) {
-            return false;
-        }
-        
-        String lowerFieldName = fieldName.toLowerCase();
-        return FULL_MASK_FIELDS.stream()
-            .anyMatch(field -> lowerFieldName.contains(field.toLowerCase()))
-            || SENSITIVE_PERSONAL_FIELDS.stream()
-            .anyMatch(field -> lowerFieldName.contains(field.toLowerCase()));
-    }
-    
-    /**
-     * Check if a field should be partially masked (show last 4 characters).
-     *
-     * @param fieldName field name to check
-     * @return true if field should be partially masked
-     */
-    private static boolean shouldPartiallyMask(String fieldName) {
-        if (fieldName == null) {
-            return false;
-        }
-        
-        String lowerFieldName = fieldName.toLowerCase();
-        return PARTIAL_MASK_FIELDS.stream()
-            .anyMatch(field -> lowerFieldName.contains(field.toLowerCase()));
+    private static List<String> concat(List<String> first, List<String> second) {
+        List<String> all = new ArrayList<>(first);
+        all.addAll(second);
+        return all;
     }
 }
@@ -22,6 +22,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.eclipse.ecsp.audit.logger.AuditLogger;
 import org.eclipse.ecsp.oauth2.server.core.authentication.tokens.CustomUserPwdAuthenticationToken;
+import org.eclipse.ecsp.oauth2.server.core.client.TenantWebClientRegistry;
 import org.eclipse.ecsp.oauth2.server.core.exception.PatternMismatchException;
 import org.eclipse.ecsp.oauth2.server.core.metrics.AuthorizationMetricsService;
 import org.eclipse.ecsp.oauth2.server.core.service.TenantConfigurationService;
@@ -61,14 +62,16 @@ public class CustomUserPwdAuthenticationFilter extends UsernamePasswordAuthentic
      * @param tenantConfigurationService The TenantConfigurationService to be used for configuring tenants.
      * @param authorizationMetricsService The AuthorizationMetricsService to be used for metrics collection.
      * @param auditLogger The AuditLogger for logging authentication events.
+     * @param webClientRegistry The registry of the pre-built per-tenant WebClients used for reCAPTCHA verification.
      */
     public CustomUserPwdAuthenticationFilter(AuthenticationManager authenticationManager,
                                              TenantConfigurationService tenantConfigurationService,
                                              AuthorizationMetricsService authorizationMetricsService,
-                                             AuditLogger auditLogger) {
+                                             AuditLogger auditLogger,
+                                             TenantWebClientRegistry webClientRegistry) {
         super(authenticationManager);
         captchaServiceImpl = new CaptchaServiceImpl(tenantConfigurationService, authorizationMetricsService,
-                                                    auditLogger);
+                                                    auditLogger, webClientRegistry);
     }
 
     /**
@@ -27,6 +27,8 @@ import org.eclipse.ecsp.oauth2.server.core.audit.context.PasswordAuthenticationC
 import org.eclipse.ecsp.oauth2.server.core.audit.context.UserActorContext;
 import org.eclipse.ecsp.oauth2.server.core.audit.enums.AuditEventType;
 import org.eclipse.ecsp.oauth2.server.core.authentication.tokens.CustomUserPwdAuthenticationToken;
+import org.eclipse.ecsp.oauth2.server.core.cache.UserDetailsCache;
+import org.eclipse.ecsp.oauth2.server.core.client.DownstreamCallExecutor;
 import org.eclipse.ecsp.oauth2.server.core.client.UserManagementClient;
 import org.eclipse.ecsp.oauth2.server.core.common.constants.IgniteOauth2CoreConstants;
 import org.eclipse.ecsp.oauth2.server.core.config.tenantproperties.TenantProperties;
@@ -51,6 +53,8 @@ import org.springframework.stereotype.Component;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import static org.eclipse.ecsp.oauth2.server.core.client.DownstreamCallExecutor.USER_DETAILS_OPERATION;
+import static org.eclipse.ecsp.oauth2.server.core.client.DownstreamCallExecutor.USER_EVENT_OPERATION;
 import static org.eclipse.ecsp.oauth2.server.core.common.constants.IgniteOauth2CoreConstants.LOGIN_ATTEMPT;
 import static org.eclipse.ecsp.oauth2.server.core.common.constants.IgniteOauth2CoreConstants.SESSION_USER_RESPONSE_CAPTCHA_ENABLED;
 import static org.eclipse.ecsp.oauth2.server.core.common.constants.IgniteOauth2CoreConstants.SESSION_USER_RESPONSE_ENFORCE_AFTER_NO_OF_FAILURES;
@@ -74,6 +78,8 @@ public class CustomUserPwdAuthenticationProvider implements AuthenticationProvid
     private final HttpServletRequest request;
     private final AuthorizationMetricsService metricsService;
     private final AuditLogger auditLogger;
+    private final DownstreamCallExecutor downstreamCallExecutor;
+    private final UserDetailsCache userDetailsCache;
 
     /**
      * Constructor for CustomUserPwdAuthenticationProvider.
@@ -83,17 +89,23 @@ public class CustomUserPwdAuthenticationProvider implements AuthenticationProvid
      * @param request the HTTP servlet request
      * @param metricsService the authorization metrics service
      * @param auditLogger the audit logger
+     * @param downstreamCallExecutor the executor running the user management calls within the login deadline
+     * @param userDetailsCache the cache the fetched user details are shared through with token customization
      */
     public CustomUserPwdAuthenticationProvider(UserManagementClient userManagementClient,
                                                TenantConfigurationService tenantConfigurationService,
                                                HttpServletRequest request,
                                                AuthorizationMetricsService metricsService,
-                                               AuditLogger auditLogger) {
+                                               AuditLogger auditLogger,
+                                               DownstreamCallExecutor downstreamCallExecutor,
+                                               UserDetailsCache userDetailsCache) {
         this.userManagementClient = userManagementClient;
         this.tenantConfigurationService = tenantConfigurationService;
         this.request = request;
         this.metricsService = metricsService;
         this.auditLogger = auditLogger;
+        this.downstreamCallExecutor = downstreamCallExecutor;
+        this.userDetailsCache = userDetailsCache;
     }
 
     /**
@@ -104,6 +116,7 @@ public class CustomUserPwdAuthenticationProvider implements AuthenticationProvid
      * granted authorities.
      * If the password is not valid, it increments the user's failed login attempts, sets the recaptcha session
      * attributes, and throws a BadCredentialsException.
+     * All calls to the UserManagementClient share one deadline, see {@link DownstreamCallExecutor}.
      *
      * @param authentication the Authentication object containing the details of the authentication request
      * @return an authenticated CustomUserPwdAuthenticationToken if the authentication is successful
@@ -111,6 +124,10 @@ public class CustomUserPwdAuthenticationProvider implements AuthenticationProvid
      */
     @Override
     public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        return downstreamCallExecutor.withDeadline(() -> authenticateWithinDeadline(authentication));
+    }
+
+    private Authentication authenticateWithinDeadline(Authentication authentication) {
         CustomUserPwdAuthenticationToken customUserPwdAuthenticationToken =
             (CustomUserPwdAuthenticationToken) authentication;
         
@@ -134,7 +151,8 @@ public class CustomUserPwdAuthenticationProvider implements AuthenticationProvid
     }
     
     /**
-     * Retrieves user details from the user management service.
+     * Retrieves user details from the user management service. The password is always checked against freshly
+     * fetched details; they are cached for the token customization of this login.
      *
      * @param username the username
      * @param accountName the account name
@@ -143,7 +161,8 @@ public class CustomUserPwdAuthenticationProvider implements AuthenticationProvid
      */
     private UserDetailsResponse getUserDetails(String username, String accountName) {
         try {
-            return userManagementClient.getUserDetailsByUsername(username, accountName);
+            return userDetailsCache.load(username, accountName, () -> downstreamCallExecutor.call(
+                USER_DETAILS_OPERATION, () -> userManagementClient.getUserDetailsByUsername(username, accountName)));
         } catch (OAuth2AuthenticationException ex) {
             logAuthenticationException(ex, username, accountName);
             throw ex;
@@ -177,6 +196,8 @@ public class CustomUserPwdAuthenticationProvider implements AuthenticationProvid
                                            TenantProperties tenantProperties,
                                            UserDetailsResponse userDetailsResponse) {
         LOGGER.info("Password validation status: FAILED for username {}", username);
+        // The failed attempt changes the login attempts and possibly the status of the user
+        userDetailsCache.evict(username);
         metricsService.incrementMetricsForTenant(tenantId,
                                                 MetricType.FAILURE_LOGIN_WRONG_PASSWORD,
                                                 MetricType.FAILURE_LOGIN_ATTEMPTS);
@@ -292,8 +313,14 @@ public class CustomUserPwdAuthenticationProvider implements AuthenticationProvid
         
         UserEvent userEvent = new UserEvent();
         userEvent.setType(IgniteOauth2CoreConstants.USER_EVENT_LOGIN_ATTEMPT);
-        addUserEvent(userEvent, IgniteOauth2CoreConstants.USER_EVENT_LOGIN_SUCCESS,
-            IgniteOauth2CoreConstants.USER_EVENT_LOGIN_SUCCESS_MSG, userDetailsResponse.getId());
+        userEvent.setResult(IgniteOauth2CoreConstants.USER_EVENT_LOGIN_SUCCESS);
+        userEvent.setMessage(IgniteOauth2CoreConstants.USER_EVENT_LOGIN_SUCCESS_MSG);
+        // The response does not depend on the login success event, so it is recorded in the background
+        String userId = userDetailsResponse.getId();
+        if (!downstreamCallExecutor.submit(USER_EVENT_OPERATION,
+                () -> userManagementClient.addUserEvent(userEvent, userId))) {
+            metricsService.incrementMetricsForTenant(tenantId, MetricType.LOGIN_USER_EVENT_DROPPED);
+        }
         
         logSuccessfulAuthentication(userDetailsResponse, username, accountName);
         
@@ -417,8 +444,8 @@ public class CustomUserPwdAuthenticationProvider implements AuthenticationProvid
     }
 
     /**
-     * This private method named addUserEvent is used to add a user event.
-     * It is called when a user's login attempt is either successful or failed.
+     * This private method named addUserEvent is used to add a user event and wait for its response.
+     * It is called when a user's login attempt failed.
      * The method takes a UserEvent object, a status string, a message string, and a userId string as parameters.
      * It sets the result and message of the UserEvent object and calls the addUserEvent method of the
      * UserManagementClient with the UserEvent object and userId.
@@ -432,7 +459,8 @@ public class CustomUserPwdAuthenticationProvider implements AuthenticationProvid
     private UserEventResponse addUserEvent(UserEvent userEvent, String status, String message, String userId) {
         userEvent.setResult(status);
         userEvent.setMessage(message);
-        return userManagementClient.addUserEvent(userEvent, userId);
+        return downstreamCallExecutor.call(USER_EVENT_OPERATION,
+            () -> userManagementClient.addUserEvent(userEvent, userId));
     }
 
     /**
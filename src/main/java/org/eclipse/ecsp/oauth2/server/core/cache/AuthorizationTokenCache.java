@@ -0,0 +1,249 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.oauth2.server.core.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import org.eclipse.ecsp.oauth2.server.core.metrics.AuthorizationMetricsService;
+import org.eclipse.ecsp.oauth2.server.core.metrics.MetricType;
+import org.eclipse.ecsp.oauth2.server.core.util.SessionTenantResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.eclipse.ecsp.oauth2.server.core.common.constants.AuthorizationServerConstants.TENANT_ID_TAG;
+
+/**
+ * Tenant-keyed, size-bounded read-through cache in front of the authorization table for lookups by token.
+ *
+ * <p>Entries are keyed by tenant, token type and the hashed token value, so plain text tokens are never kept as
+ * cache keys. A reverse index from authorization id to cache keys allows callers that update or revoke an
+ * authorization to evict every cached lookup of it, regardless of which of its tokens was used for the lookup.
+ *
+ * <p>The cache is local to the JVM. On multi-replica deployments a revocation performed by another replica becomes
+ * visible here once the entry expires, so the expiry should be kept short.
+ */
+@Component
+public class AuthorizationTokenCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AuthorizationTokenCache.class);
+
+    private static final String DEFAULT_TENANT = "default";
+    private static final String ANY_TOKEN_TYPE = "any";
+    private static final String KEY_SEPARATOR = "|";
+    private static final String CAUSE_TAG = "cause";
+
+    private final AuthorizationMetricsService authorizationMetricsService;
+    private final boolean enabled;
+    private final long maxSize;
+    private final Duration expireAfterWrite;
+
+    private final ConcurrentHashMap<String, TenantTokenCache> tenantCaches = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for AuthorizationTokenCache.
+     *
+     * @param authorizationMetricsService the metrics service used to publish hit, miss and eviction counters
+     * @param enabled whether lookups are cached at all
+     * @param maxSize the maximum number of cached lookups per tenant
+     * @param expireAfterWriteSeconds the time after which a cached lookup is discarded
+     */
+    public AuthorizationTokenCache(AuthorizationMetricsService authorizationMetricsService,
+                                   @Value("${authorization.token.cache.enabled:false}") boolean enabled,
+                                   @Value("${authorization.token.cache.max.size:10000}") long maxSize,
+                                   @Value("${authorization.token.cache.expire.seconds:30}")
+                                   long expireAfterWriteSeconds) {
+        this.authorizationMetricsService = authorizationMetricsService;
+        this.enabled = enabled;
+        this.maxSize = maxSize;
+        this.expireAfterWrite = Duration.ofSeconds(expireAfterWriteSeconds);
+        LOGGER.info("Authorization token cache enabled: {}, max size per tenant: {}, expire after write: {}",
+            enabled, maxSize, this.expireAfterWrite);
+    }
+
+    /**
+     * Creates a cache that always delegates to the loader. Used where no cache bean is available.
+     *
+     * @return a disabled AuthorizationTokenCache
+     */
+    public static AuthorizationTokenCache disabled() {
+        return new AuthorizationTokenCache(null, false, 0, 0);
+    }
+
+    /**
+     * Returns the cached authorization for the hashed token of the current tenant, or loads it with the given
+     * loader and caches the result. Lookups that find no authorization are not cached.
+     *
+     * @param hashedToken the hashed token value used as cache key
+     * @param tokenType the token type of the lookup, may be null
+     * @param loader the loader reading the authorization from the database
+     * @return the authorization, or null if none was found
+     */
+    public OAuth2Authorization get(String hashedToken, OAuth2TokenType tokenType,
+                                   Supplier<OAuth2Authorization> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        String tenantId = currentTenant();
+        TenantTokenCache tenantCache = tenantCaches.computeIfAbsent(tenantId, TenantTokenCache::new);
+        String key = toKey(hashedToken, tokenType);
+
+        OAuth2Authorization cached = tenantCache.cache.getIfPresent(key);
+        if (cached != null) {
+            incrementMetrics(MetricType.AUTHORIZATION_TOKEN_CACHE_HIT, tenantId);
+            return cached;
+        }
+        incrementMetrics(MetricType.AUTHORIZATION_TOKEN_CACHE_MISS, tenantId);
+
+        long invalidationsBeforeLoad = tenantCache.invalidations.get();
+        OAuth2Authorization loaded = loader.get();
+        if (loaded != null) {
+            tenantCache.put(key, loaded);
+            // An authorization updated while it was being loaded must not stay cached in its old state
+            if (tenantCache.invalidations.get() != invalidationsBeforeLoad) {
+                tenantCache.cache.invalidate(key);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Evicts every cached lookup of the authorization with the given id for the current tenant.
+     *
+     * @param authorizationId the id of the updated, revoked or removed authorization
+     */
+    public void evict(String authorizationId) {
+        if (!enabled || !StringUtils.hasText(authorizationId)) {
+            return;
+        }
+        TenantTokenCache tenantCache = tenantCaches.get(currentTenant());
+        if (tenantCache != null) {
+            tenantCache.evict(authorizationId);
+        }
+    }
+
+    /**
+     * Evicts every cached lookup of the authorizations with the given ids for the current tenant.
+     *
+     * @param authorizationIds the ids of the updated, revoked or removed authorizations
+     */
+    public void evictAll(Collection<String> authorizationIds) {
+        if (!enabled || authorizationIds == null) {
+            return;
+        }
+        TenantTokenCache tenantCache = tenantCaches.get(currentTenant());
+        if (tenantCache != null) {
+            authorizationIds.forEach(tenantCache::evict);
+        }
+    }
+
+    /**
+     * Clears all cached lookups of the given tenant.
+     *
+     * @param tenantId the tenant whose entries should be discarded
+     */
+    public void clearTenant(String tenantId) {
+        TenantTokenCache tenantCache = tenantCaches.remove(tenantId);
+        if (tenantCache != null) {
+            tenantCache.invalidations.incrementAndGet();
+            tenantCache.cache.invalidateAll();
+            LOGGER.debug("Cleared authorization token cache for tenant: {}", tenantId);
+        }
+    }
+
+    private static String toKey(String hashedToken, OAuth2TokenType tokenType) {
+        String type = tokenType != null ? tokenType.getValue() : ANY_TOKEN_TYPE;
+        return type + KEY_SEPARATOR + hashedToken;
+    }
+
+    private static String currentTenant() {
+        String tenantId = SessionTenantResolver.getCurrentTenant();
+        return StringUtils.hasText(tenantId) ? tenantId : DEFAULT_TENANT;
+    }
+
+    private void incrementMetrics(MetricType metricType, String tenantId, String... tags) {
+        if (authorizationMetricsService == null) {
+            return;
+        }
+        String[] tagArray = new String[tags.length + 2];
+        tagArray[0] = TENANT_ID_TAG;
+        tagArray[1] = tenantId;
+        System.arraycopy(tags, 0, tagArray, 2, tags.length);
+        authorizationMetricsService.incrementMetrics(metricType, tagArray);
+    }
+
+    /**
+     * Cached lookups of a single tenant together with the reverse index from authorization id to cache keys.
+     */
+    private final class TenantTokenCache {
+        private final String tenantId;
+        private final Cache<String, OAuth2Authorization> cache;
+        private final ConcurrentHashMap<String, Set<String>> keysByAuthorizationId = new ConcurrentHashMap<>();
+        private final AtomicLong invalidations = new AtomicLong();
+
+        TenantTokenCache(String tenantId) {
+            this.tenantId = tenantId;
+            this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWrite)
+                .executor(Runnable::run)
+                .removalListener(this::onRemoval)
+                .build();
+        }
+
+        void put(String key, OAuth2Authorization authorization) {
+            keysByAuthorizationId.computeIfAbsent(authorization.getId(), id -> ConcurrentHashMap.newKeySet())
+                .add(key);
+            cache.put(key, authorization);
+        }
+
+        void evict(String authorizationId) {
+            invalidations.incrementAndGet();
+            Set<String> keys = keysByAuthorizationId.remove(authorizationId);
+            if (keys != null) {
+                cache.invalidateAll(keys);
+            }
+        }
+
+        private void onRemoval(String key, OAuth2Authorization authorization, RemovalCause cause) {
+            if (cause == RemovalCause.REPLACED) {
+                return;
+            }
+            if (authorization != null) {
+                keysByAuthorizationId.computeIfPresent(authorization.getId(), (id, keys) -> {
+                    keys.remove(key);
+                    return keys.isEmpty() ? null : keys;
+                });
+            }
+            incrementMetrics(MetricType.AUTHORIZATION_TOKEN_CACHE_EVICTION, tenantId, CAUSE_TAG, cause.name());
+        }
+    }
+}
@@ -41,4 +41,13 @@ public interface CacheClientService {
      */
     ClientCacheDetails getClientDetailsWithoutSync(String clientId, String tenantId);
 
+    /**
+     * Fetches client details from auth management, bypassing the cache. Used to refresh cached entries.
+     *
+     * @param clientId the ID of the client
+     * @param tenantId the ID of the tenant
+     * @return the client cache details, or null if the client could not be fetched
+     */
+    ClientCacheDetails fetchClientDetails(String clientId, String tenantId);
+
 }
\ No newline at end of file
@@ -19,20 +19,34 @@
 package org.eclipse.ecsp.oauth2.server.core.cache;
 
 import org.apache.commons.lang3.StringUtils;
+import org.eclipse.ecsp.oauth2.server.core.metrics.AuthorizationMetricsService;
+import org.eclipse.ecsp.oauth2.server.core.metrics.MetricType;
 import org.eclipse.ecsp.oauth2.server.core.util.SessionTenantResolver;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import static org.eclipse.ecsp.oauth2.server.core.common.constants.AuthorizationServerConstants.TENANT_ID_TAG;
+
 /**
  * Service class for handling client cache details.
+ *
+ * <p>Concurrent lookups of the same client for the same tenant are merged into a single lookup, whether or not the
+ * client is cached afterwards, so a burst of token requests of an uncached client calls auth management once.
  */
 @Service
 public class CacheClientUtils {
 
+    private static final String DEFAULT_TENANT = "default";
+
     @Autowired
     CacheClientService cacheClientService;
 
+    @Autowired
+    AuthorizationMetricsService authorizationMetricsService;
+
+    private final SingleFlight<String, ClientCacheDetails> inFlight = new SingleFlight<>();
+
     @Value("${cache.client.ids}")
     private String cacheClientIds;
 
@@ -41,12 +55,19 @@ public class CacheClientUtils {
      * If caching is enabled for all clients, it fetches the details with synchronization.
      * Otherwise, it fetches the details without synchronization.
      * The current tenant is automatically resolved and included in the cache key.
+     * A lookup of the same client for the same tenant already in flight is joined instead.
      *
      * @param clientId the ID of the client to retrieve details for
      * @return the client cache details
      */
     public ClientCacheDetails getClientDetails(String clientId) {
         String tenantId = SessionTenantResolver.getCurrentTenant();
+        return inFlight.execute(tenantId + ':' + clientId, () -> lookupClientDetails(clientId, tenantId),
+            () -> authorizationMetricsService.incrementMetrics(MetricType.CLIENT_LOOKUP_COALESCED, TENANT_ID_TAG,
+                StringUtils.isNotEmpty(tenantId) ? tenantId : DEFAULT_TENANT));
+    }
+
+    private ClientCacheDetails lookupClientDetails(String clientId, String tenantId) {
         if (StringUtils.isNotEmpty(cacheClientIds) && (cacheClientIds.equalsIgnoreCase("ALL"))) {
             return cacheClientService.getClientDetailsWithSync(clientId, tenantId);
         } else {
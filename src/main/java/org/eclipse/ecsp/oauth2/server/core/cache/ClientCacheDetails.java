@@ -34,5 +34,6 @@ public class ClientCacheDetails {
     private String accountName;
     private String accountId;
     private boolean cache;
+    private long fetchedAtMillis;
 
 }
\ No newline at end of file
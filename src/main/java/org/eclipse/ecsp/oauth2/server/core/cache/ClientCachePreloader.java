@@ -0,0 +1,109 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.oauth2.server.core.cache;
+
+import org.eclipse.ecsp.oauth2.server.core.service.TenantConfigurationService;
+import org.eclipse.ecsp.oauth2.server.core.util.SessionTenantResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.eclipse.ecsp.oauth2.server.core.common.constants.IgniteOauth2CoreConstants.COMMA_DELIMITER;
+
+/**
+ * Loads the clients listed in {@code cache.client.ids} into the client cache for every configured tenant once the
+ * application is ready, so the first token requests of the hot clients do not all call auth management.
+ *
+ * <p>Preloading runs before the application reports that it accepts traffic. Clients that cannot be fetched are
+ * skipped and loaded on their first lookup instead. Nothing is preloaded when all clients are cached
+ * ({@code cache.client.ids=ALL}), as there is no list of clients to load.
+ */
+@Component
+public class ClientCachePreloader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClientCachePreloader.class);
+
+    private static final String ALL_CLIENTS = "ALL";
+
+    private final CacheClientService cacheClientService;
+    private final TenantConfigurationService tenantConfigurationService;
+    private final boolean enabled;
+    private final List<String> clientIds;
+
+    /**
+     * Constructor for ClientCachePreloader.
+     *
+     * @param cacheClientService the cached service the clients are loaded through
+     * @param tenantConfigurationService the service providing the configured tenants
+     * @param enabled whether the hot clients are preloaded at startup
+     * @param cacheClientIds the comma separated IDs of the hot clients
+     */
+    public ClientCachePreloader(CacheClientService cacheClientService,
+                                TenantConfigurationService tenantConfigurationService,
+                                @Value("${cache.client.preload.enabled:false}") boolean enabled,
+                                @Value("${cache.client.ids:}") String cacheClientIds) {
+        this.cacheClientService = cacheClientService;
+        this.tenantConfigurationService = tenantConfigurationService;
+        this.enabled = enabled;
+        this.clientIds = !StringUtils.hasText(cacheClientIds) || ALL_CLIENTS.equalsIgnoreCase(cacheClientIds)
+            ? List.of()
+            : Arrays.stream(cacheClientIds.split(COMMA_DELIMITER)).map(String::trim).filter(StringUtils::hasText)
+                .toList();
+    }
+
+    /**
+     * Loads the hot clients of all tenants into the client cache.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        if (!enabled || clientIds.isEmpty()) {
+            return;
+        }
+        Set<String> tenantIds = tenantConfigurationService.getAllTenants();
+        int loaded = 0;
+        for (String tenantId : tenantIds) {
+            for (String clientId : clientIds) {
+                if (preload(tenantId, clientId)) {
+                    loaded++;
+                }
+            }
+        }
+        LOGGER.info("Preloaded {} of {} hot clients for {} tenants", loaded, clientIds.size() * tenantIds.size(),
+            tenantIds.size());
+    }
+
+    private boolean preload(String tenantId, String clientId) {
+        try {
+            return SessionTenantResolver.callWithTenant(tenantId,
+                () -> cacheClientService.getClientDetailsWithoutSync(clientId, tenantId)) != null;
+        } catch (RuntimeException e) {
+            // The client is loaded on its first lookup instead
+            LOGGER.warn("Failed to preload client {} for tenant {}", clientId, tenantId, e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.oauth2.server.core.cache;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import org.eclipse.ecsp.oauth2.server.core.metrics.AuthorizationMetricsService;
+import org.eclipse.ecsp.oauth2.server.core.metrics.MetricType;
+import org.eclipse.ecsp.oauth2.server.core.util.SessionTenantResolver;
+import org.eclipse.ecsp.oauth2.server.core.utils.InputSanitizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+
+import static org.eclipse.ecsp.oauth2.server.core.common.constants.AuthorizationServerConstants.TENANT_ID_TAG;
+
+/**
+ * Refreshes the entries of the client cache in the background once they are older than the refresh interval, see
+ * {@code cache.refresh.mins}.
+ *
+ * <p>Entries are only ever added by the cached methods of {@link CacheClientService}, which decide whether a client
+ * is cached at all, so {@link #load(Object)} finds nothing. {@link #reload(Object, Object)} fetches the client again
+ * for the tenant in the cache key while lookups keep being served the current entry. When auth management fails to
+ * return the client, the current entry is kept until it is older than the stale limit, so a slow or unavailable auth
+ * management does not make all hot clients miss at once.
+ */
+@Component
+public class ClientDetailsCacheLoader implements CacheLoader<Object, Object> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClientDetailsCacheLoader.class);
+
+    private static final char KEY_SEPARATOR = ':';
+    private static final String NO_TENANT = "null";
+
+    private final CacheClientService cacheClientService;
+    private final AuthorizationMetricsService authorizationMetricsService;
+    private final long staleLimitMillis;
+
+    /**
+     * Constructor for ClientDetailsCacheLoader.
+     *
+     * @param cacheClientService the service fetching clients from auth management
+     * @param authorizationMetricsService the metrics service used to publish refresh and stale counters
+     * @param staleLimitMins the time after its last successful fetch until which an entry is kept when its refresh
+     *                       fails
+     */
+    public ClientDetailsCacheLoader(CacheClientService cacheClientService,
+                                    AuthorizationMetricsService authorizationMetricsService,
+                                    @Value("${cache.stale.max.mins:${cache.expire.mins}}") long staleLimitMins) {
+        this.cacheClientService = cacheClientService;
+        this.authorizationMetricsService = authorizationMetricsService;
+        this.staleLimitMillis = Duration.ofMinutes(staleLimitMins).toMillis();
+    }
+
+    /**
+     * Finds nothing; entries are added by the cached methods of {@link CacheClientService} only.
+     *
+     * @param key the cache key
+     * @return null
+     */
+    @Override
+    public Object load(Object key) {
+        return null;
+    }
+
+    /**
+     * Fetches the client of the given cache key again, or keeps the current entry if the fetch fails and the entry
+     * is not older than the stale limit.
+     *
+     * @param key the cache key, the tenant and the client ID separated by a colon
+     * @param oldValue the current entry
+     * @return the refreshed entry, the current entry, or null to remove the entry
+     */
+    @Override
+    public Object reload(Object key, Object oldValue) {
+        String cacheKey = String.valueOf(key);
+        int separator = cacheKey.indexOf(KEY_SEPARATOR);
+        if (separator < 0) {
+            return null;
+        }
+        String tenantId = cacheKey.substring(0, separator);
+        String clientId = cacheKey.substring(separator + 1);
+        ClientCacheDetails refreshed = fetch(clientId, tenantId);
+        if (refreshed != null) {
+            incrementMetrics(MetricType.CLIENT_CACHE_REFRESH, tenantId);
+            return refreshed;
+        }
+        if (oldValue instanceof ClientCacheDetails current
+            && System.currentTimeMillis() - current.getFetchedAtMillis() < staleLimitMillis) {
+            LOGGER.warn("Refresh of client {} for tenant {} failed, keeping the cached client",
+                InputSanitizer.forLog(clientId), tenantId);
+            incrementMetrics(MetricType.CLIENT_CACHE_STALE_SERVED, tenantId);
+            return current;
+        }
+        return null;
+    }
+
+    private ClientCacheDetails fetch(String clientId, String tenantId) {
+        try {
+            if (!StringUtils.hasText(tenantId) || NO_TENANT.equals(tenantId)) {
+                return cacheClientService.fetchClientDetails(clientId, null);
+            }
+            return SessionTenantResolver.callWithTenant(tenantId,
+                () -> cacheClientService.fetchClientDetails(clientId, tenantId));
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed to refresh client {} for tenant {}", InputSanitizer.forLog(clientId), tenantId, e);
+            return null;
+        }
+    }
+
+    private void incrementMetrics(MetricType metricType, String tenantId) {
+        authorizationMetricsService.incrementMetrics(metricType, TENANT_ID_TAG, tenantId);
+    }
+}
@@ -0,0 +1,283 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.oauth2.server.core.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import org.eclipse.ecsp.oauth2.server.core.metrics.AuthorizationMetricsService;
+import org.eclipse.ecsp.oauth2.server.core.metrics.MetricType;
+import org.eclipse.ecsp.oauth2.server.core.util.SessionTenantResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.eclipse.ecsp.oauth2.server.core.common.constants.AuthorizationServerConstants.TENANT_ID_TAG;
+
+/**
+ * Tenant-keyed, size-bounded cache of token introspection results, so that introspecting a hot token neither
+ * verifies its signature again nor reads the authorization table.
+ *
+ * <p>Entries are keyed by tenant and hashed token. An active result is kept for at most the configured time to live
+ * and never beyond the expiry of the token. Inactive results, i.e. unknown, revoked or expired tokens, are kept for
+ * the negative time to live, which can be set to zero to disable negative caching. A reverse index from
+ * authorization id to cache keys allows every path that revokes or updates an authorization to evict its results.
+ *
+ * <p>The cache is local to the JVM. On multi-replica deployments a revocation performed by another replica becomes
+ * visible here once the entry expires, so the time to live should be kept short.
+ */
+@Component
+public class IntrospectionResultCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IntrospectionResultCache.class);
+
+    private static final String DEFAULT_TENANT = "default";
+    private static final String KEY_SEPARATOR = "|";
+
+    private final AuthorizationMetricsService authorizationMetricsService;
+    private final boolean enabled;
+    private final Duration timeToLive;
+    private final Duration negativeTimeToLive;
+    private final Cache<String, IntrospectionResult> cache;
+    private final ConcurrentHashMap<String, Set<String>> keysByAuthorizationId = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * Constructor for IntrospectionResultCache.
+     *
+     * @param authorizationMetricsService the metrics service used to publish hit and miss counters
+     * @param enabled whether introspection results are cached at all
+     * @param maxSize the maximum number of cached results over all tenants
+     * @param timeToLiveSeconds the maximum time an active result is cached
+     * @param negativeTimeToLiveSeconds the time an inactive result is cached, zero to not cache inactive results
+     */
+    public IntrospectionResultCache(AuthorizationMetricsService authorizationMetricsService,
+                                    @Value("${introspection.cache.enabled:false}") boolean enabled,
+                                    @Value("${introspection.cache.max.size:10000}") long maxSize,
+                                    @Value("${introspection.cache.ttl.seconds:30}") long timeToLiveSeconds,
+                                    @Value("${introspection.cache.negative.ttl.seconds:5}")
+                                    long negativeTimeToLiveSeconds) {
+        this.authorizationMetricsService = authorizationMetricsService;
+        this.enabled = enabled;
+        this.timeToLive = Duration.ofSeconds(timeToLiveSeconds);
+        this.negativeTimeToLive = Duration.ofSeconds(negativeTimeToLiveSeconds);
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfter(new ResultExpiry())
+            .executor(Runnable::run)
+            .removalListener(this::onRemoval)
+            .build();
+        LOGGER.info("Introspection cache enabled: {}, max size: {}, time to live: {}, negative time to live: {}",
+            enabled, maxSize, this.timeToLive, this.negativeTimeToLive);
+    }
+
+    /**
+     * Creates a cache that always delegates to the loader. Used where no cache bean is available.
+     *
+     * @return a disabled IntrospectionResultCache
+     */
+    public static IntrospectionResultCache disabled() {
+        return new IntrospectionResultCache(null, false, 0, 0, 0);
+    }
+
+    /**
+     * Returns the cached introspection result for the hashed token of the current tenant, or loads it with the given
+     * loader and caches the result. A null result, e.g. for a token that could not be verified, is not cached.
+     *
+     * @param hashedToken the hashed token value used as cache key
+     * @param loader the loader verifying the token and reading its authorization from the database
+     * @return the introspection result, or null if the loader returned none
+     */
+    public IntrospectionResult get(String hashedToken, Supplier<IntrospectionResult> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        String tenantId = currentTenant();
+        String key = tenantId + KEY_SEPARATOR + hashedToken;
+
+        IntrospectionResult cached = cache.getIfPresent(key);
+        if (cached != null) {
+            incrementMetrics(MetricType.INTROSPECTION_CACHE_HIT, tenantId);
+            return cached;
+        }
+        incrementMetrics(MetricType.INTROSPECTION_CACHE_MISS, tenantId);
+
+        long invalidationsBeforeLoad = invalidations.get();
+        IntrospectionResult loaded = loader.get();
+        if (loaded != null && timeToLive(loaded).isPositive()) {
+            put(tenantId, key, loaded);
+            // A token revoked while it was being introspected must not stay cached as active
+            if (invalidations.get() != invalidationsBeforeLoad) {
+                cache.invalidate(key);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Evicts the cached introspection results of the authorization with the given id for the current tenant.
+     *
+     * @param authorizationId the id of the revoked, updated or removed authorization
+     */
+    public void evict(String authorizationId) {
+        if (!enabled || !StringUtils.hasText(authorizationId)) {
+            return;
+        }
+        invalidations.incrementAndGet();
+        Set<String> keys = keysByAuthorizationId.remove(currentTenant() + KEY_SEPARATOR + authorizationId);
+        if (keys != null) {
+            cache.invalidateAll(keys);
+        }
+    }
+
+    /**
+     * Evicts the cached introspection results of the authorizations with the given ids for the current tenant.
+     *
+     * @param authorizationIds the ids of the revoked, updated or removed authorizations
+     */
+    public void evictAll(Collection<String> authorizationIds) {
+        if (!enabled || authorizationIds == null) {
+            return;
+        }
+        authorizationIds.forEach(this::evict);
+    }
+
+    /**
+     * Clears all cached introspection results, e.g. after the signing keys have been reloaded.
+     */
+    public void clearAll() {
+        if (!enabled) {
+            return;
+        }
+        invalidations.incrementAndGet();
+        cache.invalidateAll();
+        LOGGER.debug("Cleared introspection cache");
+    }
+
+    private void put(String tenantId, String key, IntrospectionResult result) {
+        if (StringUtils.hasText(result.authorizationId())) {
+            keysByAuthorizationId.computeIfAbsent(tenantId + KEY_SEPARATOR + result.authorizationId(),
+                id -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+        cache.put(key, result);
+    }
+
+    private void onRemoval(String key, IntrospectionResult result, RemovalCause cause) {
+        if (cause == RemovalCause.REPLACED || key == null || result == null
+            || !StringUtils.hasText(result.authorizationId())) {
+            return;
+        }
+        String tenantId = key.substring(0, key.indexOf(KEY_SEPARATOR));
+        keysByAuthorizationId.computeIfPresent(tenantId + KEY_SEPARATOR + result.authorizationId(), (id, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    private Duration timeToLive(IntrospectionResult result) {
+        if (!result.active()) {
+            return negativeTimeToLive;
+        }
+        if (result.expiresAt() == null) {
+            return timeToLive;
+        }
+        Duration untilExpiry = Duration.between(Instant.now(), result.expiresAt());
+        return untilExpiry.compareTo(timeToLive) < 0 ? untilExpiry : timeToLive;
+    }
+
+    private static String currentTenant() {
+        String tenantId = SessionTenantResolver.getCurrentTenant();
+        return StringUtils.hasText(tenantId) ? tenantId : DEFAULT_TENANT;
+    }
+
+    private void incrementMetrics(MetricType metricType, String tenantId) {
+        if (authorizationMetricsService != null) {
+            authorizationMetricsService.incrementMetrics(metricType, TENANT_ID_TAG, tenantId);
+        }
+    }
+
+    /**
+     * Result of introspecting a token.
+     *
+     * @param active whether the token is active, i.e. known, not revoked and not expired
+     * @param authorizationId the id of the authorization holding the token, null if the token is unknown
+     * @param scopes the scopes of an active token
+     * @param expiresAt the expiry of an active token, null if unknown
+     */
+    public record IntrospectionResult(boolean active, String authorizationId, Set<String> scopes,
+                                      Instant expiresAt) {
+
+        /**
+         * Creates the result for an active token.
+         *
+         * @param authorizationId the id of the authorization holding the token
+         * @param scopes the scopes of the token
+         * @param expiresAt the expiry of the token
+         * @return the result
+         */
+        public static IntrospectionResult active(String authorizationId, Set<String> scopes, Instant expiresAt) {
+            return new IntrospectionResult(true, authorizationId, Set.copyOf(scopes), expiresAt);
+        }
+
+        /**
+         * Creates the result for an unknown, revoked or expired token.
+         *
+         * @param authorizationId the id of the authorization holding the token, null if the token is unknown
+         * @return the result
+         */
+        public static IntrospectionResult inactive(String authorizationId) {
+            return new IntrospectionResult(false, authorizationId, Set.of(), null);
+        }
+    }
+
+    /**
+     * Expires each result after its own time to live.
+     */
+    private final class ResultExpiry implements Expiry<String, IntrospectionResult> {
+
+        @Override
+        public long expireAfterCreate(String key, IntrospectionResult result, long currentTime) {
+            return Math.max(0L, timeToLive(result).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, IntrospectionResult result, long currentTime,
+                                      long currentDuration) {
+            return expireAfterCreate(key, result, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, IntrospectionResult result, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,425 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.oauth2.server.core.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.eclipse.ecsp.oauth2.server.core.entities.AuthorizationSecurityContext;
+import org.eclipse.ecsp.oauth2.server.core.metrics.AuthorizationMetricsService;
+import org.eclipse.ecsp.oauth2.server.core.metrics.MetricType;
+import org.eclipse.ecsp.oauth2.server.core.repositories.AuthorizationSecurityContextRepository;
+import org.eclipse.ecsp.oauth2.server.core.util.SessionTenantResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.eclipse.ecsp.oauth2.server.core.common.constants.AuthorizationServerConstants.TENANT_ID_TAG;
+
+/**
+ * Tenant-keyed near-cache of the authenticated security contexts of browser sessions, so that a request of an
+ * authenticated session is served without reading the authorization_security_context table.
+ *
+ * <p>Entries hold the decoded context, i.e. the parsed authorities and, for federated logins, the deserialized
+ * principal, and are keyed by tenant and session id. Only authenticated contexts are cached. Every path that
+ * unauthenticates a session, like logout, revocation or a session timeout, invalidates its entry.
+ *
+ * <p>Saving a context that only differs from the cached one in its UPDATED_DATE is a touch. Touches are coalesced:
+ * the cached UPDATED_DATE moves forward at once, while the database row is written at most once per session per
+ * touch interval, in the background. A request of the session from another client IP address is a change, so the
+ * REMOTE_IP_ADDRESS column keeps recording the last address the session was used from.
+ *
+ * <p>The cache is local to the JVM. On multi-replica deployments a logout performed by another replica becomes
+ * visible here once the entry expires, so the expiry should be kept short unless sessions are sticky.
+ */
+@Component
+public class SecurityContextCache implements DisposableBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SecurityContextCache.class);
+
+    private static final String DEFAULT_TENANT = "default";
+    private static final String KEY_SEPARATOR = "|";
+
+    private final AuthorizationSecurityContextRepository authorizationSecurityContextRepository;
+    private final AuthorizationMetricsService authorizationMetricsService;
+    private final boolean enabled;
+    private final long touchIntervalMillis;
+    private final Cache<String, CachedSecurityContext> cache;
+    private final ConcurrentHashMap<String, PendingTouch> pendingTouches = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * Constructor for SecurityContextCache.
+     *
+     * @param authorizationSecurityContextRepository the repository the coalesced touches are written to
+     * @param authorizationMetricsService the metrics service used to publish hit and miss counters
+     * @param enabled whether security contexts are cached at all
+     * @param maxSize the maximum number of cached sessions over all tenants
+     * @param expireAfterWriteSeconds the time after which a cached context is read from the database again
+     * @param touchIntervalMillis the minimum time between two UPDATED_DATE writes of a session
+     */
+    public SecurityContextCache(AuthorizationSecurityContextRepository authorizationSecurityContextRepository,
+                                AuthorizationMetricsService authorizationMetricsService,
+                                @Value("${security.context.cache.enabled:false}") boolean enabled,
+                                @Value("${security.context.cache.max.size:10000}") long maxSize,
+                                @Value("${security.context.cache.expire.seconds:60}") long expireAfterWriteSeconds,
+                                @Value("${security.context.cache.touch.interval.ms:60000}") long touchIntervalMillis) {
+        this.authorizationSecurityContextRepository = authorizationSecurityContextRepository;
+        this.authorizationMetricsService = authorizationMetricsService;
+        this.enabled = enabled;
+        this.touchIntervalMillis = touchIntervalMillis;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds))
+            .executor(Runnable::run)
+            .build();
+        LOGGER.info("Security context cache enabled: {}, max size: {}, expire after write: {}s, touch interval: {}ms",
+            enabled, maxSize, expireAfterWriteSeconds, touchIntervalMillis);
+    }
+
+    /**
+     * Creates a cache that caches nothing. Used where no cache bean is available.
+     *
+     * @return a disabled SecurityContextCache
+     */
+    public static SecurityContextCache disabled() {
+        return new SecurityContextCache(null, null, false, 0, 0, 0);
+    }
+
+    /**
+     * Returns the cached security context of the session for the current tenant, or loads it with the given loader
+     * and caches the result. Sessions without authenticated context, for which the loader returns null, are not
+     * cached.
+     *
+     * @param sessionId the session id
+     * @param loader the loader reading and decoding the context from the database
+     * @return the context, or null if the session has no authenticated context
+     */
+    public CachedSecurityContext get(String sessionId, Supplier<CachedSecurityContext> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        String tenantId = currentTenant();
+        String key = toKey(tenantId, sessionId);
+        CachedSecurityContext cached = cache.getIfPresent(key);
+        if (cached != null) {
+            incrementMetrics(MetricType.SECURITY_CONTEXT_CACHE_HIT, tenantId);
+            return cached;
+        }
+        incrementMetrics(MetricType.SECURITY_CONTEXT_CACHE_MISS, tenantId);
+
+        long invalidationsBeforeLoad = invalidations.get();
+        CachedSecurityContext loaded = loader.get();
+        if (loaded != null) {
+            cache.put(key, loaded);
+            // A session logged out while it was being loaded must not stay cached as authenticated
+            if (invalidations.get() != invalidationsBeforeLoad) {
+                cache.invalidate(key);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Returns the cached security context of the session for the current tenant, without loading it.
+     *
+     * @param sessionId the session id
+     * @return the cached context, or null if the session is not cached
+     */
+    public CachedSecurityContext getIfPresent(String sessionId) {
+        return enabled ? cache.getIfPresent(toKey(currentTenant(), sessionId)) : null;
+    }
+
+    /**
+     * Caches the security context of the session for the current tenant, as just read from or written to the
+     * database. A touch of the session that is still pending is dropped, as the row is at least as recent.
+     *
+     * @param sessionId the session id
+     * @param context the decoded context
+     */
+    public void put(String sessionId, CachedSecurityContext context) {
+        if (!enabled) {
+            return;
+        }
+        String key = toKey(currentTenant(), sessionId);
+        pendingTouches.remove(key);
+        cache.put(key, context);
+    }
+
+    /**
+     * Coalesces saving the given context of the session into a touch of its UPDATED_DATE, if the context has the
+     * same content as the cached one and the row of the session was written less than the touch interval ago.
+     *
+     * @param sessionId the session id
+     * @param context the context about to be saved
+     * @param updatedDate the new UPDATED_DATE
+     * @return true if the save was coalesced and must not be written now, false if the caller must write the row
+     */
+    public boolean touch(String sessionId, AuthorizationSecurityContext context, Timestamp updatedDate) {
+        if (!enabled || touchIntervalMillis <= 0) {
+            return false;
+        }
+        String tenantId = SessionTenantResolver.getCurrentTenant();
+        boolean hasTenant = StringUtils.hasText(tenantId);
+        String key = toKey(hasTenant ? tenantId : DEFAULT_TENANT, sessionId);
+        CachedSecurityContext cached = cache.getIfPresent(key);
+        if (cached == null || !cached.hasSameContent(context)
+            || updatedDate.getTime() - cached.persistedAt >= touchIntervalMillis) {
+            return false;
+        }
+        cached.updatedAt = Math.max(cached.updatedAt, updatedDate.getTime());
+        pendingTouches.put(key,
+            new PendingTouch(hasTenant ? tenantId : null, sessionId, new Timestamp(cached.updatedAt)));
+        return true;
+    }
+
+    /**
+     * Removes the cached security context of the session for the current tenant, together with a pending touch.
+     *
+     * @param sessionId the session id
+     */
+    public void invalidate(String sessionId) {
+        if (!enabled) {
+            return;
+        }
+        String key = toKey(currentTenant(), sessionId);
+        invalidations.incrementAndGet();
+        pendingTouches.remove(key);
+        cache.invalidate(key);
+    }
+
+    /**
+     * Writes the pending UPDATED_DATE touches to the database, each in the tenant of its session.
+     */
+    @Scheduled(fixedDelayString = "${security.context.cache.touch.interval.ms:60000}")
+    public void flushTouches() {
+        Iterator<Map.Entry<String, PendingTouch>> iterator = pendingTouches.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, PendingTouch> entry = iterator.next();
+            PendingTouch touch = entry.getValue();
+            // A newer touch of the same session stays pending for the next flush
+            if (!pendingTouches.remove(entry.getKey(), touch)) {
+                continue;
+            }
+            try {
+                if (touch.tenantId() != null) {
+                    SessionTenantResolver.runWithTenant(touch.tenantId(), () -> write(entry.getKey(), touch));
+                } else {
+                    write(entry.getKey(), touch);
+                }
+            } catch (RuntimeException e) {
+                LOGGER.warn("Failed to write UPDATED_DATE of Session Id: {}", touch.sessionId(), e);
+            }
+        }
+    }
+
+    /**
+     * Writes the pending touches on shutdown.
+     */
+    @Override
+    public void destroy() {
+        flushTouches();
+    }
+
+    private void write(String key, PendingTouch touch) {
+        authorizationSecurityContextRepository.touchUpdatedDate(touch.sessionId(), touch.updatedDate());
+        CachedSecurityContext cached = cache.getIfPresent(key);
+        if (cached != null) {
+            cached.persistedAt = Math.max(cached.persistedAt, touch.updatedDate().getTime());
+        }
+    }
+
+    private static String toKey(String tenantId, String sessionId) {
+        return tenantId + KEY_SEPARATOR + sessionId;
+    }
+
+    private static String currentTenant() {
+        String tenantId = SessionTenantResolver.getCurrentTenant();
+        return StringUtils.hasText(tenantId) ? tenantId : DEFAULT_TENANT;
+    }
+
+    private void incrementMetrics(MetricType metricType, String tenantId) {
+        if (authorizationMetricsService != null) {
+            authorizationMetricsService.incrementMetrics(metricType, TENANT_ID_TAG, tenantId);
+        }
+    }
+
+    /**
+     * An UPDATED_DATE touch waiting to be written; the tenant is null for sessions without tenant.
+     */
+    private record PendingTouch(String tenantId, String sessionId, Timestamp updatedDate) {
+    }
+
+    /**
+     * The decoded security context of an authenticated session together with the raw column values it was decoded
+     * from, which are compared to tell a touch from a change.
+     */
+    public static final class CachedSecurityContext {
+        private final String principal;
+        private final String accountName;
+        private final String accountId;
+        private final Boolean mfaRequired;
+        private final String authorities;
+        private final String authorizedClientRegistrationId;
+        private final String remoteIpAddress;
+        private final List<SimpleGrantedAuthority> grantedAuthorities;
+        private final OAuth2User oauth2User;
+        private volatile long updatedAt;
+        private volatile long persistedAt;
+
+        /**
+         * Constructor for CachedSecurityContext.
+         *
+         * @param entity the authenticated security context as stored in the database
+         * @param grantedAuthorities the authorities parsed from the entity
+         * @param oauth2User the principal deserialized from the entity for federated logins, otherwise null
+         */
+        public CachedSecurityContext(AuthorizationSecurityContext entity, List<SimpleGrantedAuthority>
+            grantedAuthorities, OAuth2User oauth2User) {
+            this.principal = entity.getPrincipal();
+            this.accountName = entity.getAccountName();
+            this.accountId = entity.getAccountId();
+            this.mfaRequired = entity.getMfaRequired();
+            this.authorities = entity.getAuthorities();
+            this.authorizedClientRegistrationId = entity.getAuthorizedClientRegistrationId();
+            this.remoteIpAddress = entity.getRemoteIpAddress();
+            this.grantedAuthorities = List.copyOf(grantedAuthorities);
+            this.oauth2User = oauth2User;
+            this.updatedAt = entity.getUpdatedDate().getTime();
+            this.persistedAt = this.updatedAt;
+        }
+
+        /**
+         * Returns a detached entity holding the cached column values, to which a context about to be saved can be
+         * applied and then compared with {@link SecurityContextCache#touch}.
+         *
+         * @return a new, unsaved entity
+         */
+        public AuthorizationSecurityContext toEntity() {
+            AuthorizationSecurityContext entity = new AuthorizationSecurityContext();
+            entity.setPrincipal(principal);
+            entity.setAccountName(accountName);
+            entity.setAccountId(accountId);
+            entity.setMfaRequired(mfaRequired);
+            entity.setAuthorities(authorities);
+            entity.setAuthorizedClientRegistrationId(authorizedClientRegistrationId);
+            entity.setRemoteIpAddress(remoteIpAddress);
+            entity.setAuthenticated(Boolean.TRUE);
+            return entity;
+        }
+
+        boolean hasSameContent(AuthorizationSecurityContext entity) {
+            return Boolean.TRUE.equals(entity.getAuthenticated())
+                && Objects.equals(principal, entity.getPrincipal())
+                && Objects.equals(accountName, entity.getAccountName())
+                && Objects.equals(accountId, entity.getAccountId())
+                && Objects.equals(mfaRequired, entity.getMfaRequired())
+                && Objects.equals(authorities, entity.getAuthorities())
+                && Objects.equals(authorizedClientRegistrationId, entity.getAuthorizedClientRegistrationId())
+                && Objects.equals(remoteIpAddress, entity.getRemoteIpAddress());
+        }
+
+        /**
+         * Returns the principal name, or the serialized principal for federated logins.
+         *
+         * @return the principal name, or the serialized principal for federated logins
+         */
+        public String getPrincipal() {
+            return principal;
+        }
+
+        /**
+         * Returns the account name.
+         *
+         * @return the account name
+         */
+        public String getAccountName() {
+            return accountName;
+        }
+
+        /**
+         * Returns the account id.
+         *
+         * @return the account id
+         */
+        public String getAccountId() {
+            return accountId;
+        }
+
+        /**
+         * Returns the per-user MFA override.
+         *
+         * @return the per-user MFA override
+         */
+        public Boolean getMfaRequired() {
+            return mfaRequired;
+        }
+
+        /**
+         * Returns the client registration id of a federated login, otherwise null.
+         *
+         * @return the client registration id of a federated login, otherwise null
+         */
+        public String getAuthorizedClientRegistrationId() {
+            return authorizedClientRegistrationId;
+        }
+
+        /**
+         * Returns the granted authorities.
+         *
+         * @return the granted authorities
+         */
+        public List<SimpleGrantedAuthority> getGrantedAuthorities() {
+            return grantedAuthorities;
+        }
+
+        /**
+         * Returns the principal of a federated login, otherwise null.
+         *
+         * @return the principal of a federated login, otherwise null
+         */
+        public OAuth2User getOauth2User() {
+            return oauth2User;
+        }
+
+        /**
+         * Returns the UPDATED_DATE of the session, including touches not yet written to the database.
+         *
+         * @return the UPDATED_DATE in milliseconds since the epoch
+         */
+        public long getUpdatedAt() {
+            return updatedAt;
+        }
+    }
+}
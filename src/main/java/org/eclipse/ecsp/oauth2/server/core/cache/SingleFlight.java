@@ -0,0 +1,81 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.oauth2.server.core.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Merges concurrent calls for the same key into a single call whose result, or failure, all callers share.
+ *
+ * <p>The first caller for a key runs the call on its own thread; callers arriving while it is in flight wait for it
+ * instead of running the call again. Nothing is remembered once the call completed, so a later caller runs the call
+ * again. Caching the result is left to the caller.
+ *
+ * @param <K> the key type
+ * @param <V> the result type
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Runs the call for the given key, or waits for the call of the same key already in flight.
+     *
+     * @param key the key identifying identical calls
+     * @param call the call to run
+     * @param onJoin notified when the call of another caller is joined instead of running the call
+     * @return the result of the call, may be null
+     */
+    public V execute(K key, Supplier<V> call, Runnable onJoin) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            onJoin.run();
+            return join(existing);
+        }
+        try {
+            V result = call.get();
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private static <V> V join(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            // Rethrow the failure of the shared call as is, e.g. an OAuth2AuthenticationException for unknown users
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.oauth2.server.core.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.eclipse.ecsp.oauth2.server.core.metrics.AuthorizationMetricsService;
+import org.eclipse.ecsp.oauth2.server.core.metrics.MetricType;
+import org.eclipse.ecsp.oauth2.server.core.response.UserDetailsResponse;
+import org.eclipse.ecsp.oauth2.server.core.util.SessionTenantResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.eclipse.ecsp.oauth2.server.core.common.constants.AuthorizationServerConstants.TENANT_ID_TAG;
+
+/**
+ * Short-lived, tenant-keyed cache of the user details fetched from user management, so that one login fetches the
+ * user once instead of once for the password check and once more for every token customized afterwards.
+ *
+ * <p>Entries are keyed by tenant, account name and username. Concurrent lookups of the same user are coalesced into
+ * a single fetch whose result, or failure, all of them share. Failures are never cached. The password check always
+ * fetches the user again through {@link #load}, so only token customization is served from the cache.
+ *
+ * <p>Changes of a user made through this server evict the user: a failed login evicts it directly, and MFA enrollment
+ * changes and password resets publish a {@link UserDetailsChangedEvent}. Changes made elsewhere become visible once
+ * the entry expires, so the time to live should be kept short.
+ */
+@Component
+public class UserDetailsCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UserDetailsCache.class);
+
+    private static final String DEFAULT_TENANT = "default";
+
+    private final AuthorizationMetricsService authorizationMetricsService;
+    private final boolean enabled;
+    private final Cache<UserKey, UserDetailsResponse> cache;
+    private final SingleFlight<UserKey, UserDetailsResponse> inFlight = new SingleFlight<>();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * Constructor for UserDetailsCache.
+     *
+     * @param authorizationMetricsService the metrics service used to publish hit, miss and coalesced counters
+     * @param enabled whether user details are cached at all
+     * @param maxSize the maximum number of cached users over all tenants
+     * @param timeToLiveSeconds the time after which a cached user is fetched again
+     */
+    public UserDetailsCache(AuthorizationMetricsService authorizationMetricsService,
+                            @Value("${user.details.cache.enabled:false}") boolean enabled,
+                            @Value("${user.details.cache.max.size:10000}") long maxSize,
+                            @Value("${user.details.cache.ttl.seconds:30}") long timeToLiveSeconds) {
+        this.authorizationMetricsService = authorizationMetricsService;
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofSeconds(timeToLiveSeconds))
+            .executor(Runnable::run)
+            .build();
+        LOGGER.info("User details cache enabled: {}, max size: {}, time to live: {}s", enabled, maxSize,
+            timeToLiveSeconds);
+    }
+
+    /**
+     * Creates a cache that always delegates to the loader. Used where no cache bean is available.
+     *
+     * @return a disabled UserDetailsCache
+     */
+    public static UserDetailsCache disabled() {
+        return new UserDetailsCache(null, false, 0, 0);
+    }
+
+    /**
+     * Returns the cached user details of the user for the current tenant, or fetches them with the given loader and
+     * caches the result.
+     *
+     * @param username the username
+     * @param accountName the account name, null if the user is looked up without account
+     * @param loader the loader fetching the user from user management
+     * @return the user details, or null if the loader returned none
+     */
+    public UserDetailsResponse get(String username, String accountName, Supplier<UserDetailsResponse> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        UserKey key = new UserKey(currentTenant(), accountName, username);
+        UserDetailsResponse cached = cache.getIfPresent(key);
+        if (cached != null) {
+            incrementMetrics(MetricType.USER_DETAILS_CACHE_HIT, key.tenantId());
+            return cached;
+        }
+        incrementMetrics(MetricType.USER_DETAILS_CACHE_MISS, key.tenantId());
+        return fetch(key, loader);
+    }
+
+    /**
+     * Fetches the user details of the user for the current tenant with the given loader, ignoring a cached entry,
+     * and caches the result. A fetch of the same user already in flight is joined instead.
+     *
+     * @param username the username
+     * @param accountName the account name, null if the user is looked up without account
+     * @param loader the loader fetching the user from user management
+     * @return the user details, or null if the loader returned none
+     */
+    public UserDetailsResponse load(String username, String accountName, Supplier<UserDetailsResponse> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        return fetch(new UserKey(currentTenant(), accountName, username), loader);
+    }
+
+    /**
+     * Evicts the cached user details of the user for the current tenant, for all accounts.
+     *
+     * @param username the username of the changed user
+     */
+    public void evict(String username) {
+        evict(currentTenant(), username);
+    }
+
+    /**
+     * Evicts the cached user details of the user named in the event, or of all users of its tenant if the event
+     * names no user.
+     *
+     * @param event the event published after a user was changed
+     */
+    @EventListener
+    public void onUserDetailsChanged(UserDetailsChangedEvent event) {
+        String tenantId = StringUtils.hasText(event.tenantId()) ? event.tenantId() : DEFAULT_TENANT;
+        if (StringUtils.hasText(event.username())) {
+            evict(tenantId, event.username());
+        } else if (enabled) {
+            invalidations.incrementAndGet();
+            cache.asMap().keySet().removeIf(key -> tenantId.equals(key.tenantId()));
+            LOGGER.debug("Evicted user details of all users for tenant {}", tenantId);
+        }
+    }
+
+    private void evict(String tenantId, String username) {
+        if (!enabled || !StringUtils.hasText(username)) {
+            return;
+        }
+        invalidations.incrementAndGet();
+        cache.asMap().keySet().removeIf(key -> tenantId.equals(key.tenantId()) && username.equals(key.username()));
+        LOGGER.debug("Evicted user details of user {} for tenant {}", username, tenantId);
+    }
+
+    private UserDetailsResponse fetch(UserKey key, Supplier<UserDetailsResponse> loader) {
+        return inFlight.execute(key, () -> {
+            long invalidationsBeforeLoad = invalidations.get();
+            UserDetailsResponse loaded = loader.get();
+            // A user changed while being fetched must not stay cached with the old details
+            if (loaded != null && invalidations.get() == invalidationsBeforeLoad) {
+                cache.put(key, loaded);
+            }
+            return loaded;
+        }, () -> incrementMetrics(MetricType.USER_DETAILS_CACHE_COALESCED, key.tenantId()));
+    }
+
+    private static String currentTenant() {
+        String tenantId = SessionTenantResolver.getCurrentTenant();
+        return StringUtils.hasText(tenantId) ? tenantId : DEFAULT_TENANT;
+    }
+
+    private void incrementMetrics(MetricType metricType, String tenantId) {
+        if (authorizationMetricsService != null) {
+            authorizationMetricsService.incrementMetrics(metricType, TENANT_ID_TAG, tenantId);
+        }
+    }
+
+    /**
+     * Key of a cached user; the account name is null for lookups without account.
+     */
+    private record UserKey(String tenantId, String accountName, String username) {
+    }
+
+    /**
+     * Event published after the user details of a user were changed, evicting them from the cache.
+     *
+     * @param tenantId the tenant of the user
+     * @param username the username of the changed user, or null if the changed user is not known by name
+     */
+    public record UserDetailsChangedEvent(String tenantId, String username) {
+
+        /**
+         * Creates the event for a user of the current tenant.
+         *
+         * @param username the username of the changed user, or null if the changed user is not known by name
+         * @return the event
+         */
+        public static UserDetailsChangedEvent forCurrentTenant(String username) {
+            return new UserDetailsChangedEvent(SessionTenantResolver.getCurrentTenant(), username);
+        }
+    }
+}
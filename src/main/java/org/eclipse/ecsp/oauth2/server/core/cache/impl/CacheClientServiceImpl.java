@@ -106,6 +106,23 @@ public class CacheClientServiceImpl implements CacheClientService {
         return clientCacheDetails;
     }
 
+    /**
+     * Fetches client details from auth management, bypassing the cache. Used to refresh cached entries.
+     *
+     * @param clientId the ID of the client to retrieve details for
+     * @param tenantId the ID of the tenant
+     * @return the client cache details, or null if the client could not be fetched
+     */
+    @Override
+    public ClientCacheDetails fetchClientDetails(String clientId, String tenantId) {
+        ClientCacheDetails clientCacheDetails = getClientDetailsFromAuthMgmt(clientId);
+        if (clientCacheDetails == null) {
+            return null;
+        }
+        clientCacheDetails.setCache(isCacheRequired(clientId, clientCacheDetails.getRegisteredClient()));
+        return clientCacheDetails;
+    }
+
     /**
      * Fetches client details from the AuthManagementClient.
      *
@@ -125,6 +142,7 @@ public class CacheClientServiceImpl implements CacheClientService {
         clientCacheDetails.setAccountType(registeredClientDetails.getAccountType());
         clientCacheDetails.setAccountName(registeredClientDetails.getAccountName());
         clientCacheDetails.setAccountId(registeredClientDetails.getAccountId());
+        clientCacheDetails.setFetchedAtMillis(System.currentTimeMillis());
         return clientCacheDetails;
     }
 
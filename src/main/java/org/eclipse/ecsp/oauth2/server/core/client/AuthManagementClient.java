@@ -24,7 +24,6 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.annotation.PostConstruct;
 import org.eclipse.ecsp.oauth2.server.core.config.tenantproperties.TenantProperties;
-import org.eclipse.ecsp.oauth2.server.core.interceptor.ClientAddCorrelationIdInterceptor;
 import org.eclipse.ecsp.oauth2.server.core.request.dto.RegisteredClientDetails;
 import org.eclipse.ecsp.oauth2.server.core.service.TenantConfigurationService;
 import org.eclipse.ecsp.oauth2.server.core.utils.InputSanitizer;
@@ -36,10 +35,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import static org.eclipse.ecsp.oauth2.server.core.common.constants.AuthorizationServerConstants.TENANT_EXTERNAL_URLS_CLIENT_BY_CLIENT_ID_ENDPOINT;
-import static org.eclipse.ecsp.oauth2.server.core.common.constants.AuthorizationServerConstants.TENANT_EXTERNAL_URLS_USER_MANAGEMENT_ENV;
 import static org.eclipse.ecsp.oauth2.server.core.common.constants.IgniteOauth2CoreConstants.TENANT_ID_HEADER;
-import static org.eclipse.ecsp.oauth2.server.core.utils.RequestResponseLogger.logRequest;
-import static org.eclipse.ecsp.oauth2.server.core.utils.RequestResponseLogger.logResponse;
 
 /**
  * The AuthManagementClient class manages connections with the Auth Management Service.
@@ -54,14 +50,19 @@ public class AuthManagementClient {
 
     private final TenantConfigurationService tenantConfigurationService;
 
+    private final TenantWebClientRegistry webClientRegistry;
+
     /**
      * Constructor for AuthManagementClient.
      * It initializes the tenant configuration service for dynamic tenant resolution.
      *
      * @param tenantConfigurationService the service to fetch tenant properties.
+     * @param webClientRegistry the registry of the pre-built per-tenant WebClients.
      */
-    public AuthManagementClient(TenantConfigurationService tenantConfigurationService) {
+    public AuthManagementClient(TenantConfigurationService tenantConfigurationService,
+                                TenantWebClientRegistry webClientRegistry) {
         this.tenantConfigurationService = tenantConfigurationService;
+        this.webClientRegistry = webClientRegistry;
     }
 
     /**
@@ -75,7 +76,7 @@ public class AuthManagementClient {
     }
 
     /**
-     * Get the current tenant's properties and create a WebClient for the current tenant.
+     * Get the pre-built WebClient of the current tenant from the registry.
      *
      * @return WebClient configured for the current tenant
      */
@@ -84,18 +85,7 @@ public class AuthManagementClient {
         if (tenantProperties == null) {
             throw new IllegalStateException("No tenant properties found for current tenant");
         }
-        
-        String baseUrl = tenantProperties.getExternalUrls().get(TENANT_EXTERNAL_URLS_USER_MANAGEMENT_ENV);
-        if (baseUrl == null) {
-            throw new IllegalStateException("No user management base URL configured for current tenant");
-        }
-        
-        return WebClient.builder()
-                .baseUrl(baseUrl)
-                .filter(ClientAddCorrelationIdInterceptor.addCorrelationIdAndContentType())
-                .filter(logRequest())
-                .filter(logResponse())
-                .build();
+        return webClientRegistry.getUserManagementClient(tenantProperties);
     }
 
     /**
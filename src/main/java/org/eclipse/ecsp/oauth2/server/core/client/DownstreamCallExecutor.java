@@ -0,0 +1,310 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.oauth2.server.core.client;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.eclipse.ecsp.oauth2.server.core.util.SessionTenantResolver;
+import org.eclipse.ecsp.sql.multitenancy.TenantContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs the downstream calls of the login flow, e.g. to the User Management Service, within a deadline.
+ *
+ * <p>A deadline is bound with {@link #withDeadline(Supplier)} for the whole login and propagated to every call made
+ * through {@link #call(String, Supplier)}, also when the call runs on another thread. Clients read the time left with
+ * {@link #remainingTime()} and stop waiting for a response once the deadline has passed, so a slow downstream can no
+ * longer hold a request thread for longer than the login timeout.
+ *
+ * <p>In {@link ExecutionMode#BLOCKING} mode calls run on the calling thread and {@link #submit(String, Runnable)} runs
+ * the task right away, which is the behaviour before this class was introduced. In
+ * {@link ExecutionMode#VIRTUAL_THREADS} mode calls run on virtual threads, the calling thread only waits until the
+ * deadline, and submitted tasks are queued on a bounded queue and run in the background. Submitted tasks are dropped
+ * when the queue is full, so they must not be needed for the response.
+ *
+ * <p>The tenant and the logging context of the calling thread are carried over to the thread running the call. The
+ * number of calls in flight is published per operation as the gauge {@code uidam.downstream.calls.in.flight}.
+ */
+@Component
+public class DownstreamCallExecutor implements DisposableBean {
+
+    /**
+     * Operation name of the user details lookups in user management.
+     */
+    public static final String USER_DETAILS_OPERATION = "user_details";
+
+    /**
+     * Operation name of the user events sent to user management.
+     */
+    public static final String USER_EVENT_OPERATION = "user_event";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DownstreamCallExecutor.class);
+
+    private static final ScopedValue<Long> DEADLINE = ScopedValue.newInstance();
+    private static final String IN_FLIGHT_METRIC = "uidam.downstream.calls.in.flight";
+    private static final String OPERATION_TAG = "operation";
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
+
+    /**
+     * How downstream calls are executed.
+     */
+    public enum ExecutionMode {
+        /**
+         * Calls and submitted tasks run on the calling thread.
+         */
+        BLOCKING,
+        /**
+         * Calls run on virtual threads and submitted tasks are queued and run in the background.
+         */
+        VIRTUAL_THREADS
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final ExecutionMode executionMode;
+    private final Duration timeout;
+    private final ExecutorService callExecutor;
+    private final ThreadPoolExecutor taskExecutor;
+    private final ConcurrentHashMap<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for DownstreamCallExecutor.
+     *
+     * @param meterRegistry the registry the in-flight gauges are published to
+     * @param executionMode the execution mode
+     * @param timeoutMs the deadline of a login, or of a submitted task, from its start
+     * @param taskQueueCapacity the maximum number of submitted tasks waiting to run
+     * @param taskWorkers the number of submitted tasks run concurrently
+     */
+    public DownstreamCallExecutor(MeterRegistry meterRegistry,
+                                  @Value("${uidam.downstream.execution.mode:BLOCKING}") ExecutionMode executionMode,
+                                  @Value("${uidam.downstream.timeout.ms:10000}") long timeoutMs,
+                                  @Value("${uidam.downstream.task.queue.capacity:1000}") int taskQueueCapacity,
+                                  @Value("${uidam.downstream.task.workers:8}") int taskWorkers) {
+        this.meterRegistry = meterRegistry;
+        this.executionMode = executionMode;
+        this.timeout = Duration.ofMillis(timeoutMs);
+        if (executionMode == ExecutionMode.VIRTUAL_THREADS) {
+            this.callExecutor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("downstream-call-", 0).factory());
+            this.taskExecutor = new ThreadPoolExecutor(taskWorkers, taskWorkers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(taskQueueCapacity), Thread.ofVirtual().name("downstream-task-", 0).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        } else {
+            this.callExecutor = null;
+            this.taskExecutor = null;
+        }
+        LOGGER.info("Downstream calls execution mode: {}, timeout: {}, task queue capacity: {}, task workers: {}",
+            executionMode, timeout, taskQueueCapacity, taskWorkers);
+    }
+
+    /**
+     * Returns the time left until the deadline bound to the current thread.
+     *
+     * @return the time left, zero once the deadline has passed, or null if no deadline is bound
+     */
+    public static Duration remainingTime() {
+        if (!DEADLINE.isBound()) {
+            return null;
+        }
+        return Duration.ofNanos(Math.max(0L, DEADLINE.get() - System.nanoTime()));
+    }
+
+    /**
+     * Returns the exception reporting that a downstream call did not complete before the deadline.
+     *
+     * @param operation the name of the operation
+     * @return the exception to throw
+     */
+    public static OAuth2AuthenticationException deadlineExceeded(String operation) {
+        return serverError(operation + " timed out");
+    }
+
+    /**
+     * Runs the given body with a deadline of the configured timeout from now. If a deadline is already bound, the
+     * body runs within that deadline.
+     *
+     * @param body the body, e.g. a complete login
+     * @param <T> the result type
+     * @return the result of the body
+     */
+    public <T> T withDeadline(Supplier<T> body) {
+        if (DEADLINE.isBound()) {
+            return body.get();
+        }
+        return ScopedValue.where(DEADLINE, System.nanoTime() + timeout.toNanos()).call(body::get);
+    }
+
+    /**
+     * Runs a downstream call within the current deadline and returns its result. In virtual threads mode the call
+     * runs on a virtual thread and the calling thread waits for at most the time left until the deadline.
+     *
+     * @param operation the name of the operation, used as metric tag
+     * @param call the downstream call
+     * @param <T> the result type
+     * @return the result of the call
+     * @throws OAuth2AuthenticationException if the deadline passes before the call completes
+     */
+    public <T> T call(String operation, Supplier<T> call) {
+        return withDeadline(() -> executionMode == ExecutionMode.VIRTUAL_THREADS
+            ? callOnVirtualThread(operation, call) : track(operation, call));
+    }
+
+    /**
+     * Runs a downstream call whose result is not needed, e.g. recording a user event. In virtual threads mode the
+     * task is queued and this method returns right away; the task gets its own deadline once it starts. In blocking
+     * mode the task runs on the calling thread.
+     *
+     * @param operation the name of the operation, used as metric tag
+     * @param task the downstream call
+     * @return false if the task was dropped because the queue is full, true otherwise
+     */
+    public boolean submit(String operation, Runnable task) {
+        if (executionMode != ExecutionMode.VIRTUAL_THREADS) {
+            call(operation, () -> {
+                task.run();
+                return null;
+            });
+            return true;
+        }
+        String tenantId = SessionTenantResolver.getCurrentTenant();
+        Map<String, String> loggingContext = MDC.getCopyOfContextMap();
+        try {
+            taskExecutor.execute(() -> runInContext(tenantId, loggingContext, () -> {
+                try {
+                    ScopedValue.where(DEADLINE, System.nanoTime() + timeout.toNanos())
+                        .call(() -> track(operation, () -> {
+                            task.run();
+                            return null;
+                        }));
+                } catch (RuntimeException e) {
+                    LOGGER.error("Background downstream call {} failed: {}", operation, e.getMessage());
+                }
+                return null;
+            }));
+            return true;
+        } catch (RejectedExecutionException e) {
+            LOGGER.warn("Queue of background downstream calls is full, dropping {}", operation);
+            return false;
+        }
+    }
+
+    /**
+     * Stops the executors on shutdown, giving queued tasks a few seconds to complete.
+     *
+     * @throws InterruptedException if interrupted while waiting for queued tasks
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        if (taskExecutor != null) {
+            taskExecutor.shutdown();
+            if (!taskExecutor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                LOGGER.warn("Dropping {} queued downstream calls on shutdown", taskExecutor.shutdownNow().size());
+            }
+        }
+        if (callExecutor != null) {
+            callExecutor.shutdownNow();
+        }
+    }
+
+    private <T> T callOnVirtualThread(String operation, Supplier<T> call) {
+        long deadline = DEADLINE.get();
+        String tenantId = SessionTenantResolver.getCurrentTenant();
+        Map<String, String> loggingContext = MDC.getCopyOfContextMap();
+        Future<T> future = callExecutor.submit(() -> runInContext(tenantId, loggingContext,
+            () -> ScopedValue.where(DEADLINE, deadline).call(() -> track(operation, call))));
+        try {
+            return future.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            LOGGER.error("Downstream call {} did not complete before the deadline", operation);
+            throw deadlineExceeded(operation);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw serverError(operation + " interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private <T> T track(String operation, Supplier<T> call) {
+        AtomicInteger counter = inFlight.computeIfAbsent(operation, this::registerInFlightGauge);
+        counter.incrementAndGet();
+        try {
+            return call.get();
+        } finally {
+            counter.decrementAndGet();
+        }
+    }
+
+    private AtomicInteger registerInFlightGauge(String operation) {
+        AtomicInteger counter = new AtomicInteger();
+        Gauge.builder(IN_FLIGHT_METRIC, counter, AtomicInteger::get)
+            .description("Number of downstream calls in flight")
+            .tag(OPERATION_TAG, operation)
+            .register(meterRegistry);
+        return counter;
+    }
+
+    private static <T> T runInContext(String tenantId, Map<String, String> loggingContext, Supplier<T> body) {
+        if (loggingContext != null) {
+            MDC.setContextMap(loggingContext);
+        }
+        try {
+            return tenantId != null ? SessionTenantResolver.callWithTenant(tenantId, body) : body.get();
+        } finally {
+            TenantContext.clear();
+            MDC.clear();
+        }
+    }
+
+    private static OAuth2AuthenticationException serverError(String description) {
+        return new OAuth2AuthenticationException(new OAuth2Error(OAuth2ErrorCodes.SERVER_ERROR, description, null));
+    }
+}
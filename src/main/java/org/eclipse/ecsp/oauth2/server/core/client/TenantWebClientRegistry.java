@@ -0,0 +1,325 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.oauth2.server.core.client;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import org.eclipse.ecsp.oauth2.server.core.config.tenantproperties.TenantProperties;
+import org.eclipse.ecsp.oauth2.server.core.interceptor.ClientAddCorrelationIdInterceptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionPoolMetrics;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.SocketAddress;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToDoubleFunction;
+
+import static org.eclipse.ecsp.oauth2.server.core.common.constants.AuthorizationServerConstants.TENANT_EXTERNAL_URLS_USER_MANAGEMENT_ENV;
+import static org.eclipse.ecsp.oauth2.server.core.common.constants.AuthorizationServerConstants.TENANT_ID_TAG;
+import static org.eclipse.ecsp.oauth2.server.core.utils.RequestResponseLogger.logRequest;
+import static org.eclipse.ecsp.oauth2.server.core.utils.RequestResponseLogger.logResponse;
+
+/**
+ * Tenant-keyed registry of pre-built WebClients for the downstream calls made while serving requests, i.e. the
+ * User Management Service, the Auth Management Service and the reCAPTCHA verification endpoint.
+ *
+ * <p>Each tenant gets its own Reactor Netty connection pool with an explicit connection limit, a bounded queue of
+ * pending acquires, idle and lifetime eviction, and connect and read timeouts, so a slow downstream of one tenant
+ * cannot exhaust the connections of another. The clients are built once per tenant and reused, instead of building
+ * a WebClient with fresh filters for every call.
+ *
+ * <p>A tenant's clients are rebuilt when its user management base URL changes and can be dropped explicitly with
+ * {@link #evictTenant(String)}, which is called on configuration refresh events. The pool sizes are published as
+ * Micrometer gauges tagged with the tenant.
+ */
+@Component
+public class TenantWebClientRegistry implements DisposableBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TenantWebClientRegistry.class);
+
+    private static final String DEFAULT_TENANT = "default";
+    private static final String POOL_NAME_PREFIX = "uidam-";
+    private static final String METRIC_PREFIX = "uidam.webclient.pool.";
+    private static final String REMOTE_ADDRESS_TAG = "remote_address";
+
+    private final MeterRegistry meterRegistry;
+    private final int maxConnections;
+    private final int pendingAcquireMaxCount;
+    private final Duration pendingAcquireTimeout;
+    private final Duration maxIdleTime;
+    private final Duration maxLifeTime;
+    private final Duration evictionInterval;
+    private final int connectTimeoutMillis;
+    private final Duration readTimeout;
+    private final Duration disposeGracePeriod;
+
+    private final ConcurrentHashMap<String, TenantClients> tenantClients = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for TenantWebClientRegistry.
+     *
+     * @param meterRegistry the registry the connection pool gauges are published to
+     * @param maxConnections the maximum number of connections per tenant and remote host
+     * @param pendingAcquireMaxCount the maximum number of requests waiting for a connection
+     * @param pendingAcquireTimeoutMs the time a request waits for a connection before failing
+     * @param maxIdleTimeMs the time after which an idle connection is closed
+     * @param maxLifeTimeMs the time after which a connection is closed once released
+     * @param evictionIntervalMs the interval of the background eviction of idle and expired connections
+     * @param connectTimeoutMs the connect timeout
+     * @param readTimeoutMs the time to wait for a response once the request has been sent
+     */
+    public TenantWebClientRegistry(MeterRegistry meterRegistry,
+                                   @Value("${uidam.webclient.pool.max.connections:50}") int maxConnections,
+                                   @Value("${uidam.webclient.pool.pending.acquire.max.count:200}")
+                                   int pendingAcquireMaxCount,
+                                   @Value("${uidam.webclient.pool.pending.acquire.timeout.ms:5000}")
+                                   long pendingAcquireTimeoutMs,
+                                   @Value("${uidam.webclient.pool.max.idle.time.ms:30000}") long maxIdleTimeMs,
+                                   @Value("${uidam.webclient.pool.max.life.time.ms:300000}") long maxLifeTimeMs,
+                                   @Value("${uidam.webclient.pool.eviction.interval.ms:30000}")
+                                   long evictionIntervalMs,
+                                   @Value("${uidam.webclient.connect.timeout.ms:5000}") int connectTimeoutMs,
+                                   @Value("${uidam.webclient.read.timeout.ms:10000}") long readTimeoutMs) {
+        this.meterRegistry = meterRegistry;
+        this.maxConnections = maxConnections;
+        this.pendingAcquireMaxCount = pendingAcquireMaxCount;
+        this.pendingAcquireTimeout = Duration.ofMillis(pendingAcquireTimeoutMs);
+        this.maxIdleTime = Duration.ofMillis(maxIdleTimeMs);
+        this.maxLifeTime = Duration.ofMillis(maxLifeTimeMs);
+        this.evictionInterval = Duration.ofMillis(evictionIntervalMs);
+        this.connectTimeoutMillis = connectTimeoutMs;
+        this.readTimeout = Duration.ofMillis(readTimeoutMs);
+        // The longest a request holding an evicted client may still acquire a connection and wait for its response
+        this.disposeGracePeriod = pendingAcquireTimeout.plusMillis(connectTimeoutMs).plus(readTimeout);
+        LOGGER.info("WebClient pools: max connections {}, pending acquire limit {}, pending acquire timeout {}, "
+            + "max idle time {}, connect timeout {}ms, read timeout {}", maxConnections, pendingAcquireMaxCount,
+            pendingAcquireTimeout, maxIdleTime, connectTimeoutMs, readTimeout);
+    }
+
+    /**
+     * Returns the WebClient for the User Management Service of the given tenant. The client has the tenant's user
+     * management base URL and adds the correlation id and content type to every request.
+     *
+     * @param tenantProperties the properties of the tenant
+     * @return the tenant's user management WebClient
+     * @throws IllegalStateException if no user management base URL is configured for the tenant
+     */
+    public WebClient getUserManagementClient(TenantProperties tenantProperties) {
+        String baseUrl = tenantProperties.getExternalUrls() != null
+            ? tenantProperties.getExternalUrls().get(TENANT_EXTERNAL_URLS_USER_MANAGEMENT_ENV) : null;
+        if (baseUrl == null) {
+            throw new IllegalStateException("No user management base URL configured for current tenant");
+        }
+        return clientsFor(tenantProperties.getTenantId()).userManagementClient(baseUrl);
+    }
+
+    /**
+     * Returns the WebClient used to verify reCAPTCHA responses for the given tenant. The client has no base URL,
+     * requests must use an absolute URI.
+     *
+     * @param tenantId the tenant id
+     * @return the tenant's reCAPTCHA WebClient
+     */
+    public WebClient getCaptchaClient(String tenantId) {
+        return clientsFor(tenantId).captchaClient;
+    }
+
+    /**
+     * Drops the clients of the given tenant. The next call for the tenant builds new clients from its current
+     * configuration. The connection pool of the dropped clients is closed after a grace period covering the pending
+     * acquire, connect and read timeouts, so requests that obtained a dropped client just before can still acquire a
+     * connection and complete. Its gauges are removed at once, as the gauges of the rebuilt pool have the same name
+     * and tags.
+     *
+     * @param tenantId the tenant id
+     */
+    public void evictTenant(String tenantId) {
+        TenantClients removed = tenantClients.remove(tenantKey(tenantId));
+        if (removed != null) {
+            LOGGER.info("Rebuilding WebClients for tenant {} on next use", tenantId);
+            removed.gaugeRegistrar.retire();
+            Mono.delay(disposeGracePeriod)
+                .then(removed.connectionProvider.disposeLater())
+                .subscribe();
+        }
+    }
+
+    /**
+     * Closes the connection pools of all tenants on shutdown, without grace period.
+     */
+    @Override
+    public void destroy() {
+        tenantClients.keySet().forEach(tenantId -> {
+            TenantClients removed = tenantClients.remove(tenantId);
+            if (removed != null) {
+                removed.connectionProvider.disposeLater().subscribe();
+            }
+        });
+    }
+
+    private TenantClients clientsFor(String tenantId) {
+        String key = tenantKey(tenantId);
+        TenantClients clients = tenantClients.get(key);
+        return clients != null ? clients : tenantClients.computeIfAbsent(key, TenantClients::new);
+    }
+
+    private static String tenantKey(String tenantId) {
+        return tenantId != null ? tenantId : DEFAULT_TENANT;
+    }
+
+    private ConnectionProvider newConnectionProvider(String tenantId, PoolGaugeRegistrar gaugeRegistrar) {
+        return ConnectionProvider.builder(POOL_NAME_PREFIX + tenantId)
+            .maxConnections(maxConnections)
+            .pendingAcquireMaxCount(pendingAcquireMaxCount)
+            .pendingAcquireTimeout(pendingAcquireTimeout)
+            .maxIdleTime(maxIdleTime)
+            .maxLifeTime(maxLifeTime)
+            .evictInBackground(evictionInterval)
+            // Lets requests in flight complete when the pool is disposed on shutdown
+            .disposeTimeout(readTimeout)
+            .metrics(true, () -> gaugeRegistrar)
+            .build();
+    }
+
+    /**
+     * The connection pool and the clients of one tenant.
+     */
+    private final class TenantClients {
+        private final PoolGaugeRegistrar gaugeRegistrar;
+        private final ConnectionProvider connectionProvider;
+        private final ReactorClientHttpConnector connector;
+        private final WebClient captchaClient;
+        private volatile BaseUrlClient userManagement;
+
+        TenantClients(String tenantId) {
+            this.gaugeRegistrar = new PoolGaugeRegistrar(tenantId);
+            this.connectionProvider = newConnectionProvider(tenantId, gaugeRegistrar);
+            HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMillis)
+                .responseTimeout(readTimeout);
+            this.connector = new ReactorClientHttpConnector(httpClient);
+            this.captchaClient = WebClient.builder().clientConnector(connector)
+                .filter(logRequest()).filter(logResponse())
+                .build();
+            LOGGER.debug("Created WebClient connection pool for tenant {}", tenantId);
+        }
+
+        WebClient userManagementClient(String baseUrl) {
+            BaseUrlClient current = userManagement;
+            if (current == null || !current.baseUrl().equals(baseUrl)) {
+                // Two threads may build a client concurrently, both share the tenant's connection pool
+                current = new BaseUrlClient(baseUrl, WebClient.builder().clientConnector(connector).baseUrl(baseUrl)
+                    .filter(ClientAddCorrelationIdInterceptor.addCorrelationIdAndContentType())
+                    .filter(logRequest()).filter(logResponse())
+                    .build());
+                userManagement = current;
+            }
+            return current.webClient();
+        }
+    }
+
+    /**
+     * A WebClient together with the base URL it was built for.
+     */
+    private record BaseUrlClient(String baseUrl, WebClient webClient) {
+    }
+
+    /**
+     * Publishes the size of each of a tenant's connection pools, one per remote address, as gauges. Each connection
+     * provider has its own registrar, so that the gauges of a provider being disposed can be removed without
+     * touching those of the provider that replaced it.
+     */
+    private final class PoolGaugeRegistrar implements ConnectionProvider.MeterRegistrar {
+        private final String tenantId;
+        private final Map<String, List<Meter.Id>> poolGauges = new HashMap<>();
+        private boolean retired;
+
+        PoolGaugeRegistrar(String tenantId) {
+            this.tenantId = tenantId;
+        }
+
+        /**
+         * Removes the gauges of all pools and ignores pools registered or deregistered later.
+         */
+        synchronized void retire() {
+            retired = true;
+            poolGauges.values().forEach(gauges -> gauges.forEach(meterRegistry::remove));
+            poolGauges.clear();
+        }
+
+        @Override
+        public synchronized void registerMetrics(String poolName, String id, SocketAddress remoteAddress,
+                                                 ConnectionPoolMetrics metrics) {
+            if (retired) {
+                return;
+            }
+            String remote = String.valueOf(remoteAddress);
+            poolGauges.put(gaugeKey(poolName, id, remote), List.of(
+                gauge("active.connections", "Connections acquired from the pool", metrics,
+                    ConnectionPoolMetrics::acquiredSize, remote),
+                gauge("idle.connections", "Idle connections in the pool", metrics,
+                    ConnectionPoolMetrics::idleSize, remote),
+                gauge("total.connections", "Connections allocated by the pool", metrics,
+                    ConnectionPoolMetrics::allocatedSize, remote),
+                gauge("pending.acquires", "Requests waiting for a connection", metrics,
+                    ConnectionPoolMetrics::pendingAcquireSize, remote),
+                gauge("max.connections", "Maximum number of connections of the pool", metrics,
+                    ConnectionPoolMetrics::maxAllocatedSize, remote),
+                gauge("max.pending.acquires", "Maximum number of requests waiting for a connection", metrics,
+                    ConnectionPoolMetrics::maxPendingAcquireSize, remote)));
+        }
+
+        @Override
+        public synchronized void deRegisterMetrics(String poolName, String id, SocketAddress remoteAddress) {
+            List<Meter.Id> gauges = poolGauges.remove(gaugeKey(poolName, id, String.valueOf(remoteAddress)));
+            if (gauges != null) {
+                gauges.forEach(meterRegistry::remove);
+            }
+        }
+
+        private Meter.Id gauge(String name, String description, ConnectionPoolMetrics metrics,
+                               ToDoubleFunction<ConnectionPoolMetrics> value, String remote) {
+            return Gauge.builder(METRIC_PREFIX + name, metrics, value)
+                .description(description)
+                .tags(TENANT_ID_TAG, tenantId, REMOTE_ADDRESS_TAG, remote)
+                .strongReference(true)
+                .register(meterRegistry)
+                .getId();
+        }
+
+        private static String gaugeKey(String poolName, String id, String remote) {
+            return poolName + "|" + id + "|" + remote;
+        }
+    }
+}
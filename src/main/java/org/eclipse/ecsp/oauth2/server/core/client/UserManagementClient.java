@@ -32,7 +32,6 @@ import org.eclipse.ecsp.oauth2.server.core.config.tenantproperties.TenantPropert
 import org.eclipse.ecsp.oauth2.server.core.exception.PasswordRecoveryException;
 import org.eclipse.ecsp.oauth2.server.core.exception.UidamApplicationException;
 import org.eclipse.ecsp.oauth2.server.core.exception.UserNotFoundException;
-import org.eclipse.ecsp.oauth2.server.core.interceptor.ClientAddCorrelationIdInterceptor;
 import org.eclipse.ecsp.oauth2.server.core.metrics.AuthorizationMetricsService;
 import org.eclipse.ecsp.oauth2.server.core.metrics.MetricType;
 import org.eclipse.ecsp.oauth2.server.core.request.dto.BaseUserDto;
@@ -65,11 +64,15 @@ import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.Map;
 import java.util.UUID;
 
+import static org.eclipse.ecsp.oauth2.server.core.client.DownstreamCallExecutor.USER_DETAILS_OPERATION;
+import static org.eclipse.ecsp.oauth2.server.core.client.DownstreamCallExecutor.USER_EVENT_OPERATION;
 import static org.eclipse.ecsp.oauth2.server.core.common.constants.AuthorizationServerConstants.INVALID_INPUT_ERROR;
 import static org.eclipse.ecsp.oauth2.server.core.common.constants.AuthorizationServerConstants.INVALID_PASSWORD;
 import static org.eclipse.ecsp.oauth2.server.core.common.constants.AuthorizationServerConstants.PASSWORD;
@@ -87,7 +90,6 @@ import static org.eclipse.ecsp.oauth2.server.core.common.constants.Authorization
 import static org.eclipse.ecsp.oauth2.server.core.common.constants.AuthorizationServerConstants.TENANT_EXTERNAL_URLS_PASSWORD_POLICY_ENDPOINT;
 import static org.eclipse.ecsp.oauth2.server.core.common.constants.AuthorizationServerConstants.TENANT_EXTERNAL_URLS_SELF_CREATE_USER;
 import static org.eclipse.ecsp.oauth2.server.core.common.constants.AuthorizationServerConstants.TENANT_EXTERNAL_URLS_USER_BY_USERNAME_ENDPOINT;
-import static org.eclipse.ecsp.oauth2.server.core.common.constants.AuthorizationServerConstants.TENANT_EXTERNAL_URLS_USER_MANAGEMENT_ENV;
 import static org.eclipse.ecsp.oauth2.server.core.common.constants.AuthorizationServerConstants.TENANT_EXTERNAL_URLS_USER_RECOVERY_NOTIF_ENDPOINT;
 import static org.eclipse.ecsp.oauth2.server.core.common.constants.AuthorizationServerConstants.TENANT_EXTERNAL_URLS_USER_RESET_PASSWORD_ENDPOINT;
 import static org.eclipse.ecsp.oauth2.server.core.common.constants.AuthorizationServerConstants.UNEXPECTED_ERROR;
@@ -96,8 +98,6 @@ import static org.eclipse.ecsp.oauth2.server.core.common.constants.IgniteOauth2C
 import static org.eclipse.ecsp.oauth2.server.core.common.constants.IgniteOauth2CoreConstants.EMPTY_STRING;
 import static org.eclipse.ecsp.oauth2.server.core.common.constants.IgniteOauth2CoreConstants.TENANT_ID_HEADER;
 import static org.eclipse.ecsp.oauth2.server.core.utils.CommonMethodsUtils.obtainRecaptchaResponse;
-import static org.eclipse.ecsp.oauth2.server.core.utils.RequestResponseLogger.logRequest;
-import static org.eclipse.ecsp.oauth2.server.core.utils.RequestResponseLogger.logResponse;
 
 /**
  * The UserManagementClient class manages connections with the User Management Service. It uses a WebClient to make HTTP
@@ -117,6 +117,7 @@ public class UserManagementClient {
     private final TenantConfigurationService tenantConfigurationService;
     private final CaptchaServiceImpl captchaServiceImpl;
     private final WebClient webClient;
+    private final TenantWebClientRegistry webClientRegistry;
     private final AuthorizationMetricsService metricsService;
 
     /**
@@ -125,15 +126,18 @@ public class UserManagementClient {
      *
      * @param tenantConfigurationService the service to retrieve tenant properties from
      * @param captchaServiceImpl the captcha service implementation
+     * @param webClientRegistry the registry of the pre-built per-tenant WebClients
      */
     @Autowired
     public UserManagementClient(TenantConfigurationService tenantConfigurationService,
             CaptchaServiceImpl captchaServiceImpl,
+            TenantWebClientRegistry webClientRegistry,
             AuthorizationMetricsService metricsService) {
         this.tenantConfigurationService = tenantConfigurationService;
         this.captchaServiceImpl = captchaServiceImpl;
+        this.webClientRegistry = webClientRegistry;
         this.metricsService = metricsService;
-        this.webClient = null; // Will use dynamic WebClient creation
+        this.webClient = null; // Will use the current tenant's WebClient from the registry
     }
 
     /**
@@ -149,6 +153,7 @@ public class UserManagementClient {
         this.tenantConfigurationService = tenantConfigurationService;
         this.captchaServiceImpl = captchaServiceImpl;
         this.webClient = webClient;
+        this.webClientRegistry = null;
         this.metricsService = metricsService;
     }
 
@@ -163,7 +168,7 @@ public class UserManagementClient {
     }
 
     /**
-     * Get the current tenant's properties and create a WebClient for the current tenant.
+     * Get the pre-built WebClient of the current tenant from the registry.
      *
      * @return WebClient configured for the current tenant
      */
@@ -177,15 +182,29 @@ public class UserManagementClient {
         if (tenantProperties == null) {
             throw new IllegalStateException("No tenant properties found for current tenant");
         }
+        return webClientRegistry.getUserManagementClient(tenantProperties);
+    }
 
-        String baseUrl = tenantProperties.getExternalUrls().get(TENANT_EXTERNAL_URLS_USER_MANAGEMENT_ENV);
-        if (baseUrl == null) {
-            throw new IllegalStateException("No user management base URL configured for current tenant");
+    /**
+     * Waits for the response, for at most the time left until the deadline of the current login if one is bound.
+     * Once the deadline has passed, the request is not sent at all.
+     *
+     * @param operation the name of the operation, used in the error description
+     * @param response the response
+     * @return the response body
+     * @throws OAuth2AuthenticationException if the deadline passes before the response is received
+     * @see DownstreamCallExecutor#remainingTime()
+     */
+    private static <T> T blockWithinDeadline(String operation, Mono<T> response) {
+        Duration remainingTime = DownstreamCallExecutor.remainingTime();
+        if (remainingTime == null) {
+            return response.block();
         }
-
-        return WebClient.builder().baseUrl(baseUrl)
-                .filter(ClientAddCorrelationIdInterceptor.addCorrelationIdAndContentType()).filter(logRequest())
-                .filter(logResponse()).build();
+        if (remainingTime.isZero()) {
+            throw DownstreamCallExecutor.deadlineExceeded(operation);
+        }
+        return response.timeout(remainingTime, Mono.error(() -> DownstreamCallExecutor.deadlineExceeded(operation)))
+            .block();
     }
 
     /**
@@ -221,11 +240,12 @@ public class UserManagementClient {
             }
             LOGGER.debug("Account name {}", accountName);
             UserDetailsResponse userDetailsResponse = null;
-            userDetailsResponse = currentWebClient.method(HttpMethod.GET).uri(uri, username)
+            userDetailsResponse = blockWithinDeadline(USER_DETAILS_OPERATION,
+                    currentWebClient.method(HttpMethod.GET).uri(uri, username)
                     .header(ACCOUNT_NAME_HEADER, accountName)
                     .header(TENANT_ID_HEADER, tenantProperties.getTenantId())
                     .accept(MediaType.APPLICATION_JSON).retrieve()
-                    .bodyToMono(UserDetailsResponse.class).block();
+                    .bodyToMono(UserDetailsResponse.class));
             userDetailsResponse = objectMapper.convertValue(userDetailsResponse,
                     new TypeReference<UserDetailsResponse>() {
                     });
@@ -245,6 +265,12 @@ public class UserManagementClient {
             OAuth2Error error = handleUserFetchError(ex.getStatusCode(), userErrorResponse, tenantId);
             metricsService.incrementMetricsForTenant(tenantId, MetricType.FAILURE_LOGIN_ATTEMPTS);
             throw new OAuth2AuthenticationException(error);
+        } catch (OAuth2AuthenticationException ex) {
+            // The deadline of the login has passed
+            LOGGER.error("Timed out fetching user details for username {} from user-mgmt", username);
+            metricsService.incrementMetricsForTenant(getCurrentTenantProperties().getTenantId(),
+                MetricType.FAILURE_LOGIN_ATTEMPTS);
+            throw ex;
         } catch (Exception ex) {
             LOGGER.error("error while fetching user details for username {} from user-mgmt, ex: {}", username, ex);
             OAuth2Error error = new OAuth2Error(OAuth2ErrorCodes.SERVER_ERROR,
@@ -274,17 +300,21 @@ public class UserManagementClient {
             String uri = tenantProperties.getExternalUrls().get(TENANT_EXTERNAL_URLS_ADD_USER_EVENTS_ENDPOINT);
             UserEventResponse response;
 
-            response = currentWebClient.method(HttpMethod.POST).uri(uri, userId)
+            response = blockWithinDeadline(USER_EVENT_OPERATION,
+                    currentWebClient.method(HttpMethod.POST).uri(uri, userId)
                     .header(IgniteOauth2CoreConstants.CORRELATION_ID, UUID.randomUUID().toString())
                     .header(TENANT_ID_HEADER, tenantProperties.getTenantId())
                     .contentType(MediaType.APPLICATION_JSON).bodyValue(userEvent).retrieve()
-                    .bodyToMono(UserEventResponse.class)
-                    .block();
+                    .bodyToMono(UserEventResponse.class));
             
             LOGGER.info("User event processed for userId {}: status={}, lockDurationMinutes={}", 
                 userId, response.getUserStatus(), response.getLockDurationMinutes());
             
             return response;
+        } catch (OAuth2AuthenticationException ex) {
+            // The deadline of the login has passed
+            LOGGER.error("Timed out processing user event details for userId {} from user-mgmt", userId);
+            throw ex;
         } catch (Exception ex) {
             LOGGER.error("error while processing user event details for userId {} from user-mgmt, ex: {}", userId,
                     ex.getMessage());
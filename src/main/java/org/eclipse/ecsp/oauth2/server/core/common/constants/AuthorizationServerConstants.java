@@ -68,6 +68,11 @@ public final class AuthorizationServerConstants {
     public static final String TENANT_JWT_KEY_ID = "jwt-key-id";
     public static final String TENANT_JWT_PUBLIC_KEY_PEM_PATH = "jwt-public-key-path";
     public static final String TENANT_JWT_ADDITIONAL_CLAIM_ATTRIBUTES = "jwt-additional-claim-attributes";
+    public static final String TENANT_KEYSTORE_NEXT_ALIAS = "next-key-alias";
+    public static final String TENANT_JWT_NEXT_PUBLIC_KEY = "jwt-next-public-key";
+    public static final String TENANT_JWT_NEXT_PRIVATE_KEY = "jwt-next-private-key";
+    public static final String TENANT_JWT_NEXT_KEY_ID = "jwt-next-key-id";
+    public static final String TENANT_JWT_NEXT_KEY_ACTIVATION = "jwt-next-key-activation";
     public static final String SUCCESS = "success";
     public static final String BAD_REQUEST_LITERAL = "BAD_REQUEST";
     public static final String SECRET_LITERAL = "secret";
@@ -47,6 +47,8 @@ import org.springframework.security.oauth2.server.authorization.token.OAuth2Toke
 import org.springframework.security.oauth2.server.authorization.token.OAuth2TokenCustomizer;
 import org.springframework.security.oauth2.server.authorization.token.OAuth2TokenGenerator;
 
+import java.time.Duration;
+
 
 /**
  * The AuthorizationServerConfig class is a configuration class that manages authorization server configurations. This
@@ -68,6 +70,9 @@ public class AuthorizationServerConfig {
     @Value("${security.client.bcrypt.strength:high}")
     private String bcryptLength;
 
+    @Value("${uidam.jwk.rotation.retired.key.retention.seconds:86400}")
+    private long retiredKeyRetentionSeconds;
+
     private final TenantConfigurationService tenantConfigurationService;
 
     /**
@@ -93,19 +98,24 @@ public class AuthorizationServerConfig {
     public JWKSource<SecurityContext> jwkSource(KeyStoreConfigByPubPvtKey keyStoreConfigByPubPvtKey,
             KeyStoreConfigByJavaKeyStore keyStoreConfigByJavaKeyStore) {
         return new TenantAwareJwkSource(tenantConfigurationService, keyStoreConfigByPubPvtKey,
-                keyStoreConfigByJavaKeyStore);
+                keyStoreConfigByJavaKeyStore, Duration.ofSeconds(retiredKeyRetentionSeconds));
     }
 
     /**
      * This method creates a NimbusJwtEncoder instance using the provided JWKSource. NimbusJwtEncoder is a JWT encoder
-     * for encoding OAuth 2.0 Tokens as a JSON Web Token (JWT).
+     * for encoding OAuth 2.0 Tokens as a JSON Web Token (JWT). With a tenant-aware JWKSource the encoder sees both the
+     * active and the next key of a key rotation and signs with the active one.
      *
      * @param jwkSource JSON Web Key (JWK) source. Exposes a method for retrieving JWKs matching a specified selector.
      * @return NimbusJwtEncoder instance for encoding OAuth 2.0 Tokens as a JWT.
      */
     @Bean
     NimbusJwtEncoder jwtEncoder(JWKSource<SecurityContext> jwkSource) {
-        return new NimbusJwtEncoder(jwkSource);
+        NimbusJwtEncoder jwtEncoder = new NimbusJwtEncoder(jwkSource);
+        if (jwkSource instanceof TenantAwareJwkSource tenantAwareJwkSource) {
+            jwtEncoder.setJwkSelector(tenantAwareJwkSource::selectSigningKey);
+        }
+        return jwtEncoder;
     }
 
     /**
@@ -19,6 +19,10 @@
 package org.eclipse.ecsp.oauth2.server.core.config;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
+import org.eclipse.ecsp.oauth2.server.core.cache.ClientDetailsCacheLoader;
+import org.eclipse.ecsp.oauth2.server.core.service.TenantConfigurationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
@@ -26,44 +30,81 @@ import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Configuration class for setting up caching using Caffeine.
+ *
+ * <p>With {@code cache.refresh.mins} set, entries older than the refresh interval are reloaded in the background by
+ * {@link ClientDetailsCacheLoader} on the next lookup, which is still served the current entry, so hot clients no
+ * longer expire and miss together. With {@code cache.max.size.per.tenant} set, the maximum size grows with the number
+ * of configured tenants.
  */
 @EnableCaching
 @Configuration
 public class CaffeineCacheConfig {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(CaffeineCacheConfig.class);
+
     @Value("${cache.expire.mins}")
     private long cacheExpireMins;
 
     @Value("${cache.max.size}")
     private long cacheMaxSize;
-    
+
+    @Value("${cache.max.size.per.tenant:0}")
+    private long cacheMaxSizePerTenant;
+
+    @Value("${cache.refresh.mins:0}")
+    private long cacheRefreshMins;
+
     /**
-     * Creates a Caffeine cache configuration with the specified TTL.
+     * Creates a Caffeine cache configuration with the specified TTL, maximum size and refresh interval.
      *
+     * @param tenantConfigurationService the service providing the configured tenants
      * @return a Caffeine cache builder configured with the TTL value.
      */
     @Bean
-    public Caffeine<Object, Object> caffeineConfig() {
-        return Caffeine.newBuilder()
+    public Caffeine<Object, Object> caffeineConfig(TenantConfigurationService tenantConfigurationService) {
+        long maxSize = cacheMaxSize;
+        if (cacheMaxSizePerTenant > 0) {
+            int tenants = Math.max(1, tenantConfigurationService.getAllTenants().size());
+            maxSize = Math.max(cacheMaxSize, cacheMaxSizePerTenant * tenants);
+        }
+        Caffeine<Object, Object> caffeine = Caffeine.newBuilder()
             .expireAfterWrite(cacheExpireMins, TimeUnit.MINUTES)
-            .maximumSize(cacheMaxSize);
+            .maximumSize(maxSize);
+        if (isRefreshEnabled()) {
+            ThreadFactory refreshThreads = Thread.ofVirtual().name("client-cache-refresh-", 0).factory();
+            caffeine.refreshAfterWrite(cacheRefreshMins, TimeUnit.MINUTES)
+                .executor(task -> refreshThreads.newThread(task).start());
+        }
+        LOGGER.info("Client cache max size: {}, expire after: {} min, refresh after: {} min", maxSize,
+            cacheExpireMins, isRefreshEnabled() ? cacheRefreshMins : "never");
+        return caffeine;
     }
 
     /**
      * Creates a CacheManager using the Caffeine cache configuration.
      *
      * @param caffeine the Caffeine cache builder.
+     * @param clientDetailsCacheLoader the loader refreshing cached clients, used if refreshing is enabled
      * @return a CacheManager configured with the Caffeine cache.
      */
     @Bean
-    public CacheManager cacheManager(Caffeine<Object, Object> caffeine) {
+    public CacheManager cacheManager(Caffeine<Object, Object> caffeine,
+                                     ClientDetailsCacheLoader clientDetailsCacheLoader) {
         CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager();
         caffeineCacheManager.setCaffeine(caffeine);
+        if (isRefreshEnabled()) {
+            caffeineCacheManager.setCacheLoader(clientDetailsCacheLoader);
+        }
         return caffeineCacheManager;
     }
-}
\ No newline at end of file
+
+    private boolean isRefreshEnabled() {
+        // Refreshing after the entries expired would never happen
+        return cacheRefreshMins > 0 && cacheRefreshMins < cacheExpireMins;
+    }
+}
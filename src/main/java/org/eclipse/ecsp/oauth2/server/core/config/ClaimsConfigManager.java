@@ -27,6 +27,7 @@ import org.eclipse.ecsp.oauth2.server.core.audit.enums.AuditEventType;
 import org.eclipse.ecsp.oauth2.server.core.authentication.tokens.CustomUserPwdAuthenticationToken;
 import org.eclipse.ecsp.oauth2.server.core.cache.CacheClientUtils;
 import org.eclipse.ecsp.oauth2.server.core.cache.ClientCacheDetails;
+import org.eclipse.ecsp.oauth2.server.core.cache.UserDetailsCache;
 import org.eclipse.ecsp.oauth2.server.core.client.UserManagementClient;
 import org.eclipse.ecsp.oauth2.server.core.common.CustomOauth2TokenGenErrorCodes;
 import org.eclipse.ecsp.oauth2.server.core.config.tenantproperties.ExternalIdpRegisteredClient;
@@ -107,6 +108,7 @@ public class ClaimsConfigManager {
     private final ClaimMappingService claimMappingService;
     private final AuthorizationMetricsService authorizationMetricsService;
     private final AuditLogger auditLogger;
+    private final UserDetailsCache userDetailsCache;
 
     /**
      * Constructor for ClaimsConfigManager. It initializes the tenant configuration service
@@ -117,18 +119,21 @@ public class ClaimsConfigManager {
      * @param userManagementClient the client for user management operations
      * @param authorizationMetricsService the service for authorization metrics
      * @param auditLogger the audit logger
+     * @param userDetailsCache the cache of the user details fetched during authentication
      */
     @Autowired
     public ClaimsConfigManager(TenantConfigurationService tenantConfigurationService,
             ClaimMappingService claimMappingService,
             UserManagementClient userManagementClient,
             AuthorizationMetricsService authorizationMetricsService,
-            AuditLogger auditLogger) {
+            AuditLogger auditLogger,
+            UserDetailsCache userDetailsCache) {
         this.tenantConfigurationService = tenantConfigurationService;
         this.claimMappingService = claimMappingService;
         this.userManagementClient = userManagementClient;
         this.authorizationMetricsService = authorizationMetricsService;
         this.auditLogger = auditLogger;
+        this.userDetailsCache = userDetailsCache;
     }
 
     
@@ -177,6 +182,8 @@ public class ClaimsConfigManager {
     /**
      * Retrieves user details based on the authentication context.
      * Supports both internal password authentication and federated authentication.
+     * User details are shared through the {@link UserDetailsCache}, so the access token and the ID token of a login
+     * do not fetch the user again.
      *
      * @param context The JWT encoding context
      * @return UserDetailsResponse or null if not applicable
@@ -194,9 +201,10 @@ public class ClaimsConfigManager {
             authorizationMetricsService.incrementMetricsForTenant(
                     getCurrentTenantProperties().getTenantId(),
                     MetricType.SUCCESS_LOGIN_BY_INTERNAL_CREDENTIALS);
-            return userManagementClient.getUserDetailsByUsername(
-                    customUserPwdAuthenticationToken.getName(),
-                    customUserPwdAuthenticationToken.getAccountName());
+            String username = customUserPwdAuthenticationToken.getName();
+            String accountName = customUserPwdAuthenticationToken.getAccountName();
+            return userDetailsCache.get(username, accountName,
+                () -> userManagementClient.getUserDetailsByUsername(username, accountName));
         }
         
         if (context.getPrincipal() instanceof OAuth2AuthenticationToken oauth2AuthenticationToken) {
@@ -406,7 +414,8 @@ public class ClaimsConfigManager {
     private UserDetailsResponse getFederatedUserDetails(String idpRegisteredClientId, String federatedUserName, 
             ExternalIdpRegisteredClient idpClient, Map<String, Object> claims) {
         try {
-            return userManagementClient.getUserDetailsByUsername(federatedUserName, null);
+            return userDetailsCache.get(federatedUserName, null,
+                () -> userManagementClient.getUserDetailsByUsername(federatedUserName, null));
         } catch (OAuth2AuthenticationException e) {
             if (!CustomOauth2TokenGenErrorCodes.USER_NOT_FOUND.name().equals(e.getError().getErrorCode())) {
                 throw e;
@@ -18,6 +18,8 @@
 
 package org.eclipse.ecsp.oauth2.server.core.config;
 
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
 import jakarta.servlet.http.HttpSession;
 import org.eclipse.ecsp.audit.logger.AuditLogger;
 import org.eclipse.ecsp.oauth2.server.core.authentication.CustomWebAuthenticationDetailsSource;
@@ -31,7 +33,11 @@ import org.eclipse.ecsp.oauth2.server.core.authentication.handlers.FederatedIden
 import org.eclipse.ecsp.oauth2.server.core.authentication.providers.CustomUserPwdAuthenticationProvider;
 import org.eclipse.ecsp.oauth2.server.core.authentication.providers.PublicClientRefreshTokenAuthenticationProvider;
 import org.eclipse.ecsp.oauth2.server.core.authentication.validator.CustomScopeValidator;
+import org.eclipse.ecsp.oauth2.server.core.cache.SecurityContextCache;
+import org.eclipse.ecsp.oauth2.server.core.client.TenantWebClientRegistry;
+import org.eclipse.ecsp.oauth2.server.core.filter.JwkSetEndpointFilter;
 import org.eclipse.ecsp.oauth2.server.core.filter.TenantAwareAuthenticationFilter;
+import org.eclipse.ecsp.oauth2.server.core.filter.TenantPathRouter;
 import org.eclipse.ecsp.oauth2.server.core.metrics.AuthorizationMetricsService;
 import org.eclipse.ecsp.oauth2.server.core.mfa.MfaChallengeFilter;
 import org.eclipse.ecsp.oauth2.server.core.mfa.MfaSecretService;
@@ -65,12 +71,14 @@ import org.springframework.security.oauth2.server.authorization.authentication.O
 import org.springframework.security.oauth2.server.authorization.authentication.OAuth2AuthorizationCodeRequestAuthenticationProvider;
 import org.springframework.security.oauth2.server.authorization.authentication.OAuth2AuthorizationCodeRequestAuthenticationValidator;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
+import org.springframework.security.oauth2.server.authorization.settings.AuthorizationServerSettings;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.WebAttributes;
 import org.springframework.security.web.authentication.AuthenticationFailureHandler;
 import org.springframework.security.web.authentication.SavedRequestAwareAuthenticationSuccessHandler;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.authentication.logout.LogoutFilter;
 import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
 import org.springframework.security.web.savedrequest.CookieRequestCache;
 import org.springframework.security.web.savedrequest.RequestCache;
@@ -78,6 +86,7 @@ import org.springframework.security.web.session.HttpSessionEventPublisher;
 import org.springframework.security.web.util.matcher.MediaTypeRequestMatcher;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.util.UriComponentsBuilder;
+import java.time.Duration;
 import java.util.Enumeration;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -145,12 +154,16 @@ public class IgniteSecurityConfig {
     @Value("${api.security.patterns:/*/self/**,/self/**,/*/admin/**,/admin/**}")
     private String apiSecurityPatterns;
 
+    @Value("${uidam.jwks.cache.max.age.seconds:300}")
+    private long jwksCacheMaxAgeSeconds;
+
     private static final int INT_TWO = 2;
 
     private final TenantConfigurationService tenantConfigurationService;
     private final AuthorizationMetricsService authorizationMetricsService;
     private final AuditLogger auditLogger;
     private final CustomWebAuthenticationDetailsSource customWebAuthenticationDetailsSource;
+    private final TenantWebClientRegistry tenantWebClientRegistry;
 
     /**
      * Constructor for the IgniteSecurityConfig class. It stores the TenantConfigurationService,
@@ -161,15 +174,18 @@ public class IgniteSecurityConfig {
      * @param authorizationMetricsService Service for collecting authorization metrics.
      * @param auditLogger Service for logging audit events.
      * @param customWebAuthenticationDetailsSource Source for creating custom authentication details.
+     * @param tenantWebClientRegistry Registry of the per-tenant WebClients used for reCAPTCHA verification.
      */
     public IgniteSecurityConfig(TenantConfigurationService tenantConfigurationService,
             AuthorizationMetricsService authorizationMetricsService,
             AuditLogger auditLogger,
-            CustomWebAuthenticationDetailsSource customWebAuthenticationDetailsSource) {
+            CustomWebAuthenticationDetailsSource customWebAuthenticationDetailsSource,
+            TenantWebClientRegistry tenantWebClientRegistry) {
         this.tenantConfigurationService = tenantConfigurationService;
         this.authorizationMetricsService = authorizationMetricsService;
         this.auditLogger = auditLogger;
         this.customWebAuthenticationDetailsSource = customWebAuthenticationDetailsSource;
+        this.tenantWebClientRegistry = tenantWebClientRegistry;
     }
 
     /**
@@ -190,6 +206,11 @@ public class IgniteSecurityConfig {
      * @param customScopeValidator Custom scope validator for OAuth2 requests.
      * @param databaseSecurityContextRepository Database security context repository.
      * @param federatedIdentityAuthenticationSuccessHandler Handler for successful federated authentication.
+     * @param mfaSecretService Service for MFA secrets.
+     * @param mfaStateService Service for the MFA flow state.
+     * @param jwkSource JSON Web Key (JWK) source serving the JWK set endpoint.
+     * @param authorizationServerSettings Settings holding the endpoint paths of the authorization server.
+     * @param tenantPathRouter Router holding the compiled path keywords of the configured tenants.
      * @return Configured SecurityFilterChain instance.
      * @throws Exception If an error occurs during configuration.
      */
@@ -209,7 +230,10 @@ public class IgniteSecurityConfig {
             DatabaseSecurityContextRepository databaseSecurityContextRepository,
             FederatedIdentityAuthenticationSuccessHandler federatedIdentityAuthenticationSuccessHandler,
             MfaSecretService mfaSecretService,
-            MfaStateService mfaStateService) throws Exception {
+            MfaStateService mfaStateService,
+            JWKSource<SecurityContext> jwkSource,
+            AuthorizationServerSettings authorizationServerSettings,
+            TenantPathRouter tenantPathRouter) throws Exception {
 
         RequestCache requestCache = new CookieRequestCache();
         http.requestCache(requestCacheConfigurer -> requestCacheConfigurer.requestCache(requestCache));
@@ -272,7 +296,7 @@ public class IgniteSecurityConfig {
         // code is issued.  UsernamePasswordAuthenticationFilter is earlier in the chain, so
         // placing the filter before it guarantees it runs before any OAuth2 endpoint filter.
         MfaChallengeFilter mfaChallengeFilter = new MfaChallengeFilter(mfaSecretService,
-                this.tenantConfigurationService, mfaStateService);
+                this.tenantConfigurationService, mfaStateService, tenantPathRouter);
         http.addFilterBefore(mfaChallengeFilter, UsernamePasswordAuthenticationFilter.class);
 
         // This filter ensures only tenant-allowed authentication methods are executed
@@ -281,6 +305,14 @@ public class IgniteSecurityConfig {
         http.addFilterAfter(tenantAwareAuthenticationFilter,
                 org.springframework.security.web.authentication.www.BasicAuthenticationFilter.class);
 
+        // Serves the JWK set endpoint from the pre-serialized key ring document with ETag and Cache-Control.
+        // LogoutFilter runs after the header and CORS filters and before the default JWK set endpoint filter.
+        if (jwkSource instanceof TenantAwareJwkSource tenantAwareJwkSource) {
+            http.addFilterBefore(new JwkSetEndpointFilter(tenantAwareJwkSource,
+                    authorizationServerSettings.getJwkSetEndpoint(), Duration.ofSeconds(jwksCacheMaxAgeSeconds)),
+                    LogoutFilter.class);
+        }
+
         return http.build();
     }
 
@@ -423,7 +455,7 @@ public class IgniteSecurityConfig {
             CustomUserPwdAuthenticationFilter customUserPwdAuthenticationFilter = new CustomUserPwdAuthenticationFilter(
                     authenticationConfiguration.getAuthenticationManager(),
                     this.tenantConfigurationService,
-                    this.authorizationMetricsService, this.auditLogger);
+                    this.authorizationMetricsService, this.auditLogger, this.tenantWebClientRegistry);
             customUserPwdAuthenticationFilter.setSecurityContextRepository(databaseSecurityContextRepository);
             customUserPwdAuthenticationFilter.setAuthenticationSuccessHandler(
                     savedRequestAwareAuthenticationSuccessHandler);
@@ -464,13 +496,15 @@ public class IgniteSecurityConfig {
      * Uses tenant-aware session timeout configuration.
      *
      * @param authorizationSecurityContextRepository AuthorizationSecurityContextRepository
+     * @param securityContextCache SecurityContextCache
      * @return DatabaseSecurityContextRepository
      */
     @Bean
     public DatabaseSecurityContextRepository createDatabaseSecurityContextRepository(
-            AuthorizationSecurityContextRepository authorizationSecurityContextRepository) {
+            AuthorizationSecurityContextRepository authorizationSecurityContextRepository,
+            SecurityContextCache securityContextCache) {
         return new DatabaseSecurityContextRepository(authorizationSecurityContextRepository,
-                this.tenantConfigurationService, getTenantSessionTimeout());
+                this.tenantConfigurationService, getTenantSessionTimeout(), securityContextCache);
     }
 
     /**
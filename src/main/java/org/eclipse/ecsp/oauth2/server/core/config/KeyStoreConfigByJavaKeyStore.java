@@ -29,8 +29,10 @@ import org.springframework.context.annotation.Configuration;
 import java.security.KeyPair;
 import java.security.KeyStore;
 import java.security.interfaces.RSAPublicKey;
+import java.util.Map;
 
 import static org.eclipse.ecsp.oauth2.server.core.common.constants.AuthorizationServerConstants.TENANT_JWT_KEY_ID;
+import static org.eclipse.ecsp.oauth2.server.core.common.constants.AuthorizationServerConstants.TENANT_KEYSTORE_NEXT_ALIAS;
 
 /**
  * The KeyStoreConfigByJavaKeyStore class is a configuration class that uses Java KeyStore for generating RSA keys.
@@ -96,4 +98,36 @@ public class KeyStoreConfigByJavaKeyStore {
             throw new KeyGenerationException(e);
         }
     }
+
+    /**
+     * Generate the next RSA Key of a key rotation for current tenant, stored in the KeyStore under the next key
+     * alias. The next key is published ahead of its activation, so that resource servers already know it when it
+     * starts signing.
+     *
+     * @return the next RSAKey for current tenant, or null if no next key alias is configured
+     * @throws KeyGenerationException if the next key cannot be loaded or no next key ID is configured
+     */
+    public RSAKey generateNextRsaKey() {
+        Map<String, String> keyStoreProperties = tenantConfigurationService.getTenantProperties().getKeyStore();
+        String nextKeyAlias = keyStoreProperties != null ? keyStoreProperties.get(TENANT_KEYSTORE_NEXT_ALIAS) : null;
+        if (nextKeyAlias == null || nextKeyAlias.isBlank()) {
+            return null;
+        }
+        LOGGER.debug("## generateNextRsaKey using factory");
+
+        try {
+            String nextKeyId = KeyStoreConfigByPubPvtKey.requireNextKeyId(keyStoreProperties);
+            KeyPair keyPair = keyStoreFactory.getRsaKeyPairForCurrentTenant(nextKeyAlias);
+            String tenantId = TenantContext.getCurrentTenant();
+
+            return new RSAKey.Builder((RSAPublicKey) keyPair.getPublic())
+                    .privateKey(keyPair.getPrivate())
+                    .keyID(tenantId + "-" + nextKeyId)
+                    .build();
+
+        } catch (Exception e) {
+            LOGGER.error("Failed to generate next RSA key using factory: ", e);
+            throw new KeyGenerationException(e);
+        }
+    }
 }
\ No newline at end of file
@@ -134,6 +134,12 @@ public class LiquibaseConfig  {
             
             Map<String, String> liquibaseParams = new HashMap<>();
             liquibaseParams.put("schema", defaultUidamSchema);
+            liquibaseParams.put("authorizationPartitioningEnabled",
+                getProperty("uidam.authorization.partitioning.enabled", "false"));
+            liquibaseParams.put("authorizationPartitionIntervalDays",
+                getProperty("uidam.authorization.partition.interval.days", "1"));
+            liquibaseParams.put("authorizationPartitionPremakeDays",
+                getProperty("uidam.authorization.partition.premake.days", "60"));
             liquibase.setChangeLogParameters(liquibaseParams);
 
             try (Connection conn = tenantDataSource.getConnection()) {
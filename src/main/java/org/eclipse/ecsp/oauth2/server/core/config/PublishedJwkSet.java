@@ -0,0 +1,111 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.oauth2.server.core.config;
+
+import com.nimbusds.jose.jwk.JWKSet;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * The JWK set document of a tenant, serialized once per {@link TenantKeyRing} so that serving the JWK set endpoint
+ * only writes bytes.
+ *
+ * <p>The entity tag is derived from the SHA-256 hash of the document, so every instance of the authorization server
+ * publishing the same keys returns the same strong entity tag and clients can revalidate against any of them.
+ */
+public final class PublishedJwkSet {
+
+    private static final String WEAK_PREFIX = "W/";
+    private static final String ANY_ETAG = "*";
+
+    private final byte[] body;
+    private final String etag;
+
+    private PublishedJwkSet(byte[] body, String etag) {
+        this.body = body;
+        this.etag = etag;
+    }
+
+    /**
+     * Serializes the public parts of the given keys.
+     *
+     * @param jwkSet the published keys
+     * @return the serialized JWK set
+     */
+    public static PublishedJwkSet of(JWKSet jwkSet) {
+        byte[] body = jwkSet.toString(true).getBytes(StandardCharsets.UTF_8);
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(body);
+            return new PublishedJwkSet(body, '"' + Base64.getUrlEncoder().withoutPadding().encodeToString(hash) + '"');
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Returns the serialized JWK set. The returned array must not be modified.
+     *
+     * @return the UTF-8 encoded JWK set document
+     */
+    public byte[] getBody() {
+        return body;
+    }
+
+    /**
+     * Returns the strong entity tag of the JWK set document, including the surrounding quotes.
+     *
+     * @return the entity tag
+     */
+    public String getEtag() {
+        return etag;
+    }
+
+    /**
+     * Checks whether an If-None-Match header value matches the entity tag of this document, using the weak
+     * comparison required for If-None-Match.
+     *
+     * @param ifNoneMatch the If-None-Match header value, a comma separated list of entity tags or "*"
+     * @return true if the client already holds this document
+     */
+    public boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        int start = 0;
+        while (start < ifNoneMatch.length()) {
+            int end = ifNoneMatch.indexOf(',', start);
+            if (end < 0) {
+                end = ifNoneMatch.length();
+            }
+            String candidate = ifNoneMatch.substring(start, end).trim();
+            if (candidate.startsWith(WEAK_PREFIX)) {
+                candidate = candidate.substring(WEAK_PREFIX.length());
+            }
+            if (ANY_ETAG.equals(candidate) || etag.equals(candidate)) {
+                return true;
+            }
+            start = end + 1;
+        }
+        return false;
+    }
+}
@@ -19,8 +19,8 @@
 package org.eclipse.ecsp.oauth2.server.core.config;
 
 import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
 import com.nimbusds.jose.jwk.JWKSelector;
-import com.nimbusds.jose.jwk.JWKSet;
 import com.nimbusds.jose.jwk.RSAKey;
 import com.nimbusds.jose.jwk.source.JWKSource;
 import com.nimbusds.jose.proc.SecurityContext;
@@ -31,27 +31,56 @@ import org.eclipse.ecsp.oauth2.server.core.service.TenantConfigurationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.eclipse.ecsp.oauth2.server.core.common.constants.AuthorizationServerConstants.TENANT_JWT_NEXT_KEY_ACTIVATION;
 
 /**
  * Tenant-aware JWKSource implementation that dynamically resolves JSON Web Keys (JWKs)
- * based on the current tenant context. This class caches JWK sets per tenant for performance
+ * based on the current tenant context. This class caches a {@link TenantKeyRing} per tenant for performance
  * while ensuring each tenant uses the correct cryptographic keys.
+ *
+ * <p>The key ring of a tenant holds its active signing key, the next key configured for a rotation and the keys
+ * retired by earlier rotations. Selectors asking for a single key ID, as used to verify a token, are answered with a
+ * single lookup in the key ring; all other selectors, e.g. those of the JWK set endpoint and the JWT encoder, see the
+ * published keys only, i.e. the active and the next key. The JWT encoder picks the active key through
+ * {@link #selectSigningKey(List)}.
+ *
+ * <p>Key rings are refreshed off the request path by {@link #refreshCurrentTenantKeyRing(Instant)}, which loads the
+ * configured keys, promotes the next key once its activation time has passed and drops retired keys after the
+ * retention period.
+ *
+ * <p>Components caching objects derived from the keys, e.g. JWT verifiers, register a
+ * {@link CacheInvalidationListener} to be told when the keys of a tenant are cleared from the cache or rotated.
  */
 public class TenantAwareJwkSource implements JWKSource<SecurityContext> {
     
     private static final Logger LOGGER = LoggerFactory.getLogger(TenantAwareJwkSource.class);
+
+    private static final Duration DEFAULT_RETIRED_KEY_RETENTION = Duration.ofDays(1);
     
     private final TenantConfigurationService tenantConfigurationService;
     private final KeyStoreConfigByPubPvtKey keyStoreConfigByPubPvtKey;
     private final KeyStoreConfigByJavaKeyStore keyStoreConfigByJavaKeyStore;
+    private final Duration retiredKeyRetention;
     
-    // Cache JWK sets per tenant for performance
-    private final ConcurrentHashMap<String, JWKSet> tenantJwkCache = new ConcurrentHashMap<>();
+    // Cache key rings per tenant for performance
+    private final ConcurrentHashMap<String, TenantKeyRing> tenantKeyRings = new ConcurrentHashMap<>();
+    // Key rings cleared from the cache, whose retired keys carry over to the reloaded key ring
+    private final ConcurrentHashMap<String, TenantKeyRing> clearedKeyRings = new ConcurrentHashMap<>();
+
+    private final List<CacheInvalidationListener> invalidationListeners = new CopyOnWriteArrayList<>();
     
     /**
-     * Constructor for TenantAwareJWKSource.
+     * Constructor for TenantAwareJWKSource keeping retired keys for one day.
      *
      * @param tenantConfigurationService   Service to retrieve tenant-specific configuration
      * @param keyStoreConfigByPubPvtKey   Configuration for KeyStore by Public and Private Key
@@ -60,15 +89,33 @@ public class TenantAwareJwkSource implements JWKSource<SecurityContext> {
     public TenantAwareJwkSource(TenantConfigurationService tenantConfigurationService,
                                 KeyStoreConfigByPubPvtKey keyStoreConfigByPubPvtKey,
                                 KeyStoreConfigByJavaKeyStore keyStoreConfigByJavaKeyStore) {
+        this(tenantConfigurationService, keyStoreConfigByPubPvtKey, keyStoreConfigByJavaKeyStore,
+            DEFAULT_RETIRED_KEY_RETENTION);
+    }
+
+    /**
+     * Constructor for TenantAwareJWKSource.
+     *
+     * @param tenantConfigurationService   Service to retrieve tenant-specific configuration
+     * @param keyStoreConfigByPubPvtKey   Configuration for KeyStore by Public and Private Key
+     * @param keyStoreConfigByJavaKeyStore Configuration for KeyStore by Java KeyStore
+     * @param retiredKeyRetention how long keys retired by a rotation still verify tokens; should cover the longest
+     *                            lifetime of a JWT signed by the authorization server
+     */
+    public TenantAwareJwkSource(TenantConfigurationService tenantConfigurationService,
+                                KeyStoreConfigByPubPvtKey keyStoreConfigByPubPvtKey,
+                                KeyStoreConfigByJavaKeyStore keyStoreConfigByJavaKeyStore,
+                                Duration retiredKeyRetention) {
         this.tenantConfigurationService = tenantConfigurationService;
         this.keyStoreConfigByPubPvtKey = keyStoreConfigByPubPvtKey;
         this.keyStoreConfigByJavaKeyStore = keyStoreConfigByJavaKeyStore;
+        this.retiredKeyRetention = retiredKeyRetention;
     }
     
     /**
      * Retrieves JWKs matching the specified selector for the current tenant.
      * This method dynamically resolves the tenant context and returns the appropriate
-     * JWK set for that tenant.
+     * keys of the key ring of that tenant.
      *
      * @param jwkSelector    The JWK selector to match keys against
      * @param securityContext The security context (optional)
@@ -77,53 +124,181 @@ public class TenantAwareJwkSource implements JWKSource<SecurityContext> {
     @Override
     public List<JWK> get(JWKSelector jwkSelector, SecurityContext securityContext) {
         try {
-            // Get current tenant properties
-            TenantProperties tenantProperties = getCurrentTenantProperties();
-            
-            // Generate a tenant-specific cache key
-            String tenantId = tenantProperties.getTenantName();
-            if (tenantId == null) {
-                tenantId = "default";
-            }
-            LOGGER.info("JWKSelector cache Key tenantId : {}", tenantId);
-            // Get or create JWK set for this tenant
-            JWKSet jwkSet = tenantJwkCache.computeIfAbsent(tenantId, k -> createJwkSetForTenant(tenantProperties));
-            
-            // Apply selector to find matching keys
-            return jwkSelector.select(jwkSet);
-            
+            return select(jwkSelector, getCurrentTenantKeyRing());
         } catch (Exception e) {
             LOGGER.error("Error retrieving JWKs for tenant", e);
             throw new RuntimeException("Failed to retrieve JWKs for tenant", e);
         }
     }
+
+    /**
+     * Picks the key signing new tokens of the current tenant among the candidates matching the selector of the JWT
+     * encoder, which are the active and the next key.
+     *
+     * @param candidates the published keys matching the selector of the JWT encoder
+     * @return the active key of the current tenant
+     * @throws IllegalStateException if the active key is not among the candidates
+     */
+    public JWK selectSigningKey(List<JWK> candidates) {
+        String activeKeyId = getCurrentTenantKeyRing().getActiveKey().getKeyID();
+        return candidates.stream()
+            .filter(candidate -> Objects.equals(candidate.getKeyID(), activeKeyId))
+            .findFirst()
+            .orElseThrow(() -> new IllegalStateException("Active signing key not found: " + activeKeyId));
+    }
+
+    /**
+     * Returns the key ring of the current tenant, loading it on first use.
+     *
+     * @return the key ring of the current tenant
+     * @throws IllegalStateException if no tenant properties are found
+     */
+    public TenantKeyRing getCurrentTenantKeyRing() {
+        // Get current tenant properties
+        TenantProperties tenantProperties = getCurrentTenantProperties();
+
+        // Generate a tenant-specific cache key
+        String tenantId = cacheKey(tenantProperties);
+        LOGGER.debug("JWKSelector cache Key tenantId : {}", tenantId);
+        // Get or create the key ring for this tenant
+        return tenantKeyRings.computeIfAbsent(tenantId,
+            k -> createKeyRingForTenant(tenantId, tenantProperties, Instant.now()));
+    }
+
+    /**
+     * Reloads the configured keys of the current tenant and rotates its key ring: the next key is promoted once its
+     * activation time has passed, the previously active key is retired and retired keys are dropped after the
+     * retention period. Registered listeners are notified if the key ring changed.
+     *
+     * <p>Called periodically for every tenant, so that loading keys and rotating them never happens on the request
+     * path.
+     *
+     * @param now the current time
+     * @throws IllegalStateException if no tenant properties are found
+     */
+    public void refreshCurrentTenantKeyRing(Instant now) {
+        TenantProperties tenantProperties = getCurrentTenantProperties();
+        String tenantId = cacheKey(tenantProperties);
+        TenantKeyRing current = tenantKeyRings.get(tenantId);
+        TenantKeyRing refreshed = current == null
+            ? createKeyRingForTenant(tenantId, tenantProperties, now)
+            : refresh(current, loadConfiguredKeys(tenantProperties), now);
+        if (refreshed == current) {
+            return;
+        }
+        tenantKeyRings.put(tenantId, refreshed);
+        if (current != null) {
+            LOGGER.info("Rotated key ring of tenant {}: active key {}, next key {}, {} retired key(s)", tenantId,
+                refreshed.getActiveKey().getKeyID(),
+                refreshed.getNextKey() != null ? refreshed.getNextKey().getKeyID() : null,
+                refreshed.getRetiredKeys().size());
+            invalidationListeners.forEach(listener -> listener.tenantCleared(tenantId));
+        }
+    }
     
     /**
-     * Creates a JWK set for the specified tenant using tenant-specific configuration.
+     * Returns the key under which the key ring of the current tenant is cached. This is the tenant ID passed to
+     * {@link #clearCacheForTenant(String)} and to the registered {@link CacheInvalidationListener}s.
+     *
+     * @return the cache key of the current tenant
+     * @throws IllegalStateException if no tenant properties are found
+     */
+    public String getCurrentTenantCacheKey() {
+        return cacheKey(getCurrentTenantProperties());
+    }
+
+    /**
+     * Registers a listener that is notified whenever key rings are cleared from the cache or rotated.
+     *
+     * @param listener the listener
+     */
+    public void addCacheInvalidationListener(CacheInvalidationListener listener) {
+        invalidationListeners.add(listener);
+    }
+
+    private static String cacheKey(TenantProperties tenantProperties) {
+        String tenantId = tenantProperties.getTenantName();
+        return tenantId != null ? tenantId : "default";
+    }
+
+    /**
+     * Selects the matching keys of a key ring. A selector for exactly one key ID is answered by a lookup by key ID,
+     * which also finds retired keys; any other selector is applied to the published keys.
+     */
+    private static List<JWK> select(JWKSelector jwkSelector, TenantKeyRing keyRing) {
+        JWKMatcher matcher = jwkSelector.getMatcher();
+        Set<String> keyIds = matcher != null ? matcher.getKeyIDs() : null;
+        if (keyIds != null && keyIds.size() == 1) {
+            RSAKey key = keyRing.findByKeyId(keyIds.iterator().next());
+            if (key != null) {
+                return matcher.matches(key) ? List.of(key) : List.of();
+            }
+        }
+        return jwkSelector.select(keyRing.getPublishedKeys());
+    }
+
+    /**
+     * Creates the key ring for the specified tenant using tenant-specific configuration. If the key ring of the
+     * tenant was cleared from the cache, the new key ring is derived from the cleared one, so that the keys it
+     * retired, and its active key if that is no longer configured, still verify tokens for the retention period.
+     *
+     * @param tenantId the cache key of the tenant
+     * @param tenantProperties The tenant properties containing key configuration
+     * @param now the current time
+     * @return the key ring containing the tenant's cryptographic keys
+     */
+    private TenantKeyRing createKeyRingForTenant(String tenantId, TenantProperties tenantProperties, Instant now) {
+        ConfiguredKeys configured = loadConfiguredKeys(tenantProperties);
+        TenantKeyRing cleared = clearedKeyRings.remove(tenantId);
+        if (cleared != null) {
+            return refresh(cleared, configured, now);
+        }
+        return TenantKeyRing.of(configured.activeKey(), configured.nextKey(), configured.nextKeyActivation(), now);
+    }
+
+    private TenantKeyRing refresh(TenantKeyRing keyRing, ConfiguredKeys configured, Instant now) {
+        return keyRing.refresh(configured.activeKey(), configured.nextKey(), configured.nextKeyActivation(), now,
+            retiredKeyRetention);
+    }
+
+    /**
+     * Loads the configured active and next keys of the specified tenant.
      *
      * @param tenantProperties The tenant properties containing key configuration
-     * @return JWKSet containing the tenant's cryptographic keys
+     * @return the configured keys
      */
-    private JWKSet createJwkSetForTenant(TenantProperties tenantProperties) {
+    private ConfiguredKeys loadConfiguredKeys(TenantProperties tenantProperties) {
         try {
             LOGGER.debug("Creating JWK set for tenant: {}", tenantProperties.getTenantName());
 
-            RSAKey rsaKey;
             if (BooleanUtils.isTrue(tenantProperties.getJksEnabled())) {
                 LOGGER.debug("Using Java KeyStore configuration for tenant: {}", tenantProperties.getTenantName());
-                rsaKey = keyStoreConfigByJavaKeyStore.generateRsaKey();
-            } else {
-                LOGGER.debug("Using Public/Private Key configuration for tenant: {}", tenantProperties.getTenantName());
-                rsaKey = keyStoreConfigByPubPvtKey.generateRsaKey();
+                return new ConfiguredKeys(keyStoreConfigByJavaKeyStore.generateRsaKey(),
+                    keyStoreConfigByJavaKeyStore.generateNextRsaKey(),
+                    nextKeyActivation(tenantProperties.getKeyStore()));
             }
-
-            return new JWKSet(rsaKey);
+            LOGGER.debug("Using Public/Private Key configuration for tenant: {}", tenantProperties.getTenantName());
+            return new ConfiguredKeys(keyStoreConfigByPubPvtKey.generateRsaKey(),
+                keyStoreConfigByPubPvtKey.generateNextRsaKey(), nextKeyActivation(tenantProperties.getCert()));
 
         } catch (KeyGenerationException e) {
             LOGGER.error("Failed to create JWK set for tenant: {}", tenantProperties.getTenantName(), e);
             throw new RuntimeException("Failed to create JWK set for tenant: " + tenantProperties.getTenantName(), e);
         }
     }
+
+    private static Instant nextKeyActivation(Map<String, String> keyProperties) {
+        String activation = keyProperties != null ? keyProperties.get(TENANT_JWT_NEXT_KEY_ACTIVATION) : null;
+        if (activation == null || activation.isBlank()) {
+            return null;
+        }
+        try {
+            return Instant.parse(activation.trim());
+        } catch (DateTimeParseException e) {
+            LOGGER.error("Ignoring invalid next key activation time: {}", activation);
+            return null;
+        }
+    }
     
     /**
      * Retrieves the current tenant properties from the TenantConfigurationService.
@@ -140,22 +315,63 @@ public class TenantAwareJwkSource implements JWKSource<SecurityContext> {
     }
     
     /**
-     * Clears the JWK cache for a specific tenant.
-     * This can be useful for cache invalidation scenarios.
+     * Clears the key ring cache for a specific tenant.
+     * This can be useful for cache invalidation scenarios. The configured keys are loaded again on next use, while
+     * retired keys are kept until the end of their retention period.
      *
      * @param tenantId The tenant ID to clear from cache
      */
     public void clearCacheForTenant(String tenantId) {
-        tenantJwkCache.remove(tenantId);
+        tenantKeyRings.computeIfPresent(tenantId, this::moveToCleared);
+        invalidationListeners.forEach(listener -> listener.tenantCleared(tenantId));
         LOGGER.debug("Cleared JWK cache for tenant: {}", tenantId);
     }
     
     /**
-     * Clears the entire JWK cache.
-     * This can be useful for complete cache refresh scenarios.
+     * Clears the entire key ring cache.
+     * This can be useful for complete cache refresh scenarios. As with {@link #clearCacheForTenant(String)},
+     * retired keys are kept until the end of their retention period.
      */
     public void clearAllCache() {
-        tenantJwkCache.clear();
+        tenantKeyRings.keySet().forEach(tenantId -> tenantKeyRings.computeIfPresent(tenantId, this::moveToCleared));
+        invalidationListeners.forEach(CacheInvalidationListener::allCleared);
         LOGGER.debug("Cleared entire JWK cache");
     }
+
+    /**
+     * Keeps a key ring removed from the cache, within the same atomic update, so that a key ring created
+     * concurrently already derives from it.
+     *
+     * @param tenantId the cache key of the tenant
+     * @param keyRing the key ring removed from the cache
+     * @return null, which removes the key ring from the cache
+     */
+    private TenantKeyRing moveToCleared(String tenantId, TenantKeyRing keyRing) {
+        clearedKeyRings.put(tenantId, keyRing);
+        return null;
+    }
+
+    /**
+     * The keys configured for a tenant.
+     */
+    private record ConfiguredKeys(RSAKey activeKey, RSAKey nextKey, Instant nextKeyActivation) {
+    }
+
+    /**
+     * Listener notified when key rings are cleared from the cache or rotated.
+     */
+    public interface CacheInvalidationListener {
+
+        /**
+         * Called after the key ring of a tenant has been cleared from the cache or rotated.
+         *
+         * @param tenantId the cache key of the tenant
+         */
+        void tenantCleared(String tenantId);
+
+        /**
+         * Called after the key rings of all tenants have been cleared from the cache.
+         */
+        void allCleared();
+    }
 }
@@ -81,6 +81,31 @@ public class TenantAwareKeyStoreFactory {
             + createKeyPairCacheKey(tenantProperties);
         return keyPairCache.computeIfAbsent(cacheKey, k -> createKeyPair(tenantProperties));
     }
+
+    /**
+     * Get the RSA KeyPair stored under the given alias in the Java KeyStore of the current tenant, e.g. the next key
+     * of a key rotation.
+     *
+     * @param keyAlias alias of the key in the KeyStore
+     * @return RSA KeyPair for the alias
+     */
+    public KeyPair getRsaKeyPairForCurrentTenant(String keyAlias) {
+        TenantProperties tenantProperties = tenantConfigurationService.getTenantProperties();
+        if (tenantProperties == null) {
+            throw new IllegalStateException("No tenant properties available for current request");
+        }
+
+        String cacheKey = tenantProperties.getTenantId() + "-keystore:"
+            + tenantProperties.getKeyStore().get(TENANT_KEYSTORE_FILENAME) + ":" + keyAlias;
+        return keyPairCache.computeIfAbsent(cacheKey, k -> {
+            try {
+                return createKeyPairFromKeyStore(tenantProperties, keyAlias);
+            } catch (Exception e) {
+                LOGGER.error("Failed to create RSA KeyPair for alias {}: ", keyAlias, e);
+                throw new RuntimeException("Failed to create RSA KeyPair for tenant", e);
+            }
+        });
+    }
     
     /**
      * Get Public Key from Java KeyStore.
@@ -156,9 +181,16 @@ public class TenantAwareKeyStoreFactory {
      */
     private KeyPair createKeyPairFromKeyStore(TenantProperties tenantProperties)
             throws KeyStoreException, NoSuchAlgorithmException, UnrecoverableKeyException {
+        return createKeyPairFromKeyStore(tenantProperties, tenantProperties.getKeyStore().get(TENANT_KEYSTORE_ALIAS));
+    }
+
+    /**
+     * Create RSA KeyPair for the given alias from Java KeyStore.
+     */
+    private KeyPair createKeyPairFromKeyStore(TenantProperties tenantProperties, String keyAlias)
+            throws KeyStoreException, NoSuchAlgorithmException, UnrecoverableKeyException {
 
         KeyStore keyStore = getKeyStoreForCurrentTenant();
-        String keyAlias = tenantProperties.getKeyStore().get(TENANT_KEYSTORE_ALIAS);
         String keyPassword = tenantProperties.getKeyStore().get(TENANT_KEYSTORE_PASS);
 
         PrivateKey privateKey = (PrivateKey) keyStore.getKey(keyAlias, keyPassword.toCharArray());
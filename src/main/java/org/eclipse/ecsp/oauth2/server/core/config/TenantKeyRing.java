@@ -0,0 +1,225 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.oauth2.server.core.config;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable snapshot of the signing keys of one tenant, used by {@link TenantAwareJwkSource}.
+ *
+ * <p>A key ring holds up to three kinds of keys:
+ * <ul>
+ *   <li>the active key, which signs new tokens,</li>
+ *   <li>the next key, which is published ahead of its activation time so that resource servers already know it
+ *   when it starts signing,</li>
+ *   <li>retired keys, which signed tokens before the last promotion. They are no longer published but are still
+ *   found by key ID for the retention period, so tokens issued before a rotation stay verifiable.</li>
+ * </ul>
+ *
+ * <p>Rotating never mutates a ring: {@link #refresh(RSAKey, RSAKey, Instant, Instant, Duration)} returns a new ring,
+ * which the caller publishes atomically. Lookups by key ID are a single hash map access, and the JWK set document
+ * is serialized at most once per ring.
+ */
+public final class TenantKeyRing {
+
+    private final RSAKey activeKey;
+    private final RSAKey nextKey;
+    private final List<RetiredKey> retiredKeys;
+    private final Map<String, RSAKey> keysById;
+    private final JWKSet publishedKeys;
+    private volatile PublishedJwkSet publishedJwkSet;
+
+    private TenantKeyRing(RSAKey activeKey, RSAKey nextKey, List<RetiredKey> retiredKeys) {
+        this.activeKey = Objects.requireNonNull(activeKey, "activeKey");
+        if (nextKey != null && (nextKey.getKeyID() == null || nextKey.getKeyID().isBlank())) {
+            // Without a key ID the next key could not be told apart from the active key once published
+            throw new IllegalArgumentException("The next signing key has no key ID");
+        }
+        this.nextKey = nextKey;
+        this.retiredKeys = Collections.unmodifiableList(retiredKeys);
+        Map<String, RSAKey> byId = new HashMap<>();
+        retiredKeys.forEach(retired -> putKey(byId, retired.key()));
+        putKey(byId, nextKey);
+        putKey(byId, activeKey);
+        this.keysById = Collections.unmodifiableMap(byId);
+        List<JWK> published = new ArrayList<>();
+        published.add(activeKey);
+        if (nextKey != null) {
+            published.add(nextKey);
+        }
+        this.publishedKeys = new JWKSet(published);
+    }
+
+    /**
+     * Creates the key ring of a tenant from its configured keys. The next key is promoted right away if its
+     * activation time has already passed; the configured active key is then retired as of the activation time, as
+     * it signed tokens until then.
+     *
+     * @param configuredActiveKey the configured active key
+     * @param configuredNextKey the configured next key, or null if none is configured
+     * @param nextKeyActivation the time from which the next key signs, or null to only publish it
+     * @param now the current time
+     * @return the key ring
+     * @throws IllegalArgumentException if the next key has no key ID
+     */
+    public static TenantKeyRing of(RSAKey configuredActiveKey, RSAKey configuredNextKey, Instant nextKeyActivation,
+                                   Instant now) {
+        if (isDue(configuredNextKey, nextKeyActivation, now)) {
+            List<RetiredKey> retired = sameKeyId(configuredActiveKey, configuredNextKey) ? List.of()
+                : List.of(new RetiredKey(configuredActiveKey, nextKeyActivation));
+            return new TenantKeyRing(configuredNextKey, null, retired);
+        }
+        return new TenantKeyRing(configuredActiveKey, configuredNextKey, List.of());
+    }
+
+    /**
+     * Returns the key ring resulting from the currently configured keys. If the key that should sign now differs
+     * from the active key of this ring, the active key is retired. Retired keys older than the retention period are
+     * dropped.
+     *
+     * @param configuredActiveKey the configured active key
+     * @param configuredNextKey the configured next key, or null if none is configured
+     * @param nextKeyActivation the time from which the next key signs, or null to only publish it
+     * @param now the current time
+     * @param retention how long retired keys are kept for verification
+     * @return the refreshed key ring, or this ring if nothing changed
+     * @throws IllegalArgumentException if the next key has no key ID
+     */
+    public TenantKeyRing refresh(RSAKey configuredActiveKey, RSAKey configuredNextKey, Instant nextKeyActivation,
+                                 Instant now, Duration retention) {
+        boolean promote = isDue(configuredNextKey, nextKeyActivation, now);
+        RSAKey newActiveKey = promote ? configuredNextKey : configuredActiveKey;
+        RSAKey newNextKey = promote ? null : configuredNextKey;
+
+        List<RetiredKey> newRetiredKeys = new ArrayList<>();
+        Instant cutoff = now.minus(retention);
+        for (RetiredKey retired : retiredKeys) {
+            if (retired.retiredAt().isAfter(cutoff)) {
+                newRetiredKeys.add(retired);
+            }
+        }
+        if (!sameKeyId(activeKey, newActiveKey) && !sameKeyId(activeKey, newNextKey)) {
+            newRetiredKeys.add(new RetiredKey(activeKey, now));
+        }
+        newRetiredKeys.removeIf(retired -> sameKeyId(retired.key(), newActiveKey)
+            || sameKeyId(retired.key(), newNextKey));
+
+        if (activeKey.equals(newActiveKey) && Objects.equals(nextKey, newNextKey)
+                && retiredKeys.equals(newRetiredKeys)) {
+            return this;
+        }
+        return new TenantKeyRing(newActiveKey, newNextKey, newRetiredKeys);
+    }
+
+    /**
+     * Returns the key signing new tokens.
+     *
+     * @return the active key
+     */
+    public RSAKey getActiveKey() {
+        return activeKey;
+    }
+
+    /**
+     * Returns the key published ahead of its activation.
+     *
+     * @return the next key, or null if none is configured
+     */
+    public RSAKey getNextKey() {
+        return nextKey;
+    }
+
+    /**
+     * Returns the keys retired by earlier promotions that are still kept for verification.
+     *
+     * @return the retired keys, oldest first
+     */
+    public List<RetiredKey> getRetiredKeys() {
+        return retiredKeys;
+    }
+
+    /**
+     * Finds a key of the ring by its key ID, including retired keys.
+     *
+     * @param keyId the key ID
+     * @return the key, or null if the ring holds no key with this ID
+     */
+    public RSAKey findByKeyId(String keyId) {
+        return keyId != null ? keysById.get(keyId) : null;
+    }
+
+    /**
+     * Returns the keys published in the JWK set: the active key followed by the next key, if any.
+     *
+     * @return the published keys
+     */
+    public JWKSet getPublishedKeys() {
+        return publishedKeys;
+    }
+
+    /**
+     * Returns the serialized JWK set document of the published keys. It is serialized on first use and then reused
+     * for the lifetime of this ring, i.e. until the keys change.
+     *
+     * @return the serialized published keys
+     */
+    public PublishedJwkSet getPublishedJwkSet() {
+        PublishedJwkSet jwkSet = publishedJwkSet;
+        if (jwkSet == null) {
+            // Concurrent first calls may both serialize; the results are identical
+            jwkSet = PublishedJwkSet.of(publishedKeys);
+            publishedJwkSet = jwkSet;
+        }
+        return jwkSet;
+    }
+
+    private static boolean isDue(RSAKey nextKey, Instant activation, Instant now) {
+        return nextKey != null && activation != null && !now.isBefore(activation);
+    }
+
+    private static boolean sameKeyId(RSAKey key, RSAKey other) {
+        return key != null && other != null && Objects.equals(key.getKeyID(), other.getKeyID());
+    }
+
+    private static void putKey(Map<String, RSAKey> keysById, RSAKey key) {
+        if (key != null && key.getKeyID() != null) {
+            keysById.put(key.getKeyID(), key);
+        }
+    }
+
+    /**
+     * A key retired from signing together with the time it was retired.
+     *
+     * @param key the retired key
+     * @param retiredAt the time the key stopped signing
+     */
+    public record RetiredKey(RSAKey key, Instant retiredAt) {
+    }
+}
@@ -24,6 +24,7 @@ import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.http.HttpServletRequest;
 import org.apache.commons.lang3.StringUtils;
+import org.eclipse.ecsp.oauth2.server.core.cache.UserDetailsCache.UserDetailsChangedEvent;
 import org.eclipse.ecsp.oauth2.server.core.client.UserManagementClient;
 import org.eclipse.ecsp.oauth2.server.core.common.UpdatePasswordData;
 import org.eclipse.ecsp.oauth2.server.core.common.constants.IgniteOauth2CoreConstants;
@@ -40,6 +41,7 @@ import org.eclipse.ecsp.oauth2.server.core.utils.UiAttributeUtils;
 import org.eclipse.ecsp.sql.multitenancy.TenantContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -89,6 +91,7 @@ public class PasswordRecoveryController {
     private final CaptchaServiceImpl captchaServiceImpl;
     private final PasswordPolicyService passwordPolicyService;
     private final UiAttributeUtils uiAttributeUtils;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * This is the constructor for the PasswordRecoveryController class.
@@ -99,17 +102,20 @@ public class PasswordRecoveryController {
      * @param captchaServiceImpl The service for captcha processing.
      * @param passwordPolicyService The service for password policy management.
      * @param uiAttributeUtils The utility for adding UI attributes to models.
+     * @param eventPublisher The publisher telling the user details cache about changed passwords.
      */
     public PasswordRecoveryController(TenantConfigurationService tenantConfigurationService,
             UserManagementClient userManagementClient,
             CaptchaServiceImpl captchaServiceImpl,
             PasswordPolicyService passwordPolicyService,
-            UiAttributeUtils uiAttributeUtils) {
+            UiAttributeUtils uiAttributeUtils,
+            ApplicationEventPublisher eventPublisher) {
         this.tenantConfigurationService = tenantConfigurationService;
         this.userManagementClient = userManagementClient;
         this.captchaServiceImpl = captchaServiceImpl;
         this.passwordPolicyService = passwordPolicyService;
         this.uiAttributeUtils = uiAttributeUtils;
+        this.eventPublisher = eventPublisher;
     }
 
     private static final String MESSAGE_LITERAL = "message";
@@ -293,6 +299,8 @@ public class PasswordRecoveryController {
             forgotPasswordError.addAllObjects(model.asMap());
             return forgotPasswordError;
         }
+        // The recovery secret does not tell which user changed the password, so all users of the tenant are evicted
+        eventPublisher.publishEvent(new UserDetailsChangedEvent(tenantId, null));
         ModelAndView successResult = new ModelAndView(RECOVERY_PASSWORD_CHANGED)
                 .addObject(MESSAGE_LITERAL, IgniteOauth2CoreConstants.PASSWORD_UPDATED_SUCCESSFULLY)
                 .addObject(ISSUER_PARAM, tenantId);
@@ -64,6 +64,8 @@ public class Authorization {
 
     @Column(name = "ACCESS_TOKEN_VALUE", length = 8000)
     private String accessTokenValue;
+    @Column(name = "ACCESS_TOKEN_DIGEST", length = 64)
+    private byte[] accessTokenDigest;
     @Column(name = "ACCESS_TOKEN_ISSUED_AT")
     private Instant accessTokenIssuedAt;
     @Column(name = "ACCESS_TOKEN_EXPIRES_AT")
@@ -77,6 +79,8 @@ public class Authorization {
 
     @Column(name = "REFRESH_TOKEN_VALUE", length = 8000)
     private String refreshTokenValue;
+    @Column(name = "REFRESH_TOKEN_DIGEST", length = 64)
+    private byte[] refreshTokenDigest;
     @Column(name = "REFRESH_TOKEN_ISSUED_AT")
     private Instant refreshTokenIssuedAt;
     @Column(name = "REFRESH_TOKEN_EXPIRES_AT")
@@ -86,6 +90,8 @@ public class Authorization {
 
     @Column(name = "OIDC_ID_TOKEN_VALUE", length = 8000)
     private String oidcIdTokenValue;
+    @Column(name = "OIDC_ID_TOKEN_DIGEST", length = 64)
+    private byte[] oidcIdTokenDigest;
     @Column(name = "OIDC_ID_TOKEN_ISSUED_AT")
     private Instant oidcIdTokenIssuedAt;
     @Column(name = "OIDC_ID_TOKEN_EXPIRES_AT")
@@ -112,5 +118,11 @@ public class Authorization {
     private Instant deviceCodeExpiresAt;
     @Column(name = "DEVICE_CODE_METADATA", length = 2000)
     private String deviceCodeMetadata;
+    @Column(name = "EFFECTIVE_EXPIRES_AT")
+    private Instant effectiveExpiresAt;
+    @Column(name = "ACCESS_TOKEN_INVALIDATED", nullable = false)
+    private boolean accessTokenInvalidated;
+    @Column(name = "REFRESH_TOKEN_INVALIDATED", nullable = false)
+    private boolean refreshTokenInvalidated;
 }
 
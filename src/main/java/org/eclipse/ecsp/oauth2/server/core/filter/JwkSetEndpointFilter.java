@@ -0,0 +1,110 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.oauth2.server.core.filter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.eclipse.ecsp.oauth2.server.core.config.PublishedJwkSet;
+import org.eclipse.ecsp.oauth2.server.core.config.TenantAwareJwkSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Serves the JWK set endpoint ({@code /oauth2/jwks} and {@code /{tenant}/oauth2/jwks}) from the pre-serialized
+ * {@link PublishedJwkSet} of the current tenant's key ring instead of assembling the document per request.
+ *
+ * <p>Responses carry a strong ETag and a {@code Cache-Control: public, max-age} header, and conditional requests
+ * whose If-None-Match header matches the current ETag are answered with 304 Not Modified. Since the document only
+ * changes when the key ring of the tenant changes, polling resource servers and gateways cost a map lookup and,
+ * at most, writing the cached bytes.
+ *
+ * <p>If the key ring of the tenant cannot be loaded the request is passed on to the default JWK set endpoint of
+ * the authorization server, which reports the error.
+ */
+public class JwkSetEndpointFilter extends OncePerRequestFilter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JwkSetEndpointFilter.class);
+
+    private final TenantAwareJwkSource jwkSource;
+    private final String jwkSetEndpoint;
+    private final String cacheControl;
+
+    /**
+     * Constructor for JwkSetEndpointFilter.
+     *
+     * @param jwkSource the JWK source holding the key rings of all tenants
+     * @param jwkSetEndpoint the path of the JWK set endpoint, without tenant prefix
+     * @param maxAge how long clients may cache the JWK set; should be shorter than the time a next key is published
+     *               before its activation
+     */
+    public JwkSetEndpointFilter(TenantAwareJwkSource jwkSource, String jwkSetEndpoint, Duration maxAge) {
+        this.jwkSource = jwkSource;
+        this.jwkSetEndpoint = jwkSetEndpoint;
+        this.cacheControl = CacheControl.maxAge(maxAge).cachePublic().getHeaderValue();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        if (!HttpMethod.GET.matches(method) && !HttpMethod.HEAD.matches(method)) {
+            return true;
+        }
+        String requestUri = request.getRequestURI();
+        return requestUri == null || !requestUri.endsWith(jwkSetEndpoint);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        PublishedJwkSet jwkSet;
+        try {
+            jwkSet = jwkSource.getCurrentTenantKeyRing().getPublishedJwkSet();
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed to load published JWK set, falling back to default JWK set endpoint", e);
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        response.setHeader(HttpHeaders.ETAG, jwkSet.getEtag());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        if (jwkSet.matches(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        byte[] body = jwkSet.getBody();
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        if (!HttpMethod.HEAD.matches(request.getMethod())) {
+            response.getOutputStream().write(body);
+        }
+    }
+}
@@ -0,0 +1,402 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.oauth2.server.core.filter;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Precompiled routing table for request URIs, used by {@link TenantResolutionFilter} and
+ * {@link org.eclipse.ecsp.oauth2.server.core.mfa.MfaChallengeFilter} to classify a request and find its tenant.
+ *
+ * <p>All path keywords, i.e. configured tenant IDs, tenant-aware endpoint segments, segments that are never tenant
+ * IDs and static resource roots, are compiled into one character trie. Path segments are matched by walking the trie
+ * over the characters of the URI in place, so classifying a URI and resolving its tenant neither splits the URI nor
+ * evaluates a regular expression. A tenant matching a configured tenant ID is returned as the configured string
+ * instance, so resolving a known tenant does not allocate; unknown tenant segments are still returned, so that the
+ * caller can reject them as before.
+ *
+ * <p>Instances are immutable. {@link TenantPathRouter} rebuilds the trie when the configured tenants change.
+ */
+public final class PathRoutingTrie {
+
+    /**
+     * Class of a request URI.
+     */
+    public enum RouteClass {
+        /** Static resource served without tenant resolution. */
+        STATIC,
+        /** Discovery endpoint below /.well-known/, which may carry the tenant as postfix. */
+        WELL_KNOWN,
+        /** Any other request. */
+        APPLICATION
+    }
+
+    static final String TENANT_PREFIX = "tenant";
+
+    // Segments following the tenant in /{tenant}/{segment}/... paths
+    static final Set<String> TENANT_AWARE_PATHS = Set.of(
+        "oauth2",           // /{tenant}/oauth2/authorize, /{tenant}/oauth2/token, etc.
+        "login",            // /{tenant}/login
+        "revoke",           // /{tenant}/revoke/revokeByAdmin
+        "recovery",         // /{tenant}/recovery/**
+        ".well-known",      // /{tenant}/.well-known/openid-configuration
+        "jwks",             // /{tenant}/jwks
+        "userinfo",         // /{tenant}/userinfo
+        "authorize",        // /{tenant}/authorize (direct)
+        "token",            // /{tenant}/token (direct)
+        "introspect",       // /{tenant}/introspect (direct)
+        "mfa"               // /{tenant}/mfa/** (MFA enrollment and challenge)
+    );
+
+    // Path segments that are never tenant IDs
+    static final Set<String> INVALID_TENANT_IDS = Set.of(
+        "api", "v1", "v2", "public", "health", "actuator", "admin", "management",
+        "oauth2", "login", "authorize", "token", "introspect", "revoke",
+        "userinfo", "jwks", ".well-known", "mfa", "enroll", "challenge", "setup", "verify",
+        TENANT_PREFIX
+    );
+
+    // First segments of static resources, matched ignoring case
+    static final Set<String> STATIC_ROOTS = Set.of("actuator", "css", "js", "images", "fonts", "favicon.ico", "static");
+
+    // First segments MfaChallengeFilter never takes as tenant
+    static final Set<String> MFA_RESERVED_ROOTS = Set.of("oauth2", "login", "mfa", "css", "images", "actuator");
+
+    // URI prefixes MfaChallengeFilter always lets through, matched against the start of the first segment
+    static final Set<String> MFA_PASS_THROUGH_PREFIXES = Set.of("mfa", "css", "images", "actuator", "favicon");
+
+    private static final String WELL_KNOWN = ".well-known";
+    private static final String WELL_KNOWN_PATH = "/.well-known/";
+    private static final String[] WELL_KNOWN_DOCUMENT_PATHS = {
+        "/.well-known/oauth-authorization-server/",
+        "/.well-known/openid-configuration/"
+    };
+
+    private static final int TENANT = 1;
+    private static final int TENANT_AWARE = 1 << 1;
+    private static final int INVALID_TENANT = 1 << 2;
+    private static final int MFA_RESERVED = 1 << 3;
+    private static final int MFA_PASS_THROUGH_PREFIX = 1 << 4;
+    private static final int STATIC_ROOT = 1 << 5;
+
+    private static final int NOT_FOUND = -1;
+    private static final char SLASH = '/';
+    private static final char SPACE = ' ';
+    private static final int ASCII_CASE_OFFSET = 'a' - 'A';
+
+    private final Node root;
+    private final Node staticRoot;
+
+    private PathRoutingTrie(Node root, Node staticRoot) {
+        this.root = root;
+        this.staticRoot = staticRoot;
+    }
+
+    /**
+     * Compiles the routing trie for the given tenants.
+     *
+     * @param tenantIds the configured tenant IDs, may be null
+     * @return the routing trie
+     */
+    public static PathRoutingTrie build(Collection<String> tenantIds) {
+        NodeBuilder keywords = new NodeBuilder();
+        if (tenantIds != null) {
+            tenantIds.stream().filter(id -> id != null && !id.isEmpty()).forEach(id -> keywords.add(id, TENANT));
+        }
+        TENANT_AWARE_PATHS.forEach(segment -> keywords.add(segment, TENANT_AWARE));
+        INVALID_TENANT_IDS.forEach(segment -> keywords.add(segment, INVALID_TENANT));
+        MFA_RESERVED_ROOTS.forEach(segment -> keywords.add(segment, MFA_RESERVED));
+        MFA_PASS_THROUGH_PREFIXES.forEach(prefix -> keywords.add(prefix, MFA_PASS_THROUGH_PREFIX));
+        NodeBuilder staticRoots = new NodeBuilder();
+        STATIC_ROOTS.forEach(segment -> staticRoots.add(segment, STATIC_ROOT));
+        return new PathRoutingTrie(keywords.compile(), staticRoots.compile());
+    }
+
+    /**
+     * Classifies a request URI. Static resources are URIs whose first segment is a static resource root, ignoring
+     * case, e.g. /css/login.css or /favicon.ico.
+     *
+     * @param uri the request URI
+     * @return the route class
+     */
+    public RouteClass classify(String uri) {
+        if (uri == null || uri.isEmpty()) {
+            return RouteClass.APPLICATION;
+        }
+        if (uri.charAt(0) == SLASH && staticRoot.find(uri, 1, segmentEnd(uri, 1), true) != null) {
+            return RouteClass.STATIC;
+        }
+        return uri.contains(WELL_KNOWN_PATH) ? RouteClass.WELL_KNOWN : RouteClass.APPLICATION;
+    }
+
+    /**
+     * Resolves the tenant from the leading path segments of a request URI, trying in order:
+     * <ol>
+     *   <li>an explicit tenant prefix: /tenant/{tenant}/...</li>
+     *   <li>a tenant-aware endpoint: /{tenant}/{oauth2|login|jwks|...}/...</li>
+     *   <li>the first path segment, unless it is never a tenant: /{tenant}/...</li>
+     * </ol>
+     *
+     * <p>Examples:
+     * - /tenant/demo/oauth2/token → demo
+     * - /ecsp/oauth2/authorize → ecsp
+     * - /ecsp/custom/page → ecsp
+     * - /api/v1/oauth2/authorize → null (api is never a tenant)
+     *
+     * @param uri the request URI
+     * @return the tenant, or null if the path holds none
+     */
+    public String pathTenant(String uri) {
+        if (uri == null) {
+            return null;
+        }
+        int firstStart = uri.indexOf(SLASH) + 1;
+        if (firstStart == 0) {
+            return null;
+        }
+        int firstEnd = segmentEnd(uri, firstStart);
+        Node first = this.root.find(uri, firstStart, firstEnd, false);
+        if (firstEnd < uri.length()) {
+            int secondStart = firstEnd + 1;
+            int secondEnd = segmentEnd(uri, secondStart);
+            if (firstEnd - firstStart == TENANT_PREFIX.length() && uri.startsWith(TENANT_PREFIX, firstStart)
+                    && hasText(uri, secondStart, secondEnd)) {
+                return segmentValue(uri, secondStart, secondEnd, this.root.find(uri, secondStart, secondEnd, false));
+            }
+            if (hasFlag(this.root.find(uri, secondStart, secondEnd, false), TENANT_AWARE)
+                    && isTenantCandidate(uri, firstStart, firstEnd, first)) {
+                return segmentValue(uri, firstStart, firstEnd, first);
+            }
+        }
+        return isTenantCandidate(uri, firstStart, firstEnd, first) ? segmentValue(uri, firstStart, firstEnd, first)
+            : null;
+    }
+
+    /**
+     * Returns the tenant given as postfix of a discovery document.
+     *
+     * <p>Examples:
+     * - /.well-known/oauth-authorization-server → null
+     * - /.well-known/oauth-authorization-server/ → null
+     * - /.well-known/oauth-authorization-server/ecsp → ecsp
+     * - /.well-known/oauth-authorization-server/ecsp/ → ecsp
+     * - /.well-known/openid-configuration/demo → demo
+     *
+     * @param uri the request URI
+     * @return the tenant, or null if the URI is not a discovery document with tenant postfix
+     */
+    public String wellKnownTenant(String uri) {
+        if (uri == null) {
+            return null;
+        }
+        for (String documentPath : WELL_KNOWN_DOCUMENT_PATHS) {
+            int index = uri.indexOf(documentPath);
+            if (index != NOT_FOUND) {
+                String tenant = postfixTenant(uri, index + documentPath.length());
+                if (tenant != null) {
+                    return tenant;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the first path segment as tenant for MFA redirects, unless it is empty or one of the roots of the
+     * authorization server's own endpoints.
+     *
+     * @param uri the request URI
+     * @return the tenant, or null if the first segment is not a tenant
+     */
+    public String mfaTenant(String uri) {
+        if (uri == null || uri.isEmpty() || uri.charAt(0) != SLASH) {
+            return null;
+        }
+        int end = segmentEnd(uri, 1);
+        if (end == 1) {
+            return null;
+        }
+        Node node = this.root.find(uri, 1, end, false);
+        return hasFlag(node, MFA_RESERVED) ? null : segmentValue(uri, 1, end, node);
+    }
+
+    /**
+     * Checks whether MfaChallengeFilter lets a request through without evaluating MFA: MFA pages, static resources,
+     * login and logout, discovery documents and the token and JWK set endpoints.
+     *
+     * <p>The URI prefixes are matched by walking the trie, the markers that may occur anywhere in the URI are matched
+     * in a single pass dispatching on their first character.
+     *
+     * @param uri the request URI
+     * @return true if the request is passed through
+     */
+    public boolean isMfaPassThrough(String uri) {
+        if (!uri.isEmpty() && uri.charAt(0) == SLASH && this.root.hasPrefixFlag(uri, 1, MFA_PASS_THROUGH_PREFIX)) {
+            return true;
+        }
+        for (int i = 0; i < uri.length(); i++) {
+            boolean match = switch (uri.charAt(i)) {
+                case 'l' -> uri.startsWith("login", i) || uri.startsWith("logout", i);
+                case '.' -> uri.startsWith(WELL_KNOWN, i);
+                case '/' -> uri.startsWith("/mfa/", i);
+                case 'o' -> uri.startsWith("oauth2/token", i) || uri.startsWith("oauth2/jwks", i);
+                default -> false;
+            };
+            if (match) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads the first segment after the given index once surrounding slashes and whitespace are stripped.
+     */
+    private String postfixTenant(String uri, int from) {
+        int start = from;
+        int end = uri.length();
+        while (start < end && uri.charAt(start) == SLASH) {
+            start++;
+        }
+        while (end > start && uri.charAt(end - 1) == SLASH) {
+            end--;
+        }
+        while (start < end && uri.charAt(start) <= SPACE) {
+            start++;
+        }
+        while (end > start && uri.charAt(end - 1) <= SPACE) {
+            end--;
+        }
+        int segmentEnd = Math.min(segmentEnd(uri, start), end);
+        if (!hasText(uri, start, segmentEnd)) {
+            return null;
+        }
+        return segmentValue(uri, start, segmentEnd, this.root.find(uri, start, segmentEnd, false));
+    }
+
+    private static boolean isTenantCandidate(String uri, int start, int end, Node node) {
+        return hasText(uri, start, end) && !hasFlag(node, INVALID_TENANT);
+    }
+
+    private static String segmentValue(String uri, int start, int end, Node node) {
+        return hasFlag(node, TENANT) ? node.value : uri.substring(start, end);
+    }
+
+    private static boolean hasFlag(Node node, int flag) {
+        return node != null && (node.flags & flag) != 0;
+    }
+
+    private static int segmentEnd(String uri, int start) {
+        int end = uri.indexOf(SLASH, start);
+        return end == NOT_FOUND ? uri.length() : end;
+    }
+
+    private static boolean hasText(String uri, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!Character.isWhitespace(uri.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Compiled trie node. Children are kept in a sorted array and found by binary search.
+     */
+    private static final class Node {
+        private final char[] keys;
+        private final Node[] children;
+        private final int flags;
+        private final String value;
+
+        Node(char[] keys, Node[] children, int flags, String value) {
+            this.keys = keys;
+            this.children = children;
+            this.flags = flags;
+            this.value = value;
+        }
+
+        /**
+         * Finds the node of the keyword equal to the given range of the URI.
+         */
+        Node find(String uri, int start, int end, boolean ignoreCase) {
+            Node node = this;
+            for (int i = start; i < end && node != null; i++) {
+                char c = uri.charAt(i);
+                node = node.child(ignoreCase && c >= 'A' && c <= 'Z' ? (char) (c + ASCII_CASE_OFFSET) : c);
+            }
+            return node != null && node.flags != 0 ? node : null;
+        }
+
+        /**
+         * Checks whether a keyword with the given flag is a prefix of the URI from the given index.
+         */
+        boolean hasPrefixFlag(String uri, int start, int flag) {
+            Node node = this;
+            for (int i = start; i < uri.length() && node != null; i++) {
+                node = node.child(uri.charAt(i));
+                if (node != null && (node.flags & flag) != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private Node child(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            return index >= 0 ? children[index] : null;
+        }
+    }
+
+    /**
+     * Mutable node used while building the trie.
+     */
+    private static final class NodeBuilder {
+        private final TreeMap<Character, NodeBuilder> children = new TreeMap<>();
+        private int flags;
+        private String value;
+
+        void add(String keyword, int flag) {
+            NodeBuilder node = this;
+            for (int i = 0; i < keyword.length(); i++) {
+                node = node.children.computeIfAbsent(keyword.charAt(i), c -> new NodeBuilder());
+            }
+            node.flags |= flag;
+            if (flag == TENANT) {
+                node.value = keyword;
+            }
+        }
+
+        Node compile() {
+            char[] keys = new char[children.size()];
+            Node[] compiled = new Node[children.size()];
+            int i = 0;
+            for (var entry : children.entrySet()) {
+                keys[i] = entry.getKey();
+                compiled[i] = entry.getValue().compile();
+                i++;
+            }
+            return new Node(keys, compiled, flags, value);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.oauth2.server.core.filter;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Reads the tenantId claim from the payload of an unverified JWT for {@link TenantResolutionFilter}.
+ *
+ * <p>Only the payload segment is base64url-decoded, straight from the token characters into a byte array, and the
+ * decoded JSON is scanned with a streaming parser of a shared {@link JsonFactory} until the top-level tenantId field
+ * is found; no claim map is built. Results are kept in a small bounded cache keyed by the signing input of the token,
+ * i.e. the header and payload segments, which fully determine the claims, so repeated tokens are resolved with a
+ * single lookup.
+ *
+ * <p>The token signature is not verified; the tenant is only used to select the tenant configuration, as before.
+ */
+final class TenantClaimExtractor {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private static final String NO_TENANT = "";
+    private static final int CHARS_PER_QUANTUM = 4;
+    private static final int BITS_PER_CHAR = 6;
+    private static final int BITS_PER_BYTE = 8;
+    private static final int BYTE_MASK = 0xFF;
+    private static final int INVALID = -1;
+    private static final int[] BASE64_URL_VALUES = base64UrlValues();
+
+    private final String claimName;
+    private final Cache<String, String> tenantsBySigningInput;
+
+    /**
+     * Constructor for TenantClaimExtractor.
+     *
+     * @param claimName the name of the top-level claim holding the tenant
+     * @param cacheSize the maximum number of cached tokens, zero to disable caching
+     */
+    TenantClaimExtractor(String claimName, long cacheSize) {
+        this.claimName = claimName;
+        this.tenantsBySigningInput = cacheSize > 0
+            ? Caffeine.newBuilder().maximumSize(cacheSize).executor(Runnable::run).build()
+            : null;
+    }
+
+    /**
+     * Extracts the tenant claim from a compact serialized JWT.
+     *
+     * @param token the token, without "Bearer " prefix
+     * @return the tenant, or null if the token is not a JWT, cannot be decoded or has no tenant claim
+     */
+    String extract(String token) {
+        int firstDot = token.indexOf('.');
+        int secondDot = firstDot < 0 ? -1 : token.indexOf('.', firstDot + 1);
+        if (secondDot < 0 || token.indexOf('.', secondDot + 1) >= 0) {
+            return null;
+        }
+        if (tenantsBySigningInput == null) {
+            return decodeTenant(token, firstDot + 1, secondDot);
+        }
+        String signingInput = token.substring(0, secondDot);
+        String tenant = tenantsBySigningInput.getIfPresent(signingInput);
+        if (tenant == null) {
+            tenant = decodeTenant(token, firstDot + 1, secondDot);
+            tenantsBySigningInput.put(signingInput, tenant != null ? tenant : NO_TENANT);
+        }
+        return tenant == null || tenant.isEmpty() ? null : tenant;
+    }
+
+    private String decodeTenant(String token, int payloadStart, int payloadEnd) {
+        byte[] payload = decodeBase64Url(token, payloadStart, payloadEnd);
+        if (payload == null) {
+            return null;
+        }
+        try (JsonParser parser = JSON_FACTORY.createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                boolean tenantField = claimName.equals(parser.currentName());
+                JsonToken value = parser.nextToken();
+                if (tenantField) {
+                    return value != null && value.isScalarValue() && value != JsonToken.VALUE_NULL
+                        ? parser.getValueAsString() : null;
+                }
+                parser.skipChildren();
+            }
+            return null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Decodes the base64url characters of the given range, ignoring trailing padding.
+     *
+     * @return the decoded bytes, or null if the range holds a character outside the base64url alphabet or has an
+     *     impossible length
+     */
+    private static byte[] decodeBase64Url(String value, int start, int end) {
+        while (end > start && value.charAt(end - 1) == '=') {
+            end--;
+        }
+        int length = end - start;
+        if (length % CHARS_PER_QUANTUM == 1) {
+            return null;
+        }
+        byte[] decoded = new byte[length * BITS_PER_CHAR / BITS_PER_BYTE];
+        int buffer = 0;
+        int bits = 0;
+        int position = 0;
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            int sextet = c < BASE64_URL_VALUES.length ? BASE64_URL_VALUES[c] : INVALID;
+            if (sextet == INVALID) {
+                return null;
+            }
+            buffer = (buffer << BITS_PER_CHAR) | sextet;
+            bits += BITS_PER_CHAR;
+            if (bits >= BITS_PER_BYTE) {
+                bits -= BITS_PER_BYTE;
+                decoded[position++] = (byte) ((buffer >> bits) & BYTE_MASK);
+            }
+        }
+        return decoded;
+    }
+
+    private static int[] base64UrlValues() {
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        int[] values = new int[Byte.MAX_VALUE + 1];
+        Arrays.fill(values, INVALID);
+        for (int i = 0; i < alphabet.length(); i++) {
+            values[alphabet.charAt(i)] = i;
+        }
+        return values;
+    }
+}
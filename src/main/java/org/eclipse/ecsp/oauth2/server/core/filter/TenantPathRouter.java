@@ -0,0 +1,78 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.oauth2.server.core.filter;
+
+import org.eclipse.ecsp.oauth2.server.core.service.TenantConfigurationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Holds the {@link PathRoutingTrie} compiled for the currently configured tenants.
+ *
+ * <p>The trie is compiled once at startup and replaced as a whole by {@link #rebuild(Collection)} when tenants are
+ * added or removed, so request threads read it without locking.
+ */
+@Component
+public class TenantPathRouter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TenantPathRouter.class);
+
+    private volatile PathRoutingTrie trie;
+
+    /**
+     * Constructor for TenantPathRouter. Compiles the trie for the tenants known to the tenant configuration service.
+     *
+     * @param tenantConfigurationService the tenant configuration service, may be null
+     */
+    public TenantPathRouter(TenantConfigurationService tenantConfigurationService) {
+        this.trie = PathRoutingTrie.build(configuredTenants(tenantConfigurationService));
+    }
+
+    /**
+     * Returns the trie compiled for the current tenants.
+     *
+     * @return the routing trie
+     */
+    public PathRoutingTrie current() {
+        return trie;
+    }
+
+    /**
+     * Compiles the trie for the given tenants and replaces the current one.
+     *
+     * @param tenantIds the configured tenant IDs
+     */
+    public void rebuild(Collection<String> tenantIds) {
+        this.trie = PathRoutingTrie.build(tenantIds);
+        LOGGER.info("Rebuilt tenant path routing trie for {} tenant(s)", tenantIds != null ? tenantIds.size() : 0);
+    }
+
+    private static Set<String> configuredTenants(TenantConfigurationService tenantConfigurationService) {
+        if (tenantConfigurationService == null) {
+            return Set.of();
+        }
+        Set<String> tenants = tenantConfigurationService.getAllTenants();
+        return tenants != null ? tenants : Set.of();
+    }
+}
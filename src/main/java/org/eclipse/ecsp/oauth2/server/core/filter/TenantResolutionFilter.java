@@ -36,6 +36,7 @@ import org.eclipse.ecsp.sql.multitenancy.TenantContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.context.config.annotation.RefreshScope;
 import org.springframework.core.Ordered;
@@ -46,8 +47,6 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
 import java.io.IOException;
-import java.util.Set;
-import java.util.regex.Pattern;
 
 /**
  * Filter to resolve and set the tenant context from HTTP request. This filter runs early in the Spring Security filter
@@ -67,24 +66,22 @@ public class TenantResolutionFilter implements Filter {
     private static final Logger LOGGER = LoggerFactory.getLogger(TenantResolutionFilter.class);
     
     private final TenantConfigurationService tenantConfigurationService;
+
+    // Compiled path keywords; static resources, well-known postfixes and path prefixes are matched without splitting
+    private final TenantPathRouter tenantPathRouter;
+
+    // Reads the tenantId claim of bearer tokens without building a claim map; caches repeated tokens
+    private final TenantClaimExtractor tenantClaimExtractor =
+        new TenantClaimExtractor(TENANT_HEADER, TENANT_CLAIM_CACHE_SIZE);
     
     @Value("${source.ip.logging.enabled:false}")
     private boolean sourceIpLoggingEnabled;
     
-    // Static resource patterns to bypass tenant resolution (includes standalone /favicon.ico)
-    private static final Pattern STATIC_RESOURCE_PATTERN =
-        Pattern.compile("^/(actuator|css|js|images|fonts|favicon\\.ico|static)(/.*)?$", Pattern.CASE_INSENSITIVE);
-    
-    // Path parsing constants
-    private static final int MIN_PATH_PARTS_FOR_TENANT = 3;
-    private static final int TENANT_ID_POSITION = 2;
-    private static final int TENANT_PREFIX_POSITION = 1;
-
     private static final String TENANT_HEADER = "tenantId";
     private static final String AUTHORIZATION_HEADER = "Authorization";
     private static final int BEARER_PREFIX_LENGTH = 7; // Length of "Bearer "
-    private static final int JWT_PARTS_COUNT = 3; // JWT has 3 parts: header.payload.signature
-    private static final String TENANT_PARAM = "tenant";
+    private static final long TENANT_CLAIM_CACHE_SIZE = 1024;
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
     private static final String TENANT_SESSION_KEY = "RESOLVED_TENANT_ID";
     
     // Source IP related constants
@@ -96,34 +93,7 @@ public class TenantResolutionFilter implements Filter {
     private static final String HTTP_CLIENT_IP_HEADER = "HTTP_CLIENT_IP";
     private static final String HTTP_X_FORWARDED_FOR_HEADER = "HTTP_X_FORWARDED_FOR";
     
-    // Well-known endpoint paths
-    private static final String WELL_KNOWN_OAUTH_SERVER = "/.well-known/oauth-authorization-server/";
-    private static final String WELL_KNOWN_OPENID_CONFIG = "/.well-known/openid-configuration/";
-    private static final String WELL_KNOWN_PATH = "/.well-known/";
     private static final int NOT_FOUND_INDEX = -1;
-    
-    // Whitelist of path segments that should trigger tenant resolution
-    private static final Set<String> TENANT_AWARE_PATHS = Set.of(
-        "oauth2",           // /{tenant}/oauth2/authorize, /{tenant}/oauth2/token, etc.
-        "login",            // /{tenant}/login
-        "revoke",           // /{tenant}/revoke/revokeByAdmin
-        "recovery",         // /{tenant}/recovery/**
-        ".well-known",      // /{tenant}/.well-known/openid-configuration
-        "jwks",             // /{tenant}/jwks
-        "userinfo",         // /{tenant}/userinfo
-        "authorize",        // /{tenant}/authorize (direct)
-        "token",            // /{tenant}/token (direct)
-        "introspect",       // /{tenant}/introspect (direct)
-        "mfa"               // /{tenant}/mfa/** (MFA enrollment and challenge)
-    );
-    
-    // Blacklist of path segments that should NOT be considered as tenant IDs
-    private static final Set<String> INVALID_TENANT_IDS = Set.of(
-        "api", "v1", "v2", "public", "health", "actuator", "admin", "management",
-        "oauth2", "login", "authorize", "token", "introspect", "revoke",
-        "userinfo", "jwks", ".well-known", "mfa", "enroll", "challenge", "setup", "verify",
-        TENANT_PARAM
-    );
 
     /**
      * Constructor to inject dependencies.
@@ -131,7 +101,20 @@ public class TenantResolutionFilter implements Filter {
      * @param tenantConfigurationService the tenant configuration service
      */
     public TenantResolutionFilter(TenantConfigurationService tenantConfigurationService) {
+        this(tenantConfigurationService, new TenantPathRouter(tenantConfigurationService));
+    }
+
+    /**
+     * Constructor to inject dependencies.
+     *
+     * @param tenantConfigurationService the tenant configuration service
+     * @param tenantPathRouter the router holding the path routing trie of the configured tenants
+     */
+    @Autowired
+    public TenantResolutionFilter(TenantConfigurationService tenantConfigurationService,
+                                  TenantPathRouter tenantPathRouter) {
         this.tenantConfigurationService = tenantConfigurationService;
+        this.tenantPathRouter = tenantPathRouter;
     }
     
     @Override
@@ -154,8 +137,10 @@ public class TenantResolutionFilter implements Filter {
             LOGGER.debug("Source IP for request: {}", sourceIp);
         }
         
+        PathRoutingTrie.RouteClass routeClass = tenantPathRouter.current().classify(requestUri);
+
         // Skip tenant resolution for static resources (including /favicon.ico)
-        if (isStaticResource(requestUri)) {
+        if (routeClass == PathRoutingTrie.RouteClass.STATIC) {
             LOGGER.debug("Skipping tenant resolution for static resource: {}", requestUri);
             chain.doFilter(request, response);
             return;
@@ -167,7 +152,7 @@ public class TenantResolutionFilter implements Filter {
 
         try {
             // Validate well-known endpoint postfix before processing tenant resolution
-            if (requestUri != null && requestUri.contains(WELL_KNOWN_PATH)) {
+            if (routeClass == PathRoutingTrie.RouteClass.WELL_KNOWN) {
                 if (!validateWellKnownPostfix(httpRequest, httpResponse)) {
                     return; // Validation failed, error response already sent
                 }
@@ -242,24 +227,6 @@ public class TenantResolutionFilter implements Filter {
         LOGGER.info("Destroying TenantResolutionFilter");
     }
 
-    /**
-     * Check if the request URI is for a static resource that should bypass tenant resolution.
-     *
-     * @param requestUri The request URI to check
-     * @return true if the URI matches static resource patterns
-     */
-    private boolean isStaticResource(String requestUri) {
-        if (!StringUtils.hasText(requestUri)) {
-            return false;
-        }
-        
-        boolean isStatic = STATIC_RESOURCE_PATTERN.matcher(requestUri).matches();
-        if (isStatic) {
-            LOGGER.debug("Request URI '{}' identified as static resource", requestUri);
-        }
-        return isStatic;
-    }
-
     /**
      * Get tenant ID from HTTP session.
      */
@@ -365,36 +332,23 @@ public class TenantResolutionFilter implements Filter {
 
         // Strategy 2: Extract from well-known postfix (/.well-known/oauth-authorization-server/tenant)
         String path = request.getRequestURI();
-        if (path != null && path.contains(WELL_KNOWN_PATH)) {
-            tenantId = extractTenantFromWellKnownPostfix(path);
-            if (StringUtils.hasText(tenantId)) {
-                LOGGER.debug("Tenant resolved from well-known postfix: {}", tenantId);
-                storeTenantInSession(request, tenantId);
-                return tenantId;
-            }
+        PathRoutingTrie trie = tenantPathRouter.current();
+        tenantId = trie.wellKnownTenant(path);
+        if (StringUtils.hasText(tenantId)) {
+            LOGGER.debug("Tenant resolved from well-known postfix: {}", tenantId);
+            storeTenantInSession(request, tenantId);
+            return tenantId;
         }
 
-        // Strategy 3: Extract from path (/{tenantId}/oauth2/...)
-        tenantId = extractTenantFromPathPrefix(request);
+        // Strategy 3: Extract from path (/tenant/{tenantId}/..., /{tenantId}/oauth2/... or generic /{tenantId}/...)
+        tenantId = trie.pathTenant(path);
         if (StringUtils.hasText(tenantId)) {
             LOGGER.debug("Tenant resolved from path prefix: {}", tenantId);
             storeTenantInSession(request, tenantId);
             return tenantId;
         }
 
-        // Strategy 4: Generic path prefix (/{tenantId}/...) - fallback when whitelist misses
-        if (path != null) {
-            String[] genericParts = path.split("/");
-            if (genericParts.length > 1) {
-                String genericTenant = genericParts[1];
-                if (isValidTenantId(genericTenant)) {
-                    LOGGER.debug("Extracted tenant '{}' from generic path prefix: {}", genericTenant, path);
-                    storeTenantInSession(request, genericTenant);
-                    return genericTenant;
-                }
-            }
-        }
-        // Strategy 5: Check request parameter tenantId
+        // Strategy 4: Check request parameter tenantId
         tenantId = request.getParameter(TENANT_HEADER);
         if (StringUtils.hasText(tenantId)) {
             LOGGER.debug("Tenant resolved from parameter: {}", tenantId);
@@ -402,7 +356,7 @@ public class TenantResolutionFilter implements Filter {
             return tenantId;
         }
 
-        // Strategy 6: Check Authorization header for JWT token with tenantID claim
+        // Strategy 5: Check Authorization header for JWT token with tenantID claim
         String tenantFromAuth = extractTenantFromAuthorizationHeader(request);
         if (StringUtils.hasText(tenantFromAuth)) {
             LOGGER.debug("Tenant resolved from Authorization header: {}", tenantFromAuth);
@@ -413,65 +367,6 @@ public class TenantResolutionFilter implements Filter {
         return null;
     }
 
-    /**
-     * Extract tenant from path if present. Uses a whitelist approach to identify tenant-aware endpoints.
-     * Supports patterns for OAuth2, authentication, and discovery endpoints:
-     * 1. /tenant/{tenantId}/... → {tenantId} (explicit tenant prefix)
-     * 2. /{tenantId}/{whitelisted-path}/... → {tenantId} (tenant-aware endpoints)
-     * 
-     * <p>Whitelisted paths include:
-     * - oauth2: /{tenant}/oauth2/authorize, /{tenant}/oauth2/token, etc.
-     * - login: /{tenant}/login
-     * - .well-known: /{tenant}/.well-known/openid-configuration
-     * - jwks, userinfo, authorize, token, introspect, revoke
-     * 
-     * <p>Examples:
-     * - /demo/.well-known/openid-configuration → demo
-     * - /ecsp/oauth2/authorize → ecsp
-     * - /tenant/demo/oauth2/token → demo
-     * - /api/v1/oauth2/authorize → null (api/v1 excluded)
-     */
-    private String extractTenantFromPathPrefix(HttpServletRequest request) {
-        String path = request.getRequestURI();
-        if (!StringUtils.hasText(path)) {
-            return null;
-        }
-        
-        String[] parts = path.split("/");
-        if (parts.length < MIN_PATH_PARTS_FOR_TENANT) {
-            return null;
-        }
-        
-        // Pattern 1: /{tenantId}/... (explicit tenant prefix)
-        if (TENANT_PARAM.equals(parts[TENANT_PREFIX_POSITION])) {
-            String tenantId = parts[TENANT_ID_POSITION];
-            if (StringUtils.hasText(tenantId)) {
-                LOGGER.debug("Extracted tenant '{}' from explicit tenant path: {}", tenantId, path);
-                return tenantId;
-            }
-        }
-        
-        // Pattern 2: /{tenantId}/{whitelisted-path}/... (tenant-aware endpoints)
-        String secondLevelPath = parts[TENANT_ID_POSITION];
-        if (TENANT_AWARE_PATHS.contains(secondLevelPath)) {
-            String tenantId = parts[TENANT_PREFIX_POSITION];
-            if (isValidTenantId(tenantId)) {
-                LOGGER.debug("Extracted tenant '{}' from whitelisted path '{}': {}", 
-                    tenantId, secondLevelPath, path);
-                return tenantId;
-            }
-        }
-        
-        return null;
-    }
-    
-    /**
-     * Validates if the extracted string is a valid tenant ID by excluding common non-tenant path segments.
-     */
-    private boolean isValidTenantId(String tenantId) {
-        return StringUtils.hasText(tenantId) && !INVALID_TENANT_IDS.contains(tenantId);
-    }
-
     /**
      * Extract tenant ID from Authorization header.
      * Supports JWT tokens with tenantId claim in the payload.
@@ -506,74 +401,14 @@ public class TenantResolutionFilter implements Filter {
             return null;
         }
         
-        try {
-            // Extract the JWT token (remove "Bearer " prefix)
-            String token = authHeader.substring(BEARER_PREFIX_LENGTH);
-            
-            // Parse JWT token to extract tenantId claim
-            // JWT format: header.payload.signature
-            String[] parts = token.split("\\.");
-            if (parts.length != JWT_PARTS_COUNT) {
-                LOGGER.warn("Invalid JWT token format in Authorization header");
-                return null;
-            }
-            
-            // Decode the payload (second part)
-            String payload = new String(java.util.Base64.getUrlDecoder().decode(parts[1]));
-            
-            // Parse JSON payload to extract tenantId
-            String tenantId = extractTenantIdFromPayload(payload);
-            
-            if (StringUtils.hasText(tenantId)) {
-                LOGGER.debug("Extracted tenant '{}' from Authorization header JWT token", tenantId);
-                return tenantId;
-            } else {
-                LOGGER.debug("No tenantId claim found in JWT token payload");
-                return null;
-            }
-            
-        } catch (IllegalArgumentException e) {
-            LOGGER.warn("Failed to decode JWT token from Authorization header: {}", e.getMessage());
-            return null;
-        } catch (Exception e) {
-            LOGGER.error("Error extracting tenant from Authorization header: {}", e.getMessage(), e);
-            return null;
-        }
-    }
-    
-    /**
-     * Extract tenantId value from JWT payload JSON.
-     * The primary claim name is "tenantId" as per UIDAM token structure.
-     *
-     * @param payload The JWT payload JSON string
-     * @return The tenant ID if found, null otherwise
-     */
-    private String extractTenantIdFromPayload(String payload) {
-        if (!StringUtils.hasText(payload)) {
-            return null;
-        }
-        
-        try {
-            // Use Jackson ObjectMapper to parse the JSON payload
-            ObjectMapper objectMapper = new ObjectMapper();
-            @SuppressWarnings("unchecked")
-            java.util.Map<String, Object> claims = objectMapper.readValue(payload, java.util.Map.class);
-            
-            // Check for "tenantId" claim (standard UIDAM claim name)
-            Object tenantId = claims.get(TENANT_HEADER);
-            if (tenantId != null) {
-                LOGGER.debug("Found '{}' claim in JWT payload: {}", TENANT_HEADER, tenantId);
-                return tenantId.toString();
-            }
-            
-            LOGGER.debug("JWT payload does not contain '{}' claim. Available claims: {}", 
-                TENANT_HEADER, claims.keySet());
-            return null;
-            
-        } catch (Exception e) {
-            LOGGER.warn("Failed to parse JWT payload JSON: {}", e.getMessage());
-            return null;
+        // Extract the JWT token (remove "Bearer " prefix) and read its tenantId claim
+        String tenantId = tenantClaimExtractor.extract(authHeader.substring(BEARER_PREFIX_LENGTH));
+        if (StringUtils.hasText(tenantId)) {
+            LOGGER.debug("Extracted tenant '{}' from Authorization header JWT token", tenantId);
+            return tenantId;
         }
+        LOGGER.debug("No tenantId claim found in Authorization header JWT token");
+        return null;
     }
 
     /**
@@ -620,8 +455,7 @@ public class TenantResolutionFilter implements Filter {
         response.setContentType(MediaType.APPLICATION_JSON_VALUE);
 
         // Write JSON response
-        ObjectMapper objectMapper = new ObjectMapper();
-        String jsonResponse = objectMapper.writeValueAsString(baseRepresentation);
+        String jsonResponse = OBJECT_MAPPER.writeValueAsString(baseRepresentation);
         response.getWriter().write(jsonResponse);
         response.getWriter().flush();
     }
@@ -643,7 +477,7 @@ public class TenantResolutionFilter implements Filter {
         String requestUri = request.getRequestURI();
         
         // Extract tenant ID from postfix if present
-        String tenantIdFromPostfix = extractTenantFromWellKnownPostfix(requestUri);
+        String tenantIdFromPostfix = tenantPathRouter.current().wellKnownTenant(requestUri);
 
         if (tenantIdFromPostfix != null) {
             LOGGER.debug("Tenant ID found in well-known postfix: {}", tenantIdFromPostfix);
@@ -669,105 +503,4 @@ public class TenantResolutionFilter implements Filter {
 
         return true;
     }
-
-    /**
-     * Extracts tenant ID from well-known endpoint postfix.
-     * 
-     * <p>Examples:
-     * - /.well-known/oauth-authorization-server → null
-     * - /.well-known/oauth-authorization-server/ → null
-     * - /.well-known/oauth-authorization-server/ecsp → "ecsp"
-     * - /.well-known/oauth-authorization-server/ecsp/ → "ecsp"
-     * - /.well-known/openid-configuration/demo → "demo"
-     *
-     * @param requestUri the request URI
-     * @return the tenant ID from postfix, or null if not present
-     */
-    private String extractTenantFromWellKnownPostfix(String requestUri) {
-        if (!StringUtils.hasText(requestUri)) {
-            return null;
-        }
-
-        // Match patterns like:
-        // /.well-known/oauth-authorization-server/TENANT
-        // /.well-known/openid-configuration/TENANT
-        String[] wellKnownPaths = {
-            WELL_KNOWN_OAUTH_SERVER,
-            WELL_KNOWN_OPENID_CONFIG
-        };
-
-        for (String wellKnownPath : wellKnownPaths) {
-            String tenantId = extractTenantFromPath(requestUri, wellKnownPath);
-            if (tenantId != null) {
-                return tenantId;
-            }
-        }
-
-        return null;
-    }
-    
-    /**
-     * Extracts tenant ID from a specific well-known path.
-     *
-     * @param requestUri the request URI
-     * @param wellKnownPath the well-known path to search for
-     * @return the tenant ID if found, null otherwise
-     */
-    private String extractTenantFromPath(String requestUri, String wellKnownPath) {
-        int wellKnownIndex = requestUri.indexOf(wellKnownPath);
-        if (wellKnownIndex == NOT_FOUND_INDEX) {
-            return null;
-        }
-        
-        // Extract everything after the well-known path
-        String afterWellKnown = requestUri.substring(wellKnownIndex + wellKnownPath.length());
-        String normalizedPath = normalizePathSegment(afterWellKnown);
-        
-        if (!StringUtils.hasText(normalizedPath)) {
-            return null;
-        }
-        
-        // Take only the first segment as tenant ID (in case there are more path segments)
-        String tenantId = extractFirstSegment(normalizedPath);
-        
-        if (StringUtils.hasText(tenantId)) {
-            LOGGER.debug("Extracted tenant '{}' from well-known postfix: {}", tenantId, requestUri);
-            return tenantId;
-        }
-        
-        return null;
-    }
-    
-    /**
-     * Normalizes a path segment by removing leading/trailing slashes and trimming.
-     *
-     * @param path the path segment to normalize
-     * @return the normalized path segment
-     */
-    private String normalizePathSegment(String path) {
-        String normalized = path;
-        
-        // Remove leading slashes
-        while (normalized.startsWith("/")) {
-            normalized = normalized.substring(1);
-        }
-        
-        // Remove trailing slashes
-        while (normalized.endsWith("/")) {
-            normalized = normalized.substring(0, normalized.length() - 1);
-        }
-        
-        return normalized.trim();
-    }
-    
-    /**
-     * Extracts the first segment from a path string.
-     *
-     * @param path the path string
-     * @return the first segment
-     */
-    private String extractFirstSegment(String path) {
-        String[] segments = path.split("/");
-        return segments[0];
-    }
 }
@@ -0,0 +1,429 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.oauth2.server.core.job;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Maintains the partitions of the authorization table when it is range-partitioned by effective expiry, see the
+ * authorization_partitioning_schema changeset.
+ *
+ * <p>Each partition holds the authorizations whose effective expiry falls into one bucket of
+ * {@code uidam.authorization.partition.interval.days} days. Partitions are created ahead for the next
+ * {@code uidam.authorization.partition.premake.days} days, filling every gap between the existing partitions, so
+ * a partition that could not be created is retried on the next run. Rows that expire beyond the premake horizon
+ * land in the default partition; when the partition of their bucket is created, they are moved into it in the same
+ * transaction, as the default partition must not hold rows of an attached range. A partition is dropped as a whole
+ * once its upper bound lies before the cleanup threshold, so expired authorizations are removed without deleting
+ * rows one by one. The pre-existing table, attached as the first partition by the changeset, is dropped the same
+ * way once everything in it has expired.
+ *
+ * <p>Indexes added to the partitioned table by a later changeset are only created on the parent, invalid, so that
+ * the migration does not block writes. Each run builds the missing indexes of the existing partitions with
+ * {@code CREATE INDEX CONCURRENTLY} and attaches them to the parent index, which becomes valid once all partitions
+ * are attached.
+ *
+ * <p>The maintenance runs from the {@link CleanupJob} for each tenant, with the tenant context set, so all statements
+ * go through the routing datasource to the database of the tenant being cleaned up.
+ */
+@Component
+public class AuthorizationPartitionMaintenance {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AuthorizationPartitionMaintenance.class);
+
+    private static final String TABLE_NAME = "authorization";
+    private static final String PARTITION_PREFIX = "authorization_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter BOUND = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final Pattern LOWER_BOUND = Pattern.compile("FROM \\('([^']+)'\\)");
+    private static final Pattern UPPER_BOUND = Pattern.compile("TO \\('([^']+)'\\)");
+    private static final String LOCK_TIMEOUT = "SET lock_timeout = '5s'";
+    private static final String RESET_LOCK_TIMEOUT = "RESET lock_timeout";
+    private static final String LOCAL_LOCK_TIMEOUT = "SET LOCAL lock_timeout = '5s'";
+    private static final Pattern INDEX_TARGET = Pattern.compile("^CREATE (UNIQUE )?INDEX \\S+ ON ONLY \\S+");
+    private static final String PARENT_INDEX_PREFIX = "idx_authorization_part_";
+    private static final int MAX_IDENTIFIER_LENGTH = 63;
+
+    private static final String IS_PARTITIONED = "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table pt "
+        + "JOIN pg_class c ON c.oid = pt.partrelid JOIN pg_namespace n ON n.oid = c.relnamespace "
+        + "WHERE n.nspname = ? AND c.relname = ?)";
+    private static final String LIST_PARTITIONS = "SELECT c.relname, pg_get_expr(c.relpartbound, c.oid) "
+        + "FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid JOIN pg_class p ON p.oid = i.inhparent "
+        + "JOIN pg_namespace n ON n.oid = p.relnamespace WHERE n.nspname = ? AND p.relname = ?";
+    private static final String MISSING_PARTITION_INDEXES = "SELECT pi.relname AS parent_index, "
+        + "pg_get_indexdef(pi.oid) AS definition, part.relname AS partition FROM pg_index pidx "
+        + "JOIN pg_class pi ON pi.oid = pidx.indexrelid JOIN pg_class p ON p.oid = pidx.indrelid "
+        + "JOIN pg_namespace n ON n.oid = p.relnamespace JOIN pg_inherits inh ON inh.inhparent = p.oid "
+        + "JOIN pg_class part ON part.oid = inh.inhrelid WHERE n.nspname = ? AND p.relname = ? "
+        + "AND NOT pidx.indisvalid AND NOT EXISTS (SELECT 1 FROM pg_inherits ii "
+        + "JOIN pg_index ci ON ci.indexrelid = ii.inhrelid WHERE ii.inhparent = pi.oid AND ci.indrelid = part.oid)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${uidam.authorization.partitioning.enabled:false}")
+    private boolean enabled;
+
+    @Value("${uidam.authorization.partition.interval.days:1}")
+    private int intervalDays;
+
+    @Value("${uidam.authorization.partition.premake.days:60}")
+    private int premakeDays;
+
+    @Value("${uidam.default.db.schema:}")
+    private String defaultSchema;
+
+    /**
+     * Constructor for AuthorizationPartitionMaintenance.
+     *
+     * @param dataSource the tenant routing datasource
+     */
+    public AuthorizationPartitionMaintenance(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Returns whether the partitioned layout of the authorization table is enabled.
+     *
+     * @return true if partitions are maintained
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Creates the partitions of the upcoming buckets and drops the partitions whose rows all expired before the
+     * given threshold, in the database of the current tenant. Does nothing if the authorization table of the tenant
+     * has not been partitioned.
+     *
+     * @param tenantId the tenant ID whose authorization table is maintained
+     * @param expiresBefore the cleanup threshold; partitions ending before it are dropped
+     * @return the number of dropped partitions
+     */
+    public int maintainPartitions(String tenantId, Instant expiresBefore) {
+        String schema = TenantSchema.of(defaultSchema, tenantId);
+        Boolean partitioned = jdbcTemplate.queryForObject(IS_PARTITIONED, Boolean.class, schema, TABLE_NAME);
+        if (!Boolean.TRUE.equals(partitioned)) {
+            LOGGER.warn("Authorization partitioning is enabled but the table of tenant {} is not partitioned",
+                tenantId);
+            return 0;
+        }
+        List<Partition> partitions = jdbcTemplate.query(LIST_PARTITIONS,
+            (rs, rowNum) -> new Partition(rs.getString(1), lowerBound(rs.getString(2)), upperBound(rs.getString(2))),
+            schema, TABLE_NAME);
+
+        attachPartitionIndexes(tenantId, schema);
+        LocalDateTime now = LocalDateTime.ofInstant(Instant.now(), ZoneOffset.UTC);
+        createPartitions(tenantId, schema, partitions, now);
+        return dropPartitions(tenantId, schema, partitions, LocalDateTime.ofInstant(expiresBefore, ZoneOffset.UTC));
+    }
+
+    /**
+     * Creates the missing bucket partitions up to the premake horizon. A bucket that cannot be created is skipped and
+     * retried on the next run, as it stays a gap between the existing partitions.
+     */
+    private void createPartitions(String tenantId, String schema, List<Partition> partitions, LocalDateTime now) {
+        String defaultPartition = partitions.stream().filter(partition -> partition.upperBound() == null)
+            .map(Partition::name).findFirst().orElse(null);
+        for (Bucket bucket : missingBuckets(partitions, now, intervalDays, premakeDays)) {
+            String partitionName = PARTITION_PREFIX + PARTITION_SUFFIX.format(bucket.start());
+            try {
+                if (defaultPartition != null && holdsRows(schema, defaultPartition, bucket)) {
+                    createFromDefaultPartition(schema, partitionName, defaultPartition, bucket);
+                } else {
+                    jdbcTemplate.execute(String.format("CREATE TABLE IF NOT EXISTS %s.\"%s\" PARTITION OF %s.\"%s\" "
+                        + "FOR VALUES FROM ('%s') TO ('%s')", schema, partitionName, schema, TABLE_NAME,
+                        BOUND.format(bucket.start()), BOUND.format(bucket.end())));
+                }
+                LOGGER.info("Created authorization partition for tenant {} from {} to {}", tenantId, bucket.start(),
+                    bucket.end());
+            } catch (DataAccessException ex) {
+                LOGGER.warn("Could not create authorization partition for tenant {} from {} to {}: {}", tenantId,
+                    bucket.start(), bucket.end(), ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Builds the indexes the partitions are missing for the invalid indexes of the parent table, without blocking
+     * writes, and attaches them to the parent index. An index that cannot be built is retried on the next run.
+     */
+    private void attachPartitionIndexes(String tenantId, String schema) {
+        for (Map<String, Object> row : jdbcTemplate.queryForList(MISSING_PARTITION_INDEXES, schema, TABLE_NAME)) {
+            String parentIndex = (String) row.get("parent_index");
+            String partition = (String) row.get("partition");
+            String childIndex = partitionIndexName(partition, parentIndex);
+            try {
+                // Drops what a failed concurrent build left behind; the index is not attached yet
+                jdbcTemplate.execute(String.format("DROP INDEX CONCURRENTLY IF EXISTS %s.\"%s\"", schema,
+                    childIndex));
+                jdbcTemplate.execute(partitionIndexStatement((String) row.get("definition"), schema, partition,
+                    childIndex));
+                jdbcTemplate.execute(String.format("ALTER INDEX %s.\"%s\" ATTACH PARTITION %s.\"%s\"", schema,
+                    parentIndex, schema, childIndex));
+                LOGGER.info("Built index {} of authorization partition {} for tenant {}", childIndex, partition,
+                    tenantId);
+            } catch (DataAccessException ex) {
+                LOGGER.warn("Could not build index {} of authorization partition {} for tenant {}: {}", childIndex,
+                    partition, tenantId, ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Turns the definition of an index of the parent table, as returned by {@code pg_get_indexdef}, into the
+     * statement building the same index concurrently on one partition.
+     *
+     * @param definition the definition of the parent index, created ON ONLY the parent table
+     * @param schema the schema of the partition
+     * @param partition the partition table name
+     * @param indexName the name of the index of the partition
+     * @return the CREATE INDEX CONCURRENTLY statement
+     */
+    static String partitionIndexStatement(String definition, String schema, String partition, String indexName) {
+        Matcher matcher = INDEX_TARGET.matcher(definition);
+        if (!matcher.find()) {
+            throw new IllegalArgumentException("Unexpected index definition: " + definition);
+        }
+        String unique = matcher.group(1) != null ? matcher.group(1) : "";
+        return "CREATE " + unique + "INDEX CONCURRENTLY \"" + indexName + "\" ON " + schema + ".\"" + partition
+            + "\"" + definition.substring(matcher.end());
+    }
+
+    /**
+     * Returns the name of the index of a partition for an index of the parent table, within the identifier length
+     * limit of PostgreSQL.
+     *
+     * @param partition the partition table name
+     * @param parentIndex the name of the parent index
+     * @return the name of the partition index
+     */
+    static String partitionIndexName(String partition, String parentIndex) {
+        String name = partition + "_" + (parentIndex.startsWith(PARENT_INDEX_PREFIX)
+            ? parentIndex.substring(PARENT_INDEX_PREFIX.length()) : parentIndex);
+        return name.length() > MAX_IDENTIFIER_LENGTH ? name.substring(0, MAX_IDENTIFIER_LENGTH) : name;
+    }
+
+    /**
+     * Returns whether the default partition holds rows expiring in the bucket, using the effective expiry index the
+     * default partition inherits from the parent.
+     */
+    private boolean holdsRows(String schema, String defaultPartition, Bucket bucket) {
+        Boolean holdsRows = jdbcTemplate.queryForObject(String.format("SELECT EXISTS (SELECT 1 FROM %s.\"%s\" "
+            + "WHERE EFFECTIVE_EXPIRES_AT >= ? AND EFFECTIVE_EXPIRES_AT < ?)", schema, defaultPartition),
+            Boolean.class, Timestamp.valueOf(bucket.start()), Timestamp.valueOf(bucket.end()));
+        return Boolean.TRUE.equals(holdsRows);
+    }
+
+    /**
+     * Creates the partition of a bucket whose rows are in the default partition: in one transaction, the rows are
+     * moved from the default partition into a new table, which is then attached as the partition of the bucket.
+     * Attaching fails while the default partition holds rows of the bucket, so they cannot be left behind.
+     */
+    private void createFromDefaultPartition(String schema, String partitionName, String defaultPartition,
+                                            Bucket bucket) {
+        String start = BOUND.format(bucket.start());
+        String end = BOUND.format(bucket.end());
+        List<String> statements = List.of(LOCAL_LOCK_TIMEOUT,
+            String.format("CREATE TABLE %s.\"%s\" (LIKE %s.\"%s\" INCLUDING DEFAULTS)", schema, partitionName,
+                schema, TABLE_NAME),
+            String.format("WITH moved AS (DELETE FROM %s.\"%s\" WHERE EFFECTIVE_EXPIRES_AT >= '%s' "
+                + "AND EFFECTIVE_EXPIRES_AT < '%s' RETURNING *) INSERT INTO %s.\"%s\" SELECT * FROM moved", schema,
+                defaultPartition, start, end, schema, partitionName),
+            String.format("ALTER TABLE %s.\"%s\" ATTACH PARTITION %s.\"%s\" FOR VALUES FROM ('%s') TO ('%s')",
+                schema, TABLE_NAME, schema, partitionName, start, end));
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            inTransaction(connection, statements);
+            return null;
+        });
+    }
+
+    private static void inTransaction(Connection connection, List<String> statements) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : statements) {
+                statement.execute(sql);
+            }
+            connection.commit();
+        } catch (SQLException ex) {
+            connection.rollback();
+            throw ex;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Drops the partitions whose upper bound lies before the threshold. The lock on the parent table is only waited
+     * for a short time, so a busy table is retried on the next run instead of queueing regular traffic behind it.
+     */
+    private int dropPartitions(String tenantId, String schema, List<Partition> partitions, LocalDateTime threshold) {
+        int dropped = 0;
+        for (Partition partition : expiredPartitions(partitions, threshold)) {
+            String sql = String.format("DROP TABLE IF EXISTS %s.\"%s\"", schema, partition.name());
+            try {
+                jdbcTemplate.execute((Statement statement) -> {
+                    statement.execute(LOCK_TIMEOUT);
+                    try {
+                        return statement.execute(sql);
+                    } finally {
+                        statement.execute(RESET_LOCK_TIMEOUT);
+                    }
+                });
+                dropped++;
+                LOGGER.info("Dropped expired authorization partition {} of tenant {}", partition.name(), tenantId);
+            } catch (DataAccessException ex) {
+                LOGGER.warn("Could not drop authorization partition {} of tenant {}: {}", partition.name(), tenantId,
+                    ex.getMessage());
+            }
+        }
+        return dropped;
+    }
+
+    /**
+     * Returns the buckets from the start of the current day up to the premake horizon that no partition covers yet.
+     * Buckets are {@code intervalDays} days long, and are shortened where they would overlap the next partition.
+     * Rows expiring in a gap before the current day land in the default partition, but they have expired already.
+     *
+     * @param partitions the partitions of the authorization table
+     * @param now the current time in UTC
+     * @param intervalDays the length of a bucket in days
+     * @param premakeDays the number of days from the current day for which partitions are created
+     * @return the missing buckets in ascending order
+     */
+    static List<Bucket> missingBuckets(List<Partition> partitions, LocalDateTime now, int intervalDays,
+                                       int premakeDays) {
+        LocalDateTime start = now.truncatedTo(ChronoUnit.DAYS);
+        LocalDateTime horizon = start.plusDays(premakeDays);
+        List<Partition> ranges = partitions.stream().filter(partition -> partition.upperBound() != null).toList();
+        List<Bucket> missing = new ArrayList<>();
+        while (start.isBefore(horizon)) {
+            LocalDateTime coveredUntil = coveredUntil(ranges, start);
+            if (coveredUntil != null) {
+                start = coveredUntil;
+                continue;
+            }
+            LocalDateTime end = start.plusDays(intervalDays);
+            for (Partition range : ranges) {
+                if (range.lowerBound() != null && range.lowerBound().isAfter(start)
+                    && range.lowerBound().isBefore(end)) {
+                    end = range.lowerBound();
+                }
+            }
+            missing.add(new Bucket(start, end));
+            start = end;
+        }
+        return missing;
+    }
+
+    private static LocalDateTime coveredUntil(List<Partition> ranges, LocalDateTime time) {
+        for (Partition range : ranges) {
+            if ((range.lowerBound() == null || !range.lowerBound().isAfter(time)) && range.upperBound().isAfter(time)) {
+                return range.upperBound();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the range partitions whose upper bound is not after the threshold. The default partition has no upper
+     * bound and is never dropped.
+     *
+     * @param partitions the partitions of the authorization table
+     * @param threshold the cleanup threshold in UTC
+     * @return the partitions that only hold expired authorizations
+     */
+    static List<Partition> expiredPartitions(List<Partition> partitions, LocalDateTime threshold) {
+        return partitions.stream()
+            .filter(partition -> partition.upperBound() != null && !partition.upperBound().isAfter(threshold))
+            .toList();
+    }
+
+    /**
+     * Parses the lower bound of a range partition from its partition bound expression.
+     *
+     * @param bound the partition bound expression
+     * @return the lower bound, or null if the range starts at MINVALUE or for the default partition
+     */
+    static LocalDateTime lowerBound(String bound) {
+        Matcher matcher = LOWER_BOUND.matcher(bound);
+        if (!matcher.find()) {
+            return null;
+        }
+        return LocalDateTime.parse(matcher.group(1).replace(' ', 'T'));
+    }
+
+    /**
+     * Parses the upper bound of a range partition from its partition bound expression, e.g.
+     * {@code FOR VALUES FROM (MINVALUE) TO ('2026-01-01 00:00:00')}.
+     *
+     * @param bound the partition bound expression
+     * @return the upper bound, or null for the default partition
+     */
+    static LocalDateTime upperBound(String bound) {
+        Matcher matcher = UPPER_BOUND.matcher(bound);
+        if (!matcher.find()) {
+            return null;
+        }
+        return LocalDateTime.parse(matcher.group(1).replace(' ', 'T'));
+    }
+
+    /**
+     * A partition of the authorization table.
+     *
+     * @param name the partition table name
+     * @param lowerBound the inclusive lower bound of its effective expiry range, or null if unbounded or for the
+     *                   default partition
+     * @param upperBound the exclusive upper bound of its effective expiry range, or null for the default partition
+     */
+    record Partition(String name, LocalDateTime lowerBound, LocalDateTime upperBound) {
+    }
+
+    /**
+     * A bucket of effective expiries to create a partition for.
+     *
+     * @param start the inclusive start of the bucket
+     * @param end the exclusive end of the bucket
+     */
+    record Bucket(LocalDateTime start, LocalDateTime end) {
+    }
+}
@@ -20,10 +20,11 @@ package org.eclipse.ecsp.oauth2.server.core.job;
 
 import org.eclipse.ecsp.oauth2.server.core.entities.CleanupJobAudit;
 import org.eclipse.ecsp.oauth2.server.core.exception.CleanupJobException;
+import org.eclipse.ecsp.oauth2.server.core.repositories.AuthorizationExpiry;
 import org.eclipse.ecsp.oauth2.server.core.repositories.AuthorizationRepository;
 import org.eclipse.ecsp.oauth2.server.core.repositories.CleanupJobAuditRepository;
 import org.eclipse.ecsp.oauth2.server.core.service.TenantConfigurationService;
-import org.eclipse.ecsp.sql.multitenancy.TenantContext;
+import org.eclipse.ecsp.oauth2.server.core.util.SessionTenantResolver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -37,6 +38,8 @@ import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.eclipse.ecsp.oauth2.server.core.common.constants.IgniteOauth2CoreConstants.AUTHORIZATION_TABLE;
 
@@ -44,6 +47,23 @@ import static org.eclipse.ecsp.oauth2.server.core.common.constants.IgniteOauth2C
  * This class is used to schedule token cleanup job per tenant.
  * The cleanup job runs for all configured tenants to ensure expired tokens
  * are cleaned up across the entire multi-tenant system.
+ *
+ * <p>Tenants are cleaned up concurrently on a bounded pool of {@code cleanup.job.tenant.parallelism} threads, each
+ * with its own tenant context and therefore its own tenant datasource. Within a tenant the expired rows are read
+ * page by page with keyset pagination over the effective expiry index and deleted with one set-based statement per
+ * page. The deletion rate of each
+ * tenant, over the tokens and the tables of the {@link RetentionSweeper} together, is limited to
+ * {@code cleanup.job.max.rows.per.second} so the cleanup does not starve regular traffic, and the progress is
+ * recorded in {@link CleanupJobAudit} after every page.
+ *
+ * <p>Authorizations inserted without effective expiry by pods of a previous release during a rolling upgrade are
+ * backfilled first, so that the cleanup by effective expiry finds them once they have expired.
+ *
+ * <p>When the authorization table is partitioned by effective expiry, the partitions are maintained first, so that
+ * most expired rows are removed by dropping their partition and the row-by-row cleanup only finds the remainder.
+ *
+ * <p>After the tokens, the {@link RetentionSweeper} deletes the outdated rows of the session, request and MFA state
+ * tables of the tenant.
  */
 @Component
 public class CleanupJob {
@@ -51,6 +71,8 @@ public class CleanupJob {
     private final AuthorizationRepository authorizationRepository;
     private final CleanupJobAuditRepository cleanupJobAuditRepository;
     private final TenantConfigurationService tenantConfigurationService;
+    private final AuthorizationPartitionMaintenance partitionMaintenance;
+    private final RetentionSweeper retentionSweeper;
 
     @Value("${cleanup.job.batch.size}")
     private int batchSize;
@@ -58,6 +80,12 @@ public class CleanupJob {
     @Value("${cleanup.token.expires.before}")
     private int expiresBeforeInDays;
 
+    @Value("${cleanup.job.tenant.parallelism:4}")
+    private int tenantParallelism;
+
+    @Value("${cleanup.job.max.rows.per.second:0}")
+    private long maxRowsPerSecond;
+
     private static final Logger LOGGER = LoggerFactory.getLogger(CleanupJob.class);
 
     /**
@@ -66,13 +94,19 @@ public class CleanupJob {
      * @param authorizationRepository the authorization repository
      * @param cleanupJobAuditRepository the cleanup job audit repository
      * @param tenantConfigurationService the tenant configuration service
+     * @param partitionMaintenance the partition maintenance of the partitioned authorization table
+     * @param retentionSweeper the retention sweep of the session, request and MFA state tables
      */
     public CleanupJob(AuthorizationRepository authorizationRepository,
                      CleanupJobAuditRepository cleanupJobAuditRepository,
-                     TenantConfigurationService tenantConfigurationService) {
+                     TenantConfigurationService tenantConfigurationService,
+                     AuthorizationPartitionMaintenance partitionMaintenance,
+                     RetentionSweeper retentionSweeper) {
         this.authorizationRepository = authorizationRepository;
         this.cleanupJobAuditRepository = cleanupJobAuditRepository;
         this.tenantConfigurationService = tenantConfigurationService;
+        this.partitionMaintenance = partitionMaintenance;
+        this.retentionSweeper = retentionSweeper;
     }
 
     /**
@@ -89,20 +123,14 @@ public class CleanupJob {
                 LOGGER.warn("No tenants configured for cleanup job");
                 return;
             }
-            
-            LOGGER.info("Starting cleanup for {} tenant(s)", tenantIds.size());
-            for (String tenantId : tenantIds) {
-                try {
-                    // Set tenant context for this cleanup task
-                    TenantContext.setCurrentTenant(tenantId);
-                    LOGGER.info("Processing cleanup for tenant: {}", tenantId);
-                    runTokenCleanupForTenant(tenantId);
-                } catch (Exception ex) {
-                    LOGGER.error("Failed to cleanup tokens for tenant: {}", tenantId, ex);
-                    // Continue with next tenant instead of throwing exception
-                } finally {
-                    // Clear tenant context after processing this tenant
-                    TenantContext.clear();
+
+            int parallelism = Math.max(1, Math.min(tenantParallelism, tenantIds.size()));
+            LOGGER.info("Starting cleanup for {} tenant(s) with parallelism {}", tenantIds.size(), parallelism);
+            // Closing the executor waits for the cleanup of all tenants to finish
+            try (ExecutorService executor = Executors.newFixedThreadPool(parallelism,
+                    Thread.ofPlatform().name("cleanup-job-", 0).factory())) {
+                for (String tenantId : tenantIds) {
+                    executor.execute(() -> runCleanupForTenant(tenantId));
                 }
             }
             LOGGER.info("Clean-up job completed for all tenants!");
@@ -112,16 +140,44 @@ public class CleanupJob {
         }
     }
 
+    /**
+     * Runs the cleanup task of one tenant on the current thread with the tenant context of that tenant.
+     *
+     * @param tenantId the tenant ID for which cleanup should be performed
+     */
+    private void runCleanupForTenant(String tenantId) {
+        try {
+            // Bind the tenant for this cleanup task; the context is cleared again when the task returns
+            SessionTenantResolver.runWithTenant(tenantId, () -> {
+                LOGGER.info("Processing cleanup for tenant: {}", tenantId);
+                // One rate limit for all rows deleted in the tenant's database during this run
+                CleanupThrottle throttle = new CleanupThrottle(maxRowsPerSecond);
+                try {
+                    runTokenCleanupForTenant(tenantId, throttle);
+                } finally {
+                    // The short-lived state tables are swept even if the token cleanup failed
+                    retentionSweeper.sweep(tenantId, throttle);
+                }
+            });
+        } catch (Exception ex) {
+            LOGGER.error("Failed to cleanup tokens for tenant: {}", tenantId, ex);
+            // Continue with other tenants instead of throwing exception
+        }
+    }
+
     /**
      * Method for executing cleanup task for tokens per tenant.
      *
      * @param tenantId the tenant ID for which cleanup should be performed
+     * @param throttle the rate limit of the cleanup run of the tenant
      */
-    private void runTokenCleanupForTenant(String tenantId) {
+    private void runTokenCleanupForTenant(String tenantId, CleanupThrottle throttle) {
         LOGGER.info("Token clean-up job started for tenant: {} with batch size: {}", tenantId, batchSize);
         Instant currentTime = Instant.now();
         Instant accessTokenExpiresBefore = currentTime.minus(expiresBeforeInDays, ChronoUnit.DAYS);
         LOGGER.info("Cleanup time threshold for tenant {}: {}", tenantId, currentTime);
+        backfillEffectiveExpiry(tenantId, throttle);
+        maintainPartitions(tenantId, accessTokenExpiresBefore);
         long tokensCount = authorizationRepository.count();
         LOGGER.info("Total no. of existing tokens for tenant {}: {}", tenantId, tokensCount);
         long deletedTokenCount = 0;
@@ -134,17 +190,25 @@ public class CleanupJob {
             tokenCleanupAuditEntity.setCleanupJobStartedAt(accessTokenExpiresBefore);
             tokenCleanupAuditEntity.setTotalExistingRecords(tokensCount);
             tokenCleanupAuditEntity.setRecordsTableName(AUTHORIZATION_TABLE);
+            cleanupJobAuditRepository.save(tokenCleanupAuditEntity);
 
-            while (true) {
-                List<String> ids = authorizationRepository.findByTokenOrCodeExpiresBefore(accessTokenExpiresBefore,
-                        batchSize);
-                if (ids.isEmpty()) {
+            AuthorizationExpiry last = new AuthorizationExpiry("", Instant.EPOCH);
+            List<AuthorizationExpiry> page;
+            do {
+                page = authorizationRepository.findByTokenOrCodeExpiresBefore(accessTokenExpiresBefore,
+                        last.effectiveExpiresAt(), last.id(), batchSize);
+                if (page.isEmpty()) {
                     break;
                 }
-                LOGGER.info("Total entities to be deleted in current batch for tenant {}: {}", tenantId, ids.size());
-                authorizationRepository.deleteAllById(ids);
-                deletedTokenCount = deletedTokenCount + ids.size();
-            }
+                LOGGER.info("Total entities to be deleted in current batch for tenant {}: {}", tenantId, page.size());
+                int deleted = authorizationRepository.deleteByIds(
+                        page.stream().map(AuthorizationExpiry::id).toArray(String[]::new));
+                deletedTokenCount = deletedTokenCount + deleted;
+                last = page.get(page.size() - 1);
+                tokenCleanupAuditEntity.setTotalDeletedRecords(deletedTokenCount);
+                cleanupJobAuditRepository.save(tokenCleanupAuditEntity);
+                throttle.acquire(deleted);
+            } while (page.size() == batchSize);
             tokenCleanupAuditEntity.setTotalDeletedRecords(deletedTokenCount);
             tokenCleanupAuditEntity.setCleanupJobCompletedAt(Instant.now());
             tokenCleanupAuditEntity.setJobCompleted(true);
@@ -153,6 +217,9 @@ public class CleanupJob {
             LOGGER.info("Job completed for tenant {} in {} seconds", tenantId,
                     Duration.between(currentTime, Instant.now()).getSeconds());
         } catch (Exception ex) {
+            if (ex instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
             LOGGER.error("Exception occurred while performing token cleanup for tenant: {}", tenantId, ex);
             tokenCleanupAuditEntity.setTotalDeletedRecords(deletedTokenCount);
             cleanupJobAuditRepository.save(tokenCleanupAuditEntity);
@@ -162,4 +229,51 @@ public class CleanupJob {
             throw new CleanupJobException(errorMessage, ex);
         }
     }
+
+    /**
+     * Sets the effective expiry of the authorizations of the tenant that have none, a batch at a time. A failure is
+     * logged and the cleanup still runs.
+     *
+     * @param tenantId the tenant ID for which cleanup should be performed
+     * @param throttle the rate limit of the cleanup run of the tenant
+     */
+    private void backfillEffectiveExpiry(String tenantId, CleanupThrottle throttle) {
+        try {
+            long backfilled = 0;
+            int updated;
+            do {
+                updated = authorizationRepository.backfillEffectiveExpiresAt(batchSize);
+                backfilled += updated;
+                throttle.acquire(updated);
+            } while (updated == batchSize);
+            if (backfilled > 0) {
+                LOGGER.info("Backfilled the effective expiry of {} authorization(s) for tenant {}", backfilled,
+                    tenantId);
+            }
+        } catch (Exception ex) {
+            if (ex instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            LOGGER.error("Exception occurred while backfilling effective expiries for tenant: {}", tenantId, ex);
+        }
+    }
+
+    /**
+     * Creates upcoming and drops expired partitions of the authorization table of the tenant, if it is partitioned.
+     * A failure is logged and the row-by-row cleanup still runs.
+     *
+     * @param tenantId the tenant ID for which cleanup should be performed
+     * @param expiresBefore the cleanup threshold
+     */
+    private void maintainPartitions(String tenantId, Instant expiresBefore) {
+        if (!partitionMaintenance.isEnabled()) {
+            return;
+        }
+        try {
+            int droppedPartitions = partitionMaintenance.maintainPartitions(tenantId, expiresBefore);
+            LOGGER.info("Dropped {} expired authorization partition(s) for tenant {}", droppedPartitions, tenantId);
+        } catch (Exception ex) {
+            LOGGER.error("Exception occurred while maintaining authorization partitions for tenant: {}", tenantId, ex);
+        }
+    }
 }
@@ -0,0 +1,81 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.oauth2.server.core.job;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the rate at which a cleanup task deletes rows to a budget of rows per second.
+ *
+ * <p>After each batch the task calls {@link #acquire(long)} with the number of rows it deleted. The throttle pauses
+ * the task until the total number of deleted rows is within the budget for the time elapsed since the throttle was
+ * created, so large batches are followed by proportionally longer pauses. A budget of zero or less disables it.
+ */
+class CleanupThrottle {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final long rowsPerSecond;
+    private final long startNanos;
+    private long totalRows;
+
+    /**
+     * Constructor for CleanupThrottle.
+     *
+     * @param rowsPerSecond the maximum number of rows to delete per second, zero or less for no limit
+     */
+    CleanupThrottle(long rowsPerSecond) {
+        this(rowsPerSecond, System.nanoTime());
+    }
+
+    CleanupThrottle(long rowsPerSecond, long startNanos) {
+        this.rowsPerSecond = rowsPerSecond;
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * Records the deleted rows and pauses the calling thread while the budget is exceeded.
+     *
+     * @param rows the number of rows deleted by the last batch
+     * @throws InterruptedException if the thread is interrupted while pausing
+     */
+    void acquire(long rows) throws InterruptedException {
+        long pause = pauseNanos(rows, System.nanoTime());
+        if (pause > 0) {
+            TimeUnit.NANOSECONDS.sleep(pause);
+        }
+    }
+
+    /**
+     * Records the deleted rows and returns how long to pause to stay within the budget.
+     *
+     * @param rows the number of rows deleted by the last batch
+     * @param nowNanos the current value of {@link System#nanoTime()}
+     * @return the pause in nanoseconds, zero if the budget is not exceeded
+     */
+    long pauseNanos(long rows, long nowNanos) {
+        totalRows += rows;
+        if (rowsPerSecond <= 0) {
+            return 0;
+        }
+        long budgetNanos = (long) ((double) totalRows / rowsPerSecond * NANOS_PER_SECOND);
+        return Math.max(0, budgetNanos - (nowNanos - startNanos));
+    }
+}
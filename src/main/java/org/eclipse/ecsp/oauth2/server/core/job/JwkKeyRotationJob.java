@@ -0,0 +1,86 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.oauth2.server.core.job;
+
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import org.eclipse.ecsp.oauth2.server.core.config.TenantAwareJwkSource;
+import org.eclipse.ecsp.oauth2.server.core.service.TenantConfigurationService;
+import org.eclipse.ecsp.oauth2.server.core.util.SessionTenantResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * This class is used to load and rotate the signing key rings of all tenants in the background.
+ *
+ * <p>Every run loads the configured active and next key of each tenant into its key ring, so that the first request
+ * of a tenant does not load keys, and performs due rotations: once the activation time of the next key has passed it
+ * becomes the active key and the previously active key is retired. Retired keys are dropped after
+ * {@code uidam.jwk.rotation.retired.key.retention.seconds}. The request path only ever reads the current key ring.
+ */
+@Component
+public class JwkKeyRotationJob {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JwkKeyRotationJob.class);
+
+    private final JWKSource<SecurityContext> jwkSource;
+    private final TenantConfigurationService tenantConfigurationService;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param jwkSource the JWK source holding the key rings
+     * @param tenantConfigurationService the tenant configuration service
+     */
+    public JwkKeyRotationJob(JWKSource<SecurityContext> jwkSource,
+                             TenantConfigurationService tenantConfigurationService) {
+        this.jwkSource = jwkSource;
+        this.tenantConfigurationService = tenantConfigurationService;
+    }
+
+    /**
+     * Refreshes the key rings of all tenants.
+     */
+    @Scheduled(initialDelayString = "${uidam.jwk.rotation.initial.delay.ms:0}",
+        fixedDelayString = "${uidam.jwk.rotation.refresh.interval.ms:60000}")
+    public void refreshKeyRings() {
+        if (!(jwkSource instanceof TenantAwareJwkSource tenantAwareJwkSource)) {
+            return;
+        }
+        Set<String> tenantIds = tenantConfigurationService.getAllTenants();
+        if (tenantIds == null || tenantIds.isEmpty()) {
+            return;
+        }
+        Instant now = Instant.now();
+        for (String tenantId : tenantIds) {
+            try {
+                SessionTenantResolver.runWithTenant(tenantId,
+                    () -> tenantAwareJwkSource.refreshCurrentTenantKeyRing(now));
+            } catch (Exception e) {
+                // The current key ring stays in use; the refresh is retried on the next run
+                LOGGER.error("Failed to refresh key ring for tenant: {}", tenantId, e);
+            }
+        }
+    }
+}
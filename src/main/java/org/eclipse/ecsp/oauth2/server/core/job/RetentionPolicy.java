@@ -0,0 +1,59 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.oauth2.server.core.job;
+
+import java.time.Duration;
+import java.util.regex.Pattern;
+
+/**
+ * The retention of the rows of one table swept by the {@link RetentionSweeper}: rows whose timestamp column is older
+ * than the retention are deleted. Further tables are swept by declaring another RetentionPolicy bean.
+ *
+ * @param tableName the unquoted table name, without schema
+ * @param keyColumn the column identifying a row, used to delete a batch of rows
+ * @param timestampColumn the indexed column compared with the retention threshold
+ * @param retention how long rows are kept; zero or negative disables the sweep of the table
+ */
+public record RetentionPolicy(String tableName, String keyColumn, String timestampColumn, Duration retention) {
+
+    private static final Pattern IDENTIFIER = Pattern.compile("^[A-Za-z_][A-Za-z0-9_]*$");
+
+    /**
+     * Validates the identifiers, which are part of the statements built by the sweeper.
+     */
+    public RetentionPolicy {
+        for (String identifier : new String[] {tableName, keyColumn, timestampColumn}) {
+            if (identifier == null || !IDENTIFIER.matcher(identifier).matches()) {
+                throw new IllegalArgumentException("Invalid identifier in retention policy: " + identifier);
+            }
+        }
+        if (retention == null) {
+            throw new IllegalArgumentException("Retention of table " + tableName + " cannot be null");
+        }
+    }
+
+    /**
+     * Returns whether rows of the table are deleted at all.
+     *
+     * @return true if the retention is positive
+     */
+    public boolean isEnabled() {
+        return retention.isPositive();
+    }
+}
@@ -0,0 +1,72 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.oauth2.server.core.job;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Retention policies of the tables that only hold short-lived state: the security contexts of browser sessions, the
+ * authorization requests sent to external identity providers and the MFA recovery flow state.
+ */
+@Configuration
+public class RetentionPolicyConfig {
+
+    /**
+     * Security contexts are swept by their last update. The retention must exceed the session timeout of every
+     * tenant, so that only timed out or logged out sessions are deleted.
+     *
+     * @param retentionDays the retention in days
+     * @return the retention policy of authorization_security_context
+     */
+    @Bean
+    public RetentionPolicy securityContextRetentionPolicy(
+            @Value("${cleanup.retention.security.context.days:7}") long retentionDays) {
+        return new RetentionPolicy("authorization_security_context", "ID", "UPDATED_DATE",
+            Duration.ofDays(retentionDays));
+    }
+
+    /**
+     * Authorization requests are swept by their creation, as their UPDATED_DATE is not always set. A request is only
+     * needed until the external identity provider redirects back.
+     *
+     * @param retentionDays the retention in days
+     * @return the retention policy of authorization_request
+     */
+    @Bean
+    public RetentionPolicy authorizationRequestRetentionPolicy(
+            @Value("${cleanup.retention.authorization.request.days:1}") long retentionDays) {
+        return new RetentionPolicy("authorization_request", "ID", "CREATED_DATE", Duration.ofDays(retentionDays));
+    }
+
+    /**
+     * MFA flow state is swept by its last update. The retention must exceed the recovery email cooldown.
+     *
+     * @param retentionDays the retention in days
+     * @return the retention policy of mfa_flow_state
+     */
+    @Bean
+    public RetentionPolicy mfaFlowStateRetentionPolicy(
+            @Value("${cleanup.retention.mfa.flow.state.days:7}") long retentionDays) {
+        return new RetentionPolicy("mfa_flow_state", "USERNAME", "UPDATED_DATE", Duration.ofDays(retentionDays));
+    }
+}
@@ -0,0 +1,151 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.oauth2.server.core.job;
+
+import org.eclipse.ecsp.oauth2.server.core.entities.CleanupJobAudit;
+import org.eclipse.ecsp.oauth2.server.core.repositories.CleanupJobAuditRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Deletes the rows of short-lived state tables that are older than the retention of their {@link RetentionPolicy}.
+ *
+ * <p>The sweep runs from the {@link CleanupJob} for each tenant, with the tenant context set, so all statements go
+ * through the routing datasource to the database of the tenant being cleaned up. Each table is swept oldest rows
+ * first, {@code cleanup.retention.batch.size} rows per statement over the index of its timestamp column. The rows
+ * deleted count against the same {@link CleanupThrottle} as the token cleanup of the tenant, so the whole cleanup
+ * run of a tenant stays within {@code cleanup.job.max.rows.per.second}. The progress of every table is recorded in
+ * its own {@link CleanupJobAudit}. A failing table is logged and the remaining tables are still swept.
+ */
+@Component
+public class RetentionSweeper {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RetentionSweeper.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CleanupJobAuditRepository cleanupJobAuditRepository;
+    private final List<RetentionPolicy> policies;
+
+    @Value("${cleanup.retention.batch.size:5000}")
+    private int batchSize;
+
+    @Value("${uidam.default.db.schema:}")
+    private String defaultSchema;
+
+    /**
+     * Constructor for RetentionSweeper.
+     *
+     * @param dataSource the tenant routing datasource
+     * @param cleanupJobAuditRepository the cleanup job audit repository
+     * @param policies the retention policies of the swept tables
+     */
+    public RetentionSweeper(DataSource dataSource, CleanupJobAuditRepository cleanupJobAuditRepository,
+                            List<RetentionPolicy> policies) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.cleanupJobAuditRepository = cleanupJobAuditRepository;
+        this.policies = List.copyOf(policies);
+    }
+
+    /**
+     * Sweeps all tables with an enabled retention policy in the database of the current tenant.
+     *
+     * @param tenantId the tenant ID whose tables are swept
+     * @param throttle the rate limit of the cleanup run of the tenant
+     */
+    void sweep(String tenantId, CleanupThrottle throttle) {
+        for (RetentionPolicy policy : policies) {
+            if (!policy.isEnabled()) {
+                continue;
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                LOGGER.warn("Retention sweep interrupted for tenant {}", tenantId);
+                return;
+            }
+            try {
+                sweepTable(tenantId, policy, throttle);
+            } catch (Exception ex) {
+                if (ex instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                LOGGER.error("Exception occurred while sweeping table {} for tenant: {}", policy.tableName(),
+                    tenantId, ex);
+            }
+        }
+    }
+
+    /**
+     * Deletes the rows of one table older than its retention, a batch at a time, and records the progress.
+     *
+     * @param tenantId the tenant ID whose table is swept
+     * @param policy the retention policy of the table
+     * @param throttle the rate limit of the cleanup run of the tenant
+     * @return the number of deleted rows
+     * @throws InterruptedException if the thread is interrupted while throttled
+     */
+    long sweepTable(String tenantId, RetentionPolicy policy, CleanupThrottle throttle) throws InterruptedException {
+        String table = TenantSchema.of(defaultSchema, tenantId) + "." + policy.tableName();
+        Instant startedAt = Instant.now();
+        Timestamp threshold = Timestamp.from(startedAt.minus(policy.retention()));
+        LOGGER.info("Retention sweep of {} started for tenant {} with threshold {}", table, tenantId, threshold);
+
+        CleanupJobAudit audit = new CleanupJobAudit();
+        audit.setCleanupJobStartedAt(startedAt);
+        audit.setRecordsTableName(policy.tableName());
+        Long existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+        audit.setTotalExistingRecords(existing != null ? existing : 0);
+        cleanupJobAuditRepository.save(audit);
+
+        String deleteSql = deleteStatement(table, policy);
+        long deleted = 0;
+        int batch;
+        do {
+            batch = jdbcTemplate.update(deleteSql, threshold, batchSize);
+            deleted += batch;
+            audit.setTotalDeletedRecords(deleted);
+            cleanupJobAuditRepository.save(audit);
+            throttle.acquire(batch);
+        } while (batch == batchSize);
+        audit.setCleanupJobCompletedAt(Instant.now());
+        audit.setJobCompleted(true);
+        cleanupJobAuditRepository.save(audit);
+        LOGGER.info("Deleted {} rows of {} older than {} for tenant {}", deleted, table, threshold, tenantId);
+        return deleted;
+    }
+
+    /**
+     * Builds the statement deleting the oldest rows of the table before the threshold, at most a batch at a time.
+     *
+     * @param table the schema-qualified table name
+     * @param policy the retention policy of the table
+     * @return the DELETE statement, taking the threshold and the batch size as parameters
+     */
+    static String deleteStatement(String table, RetentionPolicy policy) {
+        return "DELETE FROM " + table + " WHERE " + policy.keyColumn() + " IN (SELECT " + policy.keyColumn()
+            + " FROM " + table + " WHERE " + policy.timestampColumn() + " < ? ORDER BY " + policy.timestampColumn()
+            + " LIMIT ?)";
+    }
+}
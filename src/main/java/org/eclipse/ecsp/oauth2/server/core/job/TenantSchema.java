@@ -0,0 +1,51 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.oauth2.server.core.job;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves the database schema of a tenant for the statements the cleanup tasks build themselves, following the same
+ * rule as the Liquibase migration.
+ */
+final class TenantSchema {
+
+    private static final Pattern SCHEMA_NAME = Pattern.compile("^[a-zA-Z0-9_.-]+$");
+
+    private TenantSchema() {
+    }
+
+    /**
+     * Returns the configured default schema, or the tenant ID in lower case if none is configured.
+     *
+     * @param defaultSchema the value of uidam.default.db.schema, may be empty
+     * @param tenantId the tenant ID
+     * @return the schema name
+     * @throws IllegalArgumentException if the schema name contains characters not allowed in an unquoted name
+     */
+    static String of(String defaultSchema, String tenantId) {
+        String schema = defaultSchema == null || defaultSchema.trim().isEmpty() ? tenantId.toLowerCase(Locale.ROOT)
+            : defaultSchema;
+        if (!SCHEMA_NAME.matcher(schema).matches()) {
+            throw new IllegalArgumentException("Invalid schema name: " + schema);
+        }
+        return schema;
+    }
+}
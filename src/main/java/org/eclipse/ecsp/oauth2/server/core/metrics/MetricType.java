@@ -93,7 +93,91 @@ public enum MetricType {
      * Tracks failed login attempts due to account being locked per tenant.
      */
     FAILURE_LOGIN_ACCOUNT_LOCKED("failure.login.attempts.account.locked",
-                                  "Total number of failed login attempts due to account being locked");
+                                  "Total number of failed login attempts due to account being locked"),
+
+    /**
+     * Tracks authorization lookups by token served from the in-process token cache per tenant.
+     */
+    AUTHORIZATION_TOKEN_CACHE_HIT("authorization.token.cache.hit",
+                                  "Total number of authorization token lookups served from cache"),
+
+    /**
+     * Tracks authorization lookups by token that had to be read from the database per tenant.
+     */
+    AUTHORIZATION_TOKEN_CACHE_MISS("authorization.token.cache.miss",
+                                   "Total number of authorization token lookups not found in cache"),
+
+    /**
+     * Tracks entries removed from the authorization token cache per tenant.
+     */
+    AUTHORIZATION_TOKEN_CACHE_EVICTION("authorization.token.cache.eviction",
+                                       "Total number of entries evicted from the authorization token cache"),
+
+    /**
+     * Tracks token introspections answered from the in-process introspection result cache per tenant.
+     */
+    INTROSPECTION_CACHE_HIT("introspection.cache.hit",
+                            "Total number of token introspections served from cache"),
+
+    /**
+     * Tracks token introspections that had to verify the token and read it from the database per tenant.
+     */
+    INTROSPECTION_CACHE_MISS("introspection.cache.miss",
+                             "Total number of token introspections not found in cache"),
+
+    /**
+     * Tracks session security contexts served from the in-process security context cache per tenant.
+     */
+    SECURITY_CONTEXT_CACHE_HIT("security.context.cache.hit",
+                               "Total number of session security contexts served from cache"),
+
+    /**
+     * Tracks session security contexts that had to be read from the database per tenant.
+     */
+    SECURITY_CONTEXT_CACHE_MISS("security.context.cache.miss",
+                                "Total number of session security contexts not found in cache"),
+
+    /**
+     * Tracks user details served from the in-process user details cache per tenant.
+     */
+    USER_DETAILS_CACHE_HIT("user.details.cache.hit",
+                           "Total number of user details served from cache"),
+
+    /**
+     * Tracks user details that had to be fetched from user management per tenant.
+     */
+    USER_DETAILS_CACHE_MISS("user.details.cache.miss",
+                            "Total number of user details not found in cache"),
+
+    /**
+     * Tracks user details lookups that joined a fetch of the same user already in flight per tenant.
+     */
+    USER_DETAILS_CACHE_COALESCED("user.details.cache.coalesced",
+                                 "Total number of user details lookups served by a fetch already in flight"),
+
+    /**
+     * Tracks cached client registrations refreshed in the background from auth management per tenant.
+     */
+    CLIENT_CACHE_REFRESH("client.cache.refresh",
+                         "Total number of cached client registrations refreshed from auth management"),
+
+    /**
+     * Tracks cached client registrations kept because their refresh from auth management failed per tenant.
+     */
+    CLIENT_CACHE_STALE_SERVED("client.cache.stale.served",
+                              "Total number of cached client registrations kept after a failed refresh"),
+
+    /**
+     * Tracks client lookups that joined a lookup of the same client already in flight per tenant.
+     */
+    CLIENT_LOOKUP_COALESCED("client.lookup.coalesced",
+                            "Total number of client lookups served by a lookup already in flight"),
+
+    /**
+     * Tracks login success user events dropped because the background queue was full per tenant.
+     */
+    LOGIN_USER_EVENT_DROPPED("login.user.event.dropped",
+                             "Total number of login success user events dropped because the queue was full");
 
     private final String metricName;
     private final String description;
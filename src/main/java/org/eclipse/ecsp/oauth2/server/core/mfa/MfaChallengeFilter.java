@@ -8,6 +8,7 @@ import org.eclipse.ecsp.oauth2.server.core.authentication.tokens.CustomUserPwdAu
 import org.eclipse.ecsp.oauth2.server.core.config.tenantproperties.MfaPolicyProperties;
 import org.eclipse.ecsp.oauth2.server.core.config.tenantproperties.MfaPolicyProperties.MfaMode;
 import org.eclipse.ecsp.oauth2.server.core.config.tenantproperties.TenantProperties;
+import org.eclipse.ecsp.oauth2.server.core.filter.TenantPathRouter;
 import org.eclipse.ecsp.oauth2.server.core.service.TenantConfigurationService;
 import org.eclipse.ecsp.oauth2.server.core.utils.InputSanitizer;
 import org.eclipse.ecsp.oauth2.server.core.utils.TenantUtils;
@@ -53,17 +54,10 @@ public class MfaChallengeFilter extends OncePerRequestFilter {
     static final String SESSION_MFA_TENANT   = "MFA_TENANT_ID";
     static final String SESSION_MFA_VERIFIED = "MFA_VERIFIED_ONCE";
 
-    private static final String MFA_PREFIX  = "/mfa";
-    private static final String CSS_PREFIX  = "/css";
-    private static final String IMG_PREFIX  = "/images";
-    private static final String ACTUATOR    = "/actuator";
-    private static final String FAVICON     = "/favicon";
-
-    private static final int MIN_PATH_PARTS = 2;
-
     private final MfaSecretService mfaSecretService;
     private final TenantConfigurationService tenantConfigurationService;
     private final MfaStateService mfaStateService;
+    private final TenantPathRouter tenantPathRouter;
 
     /**
      * Constructs a MfaChallengeFilter.
@@ -75,9 +69,26 @@ public class MfaChallengeFilter extends OncePerRequestFilter {
     public MfaChallengeFilter(MfaSecretService mfaSecretService,
                               TenantConfigurationService tenantConfigurationService,
                               MfaStateService mfaStateService) {
+        this(mfaSecretService, tenantConfigurationService, mfaStateService,
+            new TenantPathRouter(tenantConfigurationService));
+    }
+
+    /**
+     * Constructs a MfaChallengeFilter.
+     *
+     * @param mfaSecretService           production MFA service for checking enrollment status.
+     * @param tenantConfigurationService service for resolving the per-tenant MFA policy.
+     * @param mfaStateService            stateless DB-backed MFA state manager.
+     * @param tenantPathRouter           compiled path keywords for pass-through checks and tenant resolution.
+     */
+    public MfaChallengeFilter(MfaSecretService mfaSecretService,
+                              TenantConfigurationService tenantConfigurationService,
+                              MfaStateService mfaStateService,
+                              TenantPathRouter tenantPathRouter) {
         this.mfaSecretService = mfaSecretService;
         this.tenantConfigurationService = tenantConfigurationService;
         this.mfaStateService = mfaStateService;
+        this.tenantPathRouter = tenantPathRouter;
     }
 
     @Override
@@ -367,36 +378,11 @@ public class MfaChallengeFilter extends OncePerRequestFilter {
      * Resolve the tenant from the incoming request URI or fall back to the default tenant.
      */
     private String resolveTenantFromRequest(HttpServletRequest request) {
-        String uri = request.getRequestURI();
-        if (uri != null && uri.startsWith("/")) {
-            String[] parts = uri.split("/");
-            if (parts.length >= MIN_PATH_PARTS) {
-                String candidate = parts[1];
-                if (!candidate.isEmpty()
-                        && !candidate.equals("oauth2")
-                        && !candidate.equals("login")
-                        && !candidate.equals("mfa")
-                        && !candidate.equals("css")
-                        && !candidate.equals("images")
-                        && !candidate.equals("actuator")) {
-                    return candidate;
-                }
-            }
-        }
-        return TenantUtils.getDefaultTenant();
+        String tenant = tenantPathRouter.current().mfaTenant(request.getRequestURI());
+        return tenant != null ? tenant : TenantUtils.getDefaultTenant();
     }
 
     private boolean isPassThrough(String uri) {
-        return uri.startsWith(MFA_PREFIX)
-                || uri.contains("/mfa/")
-                || uri.startsWith(CSS_PREFIX)
-                || uri.startsWith(IMG_PREFIX)
-                || uri.startsWith(ACTUATOR)
-                || uri.startsWith(FAVICON)
-                || uri.contains("login")
-                || uri.contains("logout")
-                || uri.contains(".well-known")
-                || uri.contains("oauth2/token")
-                || uri.contains("oauth2/jwks");
+        return tenantPathRouter.current().isMfaPassThrough(uri);
     }
 }
@@ -1,5 +1,6 @@
 package org.eclipse.ecsp.oauth2.server.core.mfa;
 
+import org.eclipse.ecsp.oauth2.server.core.cache.UserDetailsCache.UserDetailsChangedEvent;
 import org.eclipse.ecsp.oauth2.server.core.client.UserManagementClient;
 import org.eclipse.ecsp.oauth2.server.core.response.dto.MfaBackupCodeVerifyResponseDto;
 import org.eclipse.ecsp.oauth2.server.core.response.dto.MfaBackupCodesResponseDto;
@@ -7,6 +8,7 @@ import org.eclipse.ecsp.oauth2.server.core.response.dto.MfaEnrollInitiateRespons
 import org.eclipse.ecsp.oauth2.server.core.response.dto.MfaStatusResponseDto;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
@@ -23,9 +25,11 @@ public class MfaSecretService {
     private static final Logger LOGGER = LoggerFactory.getLogger(MfaSecretService.class);
 
     private final UserManagementClient userManagementClient;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public MfaSecretService(UserManagementClient userManagementClient) {
+    public MfaSecretService(UserManagementClient userManagementClient, ApplicationEventPublisher eventPublisher) {
         this.userManagementClient = userManagementClient;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -88,6 +92,7 @@ public class MfaSecretService {
     public void activateEnrollment(String username) {
         LOGGER.info("[MFA] Activating enrollment for user='{}'", username);
         userManagementClient.activateMfaEnrollment(username);
+        publishUserDetailsChanged(username);
     }
 
     /**
@@ -108,6 +113,7 @@ public class MfaSecretService {
     public void revoke(String username) {
         LOGGER.info("[MFA] Revoking enrollment for user='{}'", username);
         userManagementClient.revokeMfaEnrollment(username);
+        publishUserDetailsChanged(username);
     }
 
     /**
@@ -130,7 +136,11 @@ public class MfaSecretService {
      */
     public boolean verifyRecoveryKeyAndRevoke(String username, String recoveryKey) {
         LOGGER.info("[MFA] Verifying recovery key for user='{}'", username);
-        return userManagementClient.verifyMfaRecoveryKey(username, recoveryKey);
+        boolean revoked = userManagementClient.verifyMfaRecoveryKey(username, recoveryKey);
+        if (revoked) {
+            publishUserDetailsChanged(username);
+        }
+        return revoked;
     }
 
     /**
@@ -155,4 +165,13 @@ public class MfaSecretService {
         LOGGER.info("[MFA] Verifying backup code for user='{}'", username);
         return userManagementClient.verifyMfaBackupCode(username, backupCode);
     }
+
+    /**
+     * Tell the user details cache that the MFA enrollment of the user has changed.
+     *
+     * @param username the user's username
+     */
+    private void publishUserDetailsChanged(String username) {
+        eventPublisher.publishEvent(UserDetailsChangedEvent.forCurrentTenant(username));
+    }
 }
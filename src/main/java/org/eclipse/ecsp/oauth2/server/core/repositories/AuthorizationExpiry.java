@@ -0,0 +1,31 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.oauth2.server.core.repositories;
+
+import java.time.Instant;
+
+/**
+ * Id and effective expiry of an authorization, the keyset by which expired authorizations are paged for cleanup.
+ *
+ * @param id the authorization id
+ * @param effectiveExpiresAt the latest expiry of all tokens and codes of the authorization
+ */
+public record AuthorizationExpiry(String id, Instant effectiveExpiresAt) {
+}
@@ -20,9 +20,11 @@ package org.eclipse.ecsp.oauth2.server.core.repositories;
 
 import org.eclipse.ecsp.oauth2.server.core.entities.Authorization;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.util.List;
@@ -44,6 +46,12 @@ public interface AuthorizationRepository extends JpaRepository<Authorization, St
 
     Optional<Authorization> findByOidcIdTokenValue(String idToken);
 
+    Optional<Authorization> findByAccessTokenDigest(byte[] accessTokenDigest);
+
+    Optional<Authorization> findByRefreshTokenDigest(byte[] refreshTokenDigest);
+
+    Optional<Authorization> findByOidcIdTokenDigest(byte[] idTokenDigest);
+
     Optional<Authorization> findByUserCodeValue(String userCode);
 
     Optional<Authorization> findByDeviceCodeValue(String deviceCode);
@@ -52,13 +60,14 @@ public interface AuthorizationRepository extends JpaRepository<Authorization, St
      * This method retrieves a list of Authorization entities based on the principalName and accessTokenExpiresAt.
      * It uses a custom query to perform this operation.
      * Username comparison is case-insensitive by converting both sides to lowercase.
+     * Authorizations whose access token has already been invalidated are skipped.
      *
      * @param principalName the principal name to be used in the search criteria.
      * @param accessTokenExpiresAt the access token expiry time to be used in the search criteria.
      * @return a List of matching Authorization entities.
      */
     @Query("select a from Authorization a where a.principalName = LOWER(:principalName) "
-        + "AND a.accessTokenExpiresAt >= :accessTokenExpiresAt")
+        + "AND a.accessTokenExpiresAt >= :accessTokenExpiresAt AND a.accessTokenInvalidated = false")
     List<Authorization> findByPrincipalNameAndAccessTokenExpiresAt(
         @Param("principalName") String principalName, @Param("accessTokenExpiresAt")Instant accessTokenExpiresAt);
     
@@ -67,6 +76,8 @@ public interface AuthorizationRepository extends JpaRepository<Authorization, St
      * It filters by principal name, authorization grant type, and ensures tokens are not expired.
      * This method is optimized for session management queries with proper database indexing.
      * Username comparison is case-insensitive by converting both sides to lowercase.
+     * Sessions whose access token has been invalidated are filtered out by the database, using the partial index
+     * on the authorizations with a valid access token.
      *
      * @param principalName the principal name (username) to search for
      * @param grantType the authorization grant type (e.g., "authorization_code")
@@ -75,7 +86,8 @@ public interface AuthorizationRepository extends JpaRepository<Authorization, St
      */
     @Query("select a from Authorization a where LOWER(a.principalName) = LOWER(:principalName) "
             + "AND a.authorizationGrantType = :grantType "
-            + "AND a.accessTokenExpiresAt > :currentTime")
+            + "AND a.accessTokenExpiresAt > :currentTime "
+            + "AND a.accessTokenInvalidated = false")
     List<Authorization> findActiveSessionsByPrincipalNameAndGrantType(
             @Param("principalName") String principalName,
             @Param("grantType") String grantType,
@@ -101,72 +113,87 @@ public interface AuthorizationRepository extends JpaRepository<Authorization, St
      * access token OR refresh token is still valid (not expired). This ensures we capture all valid authorizations for
      * logout, even if access tokens are expired but refresh tokens are still valid. NOTE: Excludes client_credentials
      * grant type tokens as they are not tied to user sessions and should not be revoked during user logout operations.
-     * Username comparison is case-insensitive by converting both sides to lowercase.
+     * Username comparison is case-insensitive by converting both sides to lowercase. Only authorizations whose
+     * effective expiry lies ahead are considered, which the database answers with a range scan on its index.
+     * Authorizations without effective expiry, as written by pods of a previous release during a rolling upgrade,
+     * are matched by their token expiries alone until the cleanup job has backfilled them.
+     * Authorizations whose access and refresh tokens have both been invalidated already are skipped.
      *
      * @param principalName the principal name to be used in the search criteria.
      * @param clientId the client ID to be used in the search criteria.
      * @param currentTime the current time to compare against token expiration times.
      * @return a List of matching Authorization entities with valid tokens (excluding client_credentials).
      */
-    @Query("select a from Authorization a where LOWER(a.principalName) = LOWER(:principalName) "
+    @Query("select a from Authorization a where (a.effectiveExpiresAt >= :currentTime "
+            + "OR a.effectiveExpiresAt IS NULL) "
+            + " AND LOWER(a.principalName) = LOWER(:principalName) "
             + " AND a.registeredClientId = :clientId " + " AND a.authorizationGrantType != 'client_credentials' "
-            + " AND (a.accessTokenExpiresAt >= :currentTime OR a.refreshTokenExpiresAt >= :currentTime)")
+            + " AND (a.accessTokenExpiresAt >= :currentTime OR a.refreshTokenExpiresAt >= :currentTime)"
+            + " AND (a.accessTokenInvalidated = false OR a.refreshTokenInvalidated = false)")
     List<Authorization> findByPrincipalNameClientAndValidTokens(@Param("principalName") String principalName,
             @Param("clientId") String clientId, @Param("currentTime") Instant currentTime);
 
     /**
-     * This method retrieves an Authorization entity based on the token.
-     * It uses a custom query to perform this operation.
-     * The token can be a state, authorization code, access token, refresh token, OIDC ID token, user code,
-     * or device code.
+     * This method retrieves the next page of Authorization entities whose tokens and codes all expired before the
+     * given time, i.e. whose effective expiry lies before it. Pages are read by keyset pagination over the effective
+     * expiry index: the expiry and id of the last row of a page are passed for the next page, so every page is a
+     * bounded range scan instead of an offset scan.
      *
-     * @param token the token to be used in the search criteria.
-     * @return an Optional containing the matching Authorization entity, or an empty Optional if no match is found.
+     * @param tokenExpiresAt the token expiry time to be used in the search criteria.
+     * @param afterExpiresAt the effective expiry of the last row of the previous page.
+     * @param afterId the id of the last row of the previous page, or an empty string for the first page.
+     * @param limit the maximum number of rows to return.
+     * @return a List of matching Authorization ids and effective expiries in ascending order.
      */
-    @Query("select a from Authorization a where a.state = :token"
-        + " or a.authorizationCodeValue = :token"
-        + " or a.accessTokenValue = :hashedToken"
-        + " or a.refreshTokenValue = :hashedToken"
-        + " or a.oidcIdTokenValue = :hashedToken"
-        + " or a.userCodeValue = :token"
-        + " or a.deviceCodeValue = :token"
-    )
-    Optional<Authorization> findByStateOrAuthCodeOrAccessTokenOrRefreshTokenOrOidcIdTokenOrUserCodeOrDeviceCode(
-        @Param("token") String token, @Param("hashedToken") String hashedToken);
-    
+    @Query("select new org.eclipse.ecsp.oauth2.server.core.repositories.AuthorizationExpiry(a.id, "
+            + "a.effectiveExpiresAt) from Authorization a where a.effectiveExpiresAt <= :tokenExpiresAt "
+            + "AND (a.effectiveExpiresAt, a.id) > (:afterExpiresAt, :afterId) "
+            + "ORDER BY a.effectiveExpiresAt, a.id LIMIT :limit")
+    List<AuthorizationExpiry> findByTokenOrCodeExpiresBefore(@Param("tokenExpiresAt") Instant tokenExpiresAt,
+            @Param("afterExpiresAt") Instant afterExpiresAt, @Param("afterId") String afterId,
+            @Param(value = "limit") int limit);
+
     /**
-     * This method retrieves a list of Authorization entities based on the
-     *  accessTokenExpiresAt. It uses a custom query to perform
-     * this operation.
+     * This method sets the effective expiry of at most the given number of Authorization entities that have none,
+     * to the latest expiry of their tokens and codes. Pods of a previous release keep inserting authorizations
+     * without effective expiry during a rolling upgrade, after the one-time backfill of the release has run; the
+     * cleanup job backfills them before it looks for expired authorizations by their effective expiry.
      *
-     * @param tokenExpiresAt the access token expiry time to be used in the
-     *                             search criteria.
-     * @return a List of matching Authorization entities id.
+     * @param limit the maximum number of rows to update.
+     * @return the number of updated rows.
      */
-    @Query("select a.id from Authorization a where a.accessTokenExpiresAt <= :tokenExpiresAt "
-            + "OR a.authorizationCodeExpiresAt <= :tokenExpiresAt "
-            + "OR a.refreshTokenExpiresAt <= :tokenExpiresAt "
-            + "OR a.oidcIdTokenExpiresAt <= :tokenExpiresAt "
-            + "OR userCodeExpiresAt <= :tokenExpiresAt "
-            + "OR a.deviceCodeExpiresAt <= :tokenExpiresAt ORDER BY a.id DESC LIMIT :limit")
-    List<String> findByTokenOrCodeExpiresBefore(@Param("tokenExpiresAt") Instant tokenExpiresAt,
-            @Param(value = "limit") int limit);
-    
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE {h-schema}\"authorization\" SET EFFECTIVE_EXPIRES_AT = GREATEST("
+            + "AUTHORIZATION_CODE_EXPIRES_AT, ACCESS_TOKEN_EXPIRES_AT, REFRESH_TOKEN_EXPIRES_AT, "
+            + "OIDC_ID_TOKEN_EXPIRES_AT, USER_CODE_EXPIRES_AT, DEVICE_CODE_EXPIRES_AT) "
+            + "WHERE ID IN (SELECT ID FROM {h-schema}\"authorization\" WHERE EFFECTIVE_EXPIRES_AT IS NULL "
+            + "AND GREATEST(AUTHORIZATION_CODE_EXPIRES_AT, ACCESS_TOKEN_EXPIRES_AT, REFRESH_TOKEN_EXPIRES_AT, "
+            + "OIDC_ID_TOKEN_EXPIRES_AT, USER_CODE_EXPIRES_AT, DEVICE_CODE_EXPIRES_AT) IS NOT NULL LIMIT :limit)",
+            nativeQuery = true)
+    int backfillEffectiveExpiresAt(@Param("limit") int limit);
+
+    /**
+     * This method deletes the Authorization entities with the given ids in a single set-based statement, without
+     * loading the entities first.
+     *
+     * @param ids the ids of the Authorization entities to delete.
+     * @return the number of deleted rows.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM {h-schema}\"authorization\" WHERE id = ANY(:ids)", nativeQuery = true)
+    int deleteByIds(@Param("ids") String[] ids);
+
     /**
-     * This method retrieves count of Authorization entities based on the
-     *  accessTokenExpiresAt. It uses a custom query to perform
-     * this operation.
+     * This method retrieves the count of Authorization entities whose tokens and codes all expired before the given
+     * time, using a range scan on the effective expiry index.
      *
-     * @param tokenExpiresAt the access token expiry time to be used in the
+     * @param tokenExpiresAt the token expiry time to be used in the
      *                             search criteria.
      * @return count.
      */
-    @Query("select count(a) from Authorization a where a.accessTokenExpiresAt <= :tokenExpiresAt "
-            + "OR a.authorizationCodeExpiresAt <= :tokenExpiresAt "
-            + "OR a.refreshTokenExpiresAt <= :tokenExpiresAt "
-            + "OR a.oidcIdTokenExpiresAt <= :tokenExpiresAt "
-            + "OR userCodeExpiresAt <= :tokenExpiresAt "
-            + "OR a.deviceCodeExpiresAt <= :tokenExpiresAt")
+    @Query("select count(a) from Authorization a where a.effectiveExpiresAt <= :tokenExpiresAt")
     long countByTokenOrCodeExpiresBefore(@Param("tokenExpiresAt") Instant tokenExpiresAt);
 
 }
@@ -20,8 +20,13 @@ package org.eclipse.ecsp.oauth2.server.core.repositories;
 
 import org.eclipse.ecsp.oauth2.server.core.entities.AuthorizationSecurityContext;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
 import java.util.Optional;
 
 /**
@@ -33,4 +38,18 @@ public interface AuthorizationSecurityContextRepository extends JpaRepository<Au
 
     Optional<AuthorizationSecurityContext> findBySessionId(String sessionId);
 
+    /**
+     * This method moves the UPDATED_DATE of the authenticated security context of a session forward, without loading
+     * the entity first. Rows that were unauthenticated or updated later in the meantime are left unchanged.
+     *
+     * @param sessionId the session id.
+     * @param updatedDate the new UPDATED_DATE.
+     * @return the number of updated rows.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE AuthorizationSecurityContext c SET c.updatedDate = :updatedDate WHERE c.sessionId = :sessionId "
+        + "AND c.authenticated = true AND c.updatedDate < :updatedDate")
+    int touchUpdatedDate(@Param("sessionId") String sessionId, @Param("updatedDate") Timestamp updatedDate);
+
 }
\ No newline at end of file
@@ -29,16 +29,20 @@ import org.eclipse.ecsp.oauth2.server.core.authentication.CustomWebAuthenticatio
 import org.eclipse.ecsp.oauth2.server.core.authentication.CustomWebAuthenticationDetailsSource;
 import org.eclipse.ecsp.oauth2.server.core.authentication.tokens.CustomUserPwdAuthenticationToken;
 import org.eclipse.ecsp.oauth2.server.core.authentication.tokens.CustomUserPwdAuthenticationTokenMixin;
+import org.eclipse.ecsp.oauth2.server.core.cache.AuthorizationTokenCache;
+import org.eclipse.ecsp.oauth2.server.core.cache.IntrospectionResultCache;
 import org.eclipse.ecsp.oauth2.server.core.common.CustomOauth2TokenGenErrorCodes;
 import org.eclipse.ecsp.oauth2.server.core.common.constants.IgniteOauth2CoreConstants;
 import org.eclipse.ecsp.oauth2.server.core.entities.Authorization;
 import org.eclipse.ecsp.oauth2.server.core.exception.CustomOauth2AuthorizationException;
 import org.eclipse.ecsp.oauth2.server.core.repositories.AuthorizationRepository;
 import org.eclipse.ecsp.oauth2.server.core.request.dto.RevokeTokenRequest;
+import org.eclipse.ecsp.oauth2.server.core.service.AuthorizationTokenLookup.TokenColumn;
 import org.eclipse.ecsp.oauth2.server.core.utils.JwtTokenValidator;
 import org.eclipse.ecsp.oauth2.server.core.utils.TokenHashingUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataRetrievalFailureException;
 import org.springframework.security.core.Authentication;
@@ -67,11 +71,14 @@ import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
 import java.time.Instant;
+import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static org.eclipse.ecsp.oauth2.server.core.utils.ObjectMapperUtils.parseMap;
 import static org.eclipse.ecsp.oauth2.server.core.utils.ObjectMapperUtils.writeMap;
@@ -85,6 +92,9 @@ public class AuthorizationService implements OAuth2AuthorizationService {
     private static final int BEGIN_INDEX = 7;
 
     private static final String COMPONENT_NAME = "UIDAM_AUTHORIZATION_SERVER";
+
+    // Plain invalidation flag written into access token metadata by the session management API
+    private static final String INVALIDATED_METADATA_KEY = "invalidated";
     
     // Browser details constants
     private static final String UNKNOWN = "unknown";
@@ -100,6 +110,9 @@ public class AuthorizationService implements OAuth2AuthorizationService {
     private final ObjectMapper objectMapper = new ObjectMapper();
     private final JwtTokenValidator jwtTokenValidator;
     private final AuditLogger auditLogger;
+    private final AuthorizationTokenCache authorizationTokenCache;
+    private final IntrospectionResultCache introspectionResultCache;
+    private final AuthorizationTokenLookup authorizationTokenLookup;
    
     @Value("${uidam.oauth2.token.hash.algorithm}")
     private String tokenHashAlgorithm;
@@ -107,8 +120,14 @@ public class AuthorizationService implements OAuth2AuthorizationService {
     @Value("${uidam.oauth2.token.hash.salt:}")
     private String tokenHashSalt;
 
+    @Value("${uidam.oauth2.token.hash.pepper:}")
+    private String tokenHashPepper;
+
+    @Value("${uidam.oauth2.token.digest.enabled:false}")
+    private boolean tokenDigestEnabled;
+
     /**
-     * Constructs a new IgniteOauth2AuthorizationService with the given repositories.
+     * Constructs a new IgniteOauth2AuthorizationService with the given repositories and without token caching.
      *
      * @param authorizationRepository the repository to use for interacting with Authorization instances in the database
      * @param registeredClientRepository the repository to use for retrieving RegisteredClient instances
@@ -119,15 +138,59 @@ public class AuthorizationService implements OAuth2AuthorizationService {
                                 RegisteredClientRepository registeredClientRepository,
                                 JwtTokenValidator jwtTokenValidator,
                                 AuditLogger auditLogger) {
+        this(authorizationRepository, registeredClientRepository, jwtTokenValidator, auditLogger,
+            AuthorizationTokenCache.disabled());
+    }
+
+    /**
+     * Constructs a new IgniteOauth2AuthorizationService with the given repositories.
+     *
+     * @param authorizationRepository the repository to use for interacting with Authorization instances in the database
+     * @param registeredClientRepository the repository to use for retrieving RegisteredClient instances
+     * @param jwtTokenValidator the validator to use for JWT token validation
+     * @param auditLogger the audit logger for logging authorization events
+     * @param authorizationTokenCache the cache used for lookups by token
+     */
+    public AuthorizationService(AuthorizationRepository authorizationRepository,
+                                RegisteredClientRepository registeredClientRepository,
+                                JwtTokenValidator jwtTokenValidator,
+                                AuditLogger auditLogger,
+                                AuthorizationTokenCache authorizationTokenCache) {
+        this(authorizationRepository, registeredClientRepository, jwtTokenValidator, auditLogger,
+            authorizationTokenCache, IntrospectionResultCache.disabled());
+    }
+
+    /**
+     * Constructs a new IgniteOauth2AuthorizationService with the given repositories.
+     *
+     * @param authorizationRepository the repository to use for interacting with Authorization instances in the database
+     * @param registeredClientRepository the repository to use for retrieving RegisteredClient instances
+     * @param jwtTokenValidator the validator to use for JWT token validation
+     * @param auditLogger the audit logger for logging authorization events
+     * @param authorizationTokenCache the cache used for lookups by token
+     * @param introspectionResultCache the cache of introspection results to evict revoked authorizations from
+     */
+    @Autowired
+    public AuthorizationService(AuthorizationRepository authorizationRepository,
+                                RegisteredClientRepository registeredClientRepository,
+                                JwtTokenValidator jwtTokenValidator,
+                                AuditLogger auditLogger,
+                                AuthorizationTokenCache authorizationTokenCache,
+                                IntrospectionResultCache introspectionResultCache) {
         LOGGER.debug("## IgniteOAuth2AuthorizationService - START");
         Assert.notNull(authorizationRepository, "authorizationRepository cannot be null");
         Assert.notNull(registeredClientRepository, "registeredClientRepository cannot be null");
         Assert.notNull(jwtTokenValidator, "jwtTokenValidator cannot be null");
         Assert.notNull(auditLogger, "auditLogger cannot be null");
+        Assert.notNull(authorizationTokenCache, "authorizationTokenCache cannot be null");
+        Assert.notNull(introspectionResultCache, "introspectionResultCache cannot be null");
         this.authorizationRepository = authorizationRepository;
         this.registeredClientRepository = registeredClientRepository;
         this.jwtTokenValidator = jwtTokenValidator;
         this.auditLogger = auditLogger;
+        this.authorizationTokenCache = authorizationTokenCache;
+        this.introspectionResultCache = introspectionResultCache;
+        this.authorizationTokenLookup = new AuthorizationTokenLookup(authorizationRepository);
 
         ClassLoader classLoader = AuthorizationService.class.getClassLoader();
         List<Module> securityModules = SecurityJackson2Modules.getModules(classLoader);
@@ -163,18 +226,23 @@ public class AuthorizationService implements OAuth2AuthorizationService {
         if (StringUtils.hasText(uidamAuthorization.getAccessTokenValue())) {
             String hashedToken = hashToken(uidamAuthorization.getAccessTokenValue());
             uidamAuthorization.setAccessTokenValue(hashedToken);
+            uidamAuthorization.setAccessTokenDigest(toDigest(hashedToken));
         }
         if (StringUtils.hasText(uidamAuthorization.getRefreshTokenValue())) {
             String hashedToken = hashToken(uidamAuthorization.getRefreshTokenValue());
             uidamAuthorization.setRefreshTokenValue(hashedToken);
+            uidamAuthorization.setRefreshTokenDigest(toDigest(hashedToken));
         }
         
         if (StringUtils.hasText(uidamAuthorization.getOidcIdTokenValue())) {
             String hashedToken = hashToken(uidamAuthorization.getOidcIdTokenValue());
             uidamAuthorization.setOidcIdTokenValue(hashedToken);
+            uidamAuthorization.setOidcIdTokenDigest(toDigest(hashedToken));
         }
 
         this.authorizationRepository.save(uidamAuthorization);
+        this.authorizationTokenCache.evict(uidamAuthorization.getId());
+        this.introspectionResultCache.evict(uidamAuthorization.getId());
         LOGGER.debug("## save - END");
     }
 
@@ -188,6 +256,8 @@ public class AuthorizationService implements OAuth2AuthorizationService {
         LOGGER.debug("## remove - START");
         Assert.notNull(authorization, "authorization cannot be null");
         this.authorizationRepository.deleteById(authorization.getId());
+        this.authorizationTokenCache.evict(authorization.getId());
+        this.introspectionResultCache.evict(authorization.getId());
         LOGGER.debug("## remove - END");
     }
 
@@ -217,21 +287,38 @@ public class AuthorizationService implements OAuth2AuthorizationService {
         LOGGER.debug("## findByToken - START");
         Assert.hasText(token, "token cannot be empty");
 
+        String hashedToken = hashToken(token);
+        OAuth2Authorization authorization = this.authorizationTokenCache.get(hashedToken, tokenType,
+            () -> findByTokenInDb(token, hashedToken, tokenType));
+        LOGGER.debug("## findByToken - END");
+        return authorization;
+    }
+
+    /**
+     * Reads the OAuth2Authorization instance with the given token and token type from the database.
+     *
+     * @param token the plain text token
+     * @param hashedToken the hashed token, as stored for access, refresh and ID tokens
+     * @param tokenType the token type of the OAuth2Authorization instance to find
+     * @return the found OAuth2Authorization instance, or null if none was found
+     */
+    private OAuth2Authorization findByTokenInDb(String token, String hashedToken, OAuth2TokenType tokenType) {
         Optional<Authorization> result;
         if (tokenType == null) {
-            result = this.authorizationRepository
-                .findByStateOrAuthCodeOrAccessTokenOrRefreshTokenOrOidcIdTokenOrUserCodeOrDeviceCode(token,
-                        hashToken(token));
+            result = this.authorizationTokenLookup.find(token, hashedToken, toDigest(hashedToken));
         } else if (OAuth2ParameterNames.STATE.equals(tokenType.getValue())) {
             result = this.authorizationRepository.findByState(token);
         } else if (OAuth2ParameterNames.CODE.equals(tokenType.getValue())) {
             result = this.authorizationRepository.findByAuthorizationCodeValue(token);
         } else if (OAuth2ParameterNames.ACCESS_TOKEN.equals(tokenType.getValue())) {
-            result = this.authorizationRepository.findByAccessTokenValue(hashToken(token));
+            result = this.authorizationTokenLookup.findIn(TokenColumn.ACCESS_TOKEN, token, hashedToken,
+                toDigest(hashedToken));
         } else if (OAuth2ParameterNames.REFRESH_TOKEN.equals(tokenType.getValue())) {
-            result = this.authorizationRepository.findByRefreshTokenValue(hashToken(token));
+            result = this.authorizationTokenLookup.findIn(TokenColumn.REFRESH_TOKEN, token, hashedToken,
+                toDigest(hashedToken));
         } else if (OidcParameterNames.ID_TOKEN.equals(tokenType.getValue())) {
-            result = this.authorizationRepository.findByOidcIdTokenValue(hashToken(token));
+            result = this.authorizationTokenLookup.findIn(TokenColumn.OIDC_ID_TOKEN, token, hashedToken,
+                toDigest(hashedToken));
         } else if (OAuth2ParameterNames.USER_CODE.equals(tokenType.getValue())) {
             result = this.authorizationRepository.findByUserCodeValue(token);
         } else if (OAuth2ParameterNames.DEVICE_CODE.equals(tokenType.getValue())) {
@@ -239,11 +326,10 @@ public class AuthorizationService implements OAuth2AuthorizationService {
         } else {
             result = Optional.empty();
         }
-        LOGGER.debug("## findByToken - END");
         if (result.isPresent()) {
-            updateTokenWithHashToken(result.get(), token, hashToken(token));
+            updateTokenWithHashToken(result.get(), token, hashedToken);
         }
-        
+
         return result.map(this::toObject).orElse(null);
     }
 
@@ -300,6 +386,9 @@ public class AuthorizationService implements OAuth2AuthorizationService {
                 return IgniteOauth2CoreConstants.NO_ACTIVE_TOKEN_EXIST;
             }
             this.authorizationRepository.saveAll(authorizations);
+            List<String> authorizationIds = authorizations.stream().map(Authorization::getId).toList();
+            this.authorizationTokenCache.evictAll(authorizationIds);
+            this.introspectionResultCache.evictAll(authorizationIds);
             LOGGER.debug("Token revoked successfully");
         } catch (Exception ex) {
             LOGGER.error("## Failed to process revoke token, exception occurs: ", ex);
@@ -352,6 +441,9 @@ public class AuthorizationService implements OAuth2AuthorizationService {
                 return IgniteOauth2CoreConstants.NO_ACTIVE_TOKEN_EXIST;
             }
             this.authorizationRepository.saveAll(authorizations);
+            List<String> authorizationIds = authorizations.stream().map(Authorization::getId).toList();
+            this.authorizationTokenCache.evictAll(authorizationIds);
+            this.introspectionResultCache.evictAll(authorizationIds);
             LOGGER.debug("## token revoked successfully - both access and refresh tokens invalidated");
         } catch (Exception ex) {
             LOGGER.error("## Failed to process revoke token, exception occurs: ", ex);
@@ -536,10 +628,45 @@ public class AuthorizationService implements OAuth2AuthorizationService {
         setUserCodeValues(authorization, entity);
 
         setDeviceCodeValues(authorization, entity);
+
+        entity.setEffectiveExpiresAt(effectiveExpiresAt(entity));
+        entity.setAccessTokenInvalidated(isInvalidated(authorization.getToken(OAuth2AccessToken.class)));
+        entity.setRefreshTokenInvalidated(isInvalidated(authorization.getToken(OAuth2RefreshToken.class)));
         LOGGER.debug("## toEntity - END");
         return entity;
     }
 
+    /**
+     * This method is used to determine the value of a denormalized invalidated column of an Authorization entity.
+     * Besides the flag set by the authorization server, a token counts as invalidated if its metadata carries the
+     * plain "invalidated" flag written by the session management API, so that saving such an authorization again
+     * does not revive the session.
+     *
+     * @param token the token of the authorization, may be null
+     * @return true if the token exists and has been invalidated
+     */
+    private static boolean isInvalidated(OAuth2Authorization.Token<?> token) {
+        return token != null
+            && (token.isInvalidated() || Boolean.TRUE.equals(token.getMetadata().get(INVALIDATED_METADATA_KEY)));
+    }
+
+    /**
+     * This method is used to compute the effective expiry of an Authorization entity, which is the latest expiry of
+     * all its tokens and codes. Once it has passed, nothing in the authorization can be used any more, so cleanup and
+     * active session queries filter on this single indexed column instead of OR-ing all the expiry columns.
+     *
+     * @param entity the Authorization entity with its token values set
+     * @return the latest token or code expiry, or null if no token or code has an expiry
+     */
+    private static Instant effectiveExpiresAt(Authorization entity) {
+        return Stream.of(entity.getAuthorizationCodeExpiresAt(), entity.getAccessTokenExpiresAt(),
+                entity.getRefreshTokenExpiresAt(), entity.getOidcIdTokenExpiresAt(), entity.getUserCodeExpiresAt(),
+                entity.getDeviceCodeExpiresAt())
+            .filter(Objects::nonNull)
+            .max(Comparator.naturalOrder())
+            .orElse(null);
+    }
+
     /**
      * This method is used to set the values of an OAuth2DeviceCode token into an Authorization entity.
      * It checks if the OAuth2DeviceCode token exists in the provided OAuth2Authorization object.
@@ -740,7 +867,17 @@ public class AuthorizationService implements OAuth2AuthorizationService {
      * @return the hashed token
      */
     private String hashToken(String token) {
-        return TokenHashingUtil.hashToken(token, tokenHashAlgorithm, tokenHashSalt);
+        return TokenHashingUtil.hashToken(token, tokenHashAlgorithm, tokenHashSalt, tokenHashPepper);
+    }
+
+    /**
+     * Returns the raw digest of the hashed token, stored in and looked up by the binary digest columns.
+     *
+     * @param hashedToken the hashed token
+     * @return the raw digest, or null if the binary digest columns are disabled
+     */
+    private byte[] toDigest(String hashedToken) {
+        return tokenDigestEnabled ? TokenHashingUtil.toDigest(hashedToken) : null;
     }
     
     
@@ -754,13 +891,13 @@ public class AuthorizationService implements OAuth2AuthorizationService {
      */
     private void updateTokenWithHashToken(Authorization authorization, String token, String hashToken) {
         
-        if (hashToken.equalsIgnoreCase(authorization.getAccessTokenValue())) {
+        if (hashToken.equals(authorization.getAccessTokenValue())) {
             authorization.setAccessTokenValue(token);
         }
-        if (hashToken.equalsIgnoreCase(authorization.getRefreshTokenValue())) {
+        if (hashToken.equals(authorization.getRefreshTokenValue())) {
             authorization.setRefreshTokenValue(token);
         }
-        if (hashToken.equalsIgnoreCase(authorization.getOidcIdTokenValue())) {
+        if (hashToken.equals(authorization.getOidcIdTokenValue())) {
             authorization.setOidcIdTokenValue(token);
         }
         
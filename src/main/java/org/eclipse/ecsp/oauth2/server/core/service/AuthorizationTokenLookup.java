@@ -0,0 +1,192 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.oauth2.server.core.service;
+
+import org.eclipse.ecsp.oauth2.server.core.entities.Authorization;
+import org.eclipse.ecsp.oauth2.server.core.repositories.AuthorizationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.regex.Pattern;
+
+/**
+ * Finds an authorization by a token of unknown type, e.g. for revocation or introspection requests without a
+ * token_type_hint.
+ *
+ * <p>Instead of a single query OR-ing all token columns, which the database can only answer with a sequential scan,
+ * the token is classified by its shape and the token columns are probed one at a time, most likely column first,
+ * each with a single-column indexed query. All columns are probed before giving up, so the result is the same as
+ * the OR query.
+ *
+ * <p>Access, refresh and ID tokens are stored hashed. For those columns the binary digest column is probed first when
+ * a digest is given, see {@link #findIn(TokenColumn, String, String, byte[])}.
+ */
+class AuthorizationTokenLookup {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AuthorizationTokenLookup.class);
+
+    private static final String JWT_PREFIX = "eyJ";
+    private static final int JWT_SEGMENTS = 3;
+    private static final int OPAQUE_TOKEN_LENGTH = 128;
+    private static final int STATE_MAX_LENGTH = 512;
+    private static final Pattern BASE64_URL = Pattern.compile("[A-Za-z0-9_-]+");
+    private static final Pattern USER_CODE = Pattern.compile("[A-Z]{4}-[A-Z]{4}");
+
+    static final List<TokenColumn> JWT_ORDER = List.of(TokenColumn.ACCESS_TOKEN, TokenColumn.OIDC_ID_TOKEN,
+        TokenColumn.REFRESH_TOKEN, TokenColumn.AUTHORIZATION_CODE, TokenColumn.DEVICE_CODE, TokenColumn.STATE,
+        TokenColumn.USER_CODE);
+    static final List<TokenColumn> OPAQUE_ORDER = List.of(TokenColumn.REFRESH_TOKEN, TokenColumn.AUTHORIZATION_CODE,
+        TokenColumn.DEVICE_CODE, TokenColumn.STATE, TokenColumn.ACCESS_TOKEN, TokenColumn.OIDC_ID_TOKEN,
+        TokenColumn.USER_CODE);
+    static final List<TokenColumn> USER_CODE_ORDER = List.of(TokenColumn.USER_CODE, TokenColumn.STATE,
+        TokenColumn.AUTHORIZATION_CODE, TokenColumn.DEVICE_CODE, TokenColumn.REFRESH_TOKEN, TokenColumn.ACCESS_TOKEN,
+        TokenColumn.OIDC_ID_TOKEN);
+    static final List<TokenColumn> DEFAULT_ORDER = List.of(TokenColumn.STATE, TokenColumn.AUTHORIZATION_CODE,
+        TokenColumn.REFRESH_TOKEN, TokenColumn.DEVICE_CODE, TokenColumn.ACCESS_TOKEN, TokenColumn.OIDC_ID_TOKEN,
+        TokenColumn.USER_CODE);
+
+    private final AuthorizationRepository authorizationRepository;
+
+    /**
+     * Constructor for AuthorizationTokenLookup.
+     *
+     * @param authorizationRepository the repository used for the single-column lookups
+     */
+    AuthorizationTokenLookup(AuthorizationRepository authorizationRepository) {
+        this.authorizationRepository = authorizationRepository;
+    }
+
+    /**
+     * Finds the authorization holding the given token in any of its token columns.
+     *
+     * @param token the plain text token, as stored for state, codes and user/device codes
+     * @param hashedToken the hashed token, as stored for access, refresh and ID tokens
+     * @param digest the raw digest of the hashed token, or null if the digest columns are not used for lookups
+     * @return the matching authorization, or empty if no column holds the token
+     */
+    Optional<Authorization> find(String token, String hashedToken, byte[] digest) {
+        for (TokenColumn column : probeOrder(token)) {
+            if (column == TokenColumn.STATE && token.length() > STATE_MAX_LENGTH) {
+                // The STATE column cannot hold a value this long
+                continue;
+            }
+            Optional<Authorization> result = findIn(column, token, hashedToken, digest);
+            if (result.isPresent()) {
+                LOGGER.debug("Token of unknown type found in column {}", column);
+                return result;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Finds the authorization holding the given token in the given token column.
+     *
+     * <p>Hashed columns are looked up by their binary digest column first when a digest is given. Rows written
+     * before the digest columns were populated are still found through the encoded value column.
+     *
+     * @param column the token column to look in
+     * @param token the plain text token
+     * @param hashedToken the hashed token
+     * @param digest the raw digest of the hashed token, or null if the digest columns are not used for lookups
+     * @return the matching authorization, or empty if the column does not hold the token
+     */
+    Optional<Authorization> findIn(TokenColumn column, String token, String hashedToken, byte[] digest) {
+        if (!column.hashed) {
+            return column.finder.apply(authorizationRepository, token);
+        }
+        if (digest != null) {
+            Optional<Authorization> result = column.digestFinder.apply(authorizationRepository, digest);
+            if (result.isPresent()) {
+                return result;
+            }
+        }
+        return column.finder.apply(authorizationRepository, hashedToken);
+    }
+
+    /**
+     * Returns the order in which the token columns are probed for the given token.
+     *
+     * <p>Access and ID tokens are JWTs, refresh tokens, authorization codes and device codes are 128 character
+     * base64url strings and user codes are two groups of four upper case letters. Anything else is most likely
+     * a state parameter.
+     *
+     * @param token the plain text token
+     * @return the token columns, most likely column first
+     */
+    static List<TokenColumn> probeOrder(String token) {
+        if (isJwt(token)) {
+            return JWT_ORDER;
+        }
+        if (token.length() == OPAQUE_TOKEN_LENGTH && BASE64_URL.matcher(token).matches()) {
+            return OPAQUE_ORDER;
+        }
+        if (USER_CODE.matcher(token).matches()) {
+            return USER_CODE_ORDER;
+        }
+        return DEFAULT_ORDER;
+    }
+
+    private static boolean isJwt(String token) {
+        if (!token.startsWith(JWT_PREFIX)) {
+            return false;
+        }
+        int segments = 1;
+        for (int i = 0; i < token.length(); i++) {
+            if (token.charAt(i) == '.') {
+                segments++;
+            }
+        }
+        return segments == JWT_SEGMENTS;
+    }
+
+    /**
+     * Token columns of the authorization table together with their single-column finders.
+     */
+    enum TokenColumn {
+        STATE(AuthorizationRepository::findByState),
+        AUTHORIZATION_CODE(AuthorizationRepository::findByAuthorizationCodeValue),
+        ACCESS_TOKEN(AuthorizationRepository::findByAccessTokenValue,
+            AuthorizationRepository::findByAccessTokenDigest),
+        REFRESH_TOKEN(AuthorizationRepository::findByRefreshTokenValue,
+            AuthorizationRepository::findByRefreshTokenDigest),
+        OIDC_ID_TOKEN(AuthorizationRepository::findByOidcIdTokenValue,
+            AuthorizationRepository::findByOidcIdTokenDigest),
+        USER_CODE(AuthorizationRepository::findByUserCodeValue),
+        DEVICE_CODE(AuthorizationRepository::findByDeviceCodeValue);
+
+        private final boolean hashed;
+        private final BiFunction<AuthorizationRepository, String, Optional<Authorization>> finder;
+        private final BiFunction<AuthorizationRepository, byte[], Optional<Authorization>> digestFinder;
+
+        TokenColumn(BiFunction<AuthorizationRepository, String, Optional<Authorization>> finder) {
+            this(finder, null);
+        }
+
+        TokenColumn(BiFunction<AuthorizationRepository, String, Optional<Authorization>> finder,
+                    BiFunction<AuthorizationRepository, byte[], Optional<Authorization>> digestFinder) {
+            this.hashed = digestFinder != null;
+            this.finder = finder;
+            this.digestFinder = digestFinder;
+        }
+    }
+}
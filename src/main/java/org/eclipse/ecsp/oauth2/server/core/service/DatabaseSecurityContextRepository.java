@@ -24,6 +24,8 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.apache.commons.lang3.StringUtils;
 import org.eclipse.ecsp.oauth2.server.core.authentication.tokens.CustomUserPwdAuthenticationToken;
+import org.eclipse.ecsp.oauth2.server.core.cache.SecurityContextCache;
+import org.eclipse.ecsp.oauth2.server.core.cache.SecurityContextCache.CachedSecurityContext;
 import org.eclipse.ecsp.oauth2.server.core.config.tenantproperties.TenantProperties;
 import org.eclipse.ecsp.oauth2.server.core.entities.AuthorizationSecurityContext;
 import org.eclipse.ecsp.oauth2.server.core.repositories.AuthorizationSecurityContextRepository;
@@ -48,7 +50,6 @@ import org.springframework.util.Assert;
 import java.sql.Timestamp;
 import java.time.Instant;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -62,6 +63,10 @@ import static org.eclipse.ecsp.oauth2.server.core.utils.ObjectMapperUtils.writeM
 /**
  * A SecurityContextRepository implementation which stores the security context in the Database between requests.
  * This class is responsible for managing the security context for each session.
+ *
+ * <p>Decoded contexts of authenticated sessions are kept in a {@link SecurityContextCache}, so reading the context
+ * of an authenticated session does not touch the database. Saving an unchanged context is coalesced into a
+ * deferred UPDATED_DATE write.
  */
 public class DatabaseSecurityContextRepository implements SecurityContextRepository {
 
@@ -79,6 +84,10 @@ public class DatabaseSecurityContextRepository implements SecurityContextReposit
 
     private final String sessionTimeout;
 
+    private final SecurityContextCache securityContextCache;
+
+    private volatile long sessionTimeoutMinutes = -1;
+
     private SecurityContextHolderStrategy securityContextHolderStrategy = SecurityContextHolder
         .getContextHolderStrategy();
 
@@ -100,10 +109,32 @@ public class DatabaseSecurityContextRepository implements SecurityContextReposit
                                                  authorizationSecurityContextRepository,
                                              TenantConfigurationService tenantConfigurationService,
                                              String sessionTimeout) {
+        this(authorizationSecurityContextRepository, tenantConfigurationService, sessionTimeout,
+            SecurityContextCache.disabled());
+    }
+
+    /**
+     * This is a parameterized constructor for the DatabaseSecurityContextRepository class which serves the security
+     * contexts of authenticated sessions from the given cache.
+     *
+     * @param authorizationSecurityContextRepository an instance of AuthorizationSecurityContextRepository, used to
+     *                                               interact with the security context stored in the database
+     * @param tenantConfigurationService an instance of TenantConfigurationService, used to retrieve the tenant
+     *                                   properties
+     * @param sessionTimeout a string representing the session timeout value
+     * @param securityContextCache the near-cache of the decoded security contexts of authenticated sessions
+     */
+    public DatabaseSecurityContextRepository(AuthorizationSecurityContextRepository
+                                                 authorizationSecurityContextRepository,
+                                             TenantConfigurationService tenantConfigurationService,
+                                             String sessionTimeout,
+                                             SecurityContextCache securityContextCache) {
         Assert.notNull(authorizationSecurityContextRepository, "authorizationSecurityContextRepository cannot be null");
+        Assert.notNull(securityContextCache, "securityContextCache cannot be null");
         this.authorizationSecurityContextRepository = authorizationSecurityContextRepository;
         this.tenantConfigurationService = tenantConfigurationService;
         this.sessionTimeout = sessionTimeout;
+        this.securityContextCache = securityContextCache;
 
         ClassLoader classLoader = DatabaseSecurityContextRepository.class.getClassLoader();
         List<Module> securityModules = SecurityJackson2Modules.getModules(classLoader);
@@ -169,21 +200,51 @@ public class DatabaseSecurityContextRepository implements SecurityContextReposit
      * It retrieves or creates an AuthorizationSecurityContext for the requested session id and updates it with the
      * information from the SecurityContext.
      * It then saves the updated AuthorizationSecurityContext in the database.
+     * If the context is the same as the cached one, only its UPDATED_DATE is touched, which the cache writes behind.
      *
      * @param context the SecurityContext
      * @param request the HttpServletRequest
      */
     private void authenticatedContextInDb(SecurityContext context, HttpServletRequest request) {
         String requestedSessionId = request.getSession().getId();
-        LOGGER.info("Storing Authenticated SecurityContext to Database for Session Id: {}", requestedSessionId);
         Timestamp currentTimestamp = Timestamp.from(Instant.now());
+        Authentication authentication = context.getAuthentication();
+        CachedSecurityContext cached = securityContextCache.getIfPresent(requestedSessionId);
+        if (cached != null) {
+            AuthorizationSecurityContext candidate = cached.toEntity();
+            applyAuthentication(candidate, authentication, request);
+            if (securityContextCache.touch(requestedSessionId, candidate, currentTimestamp)) {
+                LOGGER.debug("Coalesced unchanged SecurityContext of Session Id: {}", requestedSessionId);
+                return;
+            }
+        }
+        LOGGER.info("Storing Authenticated SecurityContext to Database for Session Id: {}", requestedSessionId);
         AuthorizationSecurityContext authorizationSecurityContext = getSecurityContextFromDb(requestedSessionId);
         if (authorizationSecurityContext == null) {
             authorizationSecurityContext = new AuthorizationSecurityContext();
             authorizationSecurityContext.setSessionId(requestedSessionId);
             authorizationSecurityContext.setCreatedDate(currentTimestamp);
         }
-        Authentication authentication = context.getAuthentication();
+        applyAuthentication(authorizationSecurityContext, authentication, request);
+        authorizationSecurityContext.setUpdatedDate(currentTimestamp);
+        authorizationSecurityContextRepository.save(authorizationSecurityContext);
+        if (Boolean.TRUE.equals(authorizationSecurityContext.getAuthenticated())) {
+            securityContextCache.put(requestedSessionId, toCachedContext(authorizationSecurityContext));
+        } else {
+            securityContextCache.invalidate(requestedSessionId);
+        }
+        LOGGER.debug("Stored Authenticated SecurityContext to Database: {}", authorizationSecurityContext);
+    }
+
+    /**
+     * This method is used to copy the information of the Authentication into an AuthorizationSecurityContext.
+     *
+     * @param authorizationSecurityContext the AuthorizationSecurityContext to update
+     * @param authentication the Authentication
+     * @param request the HttpServletRequest
+     */
+    private void applyAuthentication(AuthorizationSecurityContext authorizationSecurityContext,
+                                     Authentication authentication, HttpServletRequest request) {
         if (authentication.getPrincipal() instanceof String principalName) {
             authorizationSecurityContext.setPrincipal(principalName);
         }
@@ -216,25 +277,27 @@ public class DatabaseSecurityContextRepository implements SecurityContextReposit
                 .map(GrantedAuthority::getAuthority).collect(Collectors.joining(","));
         authorizationSecurityContext.setAuthorities(grantedAuthoritiesStr);
         authorizationSecurityContext.setRemoteIpAddress(request.getRemoteAddr());
-        authorizationSecurityContext.setUpdatedDate(currentTimestamp);
-        authorizationSecurityContextRepository.save(authorizationSecurityContext);
-        LOGGER.debug("Stored Authenticated SecurityContext to Database: {}", authorizationSecurityContext);
     }
 
     /**
      * This method is used to unauthenticate the SecurityContext in the database.
      * It retrieves the AuthorizationSecurityContext for the session id and sets its authenticated flag to false.
      * It then saves the updated AuthorizationSecurityContext in the database.
+     * The cached context of the session is invalidated, so the next request reads the database again. It is
+     * invalidated again once the row is saved, as a parallel request of the session may have cached the still
+     * authenticated row in between.
      *
      * @param sessionId the session id
      */
     public void unauthenticatedContextInDb(String sessionId) {
         LOGGER.info("Updating Unauthenticated SecurityContext to Database for Session Id: {}", sessionId);
+        securityContextCache.invalidate(sessionId);
         AuthorizationSecurityContext authorizationSecurityContext = getSecurityContextFromDb(sessionId);
         if (authorizationSecurityContext != null) {
             authorizationSecurityContext.setAuthenticated(false);
             authorizationSecurityContext.setUpdatedDate(Timestamp.from(Instant.now()));
             authorizationSecurityContextRepository.save(authorizationSecurityContext);
+            securityContextCache.invalidate(sessionId);
             LOGGER.debug("Updated Unauthenticated SecurityContext to Database: {}", authorizationSecurityContext);
         }
     }
@@ -258,8 +321,8 @@ public class DatabaseSecurityContextRepository implements SecurityContextReposit
 
     /**
      * This method is used to read the SecurityContext for a given HttpServletRequest.
-     * It retrieves the AuthorizationSecurityContext for the requested session id from the database and converts it to a
-     * SecurityContext.
+     * It retrieves the AuthorizationSecurityContext for the requested session id from the cache, or from the database
+     * on a cache miss, and converts it to a SecurityContext.
      *
      * @param request the HttpServletRequest
      * @return the SecurityContext for the request, or null if none exists
@@ -270,56 +333,106 @@ public class DatabaseSecurityContextRepository implements SecurityContextReposit
             LOGGER.debug("No Session currently exists");
             return null;
         }
-        LOGGER.info("Retrieving SecurityContext for Session Id: {}", requestedSessionId);
-        AuthorizationSecurityContext authorizationSecurityContext = getSecurityContextFromDb(requestedSessionId);
+        LOGGER.debug("Retrieving SecurityContext for Session Id: {}", requestedSessionId);
+        CachedSecurityContext cached = securityContextCache.get(requestedSessionId,
+            () -> loadAuthenticatedContext(requestedSessionId));
+        if (cached == null) {
+            return null; // Redirect to login page
+        }
+        if (isSessionTimedOut(cached.getUpdatedAt(), requestedSessionId)) {
+            LOGGER.info("Session timeout for Session Id: {}", requestedSessionId);
+            unauthenticatedContextInDb(requestedSessionId); // Authenticated flag false after fixed session timeout
+            return null; // Redirect to login page
+        }
+        AbstractAuthenticationToken abstractAuthenticationToken;
+        if (StringUtils.isEmpty(cached.getAuthorizedClientRegistrationId())) {
+            abstractAuthenticationToken = CustomUserPwdAuthenticationToken.authenticated(cached.getPrincipal(),
+                PROTECTED_CREDS, cached.getAccountName(), cached.getAccountId(), cached.getMfaRequired(),
+                cached.getGrantedAuthorities());
+        } else {
+            abstractAuthenticationToken = new OAuth2AuthenticationToken(cached.getOauth2User(),
+                cached.getGrantedAuthorities(), cached.getAuthorizedClientRegistrationId());
+        }
+        WebAuthenticationDetails webAuthenticationDetails = new WebAuthenticationDetails(request.getRemoteAddr(),
+            requestedSessionId);
+        abstractAuthenticationToken.setDetails(webAuthenticationDetails);
+        SecurityContext securityContext = generateNewContext();
+        securityContext.setAuthentication(abstractAuthenticationToken);
+        LOGGER.debug("Retrieved SecurityContext: {}", securityContext);
+        return securityContext;
+    }
+
+    /**
+     * This method is used to load the authenticated AuthorizationSecurityContext of a session from the database and
+     * decode it. A timed out session is unauthenticated in the database.
+     *
+     * @param sessionId the session id
+     * @return the decoded context, or null if the session has no authenticated context or timed out
+     */
+    private CachedSecurityContext loadAuthenticatedContext(String sessionId) {
+        AuthorizationSecurityContext authorizationSecurityContext = getSecurityContextFromDb(sessionId);
         if (authorizationSecurityContext == null) {
-            LOGGER.debug("Did not find SecurityContext in Database for Session Id: {}", requestedSessionId);
+            LOGGER.debug("Did not find SecurityContext in Database for Session Id: {}", sessionId);
             return null;
         }
         if (Boolean.FALSE.equals(authorizationSecurityContext.getAuthenticated())) {
             // False Authenticated flag when fixed session timeout or token revoke
-            LOGGER.info("Authenticated flag false for Session Id: {}", requestedSessionId);
-            return null; // Redirect to login page
+            LOGGER.info("Authenticated flag false for Session Id: {}", sessionId);
+            return null;
         }
-        Timestamp currentDateTime = Timestamp.from(Instant.now());
-        Timestamp updatedDateTime = authorizationSecurityContext.getUpdatedDate();
-        long diffInMin = (currentDateTime.getTime() - updatedDateTime.getTime()) / MILLI_SEC / SEC;
-        long sessionTimeoutMin = Long.parseLong(sessionTimeout.substring(0, sessionTimeout.indexOf(MIN)));
-        LOGGER.info("diffInMin: {} and sessionTimeoutMin: {} for Session Id: {}", diffInMin, sessionTimeoutMin,
-            requestedSessionId);
-        if (diffInMin < sessionTimeoutMin) { // Fixed session timeout
-            String grantedAuthoritiesStr = authorizationSecurityContext.getAuthorities();
-            List<SimpleGrantedAuthority> grantedAuthorities = new ArrayList<>();
-            if (StringUtils.isNotEmpty(grantedAuthoritiesStr)) {
-                List<String> grantedAuthorityStrList = Arrays.stream(grantedAuthoritiesStr.split(",")).toList();
-                grantedAuthorities = grantedAuthorityStrList.stream().map(SimpleGrantedAuthority::new)
-                    .toList();
-            }
-            AbstractAuthenticationToken abstractAuthenticationToken = null;
-            if (StringUtils.isEmpty(authorizationSecurityContext.getAuthorizedClientRegistrationId())) {
-                abstractAuthenticationToken = CustomUserPwdAuthenticationToken.authenticated(
-                    authorizationSecurityContext.getPrincipal(), PROTECTED_CREDS,
-                    authorizationSecurityContext.getAccountName(), authorizationSecurityContext.getAccountId(),
-                    authorizationSecurityContext.getMfaRequired(), grantedAuthorities);
-            } else {
-                Map<String, Object> principal = new HashMap<>(parseMap(this.objectMapper,
-                    authorizationSecurityContext.getPrincipal()));
-                OAuth2User oauth2User = (OAuth2User) principal.get(PRINCIPAL);
-                abstractAuthenticationToken = new OAuth2AuthenticationToken(oauth2User,
-                    grantedAuthorities, authorizationSecurityContext.getAuthorizedClientRegistrationId());
+        if (isSessionTimedOut(authorizationSecurityContext.getUpdatedDate().getTime(), sessionId)) {
+            LOGGER.info("Session timeout for Session Id: {}", sessionId);
+            unauthenticatedContextInDb(sessionId); // Authenticated flag false after fixed session timeout
+            return null;
+        }
+        return toCachedContext(authorizationSecurityContext);
+    }
+
+    /**
+     * This method is used to decode the authorities and, for federated logins, the principal of an
+     * AuthorizationSecurityContext.
+     *
+     * @param authorizationSecurityContext the authenticated AuthorizationSecurityContext
+     * @return the decoded context
+     */
+    private CachedSecurityContext toCachedContext(AuthorizationSecurityContext authorizationSecurityContext) {
+        String grantedAuthoritiesStr = authorizationSecurityContext.getAuthorities();
+        List<SimpleGrantedAuthority> grantedAuthorities = new ArrayList<>();
+        if (StringUtils.isNotEmpty(grantedAuthoritiesStr)) {
+            for (String authority : StringUtils.split(grantedAuthoritiesStr, ',')) {
+                grantedAuthorities.add(new SimpleGrantedAuthority(authority));
             }
-            WebAuthenticationDetails webAuthenticationDetails = new WebAuthenticationDetails(request.getRemoteAddr(),
-                requestedSessionId);
-            abstractAuthenticationToken.setDetails(webAuthenticationDetails);
-            SecurityContext securityContext = generateNewContext();
-            securityContext.setAuthentication(abstractAuthenticationToken);
-            LOGGER.debug("Retrieved SecurityContext: {}", securityContext);
-            return securityContext;
-        } else {
-            LOGGER.info("Session timeout for Session Id: {}", requestedSessionId);
-            unauthenticatedContextInDb(requestedSessionId); // Authenticated flag false after fixed session timeout
-            return null; // Redirect to login page
         }
+        OAuth2User oauth2User = null;
+        if (StringUtils.isNotEmpty(authorizationSecurityContext.getAuthorizedClientRegistrationId())) {
+            Map<String, Object> principal = parseMap(this.objectMapper, authorizationSecurityContext.getPrincipal());
+            oauth2User = (OAuth2User) principal.get(PRINCIPAL);
+        }
+        return new CachedSecurityContext(authorizationSecurityContext, grantedAuthorities, oauth2User);
+    }
+
+    /**
+     * This method is used to check the fixed session timeout, counted from the last update of the session.
+     *
+     * @param updatedAt the last update of the session in milliseconds since the epoch
+     * @param sessionId the session id
+     * @return true if the session timed out
+     */
+    private boolean isSessionTimedOut(long updatedAt, String sessionId) {
+        long diffInMin = (System.currentTimeMillis() - updatedAt) / MILLI_SEC / SEC;
+        long sessionTimeoutMin = sessionTimeoutMinutes();
+        LOGGER.debug("diffInMin: {} and sessionTimeoutMin: {} for Session Id: {}", diffInMin, sessionTimeoutMin,
+            sessionId);
+        return diffInMin >= sessionTimeoutMin;
+    }
+
+    private long sessionTimeoutMinutes() {
+        long minutes = sessionTimeoutMinutes;
+        if (minutes < 0) {
+            minutes = Long.parseLong(sessionTimeout.substring(0, sessionTimeout.indexOf(MIN)));
+            sessionTimeoutMinutes = minutes;
+        }
+        return minutes;
     }
 
     /**
@@ -25,6 +25,7 @@ import org.eclipse.ecsp.audit.logger.AuditLogger;
 import org.eclipse.ecsp.oauth2.server.core.audit.context.HttpRequestContext;
 import org.eclipse.ecsp.oauth2.server.core.audit.context.UserActorContext;
 import org.eclipse.ecsp.oauth2.server.core.audit.enums.AuditEventType;
+import org.eclipse.ecsp.oauth2.server.core.client.TenantWebClientRegistry;
 import org.eclipse.ecsp.oauth2.server.core.config.tenantproperties.TenantProperties;
 import org.eclipse.ecsp.oauth2.server.core.exception.ReCaptchaInvalidException;
 import org.eclipse.ecsp.oauth2.server.core.exception.ReCaptchaUnavailableException;
@@ -50,8 +51,6 @@ import static org.eclipse.ecsp.oauth2.server.core.common.constants.IgniteOauth2C
 import static org.eclipse.ecsp.oauth2.server.core.common.constants.IgniteOauth2CoreConstants.RESPONSE_PATTERN;
 import static org.eclipse.ecsp.oauth2.server.core.common.constants.IgniteOauth2CoreConstants.SESSION_USER_RESPONSE_CAPTCHA_ENABLED;
 import static org.eclipse.ecsp.oauth2.server.core.common.constants.IgniteOauth2CoreConstants.SESSION_USER_RESPONSE_ENFORCE_AFTER_NO_OF_FAILURES;
-import static org.eclipse.ecsp.oauth2.server.core.utils.RequestResponseLogger.logRequest;
-import static org.eclipse.ecsp.oauth2.server.core.utils.RequestResponseLogger.logResponse;
 
 /**
  * The CaptchaServiceImpl class is an implementation of the CaptchaService interface.
@@ -67,6 +66,7 @@ public class CaptchaServiceImpl implements CaptchaService {
     private final TenantConfigurationService tenantConfigurationService;
     private final AuthorizationMetricsService metricsService;
     private final AuditLogger auditLogger;
+    private final TenantWebClientRegistry webClientRegistry;
 
     /**
      * Constructor that initializes the tenantConfigurationService.
@@ -74,13 +74,16 @@ public class CaptchaServiceImpl implements CaptchaService {
      * @param tenantConfigurationService the service to retrieve tenant properties.
      * @param metricsService the metrics service for tracking CAPTCHA failures.
      * @param auditLogger the audit logger for logging authentication events.
+     * @param webClientRegistry the registry of the pre-built per-tenant WebClients.
      */
     public CaptchaServiceImpl(TenantConfigurationService tenantConfigurationService,
                              AuthorizationMetricsService metricsService,
-                             AuditLogger auditLogger) {
+                             AuditLogger auditLogger,
+                             TenantWebClientRegistry webClientRegistry) {
         this.tenantConfigurationService = tenantConfigurationService;
         this.metricsService = metricsService;
         this.auditLogger = auditLogger;
+        this.webClientRegistry = webClientRegistry;
     }
 
     /**
@@ -117,9 +120,7 @@ public class CaptchaServiceImpl implements CaptchaService {
             getClientIp(request)));
         
         LOGGER.debug("Using reCAPTCHA verify URL: {} for tenant: {}", recaptchaVerifyUrl, currentTenant);
-        WebClient webClient = WebClient.builder().baseUrl(String.valueOf(verifyUri))
-                .filter(logRequest()).filter(logResponse())
-                .build();
+        WebClient webClient = webClientRegistry.getCaptchaClient(tenantId);
         try {
             final GoogleResponse googleResponse = webClient.method(HttpMethod.GET)
                     .uri(verifyUri)
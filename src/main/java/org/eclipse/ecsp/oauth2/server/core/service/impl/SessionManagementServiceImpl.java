@@ -22,8 +22,10 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.jsonwebtoken.Claims;
+import org.eclipse.ecsp.oauth2.server.core.cache.AuthorizationTokenCache;
 import org.eclipse.ecsp.oauth2.server.core.cache.CacheClientService;
 import org.eclipse.ecsp.oauth2.server.core.cache.ClientCacheDetails;
+import org.eclipse.ecsp.oauth2.server.core.cache.IntrospectionResultCache;
 import org.eclipse.ecsp.oauth2.server.core.entities.Authorization;
 import org.eclipse.ecsp.oauth2.server.core.repositories.AuthorizationRepository;
 import org.eclipse.ecsp.oauth2.server.core.response.dto.ActiveSessionDto;
@@ -36,6 +38,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.Instant;
 import java.util.ArrayList;
@@ -66,6 +70,8 @@ public class SessionManagementServiceImpl implements SessionManagementService {
     private final CacheClientService cacheClientService;
     private final ObjectMapper objectMapper;
     private final JwtTokenValidator jwtTokenValidator;
+    private final AuthorizationTokenCache authorizationTokenCache;
+    private final IntrospectionResultCache introspectionResultCache;
     
     /**
      * Constructor for SessionManagementServiceImpl.
@@ -74,16 +80,22 @@ public class SessionManagementServiceImpl implements SessionManagementService {
      * @param cacheClientService the cache client service
      * @param objectMapper the object mapper
      * @param jwtTokenValidator the JWT token validator
+     * @param authorizationTokenCache the authorization token cache to evict invalidated sessions from
+     * @param introspectionResultCache the introspection result cache to evict invalidated sessions from
      */
     public SessionManagementServiceImpl(
             AuthorizationRepository authorizationRepository,
             CacheClientService cacheClientService,
             ObjectMapper objectMapper,
-            JwtTokenValidator jwtTokenValidator) {
+            JwtTokenValidator jwtTokenValidator,
+            AuthorizationTokenCache authorizationTokenCache,
+            IntrospectionResultCache introspectionResultCache) {
         this.authorizationRepository = authorizationRepository;
         this.cacheClientService = cacheClientService;
         this.objectMapper = objectMapper;
         this.jwtTokenValidator = jwtTokenValidator;
+        this.authorizationTokenCache = authorizationTokenCache;
+        this.introspectionResultCache = introspectionResultCache;
     }
     
     @Override
@@ -93,7 +105,7 @@ public class SessionManagementServiceImpl implements SessionManagementService {
         LOGGER.info("Fetching active sessions for user");
         
         // Phase 1: Fetch from database using optimized indexed query
-        // This query filters at the database level by principal_name, grant_type, and expiry time
+        // This query filters at the database level by principal_name, grant_type, expiry time and invalidation
         List<Authorization> authorizations = authorizationRepository
                 .findActiveSessionsByPrincipalNameAndGrantType(
                         username, AUTHORIZATION_CODE, Instant.now());
@@ -101,7 +113,7 @@ public class SessionManagementServiceImpl implements SessionManagementService {
         LOGGER.debug("Retrieved {} authorization records from database", 
                 authorizations.size());
         
-        // Phase 2: Programmatic filtering - filter out invalidated tokens
+        // Phase 2: Programmatic filtering - filter out tokens invalidated without setting the invalidated column
         List<Authorization> activeAuthorizations = authorizations.stream()
                 .filter(this::isNotInvalidated)
                 .collect(Collectors.toList());
@@ -204,6 +216,7 @@ public class SessionManagementServiceImpl implements SessionManagementService {
             // Invalidate the token
             invalidateToken(authorization);
             authorizationRepository.save(authorization);
+            evictCachedLookups(authorization.getId());
             
             return InvalidationResult.success();
             
@@ -213,6 +226,27 @@ public class SessionManagementServiceImpl implements SessionManagementService {
         }
     }
     
+    /**
+     * Evicts the cached lookups and introspection results of an invalidated authorization, now and again once the
+     * transaction has committed. A lookup between the first eviction and the commit still reads the active row and
+     * would otherwise stay cached as active until it expires.
+     *
+     * @param authorizationId the id of the invalidated authorization
+     */
+    private void evictCachedLookups(String authorizationId) {
+        authorizationTokenCache.evict(authorizationId);
+        introspectionResultCache.evict(authorizationId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    authorizationTokenCache.evict(authorizationId);
+                    introspectionResultCache.evict(authorizationId);
+                }
+            });
+        }
+    }
+
     /**
      * Checks if an authorization is expired.
      *
@@ -268,12 +302,17 @@ public class SessionManagementServiceImpl implements SessionManagementService {
     }
     
     /**
-     * Checks if a token is invalidated.
+     * Checks if a token is invalidated. Besides the invalidated column, the flag in the access token metadata is
+     * checked, as releases before the invalidated column was introduced only set the flag. Such rows are written
+     * by old pods during a rolling upgrade; the fallback can be dropped once they have been backfilled.
      *
      * @param authorization the authorization entity
      * @return true if invalidated
      */
     private boolean isInvalidated(Authorization authorization) {
+        if (authorization.isAccessTokenInvalidated()) {
+            return true;
+        }
         String metadata = authorization.getAccessTokenMetadata();
         if (metadata == null || metadata.isEmpty()) {
             return false;
@@ -291,7 +330,7 @@ public class SessionManagementServiceImpl implements SessionManagementService {
     }
     
     /**
-     * Invalidates a token by updating its metadata.
+     * Invalidates a token by updating its metadata and the invalidated column.
      *
      * @param authorization the authorization entity
      */
@@ -309,6 +348,7 @@ public class SessionManagementServiceImpl implements SessionManagementService {
             
             String updatedMetadata = objectMapper.writeValueAsString(metadataMap);
             authorization.setAccessTokenMetadata(updatedMetadata);
+            authorization.setAccessTokenInvalidated(true);
             
         } catch (JsonProcessingException e) {
             LOGGER.error("Error updating access token metadata for token {}: {}", 
@@ -27,12 +27,20 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
+import java.util.function.Supplier;
+
 /**
  * Utility class for resolving tenant information from multiple sources
  * with session-based persistence across multi-threaded OAuth2 flows.
  * This resolver addresses the issue where different threads handle
  * different parts of the OAuth2 authorization flow, making ThreadLocal
  * tenant context unreliable.
+ *
+ * <p>Resolution is lock-free. Each source is either confined to the current thread (ThreadLocal, scoped value,
+ * request attribute) or safe for concurrent access (HTTP session attributes), so threads with an empty ThreadLocal
+ * no longer queue on a JVM-wide monitor. Work running outside a request, e.g. scheduled jobs, async tasks and
+ * virtual threads, binds its tenant with {@link #runWithTenant(String, Runnable)} or
+ * {@link #callWithTenant(String, Supplier)}.
  */
 public class SessionTenantResolver {
 
@@ -40,6 +48,9 @@ public class SessionTenantResolver {
     
     private static final String TENANT_SESSION_KEY = "RESOLVED_TENANT_ID";
 
+    // Tenant of the enclosing runWithTenant/callWithTenant call; inherited by structured subtasks
+    private static final ScopedValue<String> SCOPED_TENANT = ScopedValue.newInstance();
+
     private SessionTenantResolver() {
         // Utility class - prevent instantiation
     }
@@ -49,57 +60,101 @@ public class SessionTenantResolver {
      * This method provides a more reliable tenant resolution than pure ThreadLocal
      * in multi-threaded environments like OAuth2 authorization flows.
      * Resolution order:
-     * 1. ThreadLocal context (current thread) - fast path, no synchronization
-     * 2. HTTP session (cross-thread persistence) - synchronized access
-     * 3. null if no tenant found
+     * 1. ThreadLocal context (current thread)
+     * 2. Scoped tenant bound by runWithTenant/callWithTenant
+     * 3. Current request attribute
+     * 4. HTTP session (cross-thread persistence)
+     * 5. null if no tenant found
      *
-     * <p>Note: Intentionally not synchronized for performance - uses selective synchronization
-     * in getFromSessionSynchronized() only when needed.
+     * <p>A tenant found in steps 2 to 4 is copied into the ThreadLocal context.
      *
      * @return current tenant ID, or null if no tenant is resolved
      */
-    @SuppressWarnings("java:S2886") // Intentional selective synchronization for performance
     public static String getCurrentTenant() {
-        // Fast path - no synchronization for ThreadLocal hits (majority of calls)
         String tenant = TenantContext.getCurrentTenant();
-        
         if (StringUtils.hasText(tenant)) {
             LOGGER.debug("Tenant resolved from ThreadLocal: {}", tenant);
             return tenant;
         }
 
-        // Slow path - synchronized only when ThreadLocal is empty
-        return getFromSessionSynchronized();
-    }
-
-    /**
-     * Synchronized session access - only called when ThreadLocal is empty.
-     */
-    private static synchronized String getFromSessionSynchronized() {
-        // Double-check ThreadLocal inside lock (might have been set by another thread)
-        String tenant = TenantContext.getCurrentTenant();
-        if (StringUtils.hasText(tenant)) {
-            LOGGER.debug("Tenant resolved from ThreadLocal after lock: {}", tenant);
+        if (SCOPED_TENANT.isBound()) {
+            tenant = SCOPED_TENANT.get();
+            LOGGER.debug("Tenant resolved from scoped value: {}", tenant);
+            updateThreadLocalSafely(tenant);
             return tenant;
         }
 
-        // Try to get from session if ThreadLocal is still empty
-        tenant = getTenantFromSessionWithThreadLocalUpdate();
+        tenant = getTenantFromRequestWithThreadLocalUpdate();
         if (StringUtils.hasText(tenant)) {
-            LOGGER.debug("Tenant resolved from session: {}", tenant);
             return tenant;
         }
-        
-        LOGGER.debug("No tenant found in ThreadLocal or session");
+
+        LOGGER.debug("No tenant found in ThreadLocal, request or session");
         return null;
     }
 
     /**
-     * Get tenant from session and update ThreadLocal if found.
+     * Runs a task with the given tenant bound as scoped value and set in the ThreadLocal context. The previous
+     * ThreadLocal tenant of the thread is restored afterwards.
+     *
+     * @param tenantId the tenant ID
+     * @param task the task to run
+     * @throws IllegalArgumentException if tenantId is null or empty
+     */
+    public static void runWithTenant(String tenantId, Runnable task) {
+        callWithTenant(tenantId, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Calls a task with the given tenant bound as scoped value and set in the ThreadLocal context. The previous
+     * ThreadLocal tenant of the thread is restored afterwards.
+     *
+     * @param tenantId the tenant ID
+     * @param task the task to call
+     * @param <T> the result type
+     * @return the result of the task
+     * @throws IllegalArgumentException if tenantId is null or empty
      */
-    private static String getTenantFromSessionWithThreadLocalUpdate() {
+    public static <T> T callWithTenant(String tenantId, Supplier<T> task) {
+        if (!StringUtils.hasText(tenantId)) {
+            throw new IllegalArgumentException("Tenant ID cannot be null or empty");
+        }
+        String previous = TenantContext.hasTenant() ? TenantContext.getCurrentTenant() : null;
+        TenantContext.setCurrentTenant(tenantId);
         try {
-            String tenant = getTenantFromCurrentSession();
+            return ScopedValue.where(SCOPED_TENANT, tenantId).call(task::get);
+        } finally {
+            if (previous != null) {
+                TenantContext.setCurrentTenant(previous);
+            } else {
+                TenantContext.clear();
+            }
+        }
+    }
+
+    /**
+     * Get tenant from the current request or its session and update ThreadLocal if found.
+     */
+    private static String getTenantFromRequestWithThreadLocalUpdate() {
+        try {
+            HttpServletRequest request = getCurrentRequest();
+            if (request == null) {
+                return null;
+            }
+            String tenant = getTenantFromRequestAttribute(request);
+            if (StringUtils.hasText(tenant)) {
+                LOGGER.debug("Tenant resolved from request attribute: {}", tenant);
+            } else {
+                tenant = getTenantFromSession(request);
+                if (StringUtils.hasText(tenant)) {
+                    LOGGER.debug("Tenant resolved from session: {}", tenant);
+                    // Later lookups within this request skip the session
+                    request.setAttribute(TENANT_SESSION_KEY, tenant);
+                }
+            }
             if (StringUtils.hasText(tenant)) {
                 // Update ThreadLocal for current thread with proper error handling
                 updateThreadLocalSafely(tenant);
@@ -123,13 +178,12 @@ public class SessionTenantResolver {
     }
 
     /**
-     * Set tenant ID in both ThreadLocal and session for persistence.
-     * Uses synchronized access to prevent race conditions between ThreadLocal and session updates.
+     * Set tenant ID in ThreadLocal, request and session for persistence.
      *
      * @param tenantId the tenant ID to set
      * @throws IllegalArgumentException if tenantId is null or empty
      */
-    public static synchronized void setCurrentTenant(String tenantId) {
+    public static void setCurrentTenant(String tenantId) {
         if (!StringUtils.hasText(tenantId)) {
             throw new IllegalArgumentException("Tenant ID cannot be null or empty");
         }
@@ -137,19 +191,23 @@ public class SessionTenantResolver {
         // Set in ThreadLocal first - this will validate the tenant ID
         TenantContext.setCurrentTenant(tenantId);
 
-        // Then store in session for cross-thread access
-        storeTenantInCurrentSession(tenantId);
-        LOGGER.debug("Tenant '{}' set in both ThreadLocal and session", tenantId);
+        // Then store in request and session for cross-thread access
+        storeTenantInCurrentRequest(tenantId);
+        LOGGER.debug("Tenant '{}' set in ThreadLocal, request and session", tenantId);
+    }
+
+    private static String getTenantFromRequestAttribute(HttpServletRequest request) {
+        return request.getAttribute(TENANT_SESSION_KEY) instanceof String tenant ? tenant : null;
     }
 
     /**
-     * Get tenant from current HTTP session with cached request context.
+     * Get tenant from the session of the given request.
      */
-    private static String getTenantFromCurrentSession() {
-        HttpServletRequest request = getCurrentRequest();
-        if (request != null && request.getSession(false) != null) {
+    private static String getTenantFromSession(HttpServletRequest request) {
+        HttpSession session = request.getSession(false);
+        if (session != null) {
             try {
-                return (String) request.getSession(false).getAttribute(TENANT_SESSION_KEY);
+                return (String) session.getAttribute(TENANT_SESSION_KEY);
             } catch (ClassCastException e) {
                 LOGGER.warn("Invalid tenant data type in session: {}", e.getMessage());
             }
@@ -158,12 +216,13 @@ public class SessionTenantResolver {
     }
 
     /**
-     * Store tenant in current HTTP session.
+     * Store tenant in current HTTP request and session.
      */
-    private static void storeTenantInCurrentSession(String tenantId) {
+    private static void storeTenantInCurrentRequest(String tenantId) {
         try {
             HttpServletRequest request = getCurrentRequest();
             if (request != null && StringUtils.hasText(tenantId)) {
+                request.setAttribute(TENANT_SESSION_KEY, tenantId);
                 HttpSession session = request.getSession(true);
                 session.setAttribute(TENANT_SESSION_KEY, tenantId);
             }
@@ -189,16 +248,20 @@ public class SessionTenantResolver {
     }
 
     /**
-     * Clear tenant from both ThreadLocal and session.
+     * Clear tenant from ThreadLocal, request and session.
      */
-    public static synchronized void clearTenant() {
+    public static void clearTenant() {
         TenantContext.clear();
         
         try {
             HttpServletRequest request = getCurrentRequest();
-            if (request != null && request.getSession(false) != null) {
-                request.getSession(false).removeAttribute(TENANT_SESSION_KEY);
-                LOGGER.debug("Cleared tenant from session");
+            if (request != null) {
+                request.removeAttribute(TENANT_SESSION_KEY);
+                HttpSession session = request.getSession(false);
+                if (session != null) {
+                    session.removeAttribute(TENANT_SESSION_KEY);
+                    LOGGER.debug("Cleared tenant from session");
+                }
             }
         } catch (IllegalStateException e) {
             LOGGER.warn("Cannot clear tenant from session - no request context: {}", e.getMessage());
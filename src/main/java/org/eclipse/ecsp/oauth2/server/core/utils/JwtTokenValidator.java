@@ -18,6 +18,7 @@
 
 package org.eclipse.ecsp.oauth2.server.core.utils;
 
+import com.nimbusds.jose.JOSEException;
 import com.nimbusds.jose.jwk.JWK;
 import com.nimbusds.jose.jwk.JWKMatcher;
 import com.nimbusds.jose.jwk.JWKSelector;
@@ -27,25 +28,39 @@ import com.nimbusds.jose.jwk.source.JWKSource;
 import com.nimbusds.jose.proc.SecurityContext;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.UnsupportedJwtException;
+import org.eclipse.ecsp.oauth2.server.core.cache.IntrospectionResultCache;
+import org.eclipse.ecsp.oauth2.server.core.cache.IntrospectionResultCache.IntrospectionResult;
 import org.eclipse.ecsp.oauth2.server.core.common.CustomOauth2TokenGenErrorCodes;
 import org.eclipse.ecsp.oauth2.server.core.common.constants.AuthorizationServerConstants;
+import org.eclipse.ecsp.oauth2.server.core.config.TenantAwareJwkSource;
 import org.eclipse.ecsp.oauth2.server.core.entities.Authorization;
 import org.eclipse.ecsp.oauth2.server.core.exception.CustomOauth2AuthorizationException;
 import org.eclipse.ecsp.oauth2.server.core.repositories.AuthorizationRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.security.Key;
 import java.security.interfaces.RSAPublicKey;
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 import static org.eclipse.ecsp.oauth2.server.core.common.constants.IgniteOauth2CoreConstants.REVOKE_TOKEN_SCOPE;
 
@@ -54,21 +69,52 @@ import static org.eclipse.ecsp.oauth2.server.core.common.constants.IgniteOauth2C
  * It provides methods to retrieve public keys from JWKSource,
  * parse JWT tokens, and validate them. This implementation supports both
  * KeyStore-based and JWKS-based deployments.
+ *
+ * <p>The JWT parser of a tenant is built once and caches the public keys it resolves by the key ID of the tokens,
+ * so tokens signed before and after a key rotation are both verified. With a {@link TenantAwareJwkSource} the
+ * cached verifier of a tenant is dropped whenever the source clears or rotates the keys of that tenant, so that the
+ * next token is verified with the reloaded keys. Any other JWK source is treated as holding the same keys for all
+ * tenants.
+ *
+ * <p>Results of {@link #introspectToken(String, String)} are cached in the {@link IntrospectionResultCache}, so that
+ * introspecting a token again neither verifies its signature nor reads the authorization table until the cached
+ * result expires or the authorization is revoked.
  */
 @Component
 public class JwtTokenValidator {
     private static final Logger LOGGER = LoggerFactory.getLogger(JwtTokenValidator.class);
     private static final String INVALIDATED_KEY = "invalidated";
+    private static final String SHARED_VERIFIER_KEY = "default";
 
     private final JWKSource<SecurityContext> jwkSource;
     private final AuthorizationRepository authorizationRepository;
+    private final IntrospectionResultCache introspectionResultCache;
+
+    // Verifiers keyed by the JWK cache key of the tenant
+    private final ConcurrentHashMap<String, TenantVerifier> verifiers = new ConcurrentHashMap<>();
+    // Incremented on every eviction, to tell verifiers built or keys loaded across an eviction
+    private final AtomicLong evictions = new AtomicLong();
     
-    @Value("${authorization.token.hash.algorithm:SHA-256}")
+    @Value("${authorization.token.hash.algorithm:${uidam.oauth2.token.hash.algorithm:SHA-256}}")
     private String tokenHashAlgorithm;
     
     @Value("${uidam.oauth2.token.hash.salt:}")
     private String tokenHashSalt;
 
+    @Value("${uidam.oauth2.token.hash.pepper:}")
+    private String tokenHashPepper;
+
+    /**
+     * Constructor for JwtTokenValidator without introspection result caching.
+     *
+     * @param jwkSource the JWK source to retrieve tenant-specific public keys
+     * @param authorizationRepository the repository to validate tokens against the database
+     */
+    public JwtTokenValidator(JWKSource<SecurityContext> jwkSource,
+                            AuthorizationRepository authorizationRepository) {
+        this(jwkSource, authorizationRepository, IntrospectionResultCache.disabled());
+    }
+
     /**
      * Constructor for JwtTokenValidator.
      * Initializes the validator with JWKSource for dynamic public key resolution
@@ -76,28 +122,87 @@ public class JwtTokenValidator {
      *
      * @param jwkSource the JWK source to retrieve tenant-specific public keys
      * @param authorizationRepository the repository to validate tokens against the database
+     * @param introspectionResultCache the cache of introspection results
      */
+    @Autowired
     public JwtTokenValidator(JWKSource<SecurityContext> jwkSource,
-                            AuthorizationRepository authorizationRepository) {
+                            AuthorizationRepository authorizationRepository,
+                            IntrospectionResultCache introspectionResultCache) {
         this.jwkSource = jwkSource;
         this.authorizationRepository = authorizationRepository;
+        this.introspectionResultCache = introspectionResultCache;
+        if (jwkSource instanceof TenantAwareJwkSource tenantAwareJwkSource) {
+            tenantAwareJwkSource.addCacheInvalidationListener(new TenantAwareJwkSource.CacheInvalidationListener() {
+                @Override
+                public void tenantCleared(String tenantId) {
+                    evictVerifier(tenantId);
+                    // Results were verified with the previous keys
+                    introspectionResultCache.clearAll();
+                }
+
+                @Override
+                public void allCleared() {
+                    evictions.incrementAndGet();
+                    verifiers.clear();
+                    introspectionResultCache.clearAll();
+                }
+            });
+        }
         LOGGER.debug("JwtTokenValidator initialized with JWKSource and AuthorizationRepository");
     }
 
+    /**
+     * Drops the cached verifier of a tenant, so that it is rebuilt from the JWK source on the next verification.
+     *
+     * @param tenantId the JWK cache key of the tenant
+     */
+    public void evictVerifier(String tenantId) {
+        evictions.incrementAndGet();
+        if (verifiers.remove(tenantId) != null) {
+            LOGGER.debug("Evicted JWT verifier for tenant: {}", tenantId);
+        }
+    }
+
+    /**
+     * Returns the verifier of the current tenant, creating it on first use. The verifier resolves the public key of
+     * a token by its key ID from the JWK source and keeps it, so tokens signed by the next or a retired key of a key
+     * rotation are verified as well.
+     *
+     * <p>A verifier built while the verifier of its tenant is evicted is used for the current token but not kept,
+     * as it may have been built from the keys before the eviction.
+     *
+     * @return the verifier
+     */
+    private TenantVerifier getCurrentTenantVerifier() {
+        String key = jwkSource instanceof TenantAwareJwkSource tenantAwareJwkSource
+            ? tenantAwareJwkSource.getCurrentTenantCacheKey() : SHARED_VERIFIER_KEY;
+        long evictionsBeforeBuild = evictions.get();
+        TenantVerifier verifier = verifiers.computeIfAbsent(key, k -> {
+            LOGGER.debug("Built JWT verifier for tenant: {}", k);
+            return new TenantVerifier(this::getCurrentTenantPublicKey, evictions);
+        });
+        if (evictions.get() != evictionsBeforeBuild) {
+            verifiers.remove(key, verifier);
+        }
+        return verifier;
+    }
+
     /**
      * Gets the public key for the current tenant from the JWKSource.
      * This method supports both KeyStore-based and JWKS-based deployments.
      *
+     * @param keyId the key ID of the token, or null to use the key signing new tokens
      * @return the RSA public key for JWT verification
-     * @throws Exception if an error occurs while loading the public key
+     * @throws IllegalStateException if no matching RSA key is found or the key cannot be converted
      */
-    private RSAPublicKey getCurrentTenantPublicKey() throws Exception {
+    private RSAPublicKey getCurrentTenantPublicKey(String keyId) {
         LOGGER.debug("## getCurrentTenantPublicKey - START");
         try {
-            // Create a JWK selector to match RSA keys
+            // Create a JWK selector to match RSA keys, by key ID if the token names one
             // Note: Not filtering by keyUse since keys may not have the 'use' field set
             JWKMatcher matcher = new JWKMatcher.Builder()
                     .keyType(KeyType.RSA)
+                    .keyID(keyId)
                     .build();
             JWKSelector selector = new JWKSelector(matcher);
 
@@ -109,7 +214,7 @@ public class JwtTokenValidator {
                 throw new IllegalStateException("No RSA keys found for current tenant");
             }
 
-            // Use the first matching RSA key
+            // Use the first matching RSA key, which is the active key when the token names none
             JWK jwk = jwks.get(0);
             if (!(jwk instanceof RSAKey)) {
                 LOGGER.error("JWK is not an RSA key: {}", jwk.getKeyType());
@@ -123,7 +228,10 @@ public class JwtTokenValidator {
             LOGGER.debug("## getCurrentTenantPublicKey - END");
             return publicKey;
 
-        } catch (Exception e) {
+        } catch (JOSEException e) {
+            LOGGER.error("Error retrieving public key from JWKSource", e);
+            throw new IllegalStateException("Invalid RSA key in JWKSource", e);
+        } catch (RuntimeException e) {
             LOGGER.error("Error retrieving public key from JWKSource", e);
             throw e;
         }
@@ -141,13 +249,8 @@ public class JwtTokenValidator {
     public Claims getClaimsFromToken(String token) {
         LOGGER.debug("## getClaimsFromToken - START");
         try {
-            // Get the public key from JWKSource
-            RSAPublicKey publicKey = getCurrentTenantPublicKey();
-
-            // Parse and verify the token using the public key
-            Claims claims = Jwts.parser()
-                    .verifyWith(publicKey)
-                    .build()
+            // Parse and verify the token with the cached parser of the current tenant
+            Claims claims = getCurrentTenantVerifier().parser()
                     .parseSignedClaims(token)
                     .getPayload();
 
@@ -206,10 +309,13 @@ public class JwtTokenValidator {
      * Introspects the JWT token by validating against the database (similar to OAuth2 introspect).
      * This method checks:
      * 1. Token signature and claims validity
-     * 2. Token exists in the authorization table
-     * 3. Token has not been revoked/invalidated
-     * 4. Token has not expired
-     * 5. Token contains the required scope
+     * 2. Token contains the required scope
+     * 3. Token exists in the authorization table
+     * 4. Token has not been revoked/invalidated
+     * 5. Token has not expired
+     *
+     * <p>The result is cached per hashed token, see {@link IntrospectionResultCache}. A token whose signature,
+     * claims or scope are not valid is rejected without caching.
      *
      * @param token the JWT token to introspect
      * @param requiredScope the scope that must be present in the token
@@ -218,23 +324,11 @@ public class JwtTokenValidator {
     public boolean introspectToken(String token, String requiredScope) {
         try {
             LOGGER.debug("## introspectToken - START");
-            
-            // Step 1: Validate JWT signature and extract claims
-            Claims claims = getClaimsFromToken(token);
-            
-            // Step 2: Check scope
-            String scopes = claims.get(AuthorizationServerConstants.SCOPE, String.class);
-            List<String> scopeList = scopes != null && !scopes.isEmpty()
-                    ? Arrays.asList(scopes.split(" ")) : Collections.emptyList();
-            
-            if (!scopeList.contains(requiredScope)) {
-                LOGGER.warn("Token does not contain required scope: {}", requiredScope);
-                return false;
-            }
-            
-            // Step 3: Check token in database (introspection)
-            boolean isActive = isTokenActiveInDatabase(token);
-            
+            String hashedToken = hashToken(token);
+            IntrospectionResult result = introspectionResultCache.get(hashedToken,
+                () -> introspectUncached(token, hashedToken, requiredScope));
+
+            boolean isActive = result != null && result.active() && result.scopes().contains(requiredScope);
             LOGGER.debug("## introspectToken - END: isActive={}", isActive);
             return isActive;
             
@@ -243,25 +337,50 @@ public class JwtTokenValidator {
             return false;
         }
     }
-    
+
+    /**
+     * Verifies the token and looks it up in the database.
+     *
+     * @param token the JWT token to introspect
+     * @param hashedToken the hashed token, as stored in the authorization table
+     * @param requiredScope the scope that must be present in the token
+     * @return the introspection result, or null if the token lacks the required scope or the lookup failed
+     */
+    private IntrospectionResult introspectUncached(String token, String hashedToken, String requiredScope) {
+        // Step 1: Validate JWT signature and extract claims
+        Claims claims = getClaimsFromToken(token);
+
+        // Step 2: Check scope
+        String scopes = claims.get(AuthorizationServerConstants.SCOPE, String.class);
+        Set<String> scopeSet = scopes != null && !scopes.isEmpty()
+                ? new HashSet<>(Arrays.asList(scopes.split(" "))) : Collections.emptySet();
+
+        if (!scopeSet.contains(requiredScope)) {
+            LOGGER.warn("Token does not contain required scope: {}", requiredScope);
+            return null;
+        }
+
+        // Step 3: Check token in database (introspection)
+        return introspectInDatabase(hashedToken, scopeSet, claims.getExpiration());
+    }
+
     /**
      * Checks if the token is active in the database.
      * This performs database-backed token validation similar to OAuth2 token introspection.
      *
-     * @param token the JWT token to check
-     * @return true if the token is active in the database, false otherwise
+     * @param hashedToken the hashed JWT token to check
+     * @param scopes the scopes of the token
+     * @param tokenExpiration the expiry claim of the token, may be null
+     * @return the introspection result, or null if the database lookup failed
      */
-    private boolean isTokenActiveInDatabase(String token) {
+    private IntrospectionResult introspectInDatabase(String hashedToken, Set<String> scopes, Date tokenExpiration) {
         try {
-            // Hash the token to match database storage
-            String hashedToken = hashToken(token);
-            
             // Query the authorization table
             Optional<Authorization> authOptional = authorizationRepository.findByAccessTokenValue(hashedToken);
             
             if (authOptional.isEmpty()) {
                 LOGGER.warn("Token not found in database");
-                return false;
+                return IntrospectionResult.inactive(null);
             }
             
             Authorization authorization = authOptional.get();
@@ -269,34 +388,46 @@ public class JwtTokenValidator {
             // Check if token has been invalidated
             if (isTokenInvalidated(authorization)) {
                 LOGGER.warn("Token has been invalidated/revoked");
-                return false;
+                return IntrospectionResult.inactive(authorization.getId());
             }
             
             // Check if token has expired
             Instant expiresAt = authorization.getAccessTokenExpiresAt();
             if (expiresAt != null && expiresAt.isBefore(Instant.now())) {
                 LOGGER.warn("Token has expired at: {}", expiresAt);
-                return false;
+                return IntrospectionResult.inactive(authorization.getId());
             }
             
             LOGGER.debug("Token is active in database");
-            return true;
+            return IntrospectionResult.active(authorization.getId(), scopes,
+                earliest(expiresAt, tokenExpiration != null ? tokenExpiration.toInstant() : null));
             
         } catch (Exception e) {
             LOGGER.error("Error checking token in database", e);
-            return false;
+            return null;
+        }
+    }
+
+    private static Instant earliest(Instant first, Instant second) {
+        if (first == null) {
+            return second;
         }
+        return second != null && second.isBefore(first) ? second : first;
     }
     
     /**
      * Checks if the authorization has been invalidated.
-     * The invalidation status is stored in the access_token_metadata field,
-     * not in the attributes field.
+     * The invalidation status is stored in the invalidated column. Releases before the column was introduced only
+     * store it in the access_token_metadata field, so the metadata is checked as well until rows invalidated by old
+     * pods during a rolling upgrade have been backfilled.
      *
      * @param authorization the authorization entity
      * @return true if invalidated, false otherwise
      */
     private boolean isTokenInvalidated(Authorization authorization) {
+        if (authorization.isAccessTokenInvalidated()) {
+            return true;
+        }
         try {
             String accessTokenMetadata = authorization.getAccessTokenMetadata();
             if (accessTokenMetadata == null || accessTokenMetadata.isEmpty()) {
@@ -322,6 +453,42 @@ public class JwtTokenValidator {
      * @return the hashed token in format "algorithm:base64hash"
      */
     private String hashToken(String token) {
-        return TokenHashingUtil.hashToken(token, tokenHashAlgorithm, tokenHashSalt);
+        return TokenHashingUtil.hashToken(token, tokenHashAlgorithm, tokenHashSalt, tokenHashPepper);
+    }
+
+    /**
+     * The JWT parser of a tenant together with the public keys it resolved by key ID. Keys are loaded on first use
+     * of their key ID; a failing lookup is not kept, so it is retried with the next token. Neither is a key loaded
+     * while a verifier was evicted, as it may have been read from the keys before the eviction.
+     */
+    private static final class TenantVerifier extends LocatorAdapter<Key> {
+        private static final String NO_KEY_ID = "";
+
+        private final Function<String, RSAPublicKey> keyLoader;
+        private final AtomicLong evictions;
+        private final ConcurrentHashMap<String, RSAPublicKey> keysById = new ConcurrentHashMap<>();
+        private final JwtParser parser;
+
+        TenantVerifier(Function<String, RSAPublicKey> keyLoader, AtomicLong evictions) {
+            this.keyLoader = keyLoader;
+            this.evictions = evictions;
+            this.parser = Jwts.parser().keyLocator(this).build();
+        }
+
+        JwtParser parser() {
+            return parser;
+        }
+
+        @Override
+        protected Key locate(JwsHeader header) {
+            String keyId = header.getKeyId();
+            String cacheKey = keyId != null ? keyId : NO_KEY_ID;
+            long evictionsBeforeLoad = evictions.get();
+            RSAPublicKey key = keysById.computeIfAbsent(cacheKey, k -> keyLoader.apply(keyId));
+            if (evictions.get() != evictionsBeforeLoad && key != null) {
+                keysById.remove(cacheKey, key);
+            }
+            return key;
+        }
     }
 }
\ No newline at end of file
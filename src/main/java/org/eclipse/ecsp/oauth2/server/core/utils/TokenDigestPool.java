@@ -0,0 +1,171 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.oauth2.server.core.utils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of reusable digest engines for one hash algorithm, used by {@link TokenHashingUtil}.
+ *
+ * <p>Creating a {@link MessageDigest} or {@link Mac} looks up the security provider on every call, so instances are
+ * borrowed from a bounded lock-free queue instead. The pool is shared by all threads rather than bound to a thread,
+ * so it also pays off for short-lived virtual threads. Each pooled engine owns a scratch buffer into which the token
+ * and salt characters are written, so hashing an ASCII token allocates nothing but the resulting digest.
+ *
+ * <p>Algorithms whose name starts with "Hmac" are keyed hashes and require a pepper, which is used as the secret key.
+ */
+final class TokenDigestPool {
+
+    private static final String HMAC_PREFIX = "Hmac";
+    private static final int MAX_POOLED = Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+    private static final int INITIAL_BUFFER_SIZE = 2048;
+    private static final int MAX_RETAINED_BUFFER_SIZE = 16384;
+    private static final int ASCII_LIMIT = 0x80;
+
+    private static final ConcurrentHashMap<PoolKey, TokenDigestPool> POOLS = new ConcurrentHashMap<>();
+
+    private final String algorithm;
+    private final byte[] pepper;
+    private final ConcurrentLinkedQueue<PooledDigest> idle = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+
+    private TokenDigestPool(String algorithm, String pepper) {
+        this.algorithm = algorithm;
+        this.pepper = pepper != null ? pepper.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    /**
+     * Returns the shared pool for the given algorithm and pepper.
+     *
+     * @param algorithm the hash algorithm, e.g. "SHA-256" or "HmacSHA256"
+     * @param pepper the secret key for keyed hash algorithms, ignored for plain digests
+     * @return the pool
+     * @throws IllegalStateException if a keyed hash algorithm is requested without a pepper
+     */
+    static TokenDigestPool forAlgorithm(String algorithm, String pepper) {
+        boolean keyed = isKeyed(algorithm);
+        if (keyed && (pepper == null || pepper.isEmpty())) {
+            throw new IllegalStateException("A pepper must be configured for keyed hash algorithm: " + algorithm);
+        }
+        return POOLS.computeIfAbsent(new PoolKey(algorithm, keyed ? pepper : null),
+            key -> new TokenDigestPool(key.algorithm(), key.pepper()));
+    }
+
+    /**
+     * Hashes the UTF-8 bytes of the token followed by the salt.
+     *
+     * @param token the token to hash
+     * @param salt the salt appended to the token
+     * @return the raw digest
+     * @throws IllegalStateException if the hash algorithm is not available
+     */
+    byte[] digest(String token, String salt) {
+        PooledDigest pooled = idle.poll();
+        if (pooled != null) {
+            idleCount.decrementAndGet();
+        } else {
+            pooled = newDigest();
+        }
+        byte[] result = pooled.digest(token, salt);
+        // Engines are only returned after a successful digest, so a pooled engine never carries partial input
+        if (idleCount.incrementAndGet() <= MAX_POOLED) {
+            idle.offer(pooled);
+        } else {
+            idleCount.decrementAndGet();
+        }
+        return result;
+    }
+
+    private PooledDigest newDigest() {
+        try {
+            if (pepper != null) {
+                Mac mac = Mac.getInstance(algorithm);
+                mac.init(new SecretKeySpec(pepper, algorithm));
+                return new PooledDigest(null, mac);
+            }
+            return new PooledDigest(MessageDigest.getInstance(algorithm), null);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Hash algorithm not available: " + algorithm, e);
+        }
+    }
+
+    private static boolean isKeyed(String algorithm) {
+        return algorithm.regionMatches(true, 0, HMAC_PREFIX, 0, HMAC_PREFIX.length());
+    }
+
+    /**
+     * Key of a pool; the pepper is null for plain digests.
+     */
+    private record PoolKey(String algorithm, String pepper) {
+    }
+
+    /**
+     * A digest or MAC engine together with its scratch buffer. Used by one thread at a time.
+     */
+    private static final class PooledDigest {
+        private final MessageDigest messageDigest;
+        private final Mac mac;
+        private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+
+        PooledDigest(MessageDigest messageDigest, Mac mac) {
+            this.messageDigest = messageDigest;
+            this.mac = mac;
+        }
+
+        byte[] digest(String token, String salt) {
+            byte[] input = buffer;
+            int length = token.length() + salt.length();
+            if (length > input.length) {
+                input = new byte[length];
+                if (length <= MAX_RETAINED_BUFFER_SIZE) {
+                    buffer = input;
+                }
+            }
+            if (!copyAscii(token, input, 0) || !copyAscii(salt, input, token.length())) {
+                // Multi-byte characters: encode exactly like the concatenated string
+                input = (token + salt).getBytes(StandardCharsets.UTF_8);
+                length = input.length;
+            }
+            if (mac != null) {
+                mac.update(input, 0, length);
+                return mac.doFinal();
+            }
+            messageDigest.update(input, 0, length);
+            return messageDigest.digest();
+        }
+
+        private static boolean copyAscii(String value, byte[] target, int offset) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c >= ASCII_LIMIT) {
+                    return false;
+                }
+                target[offset + i] = (byte) c;
+            }
+            return true;
+        }
+    }
+}
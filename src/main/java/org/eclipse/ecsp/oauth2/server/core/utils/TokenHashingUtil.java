@@ -18,9 +18,6 @@
 
 package org.eclipse.ecsp.oauth2.server.core.utils;
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
 
 /**
@@ -53,26 +50,64 @@ public final class TokenHashingUtil {
      * @throws NullPointerException if token is null
      */
     public static String hashToken(String token, String hashAlgorithm, String salt) {
+        return hashToken(token, hashAlgorithm, salt, null);
+    }
+
+    /**
+     * Hashes a token using the configured algorithm, salt and pepper.
+     *
+     * <p>Plain digest algorithms such as "SHA-256" ignore the pepper. Keyed hash algorithms such as "HmacSHA256" use
+     * the pepper as secret key, so the stored hashes cannot be recomputed from a database dump alone.
+     *
+     * <p>The hash format is: {@code algorithm:base64EncodedHash}
+     *
+     * @param token the token to hash (must not be null)
+     * @param hashAlgorithm the hash algorithm to use (e.g., "SHA-256" or "HmacSHA256"). If null or empty, defaults
+     *      to SHA-256.
+     * @param salt the salt to append to the token before hashing. If null, defaults to empty string.
+     * @param pepper the secret key for keyed hash algorithms
+     * @return the hashed token in format "algorithm:base64Hash"
+     * @throws IllegalStateException if the hash algorithm is not available, or if a keyed hash algorithm is used
+     *      without a pepper
+     * @throws NullPointerException if token is null
+     */
+    public static String hashToken(String token, String hashAlgorithm, String salt, String pepper) {
         if (token == null) {
             throw new NullPointerException("Token must not be null");
         }
 
+        // Normalize inputs
+        String algorithm = (hashAlgorithm == null || hashAlgorithm.isEmpty())
+                ? DEFAULT_HASH_ALGORITHM : hashAlgorithm;
+        String effectiveSalt = salt != null ? salt : "";
+
+        byte[] hash = TokenDigestPool.forAlgorithm(algorithm, pepper).digest(token, effectiveSalt);
+
+        // Return in standard format: algorithm:base64Hash
+        return algorithm + ":" + Base64.getEncoder().encodeToString(hash);
+    }
+
+    /**
+     * Extracts the raw digest bytes from a hashed token produced by {@link #hashToken(String, String, String)}.
+     *
+     * <p>The raw digest is stored in the fixed-width binary lookup columns, which are a quarter of the size of the
+     * encoded string and are compared byte by byte.
+     *
+     * @param hashedToken the hashed token in format "algorithm:base64Hash"
+     * @return the raw digest, or null if the value is null or not in the hashed token format
+     */
+    public static byte[] toDigest(String hashedToken) {
+        if (hashedToken == null) {
+            return null;
+        }
+        int separatorIndex = hashedToken.indexOf(':');
+        if (separatorIndex <= 0) {
+            return null;
+        }
         try {
-            // Normalize inputs
-            String algorithm = (hashAlgorithm == null || hashAlgorithm.isEmpty()) 
-                    ? DEFAULT_HASH_ALGORITHM : hashAlgorithm;
-            String effectiveSalt = salt != null ? salt : "";
-            
-            // Hash token with salt
-            String saltedToken = token + effectiveSalt;
-            MessageDigest digest = MessageDigest.getInstance(algorithm);
-            byte[] hash = digest.digest(saltedToken.getBytes(StandardCharsets.UTF_8));
-            
-            // Return in standard format: algorithm:base64Hash
-            return algorithm + ":" + Base64.getEncoder().encodeToString(hash);
-            
-        } catch (NoSuchAlgorithmException e) {
-            throw new IllegalStateException("Hash algorithm not available: " + hashAlgorithm, e);
+            return Base64.getDecoder().decode(hashedToken.substring(separatorIndex + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
         }
     }
 
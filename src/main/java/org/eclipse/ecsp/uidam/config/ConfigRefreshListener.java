@@ -31,7 +31,10 @@
 package org.eclipse.ecsp.uidam.config;
 
 import jakarta.annotation.PostConstruct;
+import org.eclipse.ecsp.oauth2.server.core.cache.AuthorizationTokenCache;
+import org.eclipse.ecsp.oauth2.server.core.client.TenantWebClientRegistry;
 import org.eclipse.ecsp.oauth2.server.core.config.LiquibaseConfig;
+import org.eclipse.ecsp.oauth2.server.core.filter.TenantPathRouter;
 import org.eclipse.ecsp.sql.multitenancy.TenantAwareDataSource;
 import org.eclipse.ecsp.sql.multitenancy.TenantDatabaseProperties;
 import org.slf4j.Logger;
@@ -98,6 +101,15 @@ public class ConfigRefreshListener implements ApplicationListener<EnvironmentCha
     @Autowired
     private LiquibaseConfig liquibaseConfig;
 
+    @Autowired
+    private TenantWebClientRegistry tenantWebClientRegistry;
+
+    @Autowired
+    private TenantPathRouter tenantPathRouter;
+
+    @Autowired
+    private AuthorizationTokenCache authorizationTokenCache;
+
     /**
      * Initializes the property cache with current values on application startup.
      * This ensures that the first refresh event will have accurate "old" values to compare against.
@@ -249,6 +261,8 @@ public class ConfigRefreshListener implements ApplicationListener<EnvironmentCha
         if (!addedTenants.isEmpty() || !removedTenants.isEmpty()) {
             // Refresh system properties and tenant default properties after all tenant changes
             refreshTenantConfiguration(newTenantIds);
+            // Recompile the path routing trie so tenant path segments resolve to the new tenant set
+            tenantPathRouter.rebuild(newTenants);
         }
         
         // Process each added tenant
@@ -442,6 +456,11 @@ public class ConfigRefreshListener implements ApplicationListener<EnvironmentCha
         } catch (Exception e) {
             LOGGER.error("Failed to refresh tenant data sources for removed tenant: {}", tenantId, e);
         }
+
+        // Close the connection pools of the removed tenant's downstream WebClients
+        tenantWebClientRegistry.evictTenant(tenantId);
+        // Drop the authorizations cached from the removed tenant's database
+        authorizationTokenCache.clearTenant(tenantId);
         
         // PLACEHOLDER: Add additional custom logic for tenant removal
         // Examples:
@@ -725,6 +744,8 @@ public class ConfigRefreshListener implements ApplicationListener<EnvironmentCha
                 if (updated) {
                     LOGGER.info("Tenant '{}' data source has been successfully updated with new configuration", 
                                tenantId);
+                    // Authorizations cached from the previous database must not be served any longer
+                    authorizationTokenCache.clearTenant(tenantId);
                 } else {
                     LOGGER.warn("Failed to update data source for tenant '{}'. "
                                + "Check logs for details.", tenantId);
@@ -733,6 +754,11 @@ public class ConfigRefreshListener implements ApplicationListener<EnvironmentCha
                 LOGGER.info("No database-related properties changed for tenant '{}'. "
                            + "Data source update not required.", tenantId);
             }
+
+            // Rebuild the tenant's downstream WebClients from the refreshed external URLs on next use
+            if (!changedTenantProperties.isEmpty()) {
+                tenantWebClientRegistry.evictTenant(tenantId);
+            }
             
             // PLACEHOLDER: Add custom logic for other tenant property updates
             // Examples:
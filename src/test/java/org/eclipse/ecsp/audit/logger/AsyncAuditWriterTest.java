@@ -0,0 +1,265 @@
+/********************************************************************************
+ * Copyright (c) 2024-25 Harman International 
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0  
+ *  
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.audit.logger;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.eclipse.ecsp.audit.entity.AuditEvent;
+import org.eclipse.ecsp.audit.enums.AuditEventResult;
+import org.eclipse.ecsp.sql.multitenancy.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit tests for AsyncAuditWriter.
+ */
+class AsyncAuditWriterTest {
+
+    private static final int CAPACITY = 2;
+    private static final int LARGE_CAPACITY = 1024;
+    private static final int LARGE_BATCH = 100;
+    private static final long LONG_INTERVAL_MS = 60_000;
+    private static final long SHORT_INTERVAL_MS = 10;
+    private static final long DRAIN_TIMEOUT_MS = 5_000;
+    private static final long AWAIT_SECONDS = 5;
+
+    @TempDir
+    Path spillDirectory;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AuditBatchInserter batchInserter;
+    private List<String> insertedTenants;
+    private AtomicInteger insertedEvents;
+    private AsyncAuditWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        batchInserter = mock(AuditBatchInserter.class);
+        insertedTenants = Collections.synchronizedList(new ArrayList<>());
+        insertedEvents = new AtomicInteger();
+        doAnswer(invocation -> {
+            List<AuditEvent> events = invocation.getArgument(0);
+            insertedTenants.add(TenantContext.hasTenant() ? TenantContext.getCurrentTenant() : null);
+            insertedEvents.addAndGet(events.size());
+            return null;
+        }).when(batchInserter).insert(anyList());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        TenantContext.clear();
+        if (writer != null) {
+            writer.destroy();
+        }
+    }
+
+    @Test
+    void shutdownDrainsEventsOfIncompleteBatch() throws IOException, InterruptedException {
+        writer = writer(AuditOverflowPolicy.BLOCK, LARGE_CAPACITY, LARGE_BATCH, LONG_INTERVAL_MS);
+        final int events = 3;
+        for (int i = 0; i < events; i++) {
+            assertTrue(writer.submit(event()));
+        }
+
+        writer.destroy();
+
+        assertEquals(events, insertedEvents.get());
+        assertEquals(0, writer.getQueueDepth());
+        assertNotNull(meterRegistry.find("audit.writer.flush").timer());
+        assertEquals(1, meterRegistry.find("audit.writer.flush").timer().count());
+    }
+
+    @Test
+    void fullBatchIsWrittenWithoutWaitingForFlushInterval() throws IOException, InterruptedException {
+        CountDownLatch written = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            written.countDown();
+            return null;
+        }).when(batchInserter).insert(anyList());
+        writer = writer(AuditOverflowPolicy.BLOCK, LARGE_CAPACITY, 2, LONG_INTERVAL_MS);
+
+        writer.submit(event());
+        writer.submit(event());
+
+        assertTrue(written.await(AWAIT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void eventsAreWrittenInTheTenantTheyWereLoggedIn() throws IOException, InterruptedException {
+        writer = writer(AuditOverflowPolicy.BLOCK, LARGE_CAPACITY, LARGE_BATCH, LONG_INTERVAL_MS);
+        TenantContext.setCurrentTenant("ecsp");
+        writer.submit(event());
+        TenantContext.setCurrentTenant("sdp");
+        writer.submit(event());
+        writer.submit(event());
+        TenantContext.clear();
+        writer.submit(event());
+
+        writer.destroy();
+
+        assertEquals(List.of("ecsp", "sdp"), insertedTenants.subList(0, 2));
+        assertEquals(Collections.singletonList(null), insertedTenants.subList(2, insertedTenants.size()));
+        final int expectedEvents = 4;
+        assertEquals(expectedEvents, insertedEvents.get());
+    }
+
+    @Test
+    void onlyEventsOfTheFailedTenantAreCountedAsFailed() throws IOException, InterruptedException {
+        doAnswer(invocation -> {
+            if ("sdp".equals(TenantContext.getCurrentTenant())) {
+                throw new IllegalStateException("sdp database unavailable");
+            }
+            insertedTenants.add(TenantContext.getCurrentTenant());
+            return null;
+        }).when(batchInserter).insert(anyList());
+        writer = writer(AuditOverflowPolicy.BLOCK, LARGE_CAPACITY, LARGE_BATCH, LONG_INTERVAL_MS);
+        TenantContext.setCurrentTenant("ecsp");
+        writer.submit(event());
+        TenantContext.setCurrentTenant("sdp");
+        writer.submit(event());
+        TenantContext.clear();
+
+        writer.destroy();
+
+        assertEquals(List.of("ecsp"), insertedTenants);
+        assertEquals(1, meterRegistry.find("audit.writer.failed").counter().count());
+    }
+
+    @Test
+    void spillPolicyRequiresSpillDirectory() {
+        assertThrows(IllegalStateException.class, () -> new AsyncAuditWriter(batchInserter, meterRegistry, true,
+            CAPACITY, 1, SHORT_INTERVAL_MS, AuditOverflowPolicy.SPILL, "", DRAIN_TIMEOUT_MS));
+    }
+
+    @Test
+    void submitStampsTimestampAndDefaultResult() throws IOException {
+        writer = writer(AuditOverflowPolicy.BLOCK, LARGE_CAPACITY, LARGE_BATCH, LONG_INTERVAL_MS);
+        AuditEvent event = event();
+
+        writer.submit(event);
+
+        assertNotNull(event.getTimestamp());
+        assertEquals(AuditEventResult.SUCCESS, event.getResult());
+    }
+
+    @Test
+    void dropPolicyCountsEventsThatDoNotFit() throws IOException, InterruptedException {
+        CountDownLatch release = blockInserter();
+        writer = writer(AuditOverflowPolicy.DROP, CAPACITY, 1, SHORT_INTERVAL_MS);
+        fillWhileWriterIsBlocked();
+
+        assertTrue(writer.submit(event()));
+        assertEquals(1, meterRegistry.find("audit.writer.dropped").counter().count());
+        assertEquals(CAPACITY, meterRegistry.find("audit.writer.queue.depth").gauge().value());
+
+        release.countDown();
+        writer.destroy();
+        assertEquals(1 + CAPACITY, insertedEvents.get());
+    }
+
+    @Test
+    void spillPolicyWritesEventsThatDoNotFitOnceTheBufferIsEmpty() throws IOException, InterruptedException {
+        CountDownLatch release = blockInserter();
+        writer = writer(AuditOverflowPolicy.SPILL, CAPACITY, 1, SHORT_INTERVAL_MS);
+        fillWhileWriterIsBlocked();
+
+        assertTrue(writer.submit(event()));
+        assertEquals(1, meterRegistry.find("audit.writer.spilled").counter().count());
+
+        release.countDown();
+        final int expectedEvents = CAPACITY + 2;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(AWAIT_SECONDS);
+        while (insertedEvents.get() < expectedEvents && System.nanoTime() < deadline) {
+            Thread.sleep(SHORT_INTERVAL_MS);
+        }
+        assertEquals(expectedEvents, insertedEvents.get());
+    }
+
+    @Test
+    void submitIsRejectedWhenDisabledOrStopped() throws IOException, InterruptedException {
+        AsyncAuditWriter disabled = new AsyncAuditWriter(batchInserter, meterRegistry, false, CAPACITY, 1,
+            SHORT_INTERVAL_MS, AuditOverflowPolicy.BLOCK, spillDirectory.toString(), DRAIN_TIMEOUT_MS);
+        assertFalse(disabled.submit(event()));
+
+        writer = writer(AuditOverflowPolicy.BLOCK, CAPACITY, 1, SHORT_INTERVAL_MS);
+        writer.destroy();
+        assertFalse(writer.submit(event()));
+        verify(batchInserter, never()).insert(anyList());
+    }
+
+    private AsyncAuditWriter writer(AuditOverflowPolicy policy, int capacity, int batchSize, long intervalMs)
+        throws IOException {
+        return new AsyncAuditWriter(batchInserter, meterRegistry, true, capacity, batchSize, intervalMs, policy,
+            spillDirectory.toString(), DRAIN_TIMEOUT_MS);
+    }
+
+    /**
+     * Makes the inserter block until the returned latch is released, after counting the events it was given.
+     */
+    private CountDownLatch blockInserter() {
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            List<AuditEvent> events = invocation.getArgument(0);
+            insertedEvents.addAndGet(events.size());
+            release.await(AWAIT_SECONDS, TimeUnit.SECONDS);
+            return null;
+        }).when(batchInserter).insert(anyList());
+        return release;
+    }
+
+    /**
+     * Submits one event the writer is blocked on, then fills the buffer.
+     */
+    private void fillWhileWriterIsBlocked() throws InterruptedException {
+        writer.submit(event());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(AWAIT_SECONDS);
+        while (insertedEvents.get() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        for (int i = 0; i < CAPACITY; i++) {
+            assertTrue(writer.submit(event()));
+        }
+    }
+
+    private static AuditEvent event() {
+        return AuditEvent.builder().eventType("AUTH_SUCCESS").component("test-component").build();
+    }
+}
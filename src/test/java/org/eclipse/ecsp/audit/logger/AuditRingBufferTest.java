@@ -0,0 +1,116 @@
+/********************************************************************************
+ * Copyright (c) 2024-25 Harman International 
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0  
+ *  
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.audit.logger;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for AuditRingBuffer.
+ */
+class AuditRingBufferTest {
+
+    private static final int PRODUCERS = 4;
+    private static final int EVENTS_PER_PRODUCER = 10_000;
+
+    @Test
+    void capacityIsRoundedUpToPowerOfTwo() {
+        final int requested = 5;
+        final int expected = 8;
+        assertEquals(expected, new AuditRingBuffer<String>(requested).capacity());
+        assertEquals(1, new AuditRingBuffer<String>(1).capacity());
+        assertThrows(IllegalArgumentException.class, () -> new AuditRingBuffer<String>(0));
+    }
+
+    @Test
+    void pollReturnsElementsInInsertionOrder() {
+        AuditRingBuffer<String> buffer = new AuditRingBuffer<>(2);
+        assertTrue(buffer.offer("a"));
+        assertTrue(buffer.offer("b"));
+
+        assertEquals(2, buffer.size());
+        assertEquals("a", buffer.poll());
+        assertEquals("b", buffer.poll());
+        assertNull(buffer.poll());
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    void offerFailsWhenFullAndSucceedsAfterPoll() {
+        AuditRingBuffer<String> buffer = new AuditRingBuffer<>(2);
+        buffer.offer("a");
+        buffer.offer("b");
+
+        assertFalse(buffer.offer("c"));
+        assertEquals("a", buffer.poll());
+        assertTrue(buffer.offer("c"));
+        assertEquals("b", buffer.poll());
+        assertEquals("c", buffer.poll());
+    }
+
+    @Test
+    void concurrentProducersLoseNoElements() throws InterruptedException {
+        final int capacity = 64;
+        AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(capacity);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            producers.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < EVENTS_PER_PRODUCER; i++) {
+                    while (!buffer.offer(i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            }));
+        }
+        start.countDown();
+
+        long sum = 0;
+        int received = 0;
+        while (received < PRODUCERS * EVENTS_PER_PRODUCER) {
+            Integer element = buffer.poll();
+            if (element != null) {
+                sum += element;
+                received++;
+            }
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        long expectedSum = (long) PRODUCERS * EVENTS_PER_PRODUCER * (EVENTS_PER_PRODUCER - 1) / 2;
+        assertEquals(expectedSum, sum);
+        assertTrue(buffer.isEmpty());
+    }
+}
@@ -0,0 +1,92 @@
+/********************************************************************************
+ * Copyright (c) 2024-25 Harman International 
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0  
+ *  
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.audit.util;
+
+import org.eclipse.ecsp.audit.util.PiiFieldClassifier.MaskMode;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for PiiFieldClassifier.
+ */
+class PiiFieldClassifierTest {
+
+    private final PiiFieldClassifier classifier = new PiiFieldClassifier(
+        List.of("password", "token", "key", "address"),
+        List.of("username", "email", "phone", "mobileNumber", "vin", "ssn"));
+
+    @Test
+    void classifyShouldMatchPatternsAnywhereInTheFieldNameIgnoringCase() {
+        assertThat(classifier.classify("password")).isEqualTo(MaskMode.FULL);
+        assertThat(classifier.classify("oldPassword")).isEqualTo(MaskMode.FULL);
+        assertThat(classifier.classify("X-API-KEY")).isEqualTo(MaskMode.FULL);
+        assertThat(classifier.classify("refresh_token_value")).isEqualTo(MaskMode.FULL);
+        assertThat(classifier.classify("userId")).isEqualTo(MaskMode.NONE);
+        assertThat(classifier.classify(null)).isEqualTo(MaskMode.NONE);
+    }
+
+    @Test
+    void classifyShouldFindPatternsOverlappingAPartialMatch() {
+        // "tok" is a prefix of token, the match must restart within it
+        assertThat(classifier.classify("totoken")).isEqualTo(MaskMode.FULL);
+        assertThat(classifier.classify("pasaddress")).isEqualTo(MaskMode.FULL);
+        assertThat(classifier.classify("phonphone")).isEqualTo(MaskMode.PHONE);
+    }
+
+    @Test
+    void classifyShouldPreferFullMaskOverPartialMask() {
+        // Contains both email and address
+        assertThat(classifier.classify("emailAddress")).isEqualTo(MaskMode.FULL);
+        assertThat(classifier.classify("usernameToken")).isEqualTo(MaskMode.FULL);
+    }
+
+    @Test
+    void classifyShouldSelectPartialMaskStrategyByFieldName() {
+        assertThat(classifier.classify("userName")).isEqualTo(MaskMode.USERNAME);
+        assertThat(classifier.classify("contactEmail")).isEqualTo(MaskMode.EMAIL);
+        assertThat(classifier.classify("phoneNumber")).isEqualTo(MaskMode.PHONE);
+        assertThat(classifier.classify("mobileNumber")).isEqualTo(MaskMode.PHONE);
+        assertThat(classifier.classify("VIN")).isEqualTo(MaskMode.VIN);
+        assertThat(classifier.classify("ssn")).isEqualTo(MaskMode.PARTIAL);
+        assertThat(MaskMode.PARTIAL.isPartial()).isTrue();
+        assertThat(MaskMode.FULL.isPartial()).isFalse();
+    }
+
+    @Test
+    void classifyShouldReturnSameResultFromMemo() {
+        for (int i = 0; i < PiiFieldClassifier.MAX_MEMO_SIZE + 1; i++) {
+            classifier.classify("field" + i);
+        }
+
+        assertThat(classifier.classify("userName")).isEqualTo(MaskMode.USERNAME);
+        assertThat(classifier.classify("userName")).isEqualTo(MaskMode.USERNAME);
+    }
+
+    @Test
+    void constructorShouldRejectPatternsWithOtherCharactersThanLetters() {
+        List<String> patterns = List.of("api-key");
+        List<String> none = List.of();
+        assertThatThrownBy(() -> new PiiFieldClassifier(patterns, none))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -18,10 +18,15 @@
 
 package org.eclipse.ecsp.audit.util;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -347,4 +352,63 @@ class PiiMaskerTest {
         assertThat(masked).doesNotContain("johndoe");
         assertThat(masked).doesNotContain("ABC123456789012345");
     }
+
+    @Test
+    void maskAndSerializeShouldMatchMaskingOfTheJsonTree() throws JsonProcessingException {
+        // Given - nested objects, arrays of objects, arrays of arrays and non-textual partial mask fields
+        Map<String, Object> address = new LinkedHashMap<>();
+        address.put("street", "1 Main Street");
+        address.put("city", "Springfield");
+        Map<String, Object> device = new LinkedHashMap<>();
+        device.put("vin", "1HGCM82633A004352");
+        device.put("apiKey", "abc");
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("userId", "33332547171543448520109731243641");
+        map.put("userName", "john.doe");
+        map.put("emailAddress", "john.doe@example.com");
+        map.put("mobileNumber", "+1-202-555-0147");
+        map.put("phone", 2025550147L);
+        map.put("nationalId", "AB1234567");
+        map.put("address", address);
+        map.put("devices", List.of(device, "plain"));
+        map.put("nested", List.of(List.of(device)));
+        map.put("scopes", List.of("SelfManage", "RevokeToken"));
+        map.put("unit", TimeUnit.SECONDS);
+        map.put("enabled", true);
+        map.put("empty", null);
+        String json = new ObjectMapper().writeValueAsString(map);
+
+        // When
+        String masked = PiiMasker.maskAndSerialize(map);
+
+        // Then
+        assertThat(masked).isEqualTo(PiiMasker.maskJson(json));
+        assertThat(masked).contains("\"vin\":\"******4352\"").contains("\"city\":\"" + MASKED + "\"");
+    }
+
+    @Test
+    void maskAndSerializeShouldPartiallyMaskValuesSerializedAsText() {
+        // Given
+        Map<String, Object> map = new HashMap<>();
+        map.put("accountName", TimeUnit.MILLISECONDS);
+
+        // When
+        String masked = PiiMasker.maskAndSerialize(map);
+
+        // Then
+        assertThat(masked).isEqualTo("{\"accountName\":\"MI***DS\"}");
+    }
+
+    @Test
+    void maskAndSerializeWithNullKeyShouldReturnNull() {
+        // Given
+        Map<String, Object> map = new HashMap<>();
+        map.put(null, "value");
+
+        // When
+        String masked = PiiMasker.maskAndSerialize(map);
+
+        // Then
+        assertThat(masked).isNull();
+    }
 }
@@ -18,6 +18,7 @@
 
 package org.eclipse.ecsp.oauth2.server.core.authentication.providers;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 import org.eclipse.ecsp.audit.context.ActorContext;
@@ -26,6 +27,9 @@ import org.eclipse.ecsp.audit.enums.AuditEventResult;
 import org.eclipse.ecsp.audit.logger.AuditLogger;
 import org.eclipse.ecsp.oauth2.server.core.audit.enums.AuditEventType;
 import org.eclipse.ecsp.oauth2.server.core.authentication.tokens.CustomUserPwdAuthenticationToken;
+import org.eclipse.ecsp.oauth2.server.core.cache.UserDetailsCache;
+import org.eclipse.ecsp.oauth2.server.core.client.DownstreamCallExecutor;
+import org.eclipse.ecsp.oauth2.server.core.client.DownstreamCallExecutor.ExecutionMode;
 import org.eclipse.ecsp.oauth2.server.core.client.UserManagementClient;
 import org.eclipse.ecsp.oauth2.server.core.config.tenantproperties.TenantProperties;
 import org.eclipse.ecsp.oauth2.server.core.config.tenantproperties.UserProperties;
@@ -45,6 +49,8 @@ import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.oauth2.server.authorization.authentication.OAuth2AuthorizationCodeRequestAuthenticationToken;
 
+import java.util.concurrent.CountDownLatch;
+
 import static org.eclipse.ecsp.oauth2.server.core.common.constants.IgniteOauth2CoreConstants.LOGIN_ATTEMPT;
 import static org.eclipse.ecsp.oauth2.server.core.common.constants.IgniteOauth2CoreConstants.SESSION_USER_RESPONSE_CAPTCHA_ENABLED;
 import static org.eclipse.ecsp.oauth2.server.core.common.constants.IgniteOauth2CoreConstants.SESSION_USER_RESPONSE_ENFORCE_AFTER_NO_OF_FAILURES;
@@ -66,6 +72,7 @@ import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -80,6 +87,7 @@ class CustomUserPwdAuthenticationProviderTest {
     private static final int MAX_ATTEMPTS_FIVE = 5;
     private static final int FAILURE_ATTEMPTS_TWO = 2;
     private static final int FAILURE_ATTEMPTS_THREE = 3;
+    private static final long TIMEOUT_MS = 5000;
 
     @Mock
     private UserManagementClient userManagementClient;
@@ -104,7 +112,9 @@ class CustomUserPwdAuthenticationProviderTest {
     @BeforeEach
     void setUp() {
         customUserPwdAuthenticationProvider = new CustomUserPwdAuthenticationProvider(
-            userManagementClient, tenantConfigurationService, request, authorizationMetricsService, auditLogger);
+            userManagementClient, tenantConfigurationService, request, authorizationMetricsService, auditLogger,
+            new DownstreamCallExecutor(new SimpleMeterRegistry(), ExecutionMode.BLOCKING, TIMEOUT_MS, 1, 1),
+            UserDetailsCache.disabled());
     }
 
     /**
@@ -629,4 +639,33 @@ class CustomUserPwdAuthenticationProviderTest {
             eq(MetricType.FAILURE_LOGIN_USER_BLOCKED), eq(MetricType.FAILURE_LOGIN_ATTEMPTS));
     }
 
-}
\ No newline at end of file
+    @Test
+    void testAuthenticateSuccessDoesNotWaitForUserEventInVirtualThreadsMode() throws Exception {
+        DownstreamCallExecutor executor = new DownstreamCallExecutor(new SimpleMeterRegistry(),
+            ExecutionMode.VIRTUAL_THREADS, TIMEOUT_MS, 1, 1);
+        CustomUserPwdAuthenticationProvider provider = new CustomUserPwdAuthenticationProvider(
+            userManagementClient, tenantConfigurationService, request, authorizationMetricsService, auditLogger,
+            executor, UserDetailsCache.disabled());
+        TenantProperties tenantProperties = mock(TenantProperties.class);
+        when(tenantConfigurationService.getTenantProperties()).thenReturn(tenantProperties);
+        when(tenantProperties.getTenantId()).thenReturn("test-tenant");
+        doReturn(getUser()).when(userManagementClient).getUserDetailsByUsername(anyString(), anyString());
+        CountDownLatch userEventReleased = new CountDownLatch(1);
+        when(userManagementClient.addUserEvent(any(UserEvent.class), anyString())).thenAnswer(invocation -> {
+            userEventReleased.await();
+            return UserEventResponse.builder().userStatus("ACTIVE").build();
+        });
+
+        try {
+            CustomUserPwdAuthenticationToken authentication = new CustomUserPwdAuthenticationToken(TEST_USER_NAME,
+                TEST_PASSWORD, TEST_ACCOUNT_NAME, null);
+            assertTrue(provider.authenticate(authentication).isAuthenticated());
+
+            userEventReleased.countDown();
+            verify(userManagementClient, timeout(TIMEOUT_MS)).addUserEvent(any(UserEvent.class), anyString());
+        } finally {
+            userEventReleased.countDown();
+            executor.destroy();
+        }
+    }
+}
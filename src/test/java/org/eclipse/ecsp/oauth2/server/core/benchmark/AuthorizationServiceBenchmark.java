@@ -0,0 +1,126 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.oauth2.server.core.benchmark;
+
+import org.eclipse.ecsp.audit.logger.AuditLogger;
+import org.eclipse.ecsp.oauth2.server.core.entities.Authorization;
+import org.eclipse.ecsp.oauth2.server.core.repositories.AuthorizationRepository;
+import org.eclipse.ecsp.oauth2.server.core.service.AuthorizationService;
+import org.eclipse.ecsp.oauth2.server.core.test.TestOauth2Authorizations;
+import org.eclipse.ecsp.oauth2.server.core.test.TestRegisteredClients;
+import org.eclipse.ecsp.oauth2.server.core.utils.JwtTokenValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Conversion between {@link OAuth2Authorization} and the {@link Authorization} entity, which runs on every token
+ * issuance (toEntity) and every lookup by token (toObject).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthorizationServiceBenchmark {
+
+    private AuthorizationService authorizationService;
+    private MethodHandle toEntity;
+    private MethodHandle toObject;
+    private OAuth2Authorization authorization;
+    private Authorization entity;
+
+    /**
+     * Creates the service with a registered client repository that always returns the test client. The other
+     * collaborators are not used by the conversions.
+     *
+     * @throws Throwable if the conversion methods cannot be resolved or invoked
+     */
+    @Setup
+    public void setUp() throws Throwable {
+        RegisteredClient registeredClient = TestRegisteredClients.registeredClient().build();
+        authorizationService = new AuthorizationService(mock(AuthorizationRepository.class),
+            new FixedRegisteredClientRepository(registeredClient), mock(JwtTokenValidator.class),
+            mock(AuditLogger.class));
+        toEntity = BenchmarkSupport.privateMethod(AuthorizationService.class, "toEntity", OAuth2Authorization.class);
+        toObject = BenchmarkSupport.privateMethod(AuthorizationService.class, "toObject", Authorization.class);
+        authorization = TestOauth2Authorizations.authorization(registeredClient).build();
+        entity = (Authorization) toEntity.invoke(authorizationService, authorization);
+    }
+
+    /**
+     * Converts an authorization with access token, refresh token and authorization code to the entity.
+     *
+     * @return the entity
+     * @throws Throwable if the conversion fails
+     */
+    @Benchmark
+    public Object toEntity() throws Throwable {
+        return toEntity.invoke(authorizationService, authorization);
+    }
+
+    /**
+     * Converts the entity back to an authorization.
+     *
+     * @return the authorization
+     * @throws Throwable if the conversion fails
+     */
+    @Benchmark
+    public Object toObject() throws Throwable {
+        return toObject.invoke(authorizationService, entity);
+    }
+
+    /**
+     * Registered client repository returning the same client for every lookup, without recording invocations.
+     */
+    private record FixedRegisteredClientRepository(RegisteredClient registeredClient)
+            implements RegisteredClientRepository {
+
+        @Override
+        public void save(RegisteredClient client) {
+            // Not used by the benchmark
+        }
+
+        @Override
+        public RegisteredClient findById(String id) {
+            return registeredClient;
+        }
+
+        @Override
+        public RegisteredClient findByClientId(String clientId) {
+            return registeredClient;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.oauth2.server.core.benchmark;
+
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyType;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.eclipse.ecsp.oauth2.server.core.repositories.AuthorizationRepository;
+import org.eclipse.ecsp.oauth2.server.core.utils.JwtTokenValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Signature verification and claim parsing of an RS256 access token, as done for every revocation, admin session
+ * and introspection request, with the cached per-tenant verifier against the previous implementation, which
+ * selected the key from the JWK source and built a new parser on every call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtTokenValidatorBenchmark {
+
+    private static final int KEY_SIZE = 2048;
+
+    private JWKSource<SecurityContext> jwkSource;
+    private JwtTokenValidator jwtTokenValidator;
+    private String token;
+
+    /**
+     * Creates a validator backed by a single RSA key and an access token signed with it.
+     *
+     * @throws Exception if the key pair cannot be generated
+     */
+    @Setup
+    public void setUp() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(KEY_SIZE);
+        KeyPair keyPair = generator.generateKeyPair();
+        RSAKey rsaKey = new RSAKey.Builder((RSAPublicKey) keyPair.getPublic())
+            .keyID(UUID.randomUUID().toString())
+            .build();
+        jwkSource = new ImmutableJWKSet<>(new JWKSet(rsaKey));
+        jwtTokenValidator = new JwtTokenValidator(jwkSource, mock(AuthorizationRepository.class));
+        token = Jwts.builder()
+            .subject("benchmarkUser")
+            .claim("scope", "SelfManage RevokeToken")
+            .claim("tenantId", "ecsp")
+            .expiration(Date.from(Instant.now().plus(1, ChronoUnit.DAYS)))
+            .signWith(keyPair.getPrivate(), Jwts.SIG.RS256)
+            .compact();
+    }
+
+    /**
+     * Verifies the token signature and parses its claims with the cached verifier.
+     *
+     * @return the claims
+     */
+    @Benchmark
+    public Claims getClaimsFromToken() {
+        return jwtTokenValidator.getClaimsFromToken(token);
+    }
+
+    /**
+     * Selects the key, converts it and builds a parser before verifying, as JwtTokenValidator did before the
+     * verifier cache.
+     *
+     * @return the claims
+     * @throws Exception if the key cannot be selected or converted
+     */
+    @Benchmark
+    public Claims legacyGetClaimsFromToken() throws Exception {
+        JWKSelector selector = new JWKSelector(new JWKMatcher.Builder().keyType(KeyType.RSA).build());
+        RSAPublicKey publicKey = ((RSAKey) jwkSource.get(selector, null).get(0)).toRSAPublicKey();
+        return Jwts.parser()
+            .verifyWith(publicKey)
+            .build()
+            .parseSignedClaims(token)
+            .getPayload();
+    }
+}
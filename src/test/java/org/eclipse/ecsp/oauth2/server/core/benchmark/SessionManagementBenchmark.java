@@ -0,0 +1,96 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.oauth2.server.core.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.eclipse.ecsp.oauth2.server.core.cache.AuthorizationTokenCache;
+import org.eclipse.ecsp.oauth2.server.core.cache.CacheClientService;
+import org.eclipse.ecsp.oauth2.server.core.cache.IntrospectionResultCache;
+import org.eclipse.ecsp.oauth2.server.core.repositories.AuthorizationRepository;
+import org.eclipse.ecsp.oauth2.server.core.service.impl.SessionManagementServiceImpl;
+import org.eclipse.ecsp.oauth2.server.core.utils.JwtTokenValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * User agent parsing of {@link SessionManagementServiceImpl}, done for every session in the active sessions list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SessionManagementBenchmark {
+
+    private static final Map<String, String> USER_AGENTS = Map.of(
+        "desktop", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) "
+            + "Chrome/126.0.0.0 Safari/537.36",
+        "mobile", "Mozilla/5.0 (iPhone; CPU iPhone OS 17_5 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) "
+            + "Version/17.5 Mobile/15E148 Safari/604.1",
+        "api", "PostmanRuntime/7.39.0");
+
+    @Param({"desktop", "mobile", "api"})
+    public String client;
+
+    private SessionManagementServiceImpl sessionManagementService;
+    private MethodHandle parseUserAgent;
+    private String userAgent;
+
+    /**
+     * Creates the service and selects the user agent of the client type.
+     *
+     * @throws ReflectiveOperationException if the parse method cannot be resolved
+     */
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        sessionManagementService = new SessionManagementServiceImpl(mock(AuthorizationRepository.class),
+            mock(CacheClientService.class), new ObjectMapper(), mock(JwtTokenValidator.class),
+            AuthorizationTokenCache.disabled(), IntrospectionResultCache.disabled());
+        parseUserAgent = BenchmarkSupport.privateMethod(SessionManagementServiceImpl.class, "parseUserAgent",
+            String.class);
+        userAgent = USER_AGENTS.get(client);
+    }
+
+    /**
+     * Parses the user agent into a device description.
+     *
+     * @return the device description
+     * @throws Throwable if parsing fails
+     */
+    @Benchmark
+    public Object parseUserAgent() throws Throwable {
+        return parseUserAgent.invoke(sessionManagementService, userAgent);
+    }
+}
@@ -0,0 +1,114 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.oauth2.server.core.benchmark;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.eclipse.ecsp.oauth2.server.core.util.SessionTenantResolver;
+import org.eclipse.ecsp.sql.multitenancy.TenantContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link SessionTenantResolver#getCurrentTenant()} on threads whose ThreadLocal tenant is empty, e.g.
+ * threads continuing an OAuth2 flow started on another thread, against the previous slow path, which looked up the
+ * session tenant inside a static synchronized method. With several threads the legacy benchmark measures the convoy
+ * on the class monitor; run with {@code -prof gc} or a JFR profile to see the monitor contention disappear.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class SessionTenantResolverBenchmark {
+
+    private static final String TENANT_ID = "ecsp";
+    private static final String TENANT_SESSION_KEY = "RESOLVED_TENANT_ID";
+
+    /**
+     * Binds a request whose session holds the tenant to the benchmark thread.
+     */
+    @Setup
+    public void setUp() {
+        TenantContext.initialize(true);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/oauth2/authorize");
+        request.getSession(true).setAttribute(TENANT_SESSION_KEY, TENANT_ID);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    /**
+     * Unbinds the request and clears the tenant of the benchmark thread.
+     */
+    @TearDown
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        TenantContext.clear();
+    }
+
+    /**
+     * Resolves the tenant with an empty ThreadLocal.
+     *
+     * @return the tenant id
+     */
+    @Benchmark
+    public String getCurrentTenant() {
+        TenantContext.clear();
+        return SessionTenantResolver.getCurrentTenant();
+    }
+
+    /**
+     * Resolves the tenant with an empty ThreadLocal as the resolver did before it became lock-free.
+     *
+     * @return the tenant id
+     */
+    @Benchmark
+    public String legacySynchronizedSlowPath() {
+        TenantContext.clear();
+        return legacyGetFromSession();
+    }
+
+    private static synchronized String legacyGetFromSession() {
+        String tenant = TenantContext.getCurrentTenant();
+        if (tenant != null && !tenant.isBlank()) {
+            return tenant;
+        }
+        HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes())
+            .getRequest();
+        tenant = (String) request.getSession(false).getAttribute(TENANT_SESSION_KEY);
+        TenantContext.setCurrentTenant(tenant);
+        return tenant;
+    }
+}
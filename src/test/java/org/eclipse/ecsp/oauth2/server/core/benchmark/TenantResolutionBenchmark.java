@@ -0,0 +1,141 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.oauth2.server.core.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import org.eclipse.ecsp.oauth2.server.core.filter.TenantResolutionFilter;
+import org.eclipse.ecsp.oauth2.server.core.service.TenantConfigurationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tenant extraction of {@link TenantResolutionFilter} for a tenant-prefixed path and for a bearer token carrying the
+ * tenantId claim, the two strategies hit by most requests.
+ *
+ * <p>"bearer" repeats one token, as a client reusing its access token does, and is served from the tenant claim
+ * cache; "distinctBearer" cycles through more tokens than the cache holds, so every request decodes the payload.
+ * {@link #legacyBearerExtraction()} is the previous extraction, which split the token with a regex and mapped the
+ * payload with a new ObjectMapper.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TenantResolutionBenchmark {
+
+    private static final String TENANT_ID = "ecsp";
+    private static final int DISTINCT_TOKENS = 4096;
+
+    @Param({"path", "bearer", "distinctBearer"})
+    public String source;
+
+    private TenantResolutionFilter filter;
+    private MethodHandle resolveTenantFromRequest;
+    private MockHttpServletRequest[] requests;
+    private int next;
+
+    /**
+     * Creates the filter and a request carrying the tenant in the selected source.
+     *
+     * @throws ReflectiveOperationException if the extraction method cannot be resolved
+     */
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        filter = new TenantResolutionFilter(mock(TenantConfigurationService.class));
+        resolveTenantFromRequest = BenchmarkSupport.privateMethod(TenantResolutionFilter.class,
+            "resolveTenantFromRequest", HttpServletRequest.class);
+        if ("path".equals(source)) {
+            requests = new MockHttpServletRequest[] {
+                new MockHttpServletRequest("POST", "/" + TENANT_ID + "/oauth2/token")
+            };
+        } else {
+            requests = new MockHttpServletRequest["bearer".equals(source) ? 1 : DISTINCT_TOKENS];
+            for (int i = 0; i < requests.length; i++) {
+                requests[i] = new MockHttpServletRequest("POST", "/revoke/revokeByAdmin");
+                requests[i].addHeader("Authorization", "Bearer " + unsignedToken(i));
+            }
+        }
+    }
+
+    /**
+     * Resolves the tenant of the request.
+     *
+     * @return the tenant id
+     * @throws Throwable if the extraction fails
+     */
+    @Benchmark
+    public Object resolveTenantFromRequest() throws Throwable {
+        return resolveTenantFromRequest.invoke(filter, nextRequest());
+    }
+
+    /**
+     * Extracts the tenant from the bearer token as the filter did before the streaming extractor.
+     *
+     * @return the tenant id
+     * @throws IOException if the payload is not valid JSON
+     */
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public Object legacyBearerExtraction() throws IOException {
+        String authorization = nextRequest().getHeader("Authorization");
+        if (authorization == null) {
+            return null;
+        }
+        String[] parts = authorization.substring("Bearer ".length()).split("\\.");
+        String payload = new String(Base64.getUrlDecoder().decode(parts[1]));
+        return new ObjectMapper().readValue(payload, Map.class).get("tenantId");
+    }
+
+    private MockHttpServletRequest nextRequest() {
+        MockHttpServletRequest request = requests[next];
+        next = next + 1 == requests.length ? 0 : next + 1;
+        return request;
+    }
+
+    private static String unsignedToken(int index) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String header = encoder.encodeToString("{\"alg\":\"RS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+        String payload = encoder.encodeToString(("{\"sub\":\"admin\",\"accountName\":\"sdp\",\"tenantId\":\""
+            + TENANT_ID + "\",\"user_id\":\"33332547171543448520109731243641\",\"scope\":\"SelfManage\",\"jti\":\""
+            + index + "\"}").getBytes(StandardCharsets.UTF_8));
+        return header + "." + payload + ".c2lnbmF0dXJl";
+    }
+}
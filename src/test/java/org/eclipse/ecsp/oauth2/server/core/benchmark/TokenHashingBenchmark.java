@@ -0,0 +1,105 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.oauth2.server.core.benchmark;
+
+import org.eclipse.ecsp.oauth2.server.core.utils.TokenHashingUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import static org.eclipse.ecsp.oauth2.server.core.test.TestConstants.DUMMY_TOKEN;
+
+/**
+ * Throughput of {@link TokenHashingUtil#hashToken(String, String, String, String)} against the previous
+ * implementation, which created a {@link MessageDigest} and a concatenated String on every call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class TokenHashingBenchmark {
+
+    private static final String SALT = "ChangeMe";
+    private static final String PEPPER = "benchmark-pepper";
+    private static final String REFRESH_TOKEN = "r".repeat(128);
+
+    @Param({"jwt", "opaque"})
+    public String tokenShape;
+
+    private String token;
+
+    /**
+     * Selects the token for the current token shape.
+     */
+    @Setup
+    public void setUp() {
+        token = "jwt".equals(tokenShape) ? DUMMY_TOKEN : REFRESH_TOKEN;
+    }
+
+    /**
+     * Hashes with a new MessageDigest per call, as TokenHashingUtil did before the digest pool.
+     *
+     * @return the hashed token
+     * @throws NoSuchAlgorithmException if SHA-256 is not available
+     */
+    @Benchmark
+    public String legacySha256() throws NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        byte[] hash = digest.digest((token + SALT).getBytes(StandardCharsets.UTF_8));
+        return "SHA-256:" + Base64.getEncoder().encodeToString(hash);
+    }
+
+    /**
+     * Hashes with a pooled SHA-256 MessageDigest.
+     *
+     * @return the hashed token
+     */
+    @Benchmark
+    public String pooledSha256() {
+        return TokenHashingUtil.hashToken(token, "SHA-256", SALT);
+    }
+
+    /**
+     * Hashes with a pooled HMAC-SHA256 keyed with the pepper.
+     *
+     * @return the hashed token
+     */
+    @Benchmark
+    public String pooledHmacSha256() {
+        return TokenHashingUtil.hashToken(token, "HmacSHA256", SALT, PEPPER);
+    }
+}
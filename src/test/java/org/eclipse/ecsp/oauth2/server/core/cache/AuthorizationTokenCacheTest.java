@@ -0,0 +1,170 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.oauth2.server.core.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.eclipse.ecsp.oauth2.server.core.metrics.AuthorizationMetricsService;
+import org.eclipse.ecsp.oauth2.server.core.test.TestOauth2Authorizations;
+import org.eclipse.ecsp.sql.multitenancy.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.eclipse.ecsp.oauth2.server.core.common.constants.AuthorizationServerConstants.TENANT_ID_TAG;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * This class tests the functionality of the AuthorizationTokenCache.
+ */
+class AuthorizationTokenCacheTest {
+
+    private static final String TENANT = "ecsp";
+    private static final String HASHED_TOKEN = "SHA-256:hashed";
+    private static final long MAX_SIZE = 100;
+    private static final long EXPIRE_SECONDS = 60;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AuthorizationTokenCache cache;
+    private AtomicInteger loads;
+    private OAuth2Authorization authorization;
+
+    @BeforeEach
+    void setUp() {
+        TenantContext.setCurrentTenant(TENANT);
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new AuthorizationTokenCache(new AuthorizationMetricsService(meterRegistry), true, MAX_SIZE,
+            EXPIRE_SECONDS);
+        loads = new AtomicInteger();
+        authorization = TestOauth2Authorizations.authorization().build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    void getLoadsOnceAndServesSubsequentLookupsFromCache() {
+        OAuth2Authorization first = cache.get(HASHED_TOKEN, OAuth2TokenType.ACCESS_TOKEN, this::load);
+        OAuth2Authorization second = cache.get(HASHED_TOKEN, OAuth2TokenType.ACCESS_TOKEN, this::load);
+
+        assertSame(authorization, first);
+        assertSame(authorization, second);
+        assertEquals(1, loads.get());
+        assertEquals(1, counter("authorization.token.cache.hit").count());
+        assertEquals(1, counter("authorization.token.cache.miss").count());
+    }
+
+    @Test
+    void getKeepsTokenTypesApart() {
+        cache.get(HASHED_TOKEN, OAuth2TokenType.ACCESS_TOKEN, this::load);
+        cache.get(HASHED_TOKEN, OAuth2TokenType.REFRESH_TOKEN, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void getDoesNotCacheMissingAuthorization() {
+        assertNull(cache.get(HASHED_TOKEN, null, () -> {
+            loads.incrementAndGet();
+            return null;
+        }));
+        cache.get(HASHED_TOKEN, null, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void evictRemovesEveryLookupOfTheAuthorization() {
+        cache.get(HASHED_TOKEN, OAuth2TokenType.ACCESS_TOKEN, this::load);
+        cache.get(HASHED_TOKEN, null, this::load);
+
+        cache.evict(authorization.getId());
+        cache.get(HASHED_TOKEN, OAuth2TokenType.ACCESS_TOKEN, this::load);
+        cache.get(HASHED_TOKEN, null, this::load);
+
+        final int expectedLoads = 4;
+        assertEquals(expectedLoads, loads.get());
+        Counter evictions = meterRegistry.find("authorization.token.cache.eviction")
+            .tags(TENANT_ID_TAG, TENANT, "cause", "EXPLICIT").counter();
+        assertNotNull(evictions);
+        assertEquals(2, evictions.count());
+    }
+
+    @Test
+    void evictAllRemovesLookupsOfAllGivenAuthorizations() {
+        cache.get(HASHED_TOKEN, OAuth2TokenType.ACCESS_TOKEN, this::load);
+
+        cache.evictAll(List.of(authorization.getId(), "other-id"));
+        cache.get(HASHED_TOKEN, OAuth2TokenType.ACCESS_TOKEN, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void getDoesNotKeepAuthorizationUpdatedWhileLoading() {
+        cache.get(HASHED_TOKEN, OAuth2TokenType.ACCESS_TOKEN, () -> {
+            cache.evict(authorization.getId());
+            return load();
+        });
+        cache.get(HASHED_TOKEN, OAuth2TokenType.ACCESS_TOKEN, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void entriesAreIsolatedPerTenant() {
+        cache.get(HASHED_TOKEN, OAuth2TokenType.ACCESS_TOKEN, this::load);
+
+        TenantContext.setCurrentTenant("sdp");
+        cache.get(HASHED_TOKEN, OAuth2TokenType.ACCESS_TOKEN, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void disabledCacheAlwaysDelegatesToLoader() {
+        AuthorizationTokenCache disabled = AuthorizationTokenCache.disabled();
+
+        disabled.get(HASHED_TOKEN, OAuth2TokenType.ACCESS_TOKEN, this::load);
+        disabled.get(HASHED_TOKEN, OAuth2TokenType.ACCESS_TOKEN, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    private OAuth2Authorization load() {
+        loads.incrementAndGet();
+        return authorization;
+    }
+
+    private Counter counter(String name) {
+        Counter counter = meterRegistry.find(name).tags(TENANT_ID_TAG, TENANT).counter();
+        assertNotNull(counter);
+        return counter;
+    }
+}
@@ -34,6 +34,7 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import static org.eclipse.ecsp.oauth2.server.core.test.TestCommonStaticData.getClient;
 import static org.eclipse.ecsp.oauth2.server.core.test.TestRegisteredClients.registeredClient;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doReturn;
 
@@ -104,4 +105,18 @@ class CacheClientServiceTest {
         assertNotNull(clientCacheDetails);
     }
 
-}
\ No newline at end of file
+    /**
+     * Tests that fetching client details bypasses the cache and marks configured clients as cacheable.
+     */
+    @Test
+    void fetchClientDetails() {
+        RegisteredClientDetails registeredClientDetails = getClient();
+        doReturn(registeredClientDetails).when(authManagementClient).getClientDetails(anyString());
+        doReturn(registeredClient().build()).when(registeredClientMapper).toRegisteredClient(registeredClientDetails);
+        ClientCacheDetails clientCacheDetails = cacheClientService.fetchClientDetails("token-mgmt", "ecsp");
+        assertNotNull(clientCacheDetails);
+        assertTrue(clientCacheDetails.isCache());
+        assertTrue(clientCacheDetails.getFetchedAtMillis() > 0);
+    }
+
+}
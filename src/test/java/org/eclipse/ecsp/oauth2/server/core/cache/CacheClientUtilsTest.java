@@ -19,6 +19,8 @@
 package org.eclipse.ecsp.oauth2.server.core.cache;
 
 import org.eclipse.ecsp.oauth2.server.core.cache.impl.CacheClientServiceImpl;
+import org.eclipse.ecsp.oauth2.server.core.metrics.AuthorizationMetricsService;
+import org.eclipse.ecsp.oauth2.server.core.metrics.MetricType;
 import org.eclipse.ecsp.sql.multitenancy.TenantContext;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -29,9 +31,20 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.eclipse.ecsp.oauth2.server.core.common.constants.AuthorizationServerConstants.TENANT_ID_TAG;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 /**
  * This class tests the functionality of the CacheClientUtils.
@@ -43,9 +56,14 @@ class CacheClientUtilsTest {
     @Autowired
     private CacheClientUtils cacheClientUtils;
 
+    private static final long TIMEOUT_SECONDS = 5;
+
     @MockitoBean
     CacheClientServiceImpl cacheClientService;
 
+    @MockitoBean
+    AuthorizationMetricsService authorizationMetricsService;
+
     /**
      * This method sets up the test environment before each test.
      * It initializes the mocks and sets up tenant context.
@@ -79,4 +97,40 @@ class CacheClientUtilsTest {
         assertNotNull(clientCacheDetails);
     }
 
-}
\ No newline at end of file
+    /**
+     * Tests that a lookup of a client already being looked up for the same tenant joins that lookup.
+     * The first lookup is held until the second one has joined it, then both must share the single result.
+     */
+    @Test
+    void getClientDetailsMergesConcurrentLookups() throws Exception {
+        ClientCacheDetails details = new ClientCacheDetails();
+        CountDownLatch looking = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            looking.countDown();
+            assertTrue(release.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            return details;
+        }).when(cacheClientService).getClientDetailsWithoutSync("token-mgmt", "uidam");
+
+        CompletableFuture<ClientCacheDetails> first = CompletableFuture.supplyAsync(this::lookupInTenant);
+        assertTrue(looking.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        CompletableFuture<ClientCacheDetails> second = CompletableFuture.supplyAsync(this::lookupInTenant);
+        verify(authorizationMetricsService, timeout(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS)))
+            .incrementMetrics(MetricType.CLIENT_LOOKUP_COALESCED, TENANT_ID_TAG, "uidam");
+        release.countDown();
+
+        assertSame(details, first.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertSame(details, second.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        verify(cacheClientService, times(1)).getClientDetailsWithoutSync("token-mgmt", "uidam");
+    }
+
+    private ClientCacheDetails lookupInTenant() {
+        TenantContext.setCurrentTenant("uidam");
+        try {
+            return cacheClientUtils.getClientDetails("token-mgmt");
+        } finally {
+            TenantContext.clear();
+        }
+    }
+
+}
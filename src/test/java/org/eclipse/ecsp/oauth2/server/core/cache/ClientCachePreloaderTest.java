@@ -0,0 +1,88 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.oauth2.server.core.cache;
+
+import org.eclipse.ecsp.oauth2.server.core.service.TenantConfigurationService;
+import org.eclipse.ecsp.sql.multitenancy.TenantContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * This class tests the functionality of the ClientCachePreloader.
+ */
+class ClientCachePreloaderTest {
+
+    private CacheClientService cacheClientService;
+    private TenantConfigurationService tenantConfigurationService;
+
+    @BeforeEach
+    void setUp() {
+        cacheClientService = mock(CacheClientService.class);
+        tenantConfigurationService = mock(TenantConfigurationService.class);
+        when(tenantConfigurationService.getAllTenants()).thenReturn(Set.of("ecsp", "sdp"));
+    }
+
+    @Test
+    void preloadLoadsHotClientsOfAllTenantsWithTheirTenantBound() {
+        when(cacheClientService.getClientDetailsWithoutSync(anyString(), anyString())).thenAnswer(invocation -> {
+            assertEquals(invocation.getArgument(1), TenantContext.getCurrentTenant());
+            return new ClientCacheDetails();
+        });
+
+        preloader(true, "token-mgmt, device-mgmt").preload();
+
+        verify(cacheClientService).getClientDetailsWithoutSync("token-mgmt", "ecsp");
+        verify(cacheClientService).getClientDetailsWithoutSync("device-mgmt", "ecsp");
+        verify(cacheClientService).getClientDetailsWithoutSync("token-mgmt", "sdp");
+        verify(cacheClientService).getClientDetailsWithoutSync("device-mgmt", "sdp");
+    }
+
+    @Test
+    void preloadContinuesAfterFailedClient() {
+        when(cacheClientService.getClientDetailsWithoutSync("token-mgmt", "ecsp"))
+            .thenThrow(new IllegalStateException("down"));
+
+        preloader(true, "token-mgmt,device-mgmt").preload();
+
+        verify(cacheClientService).getClientDetailsWithoutSync("device-mgmt", "ecsp");
+    }
+
+    @Test
+    void preloadDoesNothingWhenDisabledOrAllClientsAreCached() {
+        preloader(false, "token-mgmt").preload();
+        preloader(true, "ALL").preload();
+
+        verifyNoInteractions(cacheClientService);
+        verify(tenantConfigurationService, never()).getAllTenants();
+    }
+
+    private ClientCachePreloader preloader(boolean enabled, String cacheClientIds) {
+        return new ClientCachePreloader(cacheClientService, tenantConfigurationService, enabled, cacheClientIds);
+    }
+}
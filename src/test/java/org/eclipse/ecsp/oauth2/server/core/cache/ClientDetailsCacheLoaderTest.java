@@ -0,0 +1,126 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.oauth2.server.core.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.eclipse.ecsp.oauth2.server.core.metrics.AuthorizationMetricsService;
+import org.eclipse.ecsp.sql.multitenancy.TenantContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.eclipse.ecsp.oauth2.server.core.common.constants.AuthorizationServerConstants.TENANT_ID_TAG;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * This class tests the functionality of the ClientDetailsCacheLoader.
+ */
+class ClientDetailsCacheLoaderTest {
+
+    private static final String TENANT = "ecsp";
+    private static final String CLIENT_ID = "token-mgmt";
+    private static final String KEY = TENANT + ":" + CLIENT_ID;
+    private static final long STALE_LIMIT_MINS = 60;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CacheClientService cacheClientService;
+    private ClientDetailsCacheLoader loader;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cacheClientService = mock(CacheClientService.class);
+        loader = new ClientDetailsCacheLoader(cacheClientService, new AuthorizationMetricsService(meterRegistry),
+            STALE_LIMIT_MINS);
+    }
+
+    @Test
+    void loadFindsNothing() {
+        assertNull(loader.load(KEY));
+    }
+
+    @Test
+    void reloadFetchesTheClientForTheTenantOfTheKey() {
+        ClientCacheDetails refreshed = clientFetchedAgo(Duration.ZERO);
+        AtomicReference<String> tenantDuringFetch = new AtomicReference<>();
+        when(cacheClientService.fetchClientDetails(CLIENT_ID, TENANT)).thenAnswer(invocation -> {
+            tenantDuringFetch.set(TenantContext.getCurrentTenant());
+            return refreshed;
+        });
+
+        assertSame(refreshed, loader.reload(KEY, clientFetchedAgo(Duration.ofMinutes(1))));
+
+        assertEquals(TENANT, tenantDuringFetch.get());
+        assertFalse(TenantContext.hasTenant());
+        assertEquals(1, counter("client.cache.refresh").count());
+    }
+
+    @Test
+    void reloadKeepsCurrentEntryWhenFetchFails() {
+        ClientCacheDetails current = clientFetchedAgo(Duration.ofMinutes(1));
+        when(cacheClientService.fetchClientDetails(CLIENT_ID, TENANT)).thenThrow(new IllegalStateException("down"));
+
+        assertSame(current, loader.reload(KEY, current));
+
+        assertEquals(1, counter("client.cache.stale.served").count());
+    }
+
+    @Test
+    void reloadKeepsCurrentEntryWhenClientIsNotReturned() {
+        ClientCacheDetails current = clientFetchedAgo(Duration.ofMinutes(1));
+
+        assertSame(current, loader.reload(KEY, current));
+    }
+
+    @Test
+    void reloadRemovesEntryOlderThanStaleLimit() {
+        ClientCacheDetails current = clientFetchedAgo(Duration.ofMinutes(STALE_LIMIT_MINS + 1));
+
+        assertNull(loader.reload(KEY, current));
+    }
+
+    @Test
+    void reloadFetchesWithoutTenantForKeysWithoutTenant() {
+        loader.reload("null:" + CLIENT_ID, null);
+
+        verify(cacheClientService).fetchClientDetails(CLIENT_ID, null);
+    }
+
+    private static ClientCacheDetails clientFetchedAgo(Duration age) {
+        ClientCacheDetails clientCacheDetails = new ClientCacheDetails();
+        clientCacheDetails.setFetchedAtMillis(System.currentTimeMillis() - age.toMillis());
+        return clientCacheDetails;
+    }
+
+    private Counter counter(String name) {
+        Counter counter = meterRegistry.find(name).tags(TENANT_ID_TAG, TENANT).counter();
+        assertNotNull(counter);
+        return counter;
+    }
+}
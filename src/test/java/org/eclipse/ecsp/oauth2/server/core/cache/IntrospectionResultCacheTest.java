@@ -0,0 +1,198 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.oauth2.server.core.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.eclipse.ecsp.oauth2.server.core.cache.IntrospectionResultCache.IntrospectionResult;
+import org.eclipse.ecsp.oauth2.server.core.metrics.AuthorizationMetricsService;
+import org.eclipse.ecsp.sql.multitenancy.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.eclipse.ecsp.oauth2.server.core.common.constants.AuthorizationServerConstants.TENANT_ID_TAG;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * This class tests the functionality of the IntrospectionResultCache.
+ */
+class IntrospectionResultCacheTest {
+
+    private static final String TENANT = "ecsp";
+    private static final String HASHED_TOKEN = "SHA-256:hashed";
+    private static final String AUTHORIZATION_ID = "authorization-id";
+    private static final long MAX_SIZE = 100;
+    private static final long TTL_SECONDS = 60;
+    private static final long NEGATIVE_TTL_SECONDS = 5;
+
+    private SimpleMeterRegistry meterRegistry;
+    private IntrospectionResultCache cache;
+    private AtomicInteger loads;
+    private IntrospectionResult result;
+
+    @BeforeEach
+    void setUp() {
+        TenantContext.setCurrentTenant(TENANT);
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new IntrospectionResultCache(new AuthorizationMetricsService(meterRegistry), true, MAX_SIZE,
+            TTL_SECONDS, NEGATIVE_TTL_SECONDS);
+        loads = new AtomicInteger();
+        result = IntrospectionResult.active(AUTHORIZATION_ID, Set.of("SelfManage"),
+            Instant.now().plusSeconds(TTL_SECONDS * 2));
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    void getLoadsOnceAndServesSubsequentIntrospectionsFromCache() {
+        assertSame(result, cache.get(HASHED_TOKEN, this::load));
+        assertSame(result, cache.get(HASHED_TOKEN, this::load));
+
+        assertEquals(1, loads.get());
+        assertEquals(1, counter("introspection.cache.hit").count());
+        assertEquals(1, counter("introspection.cache.miss").count());
+    }
+
+    @Test
+    void getDoesNotCacheMissingResult() {
+        assertNull(cache.get(HASHED_TOKEN, () -> {
+            loads.incrementAndGet();
+            return null;
+        }));
+        cache.get(HASHED_TOKEN, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void getDoesNotCacheActiveResultOfExpiredToken() {
+        result = IntrospectionResult.active(AUTHORIZATION_ID, Set.of(), Instant.now().minusSeconds(1));
+
+        cache.get(HASHED_TOKEN, this::load);
+        cache.get(HASHED_TOKEN, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void getCachesInactiveResultWhenNegativeCachingIsEnabled() {
+        result = IntrospectionResult.inactive(null);
+
+        cache.get(HASHED_TOKEN, this::load);
+        cache.get(HASHED_TOKEN, this::load);
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void getDoesNotCacheInactiveResultWhenNegativeCachingIsDisabled() {
+        cache = new IntrospectionResultCache(null, true, MAX_SIZE, TTL_SECONDS, 0);
+        result = IntrospectionResult.inactive(null);
+
+        cache.get(HASHED_TOKEN, this::load);
+        cache.get(HASHED_TOKEN, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void evictRemovesResultsOfTheAuthorization() {
+        cache.get(HASHED_TOKEN, this::load);
+
+        cache.evict(AUTHORIZATION_ID);
+        cache.get(HASHED_TOKEN, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void evictAllRemovesResultsOfAllGivenAuthorizations() {
+        cache.get(HASHED_TOKEN, this::load);
+
+        cache.evictAll(List.of(AUTHORIZATION_ID, "other-id"));
+        cache.get(HASHED_TOKEN, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void getDoesNotKeepResultOfAuthorizationRevokedWhileLoading() {
+        cache.get(HASHED_TOKEN, () -> {
+            cache.evict(AUTHORIZATION_ID);
+            return load();
+        });
+        cache.get(HASHED_TOKEN, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void clearAllRemovesAllResults() {
+        cache.get(HASHED_TOKEN, this::load);
+
+        cache.clearAll();
+        cache.get(HASHED_TOKEN, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void entriesAreIsolatedPerTenant() {
+        cache.get(HASHED_TOKEN, this::load);
+
+        TenantContext.setCurrentTenant("sdp");
+        cache.get(HASHED_TOKEN, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void disabledCacheAlwaysDelegatesToLoader() {
+        IntrospectionResultCache disabled = IntrospectionResultCache.disabled();
+
+        disabled.get(HASHED_TOKEN, this::load);
+        disabled.get(HASHED_TOKEN, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    private IntrospectionResult load() {
+        loads.incrementAndGet();
+        return result;
+    }
+
+    private Counter counter(String name) {
+        Counter counter = meterRegistry.find(name).tags(TENANT_ID_TAG, TENANT).counter();
+        assertNotNull(counter);
+        return counter;
+    }
+}
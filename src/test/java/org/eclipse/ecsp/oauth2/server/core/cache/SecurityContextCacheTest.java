@@ -0,0 +1,219 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.oauth2.server.core.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.eclipse.ecsp.oauth2.server.core.cache.SecurityContextCache.CachedSecurityContext;
+import org.eclipse.ecsp.oauth2.server.core.entities.AuthorizationSecurityContext;
+import org.eclipse.ecsp.oauth2.server.core.metrics.AuthorizationMetricsService;
+import org.eclipse.ecsp.oauth2.server.core.repositories.AuthorizationSecurityContextRepository;
+import org.eclipse.ecsp.sql.multitenancy.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.eclipse.ecsp.oauth2.server.core.common.constants.AuthorizationServerConstants.TENANT_ID_TAG;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * This class tests the functionality of the SecurityContextCache.
+ */
+class SecurityContextCacheTest {
+
+    private static final String TENANT = "ecsp";
+    private static final String SESSION_ID = "session-id";
+    private static final long MAX_SIZE = 100;
+    private static final long EXPIRE_SECONDS = 60;
+    private static final long TOUCH_INTERVAL_MS = 60000;
+    private static final long UPDATED_AT = 1_700_000_000_000L;
+    private static final long SHORTLY_AFTER = UPDATED_AT + 1000;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AuthorizationSecurityContextRepository repository;
+    private SecurityContextCache cache;
+    private AtomicInteger loads;
+    private CachedSecurityContext context;
+
+    @BeforeEach
+    void setUp() {
+        TenantContext.setCurrentTenant(TENANT);
+        meterRegistry = new SimpleMeterRegistry();
+        repository = mock(AuthorizationSecurityContextRepository.class);
+        cache = new SecurityContextCache(repository, new AuthorizationMetricsService(meterRegistry), true, MAX_SIZE,
+            EXPIRE_SECONDS, TOUCH_INTERVAL_MS);
+        loads = new AtomicInteger();
+        context = new CachedSecurityContext(entity(), List.of(new SimpleGrantedAuthority("SCOPE_profile")), null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    void getLoadsOnceAndServesSubsequentReadsFromCache() {
+        assertSame(context, cache.get(SESSION_ID, this::load));
+        assertSame(context, cache.get(SESSION_ID, this::load));
+
+        assertEquals(1, loads.get());
+        assertEquals(1, counter("security.context.cache.hit").count());
+        assertEquals(1, counter("security.context.cache.miss").count());
+    }
+
+    @Test
+    void getDoesNotCacheSessionsWithoutAuthenticatedContext() {
+        assertNull(cache.get(SESSION_ID, () -> {
+            loads.incrementAndGet();
+            return null;
+        }));
+        cache.get(SESSION_ID, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void invalidateForcesReload() {
+        cache.get(SESSION_ID, this::load);
+
+        cache.invalidate(SESSION_ID);
+        cache.get(SESSION_ID, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void getDoesNotKeepSessionInvalidatedWhileLoading() {
+        cache.get(SESSION_ID, () -> {
+            cache.invalidate(SESSION_ID);
+            return load();
+        });
+
+        assertNull(cache.getIfPresent(SESSION_ID));
+    }
+
+    @Test
+    void entriesAreIsolatedPerTenant() {
+        cache.get(SESSION_ID, this::load);
+
+        TenantContext.setCurrentTenant("sdp");
+        cache.get(SESSION_ID, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void touchCoalescesUnchangedContextAndFlushWritesIt() {
+        cache.put(SESSION_ID, context);
+
+        assertTrue(cache.touch(SESSION_ID, context.toEntity(), new Timestamp(SHORTLY_AFTER)));
+        assertEquals(SHORTLY_AFTER, context.getUpdatedAt());
+        verify(repository, never()).touchUpdatedDate(anyString(), any());
+
+        cache.flushTouches();
+
+        verify(repository).touchUpdatedDate(SESSION_ID, new Timestamp(SHORTLY_AFTER));
+    }
+
+    @Test
+    void touchRejectsChangedContext() {
+        cache.put(SESSION_ID, context);
+        AuthorizationSecurityContext changed = context.toEntity();
+        changed.setAuthorities("SCOPE_profile,SCOPE_openid");
+
+        assertFalse(cache.touch(SESSION_ID, changed, new Timestamp(SHORTLY_AFTER)));
+    }
+
+    @Test
+    void touchRejectsContextFromAnotherIpAddress() {
+        cache.put(SESSION_ID, context);
+        AuthorizationSecurityContext changed = context.toEntity();
+        changed.setRemoteIpAddress("10.0.0.2");
+
+        assertFalse(cache.touch(SESSION_ID, changed, new Timestamp(SHORTLY_AFTER)));
+    }
+
+    @Test
+    void touchRejectsContextNotWrittenForTouchInterval() {
+        cache.put(SESSION_ID, context);
+
+        assertFalse(cache.touch(SESSION_ID, context.toEntity(), new Timestamp(UPDATED_AT + TOUCH_INTERVAL_MS)));
+    }
+
+    @Test
+    void invalidateDropsPendingTouch() {
+        cache.put(SESSION_ID, context);
+        cache.touch(SESSION_ID, context.toEntity(), new Timestamp(SHORTLY_AFTER));
+
+        cache.invalidate(SESSION_ID);
+        cache.flushTouches();
+
+        verify(repository, never()).touchUpdatedDate(anyString(), any());
+    }
+
+    @Test
+    void disabledCacheAlwaysDelegatesToLoader() {
+        SecurityContextCache disabled = SecurityContextCache.disabled();
+
+        disabled.get(SESSION_ID, this::load);
+        disabled.get(SESSION_ID, this::load);
+
+        assertEquals(2, loads.get());
+        assertNull(disabled.getIfPresent(SESSION_ID));
+        assertFalse(disabled.touch(SESSION_ID, context.toEntity(), new Timestamp(SHORTLY_AFTER)));
+    }
+
+    private CachedSecurityContext load() {
+        loads.incrementAndGet();
+        return context;
+    }
+
+    private static AuthorizationSecurityContext entity() {
+        AuthorizationSecurityContext entity = new AuthorizationSecurityContext();
+        entity.setSessionId(SESSION_ID);
+        entity.setPrincipal("john");
+        entity.setAccountName("ignite");
+        entity.setAuthorities("SCOPE_profile");
+        entity.setRemoteIpAddress("10.0.0.1");
+        entity.setAuthenticated(Boolean.TRUE);
+        entity.setUpdatedDate(new Timestamp(UPDATED_AT));
+        return entity;
+    }
+
+    private Counter counter(String name) {
+        Counter counter = meterRegistry.find(name).tags(TENANT_ID_TAG, TENANT).counter();
+        assertNotNull(counter);
+        return counter;
+    }
+}
@@ -0,0 +1,113 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.oauth2.server.core.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * This class tests the functionality of the SingleFlight.
+ */
+class SingleFlightTest {
+
+    private static final String KEY = "ecsp:token-mgmt";
+    private static final long TIMEOUT_SECONDS = 5;
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicInteger joins = new AtomicInteger();
+
+    @Test
+    void concurrentCallsForTheSameKeyShareOneCall() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> singleFlight.execute(KEY, () -> {
+            running.countDown();
+            await(release);
+            return call();
+        }, joins::incrementAndGet));
+        assertTrue(running.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        CompletableFuture<String> follower = CompletableFuture.supplyAsync(
+            () -> singleFlight.execute(KEY, this::call, joins::incrementAndGet));
+        while (joins.get() == 0) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        assertEquals("result", leader.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals("result", follower.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void failureIsSharedWithJoinedCallers() throws Exception {
+        IllegalStateException failure = new IllegalStateException("down");
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> singleFlight.execute(KEY, () -> {
+            running.countDown();
+            await(release);
+            throw failure;
+        }, joins::incrementAndGet));
+        assertTrue(running.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        CompletableFuture<Throwable> follower = CompletableFuture.supplyAsync(() -> assertThrows(
+            IllegalStateException.class, () -> singleFlight.execute(KEY, this::call, joins::incrementAndGet)));
+        while (joins.get() == 0) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        assertSame(failure, follower.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertNotNull(leader.handle((result, e) -> e).get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    void completedCallsAreNotRemembered() {
+        singleFlight.execute(KEY, this::call, joins::incrementAndGet);
+        singleFlight.execute(KEY, this::call, joins::incrementAndGet);
+
+        assertEquals(2, calls.get());
+        assertEquals(0, joins.get());
+    }
+
+    private String call() {
+        calls.incrementAndGet();
+        return "result";
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
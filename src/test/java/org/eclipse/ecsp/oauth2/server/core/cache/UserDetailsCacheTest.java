@@ -0,0 +1,238 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.oauth2.server.core.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.eclipse.ecsp.oauth2.server.core.cache.UserDetailsCache.UserDetailsChangedEvent;
+import org.eclipse.ecsp.oauth2.server.core.metrics.AuthorizationMetricsService;
+import org.eclipse.ecsp.oauth2.server.core.response.UserDetailsResponse;
+import org.eclipse.ecsp.sql.multitenancy.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2Error;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.eclipse.ecsp.oauth2.server.core.common.constants.AuthorizationServerConstants.TENANT_ID_TAG;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * This class tests the functionality of the UserDetailsCache.
+ */
+class UserDetailsCacheTest {
+
+    private static final String TENANT = "ecsp";
+    private static final String USERNAME = "john";
+    private static final String ACCOUNT = "ignite";
+    private static final long MAX_SIZE = 100;
+    private static final long TTL_SECONDS = 30;
+    private static final long TIMEOUT_SECONDS = 5;
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserDetailsCache cache;
+    private AtomicInteger loads;
+    private UserDetailsResponse user;
+
+    @BeforeEach
+    void setUp() {
+        TenantContext.setCurrentTenant(TENANT);
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new UserDetailsCache(new AuthorizationMetricsService(meterRegistry), true, MAX_SIZE, TTL_SECONDS);
+        loads = new AtomicInteger();
+        user = new UserDetailsResponse();
+        user.setUserName(USERNAME);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    void getFetchesOnceAndServesSubsequentLookupsFromCache() {
+        assertSame(user, cache.get(USERNAME, ACCOUNT, this::load));
+        assertSame(user, cache.get(USERNAME, ACCOUNT, this::load));
+
+        assertEquals(1, loads.get());
+        assertEquals(1, counter("user.details.cache.hit").count());
+        assertEquals(1, counter("user.details.cache.miss").count());
+    }
+
+    @Test
+    void loadAlwaysFetchesAndCachesForSubsequentGet() {
+        cache.get(USERNAME, ACCOUNT, this::load);
+        cache.load(USERNAME, ACCOUNT, this::load);
+        cache.get(USERNAME, ACCOUNT, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void entriesAreKeyedByTenantAndAccount() {
+        cache.get(USERNAME, ACCOUNT, this::load);
+        cache.get(USERNAME, null, this::load);
+
+        TenantContext.setCurrentTenant("sdp");
+        cache.get(USERNAME, ACCOUNT, this::load);
+
+        final int expectedLoads = 3;
+        assertEquals(expectedLoads, loads.get());
+    }
+
+    @Test
+    void concurrentLookupsOfTheSameUserShareOneFetch() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<UserDetailsResponse> leader = CompletableFuture.supplyAsync(() -> {
+            TenantContext.setCurrentTenant(TENANT);
+            try {
+                return cache.get(USERNAME, ACCOUNT, () -> {
+                    loading.countDown();
+                    await(release);
+                    return load();
+                });
+            } finally {
+                TenantContext.clear();
+            }
+        });
+        assertTrue(loading.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        CompletableFuture<UserDetailsResponse> follower = CompletableFuture.supplyAsync(() -> {
+            TenantContext.setCurrentTenant(TENANT);
+            try {
+                return cache.load(USERNAME, ACCOUNT, this::load);
+            } finally {
+                TenantContext.clear();
+            }
+        });
+        while (counterOrNull("user.details.cache.coalesced") == null) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        assertSame(user, leader.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertSame(user, follower.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void failedFetchIsRethrownAndNotCached() {
+        OAuth2AuthenticationException notFound = new OAuth2AuthenticationException(new OAuth2Error("USER_NOT_FOUND"));
+
+        assertSame(notFound, assertThrows(OAuth2AuthenticationException.class,
+            () -> cache.get(USERNAME, null, () -> {
+                throw notFound;
+            })));
+        cache.get(USERNAME, null, this::load);
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void evictRemovesTheUserForAllAccounts() {
+        cache.get(USERNAME, ACCOUNT, this::load);
+        cache.get(USERNAME, null, this::load);
+
+        cache.evict(USERNAME);
+        cache.get(USERNAME, ACCOUNT, this::load);
+        cache.get(USERNAME, null, this::load);
+
+        final int expectedLoads = 4;
+        assertEquals(expectedLoads, loads.get());
+    }
+
+    @Test
+    void userDetailsChangedEventEvictsTheUserOfItsTenant() {
+        cache.get(USERNAME, ACCOUNT, this::load);
+
+        cache.onUserDetailsChanged(new UserDetailsChangedEvent("sdp", USERNAME));
+        cache.get(USERNAME, ACCOUNT, this::load);
+        cache.onUserDetailsChanged(new UserDetailsChangedEvent(TENANT, USERNAME));
+        cache.get(USERNAME, ACCOUNT, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void userDetailsChangedEventWithoutUsernameEvictsAllUsersOfItsTenant() {
+        cache.get(USERNAME, ACCOUNT, this::load);
+        cache.get("jane", ACCOUNT, this::load);
+
+        cache.onUserDetailsChanged(UserDetailsChangedEvent.forCurrentTenant(null));
+        cache.get(USERNAME, ACCOUNT, this::load);
+        cache.get("jane", ACCOUNT, this::load);
+
+        final int expectedLoads = 4;
+        assertEquals(expectedLoads, loads.get());
+    }
+
+    @Test
+    void getDoesNotKeepUserChangedWhileFetching() {
+        cache.get(USERNAME, ACCOUNT, () -> {
+            cache.evict(USERNAME);
+            return load();
+        });
+        cache.get(USERNAME, ACCOUNT, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void disabledCacheAlwaysDelegatesToLoader() {
+        UserDetailsCache disabled = UserDetailsCache.disabled();
+
+        disabled.get(USERNAME, ACCOUNT, this::load);
+        disabled.get(USERNAME, ACCOUNT, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    private UserDetailsResponse load() {
+        loads.incrementAndGet();
+        return user;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Counter counterOrNull(String name) {
+        return meterRegistry.find(name).tags(TENANT_ID_TAG, TENANT).counter();
+    }
+
+    private Counter counter(String name) {
+        Counter counter = counterOrNull(name);
+        assertNotNull(counter);
+        return counter;
+    }
+}
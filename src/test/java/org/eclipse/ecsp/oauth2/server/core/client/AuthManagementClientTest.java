@@ -29,12 +29,14 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.web.reactive.function.client.WebClient;
 
 import java.util.HashMap;
 
 import static org.eclipse.ecsp.oauth2.server.core.common.constants.AuthorizationServerConstants.TENANT_EXTERNAL_URLS_CLIENT_BY_CLIENT_ID_ENDPOINT;
 import static org.eclipse.ecsp.oauth2.server.core.common.constants.AuthorizationServerConstants.TENANT_EXTERNAL_URLS_USER_MANAGEMENT_ENV;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -48,6 +50,9 @@ class AuthManagementClientTest {
     @Mock
     private TenantConfigurationService tenantConfigurationService;
 
+    @Mock
+    private TenantWebClientRegistry webClientRegistry;
+
     private AutoCloseable closeable;
 
     /**
@@ -99,9 +104,12 @@ class AuthManagementClientTest {
         // Set up mock tenant properties with external URLs
         TenantProperties mockTenantProperties = createMockTenantProperties();
         when(tenantConfigurationService.getTenantProperties()).thenReturn(mockTenantProperties);
+        when(webClientRegistry.getUserManagementClient(mockTenantProperties))
+            .thenReturn(WebClient.create("http://localhost:8081"));
         
         RegisteredClientDetails rc = authManagementClient.getClientDetails("testClient");
         assertNull(rc);
+        verify(webClientRegistry).getUserManagementClient(mockTenantProperties);
     }
 
     /**
@@ -0,0 +1,182 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.oauth2.server.core.client;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.eclipse.ecsp.oauth2.server.core.client.DownstreamCallExecutor.ExecutionMode;
+import org.eclipse.ecsp.sql.multitenancy.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * This class tests the functionality of the DownstreamCallExecutor.
+ */
+class DownstreamCallExecutorTest {
+
+    private static final String TENANT = "ecsp";
+    private static final String OPERATION = "user_details";
+    private static final long TIMEOUT_MS = 5000;
+    private static final long SHORT_TIMEOUT_MS = 50;
+
+    private SimpleMeterRegistry meterRegistry;
+    private DownstreamCallExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        TenantContext.setCurrentTenant(TENANT);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        TenantContext.clear();
+        if (executor != null) {
+            executor.destroy();
+        }
+    }
+
+    @Test
+    void remainingTimeIsOnlyAvailableWithinDeadline() {
+        executor = executor(ExecutionMode.BLOCKING, TIMEOUT_MS, 1);
+
+        assertNull(DownstreamCallExecutor.remainingTime());
+        Duration remaining = executor.withDeadline(DownstreamCallExecutor::remainingTime);
+
+        assertNotNull(remaining);
+        assertTrue(remaining.compareTo(Duration.ofMillis(TIMEOUT_MS)) <= 0);
+        assertTrue(remaining.compareTo(Duration.ZERO) > 0);
+    }
+
+    @Test
+    void callRunsOnCallingThreadInBlockingMode() {
+        executor = executor(ExecutionMode.BLOCKING, TIMEOUT_MS, 1);
+
+        Thread thread = executor.call(OPERATION, Thread::currentThread);
+
+        assertEquals(Thread.currentThread(), thread);
+    }
+
+    @Test
+    void callPropagatesDeadlineTenantAndLoggingContextToVirtualThread() {
+        executor = executor(ExecutionMode.VIRTUAL_THREADS, TIMEOUT_MS, 1);
+
+        Duration outerRemaining = executor.withDeadline(() -> {
+            Duration callerRemaining = DownstreamCallExecutor.remainingTime();
+            Thread thread = executor.call(OPERATION, () -> {
+                assertTrue(Thread.currentThread().isVirtual());
+                assertEquals(TENANT, TenantContext.getCurrentTenant());
+                assertTrue(DownstreamCallExecutor.remainingTime().compareTo(callerRemaining) <= 0);
+                return Thread.currentThread();
+            });
+            assertNotSame(Thread.currentThread(), thread);
+            return callerRemaining;
+        });
+
+        assertNotNull(outerRemaining);
+    }
+
+    @Test
+    void callFailsOnceDeadlineHasPassed() {
+        executor = executor(ExecutionMode.VIRTUAL_THREADS, SHORT_TIMEOUT_MS, 1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try {
+            assertThrows(OAuth2AuthenticationException.class, () -> executor.call(OPERATION, () -> {
+                await(release);
+                return null;
+            }));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void callRethrowsFailureOfDownstreamCall() {
+        executor = executor(ExecutionMode.VIRTUAL_THREADS, TIMEOUT_MS, 1);
+
+        assertThrows(IllegalArgumentException.class, () -> executor.call(OPERATION, () -> {
+            throw new IllegalArgumentException("failed");
+        }));
+    }
+
+    @Test
+    void inFlightCallsArePublishedAsGauge() {
+        executor = executor(ExecutionMode.BLOCKING, TIMEOUT_MS, 1);
+
+        double inFlightDuringCall = executor.call(OPERATION, () -> inFlight().value());
+
+        assertEquals(1, inFlightDuringCall);
+        assertEquals(0, inFlight().value());
+    }
+
+    @Test
+    void submitRunsTaskInBackgroundAndDropsTasksWhenQueueIsFull() throws InterruptedException {
+        executor = executor(ExecutionMode.VIRTUAL_THREADS, TIMEOUT_MS, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(2);
+        Runnable task = () -> {
+            await(release);
+            done.countDown();
+        };
+
+        try {
+            // One task runs on the single worker, one waits in the queue of capacity one
+            assertTrue(executor.submit(OPERATION, task));
+            assertTrue(executor.submit(OPERATION, task));
+            assertFalse(executor.submit(OPERATION, task));
+        } finally {
+            release.countDown();
+        }
+        assertTrue(done.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+    }
+
+    private DownstreamCallExecutor executor(ExecutionMode mode, long timeoutMs, int queueCapacity) {
+        return new DownstreamCallExecutor(meterRegistry, mode, timeoutMs, queueCapacity, 1);
+    }
+
+    private Gauge inFlight() {
+        Gauge gauge = meterRegistry.find("uidam.downstream.calls.in.flight").tag("operation", OPERATION).gauge();
+        assertNotNull(gauge);
+        return gauge;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,190 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.oauth2.server.core.client;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.eclipse.ecsp.oauth2.server.core.config.tenantproperties.TenantProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.HashMap;
+
+import static org.eclipse.ecsp.oauth2.server.core.common.constants.AuthorizationServerConstants.TENANT_EXTERNAL_URLS_USER_MANAGEMENT_ENV;
+import static org.eclipse.ecsp.oauth2.server.core.common.constants.AuthorizationServerConstants.TENANT_ID_TAG;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * This class tests the functionality of the TenantWebClientRegistry.
+ */
+class TenantWebClientRegistryTest {
+
+    private static final String TENANT = "ecsp";
+    private static final String OTHER_TENANT = "sdp";
+    private static final String BASE_URL = "http://localhost:8081";
+    private static final int MAX_CONNECTIONS = 5;
+    private static final int PENDING_ACQUIRE_MAX_COUNT = 10;
+    private static final long TIMEOUT_MS = 2000;
+    private static final long EVICTION_INTERVAL_MS = 1000;
+    private static final int HTTP_OK = 200;
+    private static final long SHORT_TIMEOUT_MS = 100;
+    private static final long GRACE_PERIOD_WAIT_MS = 1000;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TenantWebClientRegistry registry;
+    private HttpServer server;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        registry = new TenantWebClientRegistry(meterRegistry, MAX_CONNECTIONS, PENDING_ACQUIRE_MAX_COUNT,
+            TIMEOUT_MS, TIMEOUT_MS, TIMEOUT_MS, EVICTION_INTERVAL_MS, (int) TIMEOUT_MS, TIMEOUT_MS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        registry.destroy();
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void getUserManagementClientReusesClientOfTenant() {
+        WebClient first = registry.getUserManagementClient(tenantProperties(TENANT, BASE_URL));
+        WebClient second = registry.getUserManagementClient(tenantProperties(TENANT, BASE_URL));
+
+        assertSame(first, second);
+    }
+
+    @Test
+    void getUserManagementClientKeepsTenantsApart() {
+        WebClient ecsp = registry.getUserManagementClient(tenantProperties(TENANT, BASE_URL));
+        WebClient sdp = registry.getUserManagementClient(tenantProperties(OTHER_TENANT, BASE_URL));
+
+        assertNotSame(ecsp, sdp);
+    }
+
+    @Test
+    void getUserManagementClientRebuildsClientWhenBaseUrlChanges() {
+        WebClient first = registry.getUserManagementClient(tenantProperties(TENANT, BASE_URL));
+        WebClient second = registry.getUserManagementClient(tenantProperties(TENANT, "http://localhost:8082"));
+
+        assertNotSame(first, second);
+    }
+
+    @Test
+    void getUserManagementClientFailsWithoutBaseUrl() {
+        TenantProperties tenantProperties = tenantProperties(TENANT, null);
+
+        assertThrows(IllegalStateException.class, () -> registry.getUserManagementClient(tenantProperties));
+    }
+
+    @Test
+    void evictTenantRebuildsClientsOnNextUse() {
+        WebClient userManagement = registry.getUserManagementClient(tenantProperties(TENANT, BASE_URL));
+        WebClient captcha = registry.getCaptchaClient(TENANT);
+
+        registry.evictTenant(TENANT);
+
+        assertNotSame(userManagement, registry.getUserManagementClient(tenantProperties(TENANT, BASE_URL)));
+        assertNotSame(captcha, registry.getCaptchaClient(TENANT));
+    }
+
+    @Test
+    void evictedClientServesRequestsDuringGracePeriod() throws IOException {
+        String baseUrl = startServer();
+        WebClient evicted = registry.getUserManagementClient(tenantProperties(TENANT, baseUrl));
+
+        registry.evictTenant(TENANT);
+
+        assertEquals(HTTP_OK, evicted.get().uri("/").retrieve().toBodilessEntity().block()
+            .getStatusCode().value());
+    }
+
+    @Test
+    void connectionPoolSizesArePublishedAsGauges() throws IOException {
+        String baseUrl = startServer();
+
+        registry.getUserManagementClient(tenantProperties(TENANT, baseUrl)).get().uri("/")
+            .retrieve().toBodilessEntity().block();
+
+        Gauge maxConnections = meterRegistry.find("uidam.webclient.pool.max.connections")
+            .tag(TENANT_ID_TAG, TENANT).gauge();
+        assertNotNull(maxConnections);
+        assertEquals(MAX_CONNECTIONS, maxConnections.value());
+        assertNotNull(meterRegistry.find("uidam.webclient.pool.active.connections").tag(TENANT_ID_TAG, TENANT)
+            .gauge());
+        assertNotNull(meterRegistry.find("uidam.webclient.pool.pending.acquires").tag(TENANT_ID_TAG, TENANT)
+            .gauge());
+    }
+
+    @Test
+    void gaugesOfRebuiltPoolSurviveDisposalOfEvictedPool() throws IOException, InterruptedException {
+        registry = new TenantWebClientRegistry(meterRegistry, MAX_CONNECTIONS, PENDING_ACQUIRE_MAX_COUNT,
+            SHORT_TIMEOUT_MS, TIMEOUT_MS, TIMEOUT_MS, EVICTION_INTERVAL_MS, (int) SHORT_TIMEOUT_MS, SHORT_TIMEOUT_MS);
+        String baseUrl = startServer();
+        registry.getUserManagementClient(tenantProperties(TENANT, baseUrl)).get().uri("/")
+            .retrieve().toBodilessEntity().block();
+
+        registry.evictTenant(TENANT);
+        registry.getUserManagementClient(tenantProperties(TENANT, baseUrl)).get().uri("/")
+            .retrieve().toBodilessEntity().block();
+        // Lets the evicted pool be disposed and deregister its gauges
+        Thread.sleep(GRACE_PERIOD_WAIT_MS);
+
+        Gauge totalConnections = meterRegistry.find("uidam.webclient.pool.total.connections")
+            .tag(TENANT_ID_TAG, TENANT).gauge();
+        assertNotNull(totalConnections);
+        assertEquals(1, totalConnections.value());
+        assertNotNull(meterRegistry.find("uidam.webclient.pool.max.connections").tag(TENANT_ID_TAG, TENANT)
+            .gauge());
+    }
+
+    private String startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            exchange.sendResponseHeaders(HTTP_OK, -1);
+            exchange.close();
+        });
+        server.start();
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    private static TenantProperties tenantProperties(String tenantId, String baseUrl) {
+        TenantProperties tenantProperties = new TenantProperties();
+        tenantProperties.setTenantId(tenantId);
+        HashMap<String, String> externalUrls = new HashMap<>();
+        if (baseUrl != null) {
+            externalUrls.put(TENANT_EXTERNAL_URLS_USER_MANAGEMENT_ENV, baseUrl);
+        }
+        tenantProperties.setExternalUrls(externalUrls);
+        return tenantProperties;
+    }
+}
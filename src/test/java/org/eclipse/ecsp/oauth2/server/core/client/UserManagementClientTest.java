@@ -18,6 +18,7 @@
 
 package org.eclipse.ecsp.oauth2.server.core.client;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.prometheus.client.CollectorRegistry;
 import jakarta.servlet.http.HttpServletRequest;
 import org.apache.http.HttpStatus;
@@ -261,6 +262,26 @@ class UserManagementClientTest {
         assertEquals("Unable to validate username", thrown.getMessage());
     }
 
+    /**
+     * This method tests the scenario where the deadline of the login has already passed when the user details are
+     * fetched. The test asserts that the request is not sent and the timeout of the downstream call is reported.
+     */
+    @Test
+    void testGetUserDetailsByUsernameAfterDeadline() {
+        when(webClientMock.method(any())).thenReturn(requestBodyUriSpecMock);
+        when(requestBodyUriSpecMock.uri(any(), Optional.ofNullable(any()))).thenReturn(requestBodySpecMock);
+        when(requestBodySpecMock.header(anyString(), any())).thenReturn(requestBodySpecMock);
+        when(requestBodySpecMock.accept(any())).thenReturn(requestBodySpecMock);
+        when(requestBodySpecMock.retrieve()).thenReturn(responseSpecMock);
+        when(responseSpecMock.bodyToMono(UserDetailsResponse.class)).thenReturn(Mono.never());
+        DownstreamCallExecutor executor = new DownstreamCallExecutor(new SimpleMeterRegistry(),
+                DownstreamCallExecutor.ExecutionMode.BLOCKING, 0, 1, 1);
+
+        Exception thrown = assertThrows(OAuth2AuthenticationException.class, () -> executor.withDeadline(
+                () -> userManagementClient.getUserDetailsByUsername("testUser", "testAccount")));
+        assertEquals("user_details timed out", thrown.getMessage());
+    }
+
     /**
      * This method tests the scenario where the addUserEvent method is successful. It sets up the necessary parameters
      * and then calls the addUserEvent method. The test asserts that the returned string is not null.
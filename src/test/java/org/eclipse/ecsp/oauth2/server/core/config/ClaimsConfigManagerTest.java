@@ -21,6 +21,7 @@ package org.eclipse.ecsp.oauth2.server.core.config;
 import org.eclipse.ecsp.oauth2.server.core.authentication.tokens.CustomUserPwdAuthenticationToken;
 import org.eclipse.ecsp.oauth2.server.core.cache.CacheClientUtils;
 import org.eclipse.ecsp.oauth2.server.core.cache.ClientCacheDetails;
+import org.eclipse.ecsp.oauth2.server.core.cache.UserDetailsCache;
 import org.eclipse.ecsp.oauth2.server.core.client.AuthManagementClient;
 import org.eclipse.ecsp.oauth2.server.core.client.UserManagementClient;
 import org.eclipse.ecsp.oauth2.server.core.common.CustomOauth2TokenGenErrorCodes;
@@ -41,6 +42,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
 import org.springframework.security.oauth2.core.AuthorizationGrantType;
@@ -110,6 +112,9 @@ class ClaimsConfigManagerTest {
     @Mock
     private AuthorizationMetricsService authorizationMetricsService;
 
+    @Spy
+    private UserDetailsCache userDetailsCache = UserDetailsCache.disabled();
+
     @InjectMocks
     private ClaimsConfigManager claimsConfigManager;
 
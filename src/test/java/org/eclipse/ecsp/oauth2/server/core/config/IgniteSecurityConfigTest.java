@@ -27,6 +27,8 @@ import org.eclipse.ecsp.oauth2.server.core.authentication.handlers.CustomAuthCod
 import org.eclipse.ecsp.oauth2.server.core.authentication.handlers.FederatedIdentityAuthenticationSuccessHandler;
 import org.eclipse.ecsp.oauth2.server.core.authentication.providers.CustomUserPwdAuthenticationProvider;
 import org.eclipse.ecsp.oauth2.server.core.authentication.validator.CustomScopeValidator;
+import org.eclipse.ecsp.oauth2.server.core.cache.SecurityContextCache;
+import org.eclipse.ecsp.oauth2.server.core.client.TenantWebClientRegistry;
 import org.eclipse.ecsp.oauth2.server.core.repositories.AuthorizationRequestRepository;
 import org.eclipse.ecsp.oauth2.server.core.repositories.AuthorizationSecurityContextRepository;
 import org.eclipse.ecsp.oauth2.server.core.service.DatabaseSecurityContextRepository;
@@ -119,7 +121,8 @@ class IgniteSecurityConfigTest {
                 authorizationMetricsService,
                 mock(AuditLogger.class),
                 new org.eclipse.ecsp.oauth2.server.core.authentication
-                        .CustomWebAuthenticationDetailsSource());
+                        .CustomWebAuthenticationDetailsSource(),
+                mock(TenantWebClientRegistry.class));
         
         // Set required field values using ReflectionTestUtils
         ReflectionTestUtils.setField(config, "sessionTimeout", "1800");
@@ -264,7 +267,7 @@ class IgniteSecurityConfigTest {
     void testCreateDatabaseSecurityContextRepository() {
         // This method tests the bean creation logic by calling the configuration method
         DatabaseSecurityContextRepository repository = config.createDatabaseSecurityContextRepository(
-                authorizationSecurityContextRepository);
+                authorizationSecurityContextRepository, SecurityContextCache.disabled());
 
         // Assert
         assertNotNull(repository);
@@ -39,6 +39,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import static org.eclipse.ecsp.oauth2.server.core.common.constants.AuthorizationServerConstants.TENANT_JWT_KEY_ID;
+import static org.eclipse.ecsp.oauth2.server.core.common.constants.AuthorizationServerConstants.TENANT_KEYSTORE_NEXT_ALIAS;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -186,4 +187,16 @@ class KeyStoreConfigByJavaKeyStoreTest {
             assertEquals(tenantId + "-null", result.getKeyID());
         }
     }
+
+    @Test
+    void testGenerateNextRsaKeyWithoutNextKeyIdThrowsException() {
+        // Arrange - a next key alias is configured, but no key ID for the next key
+        HashMap<String, String> keyStoreConfig = new HashMap<>();
+        keyStoreConfig.put(TENANT_KEYSTORE_NEXT_ALIAS, "next-alias");
+        when(tenantConfigurationService.getTenantProperties()).thenReturn(tenantProperties);
+        when(tenantProperties.getKeyStore()).thenReturn(keyStoreConfig);
+
+        // Act & Assert
+        assertThrows(KeyGenerationException.class, () -> this.keyStoreConfig.generateNextRsaKey());
+    }
 }
@@ -19,6 +19,7 @@
 package org.eclipse.ecsp.oauth2.server.core.config;
 
 import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
 import com.nimbusds.jose.jwk.JWKSelector;
 import com.nimbusds.jose.jwk.RSAKey;
 import com.nimbusds.jose.jwk.source.JWKSource;
@@ -32,12 +33,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.security.KeyPairGenerator;
 import java.security.interfaces.RSAPrivateKey;
 import java.security.interfaces.RSAPublicKey;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 
+import static org.eclipse.ecsp.oauth2.server.core.common.constants.AuthorizationServerConstants.TENANT_JWT_NEXT_KEY_ACTIVATION;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
@@ -57,6 +63,11 @@ class TenantAwareJwkSourceTest {
     private static final int EXPECTED_SINGLE_RESULT = 1;
     private static final int EXPECTED_CALL_COUNT_ONCE = 1;
     private static final int EXPECTED_CALL_COUNT_TWICE = 2;
+    private static final int KEY_SIZE = 2048;
+    private static final String ACTIVE_KEY_ID = "active-key";
+    private static final String NEXT_KEY_ID = "next-key";
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+    private static final Instant ACTIVATION = Instant.parse("2026-01-01T00:01:00Z");
 
     @Mock
     private TenantConfigurationService tenantConfigurationService;
@@ -322,4 +333,93 @@ class TenantAwareJwkSourceTest {
         // Assert
         assertTrue(tenantAwareJwkSource instanceof JWKSource);
     }
+
+    @Test
+    void testGet_WithKeyIdSelector_ShouldFindKeyInKeyRing() throws Exception {
+        // Arrange
+        RSAKey activeKey = rsaKey(ACTIVE_KEY_ID);
+        RSAKey nextKey = rsaKey(NEXT_KEY_ID);
+        mockPubPvtKeys(activeKey, nextKey, null);
+        JWKSelector selector = new JWKSelector(new JWKMatcher.Builder().keyID(NEXT_KEY_ID).build());
+
+        // Act
+        List<JWK> result = tenantAwareJwkSource.get(selector, securityContext);
+
+        // Assert
+        assertEquals(List.of(nextKey), result);
+    }
+
+    @Test
+    void testSelectSigningKey_ShouldPickActiveKey() throws Exception {
+        // Arrange
+        RSAKey activeKey = rsaKey(ACTIVE_KEY_ID);
+        RSAKey nextKey = rsaKey(NEXT_KEY_ID);
+        mockPubPvtKeys(activeKey, nextKey, null);
+
+        // Act & Assert
+        assertSame(activeKey, tenantAwareJwkSource.selectSigningKey(List.of(nextKey, activeKey)));
+    }
+
+    @Test
+    void testRefreshCurrentTenantKeyRing_WhenNextKeyIsDue_ShouldPromoteAndNotifyListeners() throws Exception {
+        // Arrange
+        RSAKey activeKey = rsaKey(ACTIVE_KEY_ID);
+        RSAKey nextKey = rsaKey(NEXT_KEY_ID);
+        mockPubPvtKeys(activeKey, nextKey, ACTIVATION.toString());
+        TenantAwareJwkSource.CacheInvalidationListener listener =
+            mock(TenantAwareJwkSource.CacheInvalidationListener.class);
+        tenantAwareJwkSource.addCacheInvalidationListener(listener);
+        tenantAwareJwkSource.refreshCurrentTenantKeyRing(NOW);
+
+        // Act
+        tenantAwareJwkSource.refreshCurrentTenantKeyRing(ACTIVATION);
+
+        // Assert
+        TenantKeyRing keyRing = tenantAwareJwkSource.getCurrentTenantKeyRing();
+        assertSame(nextKey, keyRing.getActiveKey());
+        assertSame(activeKey, keyRing.findByKeyId(ACTIVE_KEY_ID));
+        verify(listener, times(EXPECTED_CALL_COUNT_ONCE)).tenantCleared("test-tenant");
+    }
+
+    @Test
+    void testClearCacheForTenant_ShouldKeepRetiredKeys() throws Exception {
+        // Arrange
+        // Reloading after a clear uses the current time, so the rotation must lie within the retention period
+        Instant now = Instant.now();
+        Instant activation = now.plusSeconds(1);
+        RSAKey activeKey = rsaKey(ACTIVE_KEY_ID);
+        RSAKey nextKey = rsaKey(NEXT_KEY_ID);
+        mockPubPvtKeys(activeKey, nextKey, activation.toString());
+        tenantAwareJwkSource.refreshCurrentTenantKeyRing(now);
+        tenantAwareJwkSource.refreshCurrentTenantKeyRing(activation);
+
+        // Act
+        tenantAwareJwkSource.clearCacheForTenant("test-tenant");
+        TenantKeyRing afterTenantCleared = tenantAwareJwkSource.getCurrentTenantKeyRing();
+        tenantAwareJwkSource.clearAllCache();
+        TenantKeyRing afterAllCleared = tenantAwareJwkSource.getCurrentTenantKeyRing();
+
+        // Assert
+        assertSame(activeKey, afterTenantCleared.findByKeyId(ACTIVE_KEY_ID));
+        assertSame(activeKey, afterAllCleared.findByKeyId(ACTIVE_KEY_ID));
+        assertSame(nextKey, afterAllCleared.getActiveKey());
+        final int loads = 4;
+        verify(keyStoreConfigByPubPvtKey, times(loads)).generateRsaKey();
+    }
+
+    private void mockPubPvtKeys(RSAKey activeKey, RSAKey nextKey, String nextKeyActivation) throws Exception {
+        when(tenantConfigurationService.getTenantProperties()).thenReturn(tenantProperties);
+        when(tenantProperties.getTenantName()).thenReturn("test-tenant");
+        when(tenantProperties.getJksEnabled()).thenReturn(false);
+        when(tenantProperties.getCert()).thenReturn(nextKeyActivation != null
+            ? Map.of(TENANT_JWT_NEXT_KEY_ACTIVATION, nextKeyActivation) : Map.of());
+        when(keyStoreConfigByPubPvtKey.generateRsaKey()).thenReturn(activeKey);
+        when(keyStoreConfigByPubPvtKey.generateNextRsaKey()).thenReturn(nextKey);
+    }
+
+    private static RSAKey rsaKey(String keyId) throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(KEY_SIZE);
+        return new RSAKey.Builder((RSAPublicKey) generator.generateKeyPair().getPublic()).keyID(keyId).build();
+    }
 }
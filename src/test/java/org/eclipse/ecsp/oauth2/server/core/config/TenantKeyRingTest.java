@@ -0,0 +1,149 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.oauth2.server.core.config;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.RSAKey;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * This class tests the functionality of the TenantKeyRing.
+ */
+class TenantKeyRingTest {
+
+    private static final int KEY_SIZE = 2048;
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+    private static final Duration RETENTION = Duration.ofHours(1);
+    private static final Duration STEP = Duration.ofMinutes(1);
+
+    private static RSAKey keyA;
+    private static RSAKey keyB;
+    private static RSAKey keyC;
+
+    @BeforeAll
+    static void setUpKeys() throws NoSuchAlgorithmException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(KEY_SIZE);
+        RSAPublicKey publicKey = (RSAPublicKey) generator.generateKeyPair().getPublic();
+        keyA = new RSAKey.Builder(publicKey).keyID("key-a").build();
+        keyB = new RSAKey.Builder(publicKey).keyID("key-b").build();
+        keyC = new RSAKey.Builder(publicKey).keyID("key-c").build();
+    }
+
+    @Test
+    void ofPublishesActiveAndNextKeyBeforeActivation() {
+        TenantKeyRing ring = TenantKeyRing.of(keyA, keyB, NOW.plus(STEP), NOW);
+
+        assertSame(keyA, ring.getActiveKey());
+        assertSame(keyB, ring.getNextKey());
+        assertEquals(List.of(keyA, keyB), ring.getPublishedKeys().getKeys());
+        assertSame(keyB, ring.findByKeyId("key-b"));
+        assertNull(ring.findByKeyId("unknown"));
+        assertNull(ring.findByKeyId(null));
+    }
+
+    @Test
+    void ofPromotesNextKeyWhenActivationHasPassed() {
+        TenantKeyRing ring = TenantKeyRing.of(keyA, keyB, NOW, NOW);
+
+        assertSame(keyB, ring.getActiveKey());
+        assertNull(ring.getNextKey());
+        assertEquals(List.<JWK>of(keyB), ring.getPublishedKeys().getKeys());
+        // The configured active key signed tokens until the activation, so it still verifies them
+        assertEquals(List.of(new TenantKeyRing.RetiredKey(keyA, NOW)), ring.getRetiredKeys());
+        assertSame(keyA, ring.findByKeyId("key-a"));
+    }
+
+    @Test
+    void refreshDropsKeyRetiredAtPastActivationAfterRetention() {
+        TenantKeyRing ring = TenantKeyRing.of(keyA, keyB, NOW, NOW.plus(STEP));
+
+        TenantKeyRing refreshed = ring.refresh(keyA, keyB, NOW, NOW.plus(RETENTION), RETENTION);
+
+        assertEquals(0, refreshed.getRetiredKeys().size());
+    }
+
+    @Test
+    void nextKeyWithoutKeyIdIsRejected() throws Exception {
+        RSAKey withoutKeyId = new RSAKey.Builder(keyB.toRSAPublicKey()).build();
+
+        assertThrows(IllegalArgumentException.class, () -> TenantKeyRing.of(keyA, withoutKeyId, null, NOW));
+    }
+
+    @Test
+    void refreshReturnsSameRingWhenNothingChanged() {
+        TenantKeyRing ring = TenantKeyRing.of(keyA, keyB, NOW.plus(STEP), NOW);
+
+        assertSame(ring, ring.refresh(keyA, keyB, NOW.plus(STEP), NOW, RETENTION));
+    }
+
+    @Test
+    void refreshRetiresActiveKeyOnPromotionAndKeepsItResolvable() {
+        TenantKeyRing ring = TenantKeyRing.of(keyA, keyB, NOW.plus(STEP), NOW);
+
+        TenantKeyRing rotated = ring.refresh(keyA, keyB, NOW.plus(STEP), NOW.plus(STEP), RETENTION);
+
+        assertSame(keyB, rotated.getActiveKey());
+        assertNull(rotated.getNextKey());
+        assertEquals(1, rotated.getRetiredKeys().size());
+        assertSame(keyA, rotated.getRetiredKeys().get(0).key());
+        assertSame(keyA, rotated.findByKeyId("key-a"));
+        assertEquals(List.<JWK>of(keyB), rotated.getPublishedKeys().getKeys());
+    }
+
+    @Test
+    void refreshPublishesNewlyConfiguredNextKey() {
+        TenantKeyRing ring = TenantKeyRing.of(keyA, keyB, NOW, NOW);
+
+        // The operator has made the promoted key the active one and configured a new next key
+        TenantKeyRing refreshed = ring.refresh(keyB, keyC, null, NOW.plus(STEP), RETENTION);
+
+        assertSame(keyB, refreshed.getActiveKey());
+        assertSame(keyC, refreshed.getNextKey());
+        assertEquals(List.of(keyB, keyC), refreshed.getPublishedKeys().getKeys());
+        assertEquals(0, refreshed.getRetiredKeys().size());
+    }
+
+    @Test
+    void refreshDropsRetiredKeysAfterRetention() {
+        TenantKeyRing ring = TenantKeyRing.of(keyA, keyB, NOW.plus(STEP), NOW)
+            .refresh(keyA, keyB, NOW.plus(STEP), NOW.plus(STEP), RETENTION);
+
+        TenantKeyRing kept = ring.refresh(keyA, keyB, NOW.plus(STEP), NOW.plus(RETENTION), RETENTION);
+        TenantKeyRing dropped = ring.refresh(keyA, keyB, NOW.plus(STEP), NOW.plus(STEP).plus(RETENTION), RETENTION);
+
+        assertSame(ring, kept);
+        assertEquals(0, dropped.getRetiredKeys().size());
+        assertNull(dropped.findByKeyId("key-a"));
+    }
+}
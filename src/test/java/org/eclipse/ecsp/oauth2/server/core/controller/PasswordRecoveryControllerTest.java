@@ -18,6 +18,7 @@
 
 package org.eclipse.ecsp.oauth2.server.core.controller;
 
+import org.eclipse.ecsp.oauth2.server.core.cache.UserDetailsCache.UserDetailsChangedEvent;
 import org.eclipse.ecsp.oauth2.server.core.client.UserManagementClient;
 import org.eclipse.ecsp.oauth2.server.core.common.UpdatePasswordData;
 import org.eclipse.ecsp.oauth2.server.core.config.tenantproperties.CaptchaProperties;
@@ -38,6 +39,7 @@ import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.servlet.View;
@@ -47,6 +49,7 @@ import java.util.Map;
 import java.util.stream.Stream;
 
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -76,6 +79,9 @@ class PasswordRecoveryControllerTest {
     @Mock
     private UiAttributeUtils uiAttributeUtils;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private PasswordRecoveryController passwordRecoveryController;
 
@@ -297,6 +303,7 @@ class PasswordRecoveryControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(view().name("recovery/password-changed"))
                 .andExpect(model().attributeExists("message"));
+        verify(eventPublisher).publishEvent(new UserDetailsChangedEvent("ecsp", null));
     }
 
     /**
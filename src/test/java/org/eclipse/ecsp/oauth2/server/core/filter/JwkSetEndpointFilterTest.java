@@ -0,0 +1,148 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.oauth2.server.core.filter;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.eclipse.ecsp.oauth2.server.core.config.TenantAwareJwkSource;
+import org.eclipse.ecsp.oauth2.server.core.config.TenantKeyRing;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for JwkSetEndpointFilter.
+ */
+@ExtendWith(MockitoExtension.class)
+class JwkSetEndpointFilterTest {
+
+    private static final int KEY_SIZE = 2048;
+    private static final String JWK_SET_ENDPOINT = "/oauth2/jwks";
+    private static final Duration MAX_AGE = Duration.ofMinutes(5);
+
+    private static TenantKeyRing keyRing;
+
+    @Mock
+    private TenantAwareJwkSource jwkSource;
+
+    @Mock
+    private FilterChain filterChain;
+
+    private JwkSetEndpointFilter filter;
+
+    @BeforeAll
+    static void setUpKeyRing() throws NoSuchAlgorithmException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(KEY_SIZE);
+        KeyPair keyPair = generator.generateKeyPair();
+        RSAKey activeKey = new RSAKey.Builder((RSAPublicKey) keyPair.getPublic())
+            .privateKey((RSAPrivateKey) keyPair.getPrivate()).keyID("active-key").build();
+        keyRing = TenantKeyRing.of(activeKey, null, null, Instant.now());
+    }
+
+    @BeforeEach
+    void setUp() {
+        filter = new JwkSetEndpointFilter(jwkSource, JWK_SET_ENDPOINT, MAX_AGE);
+    }
+
+    @Test
+    void servesPublicKeysWithEtagAndCacheControl() throws Exception {
+        when(jwkSource.getCurrentTenantKeyRing()).thenReturn(keyRing);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/ecsp/oauth2/jwks"), response, filterChain);
+
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertEquals("max-age=300, public", response.getHeader(HttpHeaders.CACHE_CONTROL));
+        assertNotNull(response.getHeader(HttpHeaders.ETAG));
+        JWKSet served = JWKSet.parse(response.getContentAsString());
+        assertEquals("active-key", served.getKeys().get(0).getKeyID());
+        assertFalse(served.getKeys().get(0).isPrivate());
+        verifyNoInteractions(filterChain);
+    }
+
+    @Test
+    void answersMatchingIfNoneMatchWithNotModified() throws Exception {
+        when(jwkSource.getCurrentTenantKeyRing()).thenReturn(keyRing);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", JWK_SET_ENDPOINT);
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"stale\", W/" + keyRing.getPublishedJwkSet().getEtag());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, filterChain);
+
+        assertEquals(HttpServletResponse.SC_NOT_MODIFIED, response.getStatus());
+        assertEquals(keyRing.getPublishedJwkSet().getEtag(), response.getHeader(HttpHeaders.ETAG));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void reusesSerializedDocumentOfKeyRing() {
+        assertSame(keyRing.getPublishedJwkSet(), keyRing.getPublishedJwkSet());
+        assertTrue(keyRing.getPublishedJwkSet().matches("*"));
+        assertFalse(keyRing.getPublishedJwkSet().matches("\"stale\""));
+    }
+
+    @Test
+    void passesOtherRequestsOn() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/ecsp/oauth2/token");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, filterChain);
+
+        verify(filterChain).doFilter(request, response);
+        verifyNoInteractions(jwkSource);
+    }
+
+    @Test
+    void fallsBackToDefaultEndpointWhenKeyRingCannotBeLoaded() throws Exception {
+        when(jwkSource.getCurrentTenantKeyRing()).thenThrow(new IllegalStateException("No tenant properties"));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", JWK_SET_ENDPOINT);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, filterChain);
+
+        verify(filterChain).doFilter(request, response);
+    }
+}
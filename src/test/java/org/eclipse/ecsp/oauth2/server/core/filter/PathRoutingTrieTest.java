@@ -0,0 +1,169 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.oauth2.server.core.filter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test class for PathRoutingTrie.
+ */
+class PathRoutingTrieTest {
+
+    private static final String ECSP = "ecsp";
+    private static final Set<String> MFA_RESERVED = Set.of("oauth2", "login", "mfa", "css", "images", "actuator");
+
+    private static final List<String> URIS = List.of(
+        "", "/", "//", "/ecsp", "/ecsp/", "/ecsp/oauth2/authorize", "/sdp/login", "/demo/custom/page",
+        "/tenant/demo/oauth2/token", "/tenant/", "/tenant//oauth2", "/tenant/ /x", "/api/v1/oauth2/authorize",
+        "/oauth2/authorize", "/login", "/ /oauth2", "/ecs/oauth2", "/ecspx/login", "/mfa/challenge",
+        "/ecsp/mfa/enroll/setup", "/ecsp/.well-known/openid-configuration", "/tenantx/login", "ecsp/oauth2/token",
+        "/logout", "/ecsp/logoutx", "/mfax", "/favicon.ico", "/favicons", "/actuator/health", "/jwks",
+        "/ecsp/oauth2/jwks", "/x/oauth2/tokens", "/.well-known/openid-configuration/ecsp",
+        "/x/mfa/y", "/xmfa/y", "/images2/a.png", "/cs", "/static/app.js");
+
+    private final PathRoutingTrie trie = PathRoutingTrie.build(Set.of(ECSP, "sdp"));
+
+    @Test
+    void classifiesStaticResourcesByFirstSegmentIgnoringCase() {
+        assertEquals(PathRoutingTrie.RouteClass.STATIC, trie.classify("/css/login.css"));
+        assertEquals(PathRoutingTrie.RouteClass.STATIC, trie.classify("/favicon.ico"));
+        assertEquals(PathRoutingTrie.RouteClass.STATIC, trie.classify("/Images/logo.png"));
+        assertEquals(PathRoutingTrie.RouteClass.STATIC, trie.classify("/actuator"));
+        assertEquals(PathRoutingTrie.RouteClass.APPLICATION, trie.classify("/cssx/login.css"));
+        assertEquals(PathRoutingTrie.RouteClass.APPLICATION, trie.classify("/ecsp/css/login.css"));
+        assertEquals(PathRoutingTrie.RouteClass.APPLICATION, trie.classify("/"));
+        assertEquals(PathRoutingTrie.RouteClass.APPLICATION, trie.classify(null));
+    }
+
+    @Test
+    void classifiesWellKnownEndpoints() {
+        assertEquals(PathRoutingTrie.RouteClass.WELL_KNOWN, trie.classify("/.well-known/openid-configuration"));
+        assertEquals(PathRoutingTrie.RouteClass.WELL_KNOWN, trie.classify("/ecsp/.well-known/jwks.json"));
+        assertEquals(PathRoutingTrie.RouteClass.APPLICATION, trie.classify("/ecsp/.well-known"));
+    }
+
+    @Test
+    void resolvesTenantFromWellKnownPostfix() {
+        assertEquals("demo", trie.wellKnownTenant("/.well-known/openid-configuration/demo"));
+        assertEquals("demo", trie.wellKnownTenant("/.well-known/oauth-authorization-server/demo/"));
+        assertEquals("demo", trie.wellKnownTenant("/.well-known/oauth-authorization-server//demo/extra"));
+        assertSame(ECSP, trie.wellKnownTenant("/.well-known/openid-configuration/" + new String("ecsp")));
+        assertNull(trie.wellKnownTenant("/.well-known/oauth-authorization-server"));
+        assertNull(trie.wellKnownTenant("/.well-known/oauth-authorization-server/"));
+        assertNull(trie.wellKnownTenant("/.well-known/jwks/demo"));
+        assertNull(trie.wellKnownTenant(null));
+    }
+
+    @Test
+    void resolvesTenantFromPathPrefix() {
+        assertEquals("demo", trie.pathTenant("/tenant/demo/oauth2/token"));
+        assertEquals(ECSP, trie.pathTenant("/ecsp/oauth2/authorize"));
+        assertEquals("demo", trie.pathTenant("/demo/custom/page"));
+        assertNull(trie.pathTenant("/api/v1/oauth2/authorize"));
+        assertNull(trie.pathTenant("/oauth2/authorize"));
+        assertNull(trie.pathTenant("/"));
+        assertNull(trie.pathTenant(null));
+    }
+
+    @Test
+    void returnsConfiguredTenantInstance() {
+        assertSame(ECSP, trie.pathTenant("/" + new String("ecsp") + "/login"));
+        assertSame(ECSP, trie.mfaTenant("/" + new String("ecsp") + "/oauth2/authorize"));
+    }
+
+    @Test
+    void pathTenantMatchesSplitBasedResolution() {
+        for (String uri : URIS) {
+            assertEquals(splitPathTenant(uri), trie.pathTenant(uri), uri);
+        }
+    }
+
+    @Test
+    void mfaTenantMatchesSplitBasedResolution() {
+        for (String uri : URIS) {
+            assertEquals(splitMfaTenant(uri), trie.mfaTenant(uri), uri);
+        }
+    }
+
+    @Test
+    void mfaPassThroughMatchesPrefixAndContainsChecks() {
+        for (String uri : URIS) {
+            assertEquals(legacyMfaPassThrough(uri), trie.isMfaPassThrough(uri), uri);
+        }
+    }
+
+    @Test
+    void resolvesUnknownTenantsAndTenantsOfRebuiltTrie() {
+        assertEquals("new", trie.pathTenant("/new/login"));
+
+        PathRoutingTrie rebuilt = PathRoutingTrie.build(Set.of("new"));
+
+        assertEquals("new", rebuilt.pathTenant("/new/login"));
+        assertEquals(ECSP, rebuilt.pathTenant("/ecsp/login"));
+        assertTrue(rebuilt.isMfaPassThrough("/new/login"));
+        assertFalse(rebuilt.isMfaPassThrough("/new/oauth2/authorize"));
+    }
+
+    /**
+     * Path tenant resolution as implemented by splitting the URI before the trie was introduced.
+     */
+    private static String splitPathTenant(String path) {
+        String[] parts = path.split("/");
+        if (parts.length >= 3) {
+            if ("tenant".equals(parts[1]) && !parts[2].isBlank()) {
+                return parts[2];
+            }
+            if (PathRoutingTrie.TENANT_AWARE_PATHS.contains(parts[2]) && isValidTenantId(parts[1])) {
+                return parts[1];
+            }
+        }
+        return parts.length > 1 && isValidTenantId(parts[1]) ? parts[1] : null;
+    }
+
+    private static boolean isValidTenantId(String tenantId) {
+        return !tenantId.isBlank() && !PathRoutingTrie.INVALID_TENANT_IDS.contains(tenantId);
+    }
+
+    private static String splitMfaTenant(String uri) {
+        if (uri.startsWith("/")) {
+            String[] parts = uri.split("/");
+            if (parts.length >= 2 && !parts[1].isEmpty() && !MFA_RESERVED.contains(parts[1])) {
+                return parts[1];
+            }
+        }
+        return null;
+    }
+
+    private static boolean legacyMfaPassThrough(String uri) {
+        return uri.startsWith("/mfa") || uri.contains("/mfa/") || uri.startsWith("/css")
+            || uri.startsWith("/images") || uri.startsWith("/actuator") || uri.startsWith("/favicon")
+            || uri.contains("login") || uri.contains("logout") || uri.contains(".well-known")
+            || uri.contains("oauth2/token") || uri.contains("oauth2/jwks");
+    }
+}
@@ -0,0 +1,101 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.oauth2.server.core.filter;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Test class for TenantClaimExtractor.
+ */
+class TenantClaimExtractorTest {
+
+    private static final String CLAIM = "tenantId";
+    private static final long CACHE_SIZE = 16;
+    private static final String HEADER = encode("{\"alg\":\"RS256\",\"typ\":\"JWT\"}");
+
+    private final TenantClaimExtractor extractor = new TenantClaimExtractor(CLAIM, CACHE_SIZE);
+
+    @Test
+    void extractsTopLevelTenantClaim() {
+        assertEquals("sdp", extractor.extract(token("{\"sub\":\"admin\",\"scope\":[\"a\",\"b\"],"
+            + "\"address\":{\"tenantId\":\"nested\"},\"tenantId\":\"sdp\"}")));
+    }
+
+    @Test
+    void extractsNonStringTenantClaimAsText() {
+        assertEquals("42", extractor.extract(token("{\"tenantId\":42}")));
+    }
+
+    @Test
+    void returnsNullWithoutTenantClaim() {
+        assertNull(extractor.extract(token("{\"sub\":\"admin\",\"address\":{\"tenantId\":\"nested\"}}")));
+        assertNull(extractor.extract(token("{\"tenantId\":null}")));
+        assertNull(extractor.extract(token("{\"tenantId\":{\"id\":\"sdp\"}}")));
+    }
+
+    @Test
+    void returnsNullForMalformedTokens() {
+        assertNull(extractor.extract("header.payload"));
+        assertNull(extractor.extract("a.b.c.d"));
+        assertNull(extractor.extract("header.invalid-base64-!!!.signature"));
+        assertNull(extractor.extract(HEADER + "." + encode("not json") + ".sig"));
+        assertNull(extractor.extract(HEADER + "." + encode("[\"tenantId\",\"sdp\"]") + ".sig"));
+    }
+
+    @Test
+    void acceptsPaddedPayload() {
+        String payload = Base64.getUrlEncoder()
+            .encodeToString("{\"tenantId\":\"ab\"}".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("ab", extractor.extract(HEADER + "." + payload + ".sig"));
+    }
+
+    @Test
+    void repeatedTokensAreResolvedConsistently() {
+        String payload = "{\"tenantId\":\"ecsp\"}";
+
+        assertEquals("ecsp", extractor.extract(token(payload)));
+        assertEquals("ecsp", extractor.extract(HEADER + "." + encode(payload) + ".other-signature"));
+        assertNull(extractor.extract(token("{\"sub\":\"admin\"}")));
+        assertNull(extractor.extract(token("{\"sub\":\"admin\"}")));
+    }
+
+    @Test
+    void worksWithoutCache() {
+        TenantClaimExtractor uncached = new TenantClaimExtractor(CLAIM, 0);
+
+        assertEquals("ecsp", uncached.extract(token("{\"tenantId\":\"ecsp\"}")));
+        assertNull(uncached.extract(token("{}")));
+    }
+
+    private static String token(String payloadJson) {
+        return HEADER + "." + encode(payloadJson) + "." + encode("signature");
+    }
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,235 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.oauth2.server.core.job;
+
+import org.eclipse.ecsp.oauth2.server.core.job.AuthorizationPartitionMaintenance.Bucket;
+import org.eclipse.ecsp.oauth2.server.core.job.AuthorizationPartitionMaintenance.Partition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.StatementCallback;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * This class tests the functionality of the AuthorizationPartitionMaintenance.
+ */
+class AuthorizationPartitionMaintenanceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.parse("2026-01-10T13:45:00");
+    private static final LocalDateTime TODAY = LocalDateTime.parse("2026-01-10T00:00:00");
+    private static final LocalDateTime LEGACY_END = LocalDateTime.parse("2026-02-01T00:00:00");
+    private static final LocalDateTime FIRST_BOUND = LocalDateTime.parse("2020-01-02T00:00:00");
+    private static final String SCHEMA = "uidam";
+
+    private JdbcTemplate jdbcTemplate;
+    private AuthorizationPartitionMaintenance maintenance;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        maintenance = new AuthorizationPartitionMaintenance(mock(DataSource.class));
+        ReflectionTestUtils.setField(maintenance, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(maintenance, "intervalDays", 1);
+        ReflectionTestUtils.setField(maintenance, "premakeDays", 1);
+        ReflectionTestUtils.setField(maintenance, "defaultSchema", SCHEMA);
+    }
+
+    @Test
+    void upperBoundParsesRangeAndDefaultPartitionBounds() {
+        assertEquals(LEGACY_END,
+            AuthorizationPartitionMaintenance.upperBound("FOR VALUES FROM (MINVALUE) TO ('2026-02-01 00:00:00')"));
+        assertNull(AuthorizationPartitionMaintenance.upperBound("DEFAULT"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void maintainPartitionsCreatesLaterBucketsAfterFailedOne() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), eq(SCHEMA), eq("authorization")))
+            .thenReturn(true);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(SCHEMA), eq("authorization")))
+            .thenReturn(List.of());
+        ReflectionTestUtils.setField(maintenance, "premakeDays", 2);
+        doThrow(new DataIntegrityViolationException("rows in default partition")).doNothing()
+            .when(jdbcTemplate).execute(startsWith("CREATE TABLE"));
+
+        maintenance.maintainPartitions("ecsp", Instant.now());
+
+        verify(jdbcTemplate, times(2)).execute(startsWith("CREATE TABLE"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void maintainPartitionsMovesRowsOfNewBucketOutOfDefaultPartition() throws SQLException {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), eq(SCHEMA), eq("authorization")))
+            .thenReturn(true);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(SCHEMA), eq("authorization")))
+            .thenReturn(List.of(new Partition("authorization_default", null, null)));
+        when(jdbcTemplate.queryForObject(startsWith("SELECT EXISTS (SELECT 1 FROM uidam.\"authorization_default\""),
+            eq(Boolean.class), any(), any())).thenReturn(true);
+
+        maintenance.maintainPartitions("ecsp", Instant.now());
+
+        verify(jdbcTemplate, never()).execute(startsWith("CREATE TABLE"));
+        ArgumentCaptor<ConnectionCallback<Void>> callback = ArgumentCaptor.forClass(ConnectionCallback.class);
+        verify(jdbcTemplate).execute(callback.capture());
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        when(connection.createStatement()).thenReturn(statement);
+        when(connection.getAutoCommit()).thenReturn(true);
+        callback.getValue().doInConnection(connection);
+        InOrder order = inOrder(connection, statement);
+        order.verify(connection).setAutoCommit(false);
+        order.verify(statement).execute(startsWith("CREATE TABLE uidam.\"authorization_p"));
+        order.verify(statement).execute(startsWith("WITH moved AS (DELETE FROM uidam.\"authorization_default\""));
+        order.verify(statement).execute(startsWith("ALTER TABLE uidam.\"authorization\" ATTACH PARTITION"));
+        order.verify(connection).commit();
+    }
+
+    @Test
+    void maintainPartitionsBuildsAndAttachesMissingPartitionIndexes() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), eq(SCHEMA), eq("authorization")))
+            .thenReturn(true);
+        when(jdbcTemplate.queryForList(anyString(), eq(SCHEMA), eq("authorization"))).thenReturn(List.of(Map.of(
+            "parent_index", "idx_authorization_part_active_sessions",
+            "definition", "CREATE INDEX idx_authorization_part_active_sessions ON ONLY uidam.\"authorization\" "
+                + "USING btree (lower((principal_name)::text)) WHERE (access_token_invalidated = false)",
+            "partition", "authorization_p20260110")));
+
+        maintenance.maintainPartitions("ecsp", Instant.now());
+
+        InOrder order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).execute(
+            "DROP INDEX CONCURRENTLY IF EXISTS uidam.\"authorization_p20260110_active_sessions\"");
+        order.verify(jdbcTemplate).execute("CREATE INDEX CONCURRENTLY \"authorization_p20260110_active_sessions\" "
+            + "ON uidam.\"authorization_p20260110\" USING btree (lower((principal_name)::text)) "
+            + "WHERE (access_token_invalidated = false)");
+        order.verify(jdbcTemplate).execute("ALTER INDEX uidam.\"idx_authorization_part_active_sessions\" "
+            + "ATTACH PARTITION uidam.\"authorization_p20260110_active_sessions\"");
+    }
+
+    @Test
+    void partitionIndexNameStaysWithinIdentifierLimit() {
+        final int maxIdentifierLength = 63;
+        assertEquals("authorization_p20260110_active_client_tokens", AuthorizationPartitionMaintenance
+            .partitionIndexName("authorization_p20260110", "idx_authorization_part_active_client_tokens"));
+        assertEquals(maxIdentifierLength, AuthorizationPartitionMaintenance.partitionIndexName("authorization_legacy",
+            "idx_an_index_whose_name_is_far_too_long_to_be_prefixed_by_the_partition").length());
+    }
+
+    @Test
+    void lowerBoundParsesRangeBoundsAndMinValue() {
+        assertEquals(TODAY,
+            AuthorizationPartitionMaintenance.lowerBound("FOR VALUES FROM ('2026-01-10 00:00:00') TO (MAXVALUE)"));
+        assertNull(AuthorizationPartitionMaintenance.lowerBound("FOR VALUES FROM (MINVALUE) TO ('2026-02-01')"));
+        assertNull(AuthorizationPartitionMaintenance.lowerBound("DEFAULT"));
+    }
+
+    @Test
+    void missingBucketsContinueAfterLastPartition() {
+        List<Partition> partitions = List.of(new Partition("authorization_default", null, null),
+            new Partition("authorization_legacy", null, TODAY.plusDays(1)));
+
+        assertEquals(List.of(new Bucket(TODAY.plusDays(1), TODAY.plusDays(2))),
+            AuthorizationPartitionMaintenance.missingBuckets(partitions, NOW, 1, 2));
+    }
+
+    @Test
+    void missingBucketsSkipGapsInThePast() {
+        List<Partition> partitions = List.of(new Partition("authorization_p20260101", null, TODAY.minusDays(2)));
+
+        assertEquals(List.of(new Bucket(TODAY, TODAY.plusDays(1))),
+            AuthorizationPartitionMaintenance.missingBuckets(partitions, NOW, 1, 1));
+        assertEquals(List.of(new Bucket(TODAY, TODAY.plusDays(1))),
+            AuthorizationPartitionMaintenance.missingBuckets(List.of(), NOW, 1, 1));
+    }
+
+    @Test
+    void missingBucketsFillGapsBetweenPartitions() {
+        final int premakeDays = 4;
+        List<Partition> partitions = List.of(new Partition("authorization_legacy", null, TODAY.plusDays(1)),
+            new Partition("authorization_p20260113", TODAY.plusDays(3), TODAY.plusDays(premakeDays)));
+
+        assertEquals(List.of(new Bucket(TODAY.plusDays(1), TODAY.plusDays(3))),
+            AuthorizationPartitionMaintenance.missingBuckets(partitions, NOW, premakeDays, premakeDays));
+    }
+
+    @Test
+    void expiredPartitionsNeverIncludeDefaultPartition() {
+        Partition expired = new Partition("authorization_p20260108", TODAY.minusDays(2), TODAY.minusDays(1));
+        List<Partition> partitions = List.of(new Partition("authorization_default", null, null), expired,
+            new Partition("authorization_legacy", null, LEGACY_END));
+
+        assertEquals(List.of(expired), AuthorizationPartitionMaintenance.expiredPartitions(partitions, TODAY));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void maintainPartitionsDropsExpiredPartitions() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), eq(SCHEMA), eq("authorization")))
+            .thenReturn(true);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(SCHEMA), eq("authorization")))
+            .thenReturn(List.of(new Partition("authorization_p20200101", null, FIRST_BOUND),
+                new Partition("authorization_p20200102", FIRST_BOUND, LocalDateTime.parse("2999-01-02T00:00:00"))));
+
+        assertEquals(1, maintenance.maintainPartitions("ecsp", Instant.now()));
+
+        verify(jdbcTemplate).execute(any(StatementCallback.class));
+        // The last partition covers the premake horizon, so none is created
+        verify(jdbcTemplate, never()).execute(startsWith("CREATE TABLE"));
+    }
+
+    @Test
+    void maintainPartitionsSkipsTablesThatAreNotPartitioned() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), eq(SCHEMA), eq("authorization")))
+            .thenReturn(false);
+
+        assertEquals(0, maintenance.maintainPartitions("ecsp", Instant.now()));
+
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+}
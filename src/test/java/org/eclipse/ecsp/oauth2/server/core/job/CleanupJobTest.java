@@ -18,24 +18,38 @@
 
 package org.eclipse.ecsp.oauth2.server.core.job;
 
+import org.eclipse.ecsp.oauth2.server.core.entities.CleanupJobAudit;
+import org.eclipse.ecsp.oauth2.server.core.repositories.AuthorizationExpiry;
 import org.eclipse.ecsp.oauth2.server.core.repositories.AuthorizationRepository;
 import org.eclipse.ecsp.oauth2.server.core.repositories.CleanupJobAuditRepository;
 import org.eclipse.ecsp.oauth2.server.core.service.TenantConfigurationService;
+import org.eclipse.ecsp.sql.multitenancy.TenantContext;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.util.ReflectionTestUtils;
+
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -52,10 +66,13 @@ class CleanupJobTest {
     private static final int VERIFY_COUNT_ONE = 1;
     private static final int BATCH_SIZE = 100;
     private static final int EXPIRES_BEFORE_DAYS = 7;
+    private static final int TENANT_PARALLELISM = 4;
     private static final long TOKEN_COUNT_FIVE = 5L;
+    private static final long TOKEN_COUNT_FOUR = 4L;
     private static final long TOKEN_COUNT_TWO = 2L;
     private static final long TOKEN_COUNT_ONE = 1L;
     private static final long TOKEN_COUNT_ZERO = 0L;
+    private static final Instant EXPIRED_AT = Instant.parse("2024-01-01T00:00:00Z");
 
     @Mock
     AuthorizationRepository authorizationRepository;
@@ -66,14 +83,21 @@ class CleanupJobTest {
     @Mock
     TenantConfigurationService tenantConfigurationService;
 
+    @Mock
+    AuthorizationPartitionMaintenance partitionMaintenance;
+
+    @Mock
+    RetentionSweeper retentionSweeper;
+
     private CleanupJob cleanupJob;
 
     @BeforeEach
     void setup() {
         cleanupJob = new CleanupJob(authorizationRepository,
-            cleanupJobAuditRepository, tenantConfigurationService);
+            cleanupJobAuditRepository, tenantConfigurationService, partitionMaintenance, retentionSweeper);
         ReflectionTestUtils.setField(cleanupJob, "batchSize", BATCH_SIZE);
         ReflectionTestUtils.setField(cleanupJob, "expiresBeforeInDays", EXPIRES_BEFORE_DAYS);
+        ReflectionTestUtils.setField(cleanupJob, "tenantParallelism", TENANT_PARALLELISM);
     }
 
     @Test
@@ -85,9 +109,11 @@ class CleanupJobTest {
         when(authorizationRepository.countByTokenOrCodeExpiresBefore(any(Instant.class)))
             .thenReturn(TOKEN_COUNT_ONE);
         List<String> ids = List.of("token-id-1");
-        when(authorizationRepository.findByTokenOrCodeExpiresBefore(any(Instant.class), anyInt()))
-            .thenReturn(ids)
+        when(authorizationRepository.findByTokenOrCodeExpiresBefore(any(Instant.class), any(Instant.class),
+            anyString(), anyInt()))
+            .thenReturn(page("token-id-1"))
             .thenReturn(Collections.emptyList());
+        when(authorizationRepository.deleteByIds(any(String[].class))).thenReturn(ids.size());
         when(cleanupJobAuditRepository.save(any()))
             .thenReturn(new org.eclipse.ecsp.oauth2.server.core.entities.CleanupJobAudit());
         
@@ -97,6 +123,112 @@ class CleanupJobTest {
         // Verify the cleanup task was invoked
         verify(tenantConfigurationService, times(VERIFY_COUNT_ONE)).getAllTenants();
         verify(authorizationRepository, times(VERIFY_COUNT_ONE)).count();
+        verify(authorizationRepository).deleteByIds(new String[] {"token-id-1"});
+        verify(retentionSweeper).sweep(eq("ecsp"), any(CleanupThrottle.class));
+    }
+
+    @Test
+    void testTokenCleanupJobPaginatesByLastDeletedId() {
+        ReflectionTestUtils.setField(cleanupJob, "batchSize", 2);
+        when(tenantConfigurationService.getAllTenants()).thenReturn(Set.of("ecsp"));
+        when(authorizationRepository.count()).thenReturn(TOKEN_COUNT_FIVE);
+        when(authorizationRepository.countByTokenOrCodeExpiresBefore(any(Instant.class)))
+            .thenReturn(TOKEN_COUNT_FIVE);
+        when(authorizationRepository.findByTokenOrCodeExpiresBefore(any(Instant.class), any(Instant.class),
+            anyString(), anyInt()))
+            .thenReturn(page("a", "b"))
+            .thenReturn(page("c", "d"))
+            .thenReturn(page("e"));
+        when(authorizationRepository.deleteByIds(any(String[].class)))
+            .thenAnswer(invocation -> ((String[]) invocation.getArgument(0)).length);
+        List<Long> deletedProgress = new ArrayList<>();
+        when(cleanupJobAuditRepository.save(any())).thenAnswer(invocation -> {
+            CleanupJobAudit audit = invocation.getArgument(0);
+            deletedProgress.add(audit.getTotalDeletedRecords());
+            return audit;
+        });
+
+        cleanupJob.executeCleanupTasks();
+
+        InOrder order = inOrder(authorizationRepository);
+        order.verify(authorizationRepository).findByTokenOrCodeExpiresBefore(any(Instant.class), eq(Instant.EPOCH),
+            eq(""), eq(2));
+        order.verify(authorizationRepository).deleteByIds(new String[] {"a", "b"});
+        order.verify(authorizationRepository).findByTokenOrCodeExpiresBefore(any(Instant.class), eq(EXPIRED_AT),
+            eq("b"), eq(2));
+        order.verify(authorizationRepository).deleteByIds(new String[] {"c", "d"});
+        order.verify(authorizationRepository).findByTokenOrCodeExpiresBefore(any(Instant.class), eq(EXPIRED_AT),
+            eq("d"), eq(2));
+        order.verify(authorizationRepository).deleteByIds(new String[] {"e"});
+        assertEquals(List.of(TOKEN_COUNT_ZERO, TOKEN_COUNT_TWO, TOKEN_COUNT_FOUR, TOKEN_COUNT_FIVE, TOKEN_COUNT_FIVE),
+            deletedProgress);
+    }
+
+    @Test
+    void testTokenCleanupJobProcessesTenantsConcurrently() {
+        Set<String> tenants = Set.of("ecsp", "sdp", "demo");
+        when(tenantConfigurationService.getAllTenants()).thenReturn(tenants);
+        Set<String> cleanedTenants = ConcurrentHashMap.newKeySet();
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        when(authorizationRepository.count()).thenAnswer(invocation -> {
+            cleanedTenants.add(TenantContext.getCurrentTenant());
+            threads.add(Thread.currentThread().getName());
+            return TOKEN_COUNT_ZERO;
+        });
+        when(authorizationRepository.countByTokenOrCodeExpiresBefore(any(Instant.class)))
+            .thenReturn(TOKEN_COUNT_ZERO);
+        when(authorizationRepository.findByTokenOrCodeExpiresBefore(any(Instant.class), any(Instant.class),
+            anyString(), anyInt()))
+            .thenReturn(Collections.emptyList());
+
+        cleanupJob.executeCleanupTasks();
+
+        assertEquals(tenants, cleanedTenants);
+        assertTrue(threads.stream().allMatch(name -> name.startsWith("cleanup-job-")));
+        verify(cleanupJobAuditRepository, times(tenants.size() * 2)).save(any());
+    }
+
+    @Test
+    void testTokenCleanupJobBackfillsEffectiveExpiryBeforeDeletingRows() {
+        ReflectionTestUtils.setField(cleanupJob, "batchSize", 2);
+        when(tenantConfigurationService.getAllTenants()).thenReturn(Set.of("ecsp"));
+        when(authorizationRepository.backfillEffectiveExpiresAt(2)).thenReturn(2, 1);
+        when(authorizationRepository.count()).thenReturn(TOKEN_COUNT_ZERO);
+        when(authorizationRepository.countByTokenOrCodeExpiresBefore(any(Instant.class)))
+            .thenReturn(TOKEN_COUNT_ZERO);
+        when(authorizationRepository.findByTokenOrCodeExpiresBefore(any(Instant.class), any(Instant.class),
+            anyString(), anyInt()))
+            .thenReturn(Collections.emptyList());
+
+        cleanupJob.executeCleanupTasks();
+
+        // Rows written without effective expiry by pods of the previous release are found by the cleanup
+        InOrder order = inOrder(authorizationRepository);
+        order.verify(authorizationRepository, times(2)).backfillEffectiveExpiresAt(2);
+        order.verify(authorizationRepository).findByTokenOrCodeExpiresBefore(any(Instant.class),
+            any(Instant.class), anyString(), anyInt());
+    }
+
+    @Test
+    void testTokenCleanupJobMaintainsPartitionsBeforeDeletingRows() {
+        when(tenantConfigurationService.getAllTenants()).thenReturn(Set.of("ecsp"));
+        when(partitionMaintenance.isEnabled()).thenReturn(true);
+        when(partitionMaintenance.maintainPartitions(eq("ecsp"), any(Instant.class)))
+            .thenThrow(new RuntimeException("lock timeout"));
+        when(authorizationRepository.count()).thenReturn(TOKEN_COUNT_ZERO);
+        when(authorizationRepository.countByTokenOrCodeExpiresBefore(any(Instant.class)))
+            .thenReturn(TOKEN_COUNT_ZERO);
+        when(authorizationRepository.findByTokenOrCodeExpiresBefore(any(Instant.class), any(Instant.class),
+            anyString(), anyInt()))
+            .thenReturn(Collections.emptyList());
+
+        cleanupJob.executeCleanupTasks();
+
+        // A failed partition maintenance does not prevent the row-by-row cleanup
+        InOrder order = inOrder(partitionMaintenance, authorizationRepository);
+        order.verify(partitionMaintenance).maintainPartitions(eq("ecsp"), any(Instant.class));
+        order.verify(authorizationRepository).findByTokenOrCodeExpiresBefore(any(Instant.class),
+            any(Instant.class), anyString(), anyInt());
     }
 
     @Test
@@ -107,9 +239,9 @@ class CleanupJobTest {
         when(authorizationRepository.count()).thenReturn(TOKEN_COUNT_ZERO);
         when(authorizationRepository.countByTokenOrCodeExpiresBefore(any(Instant.class)))
             .thenReturn(TOKEN_COUNT_ZERO);
-        List<String> ids = Collections.emptyList();
-        when(authorizationRepository.findByTokenOrCodeExpiresBefore(any(Instant.class), anyInt()))
-            .thenReturn(ids);
+        when(authorizationRepository.findByTokenOrCodeExpiresBefore(any(Instant.class), any(Instant.class),
+            anyString(), anyInt()))
+            .thenReturn(Collections.emptyList());
         when(cleanupJobAuditRepository.save(any()))
             .thenReturn(new org.eclipse.ecsp.oauth2.server.core.entities.CleanupJobAudit());
         
@@ -118,6 +250,7 @@ class CleanupJobTest {
         
         // Verify the cleanup task was invoked
         verify(tenantConfigurationService, times(VERIFY_COUNT_ONE)).getAllTenants();
+        verify(authorizationRepository, never()).deleteByIds(any());
     }
 
     @Test
@@ -128,7 +261,8 @@ class CleanupJobTest {
         when(authorizationRepository.count()).thenReturn(TOKEN_COUNT_ONE);
         when(authorizationRepository.countByTokenOrCodeExpiresBefore(any(Instant.class)))
             .thenReturn(1L);
-        when(authorizationRepository.findByTokenOrCodeExpiresBefore(any(Instant.class), anyInt()))
+        when(authorizationRepository.findByTokenOrCodeExpiresBefore(any(Instant.class), any(Instant.class),
+            anyString(), anyInt()))
             .thenThrow(new RuntimeException("Database error"));
         when(cleanupJobAuditRepository.save(any()))
             .thenReturn(new org.eclipse.ecsp.oauth2.server.core.entities.CleanupJobAudit());
@@ -138,6 +272,8 @@ class CleanupJobTest {
         
         // Verify the cleanup task was attempted
         verify(tenantConfigurationService, times(VERIFY_COUNT_ONE)).getAllTenants();
+        // The state tables are swept even though the token cleanup failed
+        verify(retentionSweeper).sweep(eq("ecsp"), any(CleanupThrottle.class));
     }
 
     @Test
@@ -150,9 +286,11 @@ class CleanupJobTest {
         when(authorizationRepository.countByTokenOrCodeExpiresBefore(any(Instant.class)))
             .thenReturn(TOKEN_COUNT_TWO);
         List<String> ids = List.of("token-1", "token-2");
-        when(authorizationRepository.findByTokenOrCodeExpiresBefore(any(Instant.class), anyInt()))
-            .thenReturn(ids)
+        when(authorizationRepository.findByTokenOrCodeExpiresBefore(any(Instant.class), any(Instant.class),
+            anyString(), anyInt()))
+            .thenReturn(page("token-1", "token-2"))
             .thenReturn(Collections.emptyList());
+        when(authorizationRepository.deleteByIds(any(String[].class))).thenReturn(ids.size());
         when(cleanupJobAuditRepository.save(any()))
             .thenReturn(new org.eclipse.ecsp.oauth2.server.core.entities.CleanupJobAudit());
         
@@ -164,5 +302,7 @@ class CleanupJobTest {
         verify(authorizationRepository, times(VERIFY_COUNT_ONE)).count();
     }
 
+    private static List<AuthorizationExpiry> page(String... ids) {
+        return Arrays.stream(ids).map(id -> new AuthorizationExpiry(id, EXPIRED_AT)).toList();
+    }
 }
-
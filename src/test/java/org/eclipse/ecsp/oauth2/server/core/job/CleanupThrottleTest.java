@@ -0,0 +1,59 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.oauth2.server.core.job;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * This class tests the functionality of the CleanupThrottle.
+ */
+class CleanupThrottleTest {
+
+    private static final long START = 1_000L;
+    private static final long ROWS_PER_SECOND = 1_000L;
+    private static final long HALF_SECOND = TimeUnit.MILLISECONDS.toNanos(500);
+    private static final long ONE_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void pausesUntilDeletedRowsAreWithinBudget() {
+        CleanupThrottle throttle = new CleanupThrottle(ROWS_PER_SECOND, START);
+
+        assertEquals(ONE_SECOND, throttle.pauseNanos(ROWS_PER_SECOND, START));
+        assertEquals(ONE_SECOND + HALF_SECOND, throttle.pauseNanos(ROWS_PER_SECOND, START + HALF_SECOND));
+    }
+
+    @Test
+    void doesNotPauseWhenBudgetIsNotExceeded() {
+        CleanupThrottle throttle = new CleanupThrottle(ROWS_PER_SECOND, START);
+
+        assertEquals(0, throttle.pauseNanos(ROWS_PER_SECOND, START + ONE_SECOND + HALF_SECOND));
+    }
+
+    @Test
+    void doesNotPauseWithoutBudget() {
+        CleanupThrottle throttle = new CleanupThrottle(0, START);
+
+        assertEquals(0, throttle.pauseNanos(ROWS_PER_SECOND, START));
+    }
+}
@@ -0,0 +1,102 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.oauth2.server.core.job;
+
+import org.eclipse.ecsp.oauth2.server.core.config.TenantAwareJwkSource;
+import org.eclipse.ecsp.oauth2.server.core.service.TenantConfigurationService;
+import org.eclipse.ecsp.sql.multitenancy.TenantContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * JWK key rotation job Test.
+ */
+@ExtendWith(MockitoExtension.class)
+class JwkKeyRotationJobTest {
+
+    private static final int TENANT_COUNT = 2;
+
+    @Mock
+    TenantAwareJwkSource jwkSource;
+
+    @Mock
+    TenantConfigurationService tenantConfigurationService;
+
+    private JwkKeyRotationJob job;
+
+    @BeforeEach
+    void setUp() {
+        job = new JwkKeyRotationJob(jwkSource, tenantConfigurationService);
+    }
+
+    @Test
+    void refreshKeyRingsRefreshesEveryTenantInItsContext() {
+        when(tenantConfigurationService.getAllTenants()).thenReturn(new LinkedHashSet<>(List.of("ecsp", "sdp")));
+        List<String> refreshedTenants = new ArrayList<>();
+        doAnswer(invocation -> {
+            refreshedTenants.add(TenantContext.getCurrentTenant());
+            return null;
+        }).when(jwkSource).refreshCurrentTenantKeyRing(any(Instant.class));
+
+        job.refreshKeyRings();
+
+        assertEquals(List.of("ecsp", "sdp"), refreshedTenants);
+    }
+
+    @Test
+    void refreshKeyRingsContinuesWithNextTenantOnFailure() {
+        when(tenantConfigurationService.getAllTenants()).thenReturn(new LinkedHashSet<>(List.of("ecsp", "sdp")));
+        doAnswer(invocation -> {
+            if ("ecsp".equals(TenantContext.getCurrentTenant())) {
+                throw new IllegalStateException("keystore unavailable");
+            }
+            return null;
+        }).when(jwkSource).refreshCurrentTenantKeyRing(any(Instant.class));
+
+        job.refreshKeyRings();
+
+        verify(jwkSource, times(TENANT_COUNT)).refreshCurrentTenantKeyRing(any(Instant.class));
+    }
+
+    @Test
+    void refreshKeyRingsDoesNothingWithoutTenants() {
+        when(tenantConfigurationService.getAllTenants()).thenReturn(null);
+
+        job.refreshKeyRings();
+
+        verify(jwkSource, never()).refreshCurrentTenantKeyRing(any(Instant.class));
+    }
+}
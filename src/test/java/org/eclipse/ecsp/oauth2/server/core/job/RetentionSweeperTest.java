@@ -0,0 +1,140 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.oauth2.server.core.job;
+
+import org.eclipse.ecsp.oauth2.server.core.entities.CleanupJobAudit;
+import org.eclipse.ecsp.oauth2.server.core.repositories.CleanupJobAuditRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * This class tests the functionality of the RetentionSweeper.
+ */
+class RetentionSweeperTest {
+
+    private static final String SCHEMA = "uidam";
+    private static final String TENANT = "ecsp";
+    private static final int BATCH_SIZE = 2;
+    private static final long EXISTING_ROWS = 10L;
+    private static final long DELETED_ROWS = 3L;
+    private static final RetentionPolicy SECURITY_CONTEXT = new RetentionPolicy("authorization_security_context",
+        "ID", "UPDATED_DATE", Duration.ofDays(7));
+    private static final RetentionPolicy MFA_FLOW_STATE = new RetentionPolicy("mfa_flow_state", "USERNAME",
+        "UPDATED_DATE", Duration.ofDays(7));
+    private static final RetentionPolicy DISABLED = new RetentionPolicy("authorization_request", "ID",
+        "CREATED_DATE", Duration.ZERO);
+
+    private JdbcTemplate jdbcTemplate;
+    private CleanupJobAuditRepository cleanupJobAuditRepository;
+    private List<CleanupJobAudit> savedAudits;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        cleanupJobAuditRepository = mock(CleanupJobAuditRepository.class);
+        savedAudits = new ArrayList<>();
+        when(cleanupJobAuditRepository.save(any())).thenAnswer(invocation -> {
+            savedAudits.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(EXISTING_ROWS);
+    }
+
+    @Test
+    void deleteStatementDeletesOldestRowsBeforeThresholdInBatches() {
+        assertEquals("DELETE FROM uidam.mfa_flow_state WHERE USERNAME IN (SELECT USERNAME FROM uidam.mfa_flow_state "
+            + "WHERE UPDATED_DATE < ? ORDER BY UPDATED_DATE LIMIT ?)",
+            RetentionSweeper.deleteStatement("uidam.mfa_flow_state", MFA_FLOW_STATE));
+    }
+
+    @Test
+    void sweepTableDeletesBatchesUntilLastPartialBatchAndAuditsProgress() throws InterruptedException {
+        RetentionSweeper sweeper = sweeper(List.of(SECURITY_CONTEXT));
+        when(jdbcTemplate.update(startsWith("DELETE FROM uidam.authorization_security_context"),
+            any(Timestamp.class), eq(BATCH_SIZE))).thenReturn(2, 1);
+
+        assertEquals(DELETED_ROWS, sweeper.sweepTable(TENANT, SECURITY_CONTEXT, new CleanupThrottle(0)));
+
+        verify(jdbcTemplate, times(2)).update(anyString(), any(Timestamp.class), eq(BATCH_SIZE));
+        CleanupJobAudit audit = savedAudits.get(savedAudits.size() - 1);
+        assertEquals("authorization_security_context", audit.getRecordsTableName());
+        assertEquals(EXISTING_ROWS, audit.getTotalExistingRecords());
+        assertEquals(DELETED_ROWS, audit.getTotalDeletedRecords());
+        assertTrue(audit.isJobCompleted());
+    }
+
+    @Test
+    void sweepSkipsDisabledPoliciesAndContinuesAfterFailingTable() {
+        RetentionSweeper sweeper = sweeper(List.of(DISABLED, SECURITY_CONTEXT, MFA_FLOW_STATE));
+        when(jdbcTemplate.update(startsWith("DELETE FROM uidam.authorization_security_context"),
+            any(Timestamp.class), eq(BATCH_SIZE))).thenThrow(new DataAccessResourceFailureException("down"));
+        when(jdbcTemplate.update(startsWith("DELETE FROM uidam.mfa_flow_state"), any(Timestamp.class),
+            eq(BATCH_SIZE))).thenReturn(0);
+
+        sweeper.sweep(TENANT, new CleanupThrottle(0));
+
+        verify(jdbcTemplate, never()).update(startsWith("DELETE FROM uidam.authorization_request"),
+            any(Timestamp.class), eq(BATCH_SIZE));
+        CleanupJobAudit mfaAudit = savedAudits.get(savedAudits.size() - 1);
+        assertEquals("mfa_flow_state", mfaAudit.getRecordsTableName());
+        assertTrue(mfaAudit.isJobCompleted());
+        assertFalse(savedAudits.stream().filter(audit -> audit.getRecordsTableName()
+            .equals("authorization_security_context")).anyMatch(CleanupJobAudit::isJobCompleted));
+    }
+
+    @Test
+    void retentionPolicyRejectsInvalidIdentifiers() {
+        Duration retention = Duration.ofDays(1);
+        assertThrows(IllegalArgumentException.class,
+            () -> new RetentionPolicy("mfa_flow_state; DROP TABLE x", "USERNAME", "UPDATED_DATE", retention));
+        assertFalse(DISABLED.isEnabled());
+    }
+
+    private RetentionSweeper sweeper(List<RetentionPolicy> policies) {
+        RetentionSweeper sweeper = new RetentionSweeper(mock(DataSource.class), cleanupJobAuditRepository, policies);
+        ReflectionTestUtils.setField(sweeper, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(sweeper, "batchSize", BATCH_SIZE);
+        ReflectionTestUtils.setField(sweeper, "defaultSchema", SCHEMA);
+        return sweeper;
+    }
+}
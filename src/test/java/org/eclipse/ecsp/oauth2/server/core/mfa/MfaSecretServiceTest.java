@@ -20,6 +20,7 @@
 
 package org.eclipse.ecsp.oauth2.server.core.mfa;
 
+import org.eclipse.ecsp.oauth2.server.core.cache.UserDetailsCache.UserDetailsChangedEvent;
 import org.eclipse.ecsp.oauth2.server.core.client.UserManagementClient;
 import org.eclipse.ecsp.oauth2.server.core.response.dto.MfaBackupCodeVerifyResponseDto;
 import org.eclipse.ecsp.oauth2.server.core.response.dto.MfaBackupCodesResponseDto;
@@ -30,6 +31,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.List;
 import java.util.Optional;
@@ -38,7 +40,10 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -56,11 +61,14 @@ class MfaSecretServiceTest {
     @Mock
     private UserManagementClient userManagementClient;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     private MfaSecretService mfaSecretService;
 
     @BeforeEach
     void setUp() {
-        mfaSecretService = new MfaSecretService(userManagementClient);
+        mfaSecretService = new MfaSecretService(userManagementClient, eventPublisher);
     }
 
     // ─────────────── isEnrolled ───────────────────────────────────────────────
@@ -171,6 +179,7 @@ class MfaSecretServiceTest {
         mfaSecretService.activateEnrollment(USERNAME);
 
         verify(userManagementClient).activateMfaEnrollment(USERNAME);
+        verify(eventPublisher).publishEvent(userDetailsChanged());
     }
 
     // ─────────────── getSecret ────────────────────────────────────────────────
@@ -203,6 +212,7 @@ class MfaSecretServiceTest {
         mfaSecretService.revoke(USERNAME);
 
         verify(userManagementClient).revokeMfaEnrollment(USERNAME);
+        verify(eventPublisher).publishEvent(userDetailsChanged());
     }
 
     // ─────────────── sendRecoveryKey ──────────────────────────────────────────
@@ -225,6 +235,7 @@ class MfaSecretServiceTest {
         boolean result = mfaSecretService.verifyRecoveryKeyAndRevoke(USERNAME, RECOVERY_KEY);
 
         assertTrue(result);
+        verify(eventPublisher).publishEvent(userDetailsChanged());
     }
 
     @Test
@@ -234,6 +245,7 @@ class MfaSecretServiceTest {
         boolean result = mfaSecretService.verifyRecoveryKeyAndRevoke(USERNAME, RECOVERY_KEY);
 
         assertFalse(result);
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
     }
 
     // ─────────────── generateBackupCodes ─────────────────────────────────────
@@ -275,4 +287,8 @@ class MfaSecretServiceTest {
         assertNotNull(result);
         assertFalse(result.valid());
     }
+
+    private static UserDetailsChangedEvent userDetailsChanged() {
+        return argThat((UserDetailsChangedEvent event) -> USERNAME.equals(event.username()));
+    }
 }
@@ -21,6 +21,8 @@ package org.eclipse.ecsp.oauth2.server.core.service;
 import org.eclipse.ecsp.audit.enums.AuditEventResult;
 import org.eclipse.ecsp.audit.logger.AuditLogger;
 import org.eclipse.ecsp.oauth2.server.core.authentication.CustomWebAuthenticationDetails;
+import org.eclipse.ecsp.oauth2.server.core.cache.AuthorizationTokenCache;
+import org.eclipse.ecsp.oauth2.server.core.cache.IntrospectionResultCache;
 import org.eclipse.ecsp.oauth2.server.core.entities.Authorization;
 import org.eclipse.ecsp.oauth2.server.core.exception.CustomOauth2AuthorizationException;
 import org.eclipse.ecsp.oauth2.server.core.repositories.AuthorizationRepository;
@@ -437,6 +439,29 @@ class AuthorizationServiceTest {
         assertThat(result).isEqualTo("Token revoked successfully!");
     }
 
+    /**
+     * This test method tests that revoking the tokens of a principal and client evicts the cached introspection
+     * results of the revoked authorizations.
+     */
+    @Test
+    void revokenTokenByPrincipalAndClientIdEvictsIntrospectionResults() {
+        IntrospectionResultCache introspectionResultCache = mock(IntrospectionResultCache.class);
+        authorizationService = new AuthorizationService(
+                authorizationRepository, clientManger, jwtTokenValidator,
+                auditLogger, AuthorizationTokenCache.disabled(), introspectionResultCache);
+        when(this.clientManger.findById(Mockito.anyString())).thenReturn(REGISTERED_CLIENT);
+        Authorization testAuth = createAccTokenAuthorization();
+        testAuth.setPrincipalName("testUser");
+        testAuth.setRegisteredClientId("testClient");
+        testAuth.setAccessTokenExpiresAt(Instant.now().plusSeconds(INT_3600));
+        when(this.authorizationRepository.findByPrincipalNameClientAndValidTokens(eq("testuser"), eq("testClient"),
+                any(Instant.class))).thenReturn(List.of(testAuth));
+
+        this.authorizationService.revokenTokenByPrincipalAndClientId("testUser", "testClient");
+
+        verify(introspectionResultCache).evictAll(List.of(testAuth.getId()));
+    }
+
     /**
      * This test method tests the scenario where no active tokens exist for the given principal and client ID. It sets
      * up the necessary parameters with empty token list and then calls the revokenTokenByPrincipalAndClientId method.
@@ -897,17 +922,14 @@ class AuthorizationServiceTest {
         String token = DUMMY_TOKEN;
         Authorization auth = createAccTokenAuthorization();
         
-        when(authorizationRepository
-                .findByStateOrAuthCodeOrAccessTokenOrRefreshTokenOrOidcIdTokenOrUserCodeOrDeviceCode(
-                        anyString(), anyString()))
+        when(authorizationRepository.findByAccessTokenValue(anyString()))
                 .thenReturn(Optional.of(auth));
         
         OAuth2Authorization result = authorizationService.findByToken(token, null);
         
         assertThat(result).isNotNull();
-        verify(authorizationRepository)
-                .findByStateOrAuthCodeOrAccessTokenOrRefreshTokenOrOidcIdTokenOrUserCodeOrDeviceCode(
-                        eq(token), anyString());
+        verify(authorizationRepository).findByAccessTokenValue(anyString());
+        verify(authorizationRepository, never()).findByState(anyString());
     }
     
     @Test
@@ -2234,5 +2256,51 @@ class AuthorizationServiceTest {
         assertThat(metadata).contains("unknown");
     }
 
+    @Test
+    void saveSetsEffectiveExpiryToLatestTokenExpiry() {
+        authorizationService = new AuthorizationService(
+                authorizationRepository, clientManger, jwtTokenValidator,
+                auditLogger);
+        when(this.clientManger.findById(Mockito.anyString())).thenReturn(REGISTERED_CLIENT);
+        Instant issuedAt = Instant.now();
+        Instant refreshTokenExpiresAt = issuedAt.plusSeconds(INT_7200);
+        OAuth2Authorization authorization = OAuth2Authorization.withRegisteredClient(REGISTERED_CLIENT)
+            .id(ID)
+            .principalName(PRINCIPAL_NAME)
+            .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+            .accessToken(new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, "access-token", issuedAt,
+                issuedAt.plusSeconds(INT_3600)))
+            .refreshToken(new OAuth2RefreshToken("refresh-token", issuedAt, refreshTokenExpiresAt))
+            .build();
+
+        ArgumentCaptor<Authorization> captor = ArgumentCaptor.forClass(Authorization.class);
+        authorizationService.save(authorization);
+
+        verify(authorizationRepository).save(captor.capture());
+        assertThat(captor.getValue().getEffectiveExpiresAt()).isEqualTo(refreshTokenExpiresAt);
+    }
+
+    @Test
+    void saveSetsInvalidatedColumnsFromTokenMetadata() {
+        authorizationService = new AuthorizationService(
+                authorizationRepository, clientManger, jwtTokenValidator,
+                auditLogger);
+        when(this.clientManger.findById(Mockito.anyString())).thenReturn(REGISTERED_CLIENT);
+        Instant issuedAt = Instant.now();
+        OAuth2Authorization authorization = OAuth2Authorization.withRegisteredClient(REGISTERED_CLIENT)
+            .id(ID)
+            .principalName(PRINCIPAL_NAME)
+            .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+            .token(new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, "access-token", issuedAt,
+                issuedAt.plusSeconds(INT_3600)), metadata -> metadata.put("invalidated", true))
+            .refreshToken(new OAuth2RefreshToken("refresh-token", issuedAt, issuedAt.plusSeconds(INT_7200)))
+            .build();
+
+        ArgumentCaptor<Authorization> captor = ArgumentCaptor.forClass(Authorization.class);
+        authorizationService.save(authorization);
 
+        verify(authorizationRepository).save(captor.capture());
+        assertThat(captor.getValue().isAccessTokenInvalidated()).isTrue();
+        assertThat(captor.getValue().isRefreshTokenInvalidated()).isFalse();
+    }
 }
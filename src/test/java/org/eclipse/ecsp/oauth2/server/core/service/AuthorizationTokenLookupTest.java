@@ -0,0 +1,141 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.oauth2.server.core.service;
+
+import org.eclipse.ecsp.oauth2.server.core.entities.Authorization;
+import org.eclipse.ecsp.oauth2.server.core.repositories.AuthorizationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.util.Optional;
+
+import static org.eclipse.ecsp.oauth2.server.core.test.TestConstants.DUMMY_TOKEN;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * This class tests the functionality of the AuthorizationTokenLookup.
+ */
+class AuthorizationTokenLookupTest {
+
+    private static final String HASHED_TOKEN = "SHA-256:hashed";
+    private static final String OPAQUE_TOKEN = "a".repeat(128);
+    private static final String USER_CODE = "BCDF-GHJK";
+    private static final String STATE = "state-value";
+
+    private AuthorizationRepository authorizationRepository;
+    private AuthorizationTokenLookup lookup;
+
+    @BeforeEach
+    void setUp() {
+        authorizationRepository = mock(AuthorizationRepository.class);
+        lookup = new AuthorizationTokenLookup(authorizationRepository);
+    }
+
+    @Test
+    void probeOrderClassifiesTokensByShape() {
+        assertEquals(AuthorizationTokenLookup.JWT_ORDER, AuthorizationTokenLookup.probeOrder(DUMMY_TOKEN));
+        assertEquals(AuthorizationTokenLookup.OPAQUE_ORDER, AuthorizationTokenLookup.probeOrder(OPAQUE_TOKEN));
+        assertEquals(AuthorizationTokenLookup.USER_CODE_ORDER, AuthorizationTokenLookup.probeOrder(USER_CODE));
+        assertEquals(AuthorizationTokenLookup.DEFAULT_ORDER, AuthorizationTokenLookup.probeOrder(STATE));
+        assertEquals(AuthorizationTokenLookup.DEFAULT_ORDER, AuthorizationTokenLookup.probeOrder("eyJnotajwt"));
+    }
+
+    @Test
+    void findStopsAtFirstMatchingColumnUsingHashedValueForHashedColumns() {
+        Authorization authorization = new Authorization();
+        when(authorizationRepository.findByAccessTokenValue(HASHED_TOKEN)).thenReturn(Optional.of(authorization));
+
+        assertSame(authorization, lookup.find(DUMMY_TOKEN, HASHED_TOKEN, null).orElseThrow());
+
+        verify(authorizationRepository).findByAccessTokenValue(HASHED_TOKEN);
+        verifyNoMoreInteractions(authorizationRepository);
+    }
+
+    @Test
+    void findFallsBackToLessLikelyColumns() {
+        Authorization authorization = new Authorization();
+        when(authorizationRepository.findByState(OPAQUE_TOKEN)).thenReturn(Optional.of(authorization));
+
+        assertSame(authorization, lookup.find(OPAQUE_TOKEN, HASHED_TOKEN, null).orElseThrow());
+
+        InOrder order = inOrder(authorizationRepository);
+        order.verify(authorizationRepository).findByRefreshTokenValue(HASHED_TOKEN);
+        order.verify(authorizationRepository).findByAuthorizationCodeValue(OPAQUE_TOKEN);
+        order.verify(authorizationRepository).findByDeviceCodeValue(OPAQUE_TOKEN);
+        order.verify(authorizationRepository).findByState(OPAQUE_TOKEN);
+        verifyNoMoreInteractions(authorizationRepository);
+    }
+
+    @Test
+    void findProbesAllColumnsWhenTokenIsUnknown() {
+        assertFalse(lookup.find(USER_CODE, HASHED_TOKEN, null).isPresent());
+
+        verify(authorizationRepository).findByUserCodeValue(USER_CODE);
+        verify(authorizationRepository).findByState(USER_CODE);
+        verify(authorizationRepository).findByAuthorizationCodeValue(USER_CODE);
+        verify(authorizationRepository).findByDeviceCodeValue(USER_CODE);
+        verify(authorizationRepository).findByRefreshTokenValue(HASHED_TOKEN);
+        verify(authorizationRepository).findByAccessTokenValue(HASHED_TOKEN);
+        verify(authorizationRepository).findByOidcIdTokenValue(HASHED_TOKEN);
+        verifyNoMoreInteractions(authorizationRepository);
+    }
+
+    @Test
+    void findSkipsStateColumnForTokensLongerThanTheColumn() {
+        lookup.find(DUMMY_TOKEN, HASHED_TOKEN, null);
+
+        verify(authorizationRepository, never()).findByState(anyString());
+    }
+
+    @Test
+    void findInLooksUpHashedColumnsByDigestFirst() {
+        byte[] digest = {1, 2, 3};
+        Authorization authorization = new Authorization();
+        when(authorizationRepository.findByRefreshTokenDigest(digest)).thenReturn(Optional.of(authorization));
+
+        assertSame(authorization, lookup.findIn(AuthorizationTokenLookup.TokenColumn.REFRESH_TOKEN, OPAQUE_TOKEN,
+            HASHED_TOKEN, digest).orElseThrow());
+
+        verify(authorizationRepository, never()).findByRefreshTokenValue(anyString());
+    }
+
+    @Test
+    void findInFallsBackToHashedValueForRowsWithoutDigest() {
+        byte[] digest = {1, 2, 3};
+        Authorization authorization = new Authorization();
+        when(authorizationRepository.findByAccessTokenValue(HASHED_TOKEN)).thenReturn(Optional.of(authorization));
+
+        assertSame(authorization, lookup.findIn(AuthorizationTokenLookup.TokenColumn.ACCESS_TOKEN, DUMMY_TOKEN,
+            HASHED_TOKEN, digest).orElseThrow());
+
+        InOrder order = inOrder(authorizationRepository);
+        order.verify(authorizationRepository).findByAccessTokenDigest(digest);
+        order.verify(authorizationRepository).findByAccessTokenValue(HASHED_TOKEN);
+    }
+}
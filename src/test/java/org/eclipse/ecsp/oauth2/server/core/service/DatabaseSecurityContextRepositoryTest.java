@@ -21,6 +21,7 @@ package org.eclipse.ecsp.oauth2.server.core.service;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import lombok.SneakyThrows;
 import org.eclipse.ecsp.oauth2.server.core.authentication.tokens.CustomUserPwdAuthenticationToken;
+import org.eclipse.ecsp.oauth2.server.core.cache.SecurityContextCache;
 import org.eclipse.ecsp.oauth2.server.core.config.tenantproperties.AccountProperties;
 import org.eclipse.ecsp.oauth2.server.core.config.tenantproperties.MultiTenantProperties;
 import org.eclipse.ecsp.oauth2.server.core.config.tenantproperties.TenantProperties;
@@ -65,6 +66,7 @@ import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -78,6 +80,10 @@ import static org.mockito.Mockito.when;
  */
 class DatabaseSecurityContextRepositoryTest {
 
+    private static final long CACHE_MAX_SIZE = 100;
+    private static final long CACHE_EXPIRE_SECONDS = 60;
+    private static final long CACHE_TOUCH_INTERVAL_MS = 60000;
+
     DatabaseSecurityContextRepository databaseSecurityContextRepository;
     @Mock
     AuthorizationSecurityContextRepository authorizationSecurityContextRepository;
@@ -474,4 +480,92 @@ class DatabaseSecurityContextRepositoryTest {
         assertFalse(databaseSecurityContextRepository.containsContext(request));
     }
 
-}
\ No newline at end of file
+    /**
+     * This test method tests that a session context served from the SecurityContextCache is read from the database
+     * only once.
+     */
+    @Test
+    void loadContextWithCacheReadsDatabaseOnce() {
+        databaseSecurityContextRepository = new DatabaseSecurityContextRepository(
+            authorizationSecurityContextRepository, tenantConfigurationService, "5m", enabledCache());
+        findBySessionIdMock(true);
+
+        databaseSecurityContextRepository.loadContext(new HttpRequestResponseHolder(request, response));
+        SecurityContext context = databaseSecurityContextRepository.loadContext(
+            new HttpRequestResponseHolder(request, response));
+
+        assertTrue(context.getAuthentication() instanceof CustomUserPwdAuthenticationToken);
+        verify(authorizationSecurityContextRepository, times(1)).findBySessionId(REQUESTED_SESSION_ID);
+    }
+
+    /**
+     * This test method tests that saving an unchanged context of a cached session does not write the row again.
+     */
+    @Test
+    void saveContextWithCacheCoalescesUnchangedContext() {
+        databaseSecurityContextRepository = new DatabaseSecurityContextRepository(
+            authorizationSecurityContextRepository, tenantConfigurationService, "5m", enabledCache());
+        SecurityContext securityContext = new SecurityContextImpl();
+        securityContext.setAuthentication(CustomUserPwdAuthenticationToken.authenticated(TEST_USER_NAME,
+            TEST_PASSWORD, ACCOUNT_NAME, "10001", Boolean.TRUE, null));
+
+        databaseSecurityContextRepository.saveContext(securityContext, request, response);
+        databaseSecurityContextRepository.saveContext(securityContext, request, response);
+
+        verify(authorizationSecurityContextRepository, times(1)).save(any());
+    }
+
+    /**
+     * This test method tests that unauthenticating a session drops its cached context.
+     */
+    @Test
+    void unauthenticatedContextInDbInvalidatesCache() {
+        SecurityContextCache cache = enabledCache();
+        databaseSecurityContextRepository = new DatabaseSecurityContextRepository(
+            authorizationSecurityContextRepository, tenantConfigurationService, "5m", cache);
+        findBySessionIdMock(true);
+        databaseSecurityContextRepository.loadContext(new HttpRequestResponseHolder(request, response));
+
+        databaseSecurityContextRepository.unauthenticatedContextInDb(REQUESTED_SESSION_ID);
+
+        assertNull(cache.getIfPresent(REQUESTED_SESSION_ID));
+    }
+
+    /**
+     * This test method tests that a parallel request loading the session while it is being unauthenticated does not
+     * leave the authenticated context cached.
+     */
+    @Test
+    void unauthenticatedContextInDbDropsContextCachedByInterleavedLoad() {
+        SecurityContextCache cache = enabledCache();
+        databaseSecurityContextRepository = new DatabaseSecurityContextRepository(
+            authorizationSecurityContextRepository, tenantConfigurationService, "5m", cache);
+        boolean[] interleaved = {false};
+        when(authorizationSecurityContextRepository.findBySessionId(REQUESTED_SESSION_ID)).thenAnswer(invocation -> {
+            if (!interleaved[0]) {
+                interleaved[0] = true;
+                // The parallel request misses the cache and reads the row before the logout has saved it
+                databaseSecurityContextRepository.loadContext(new HttpRequestResponseHolder(request, response));
+            }
+            AuthorizationSecurityContext authorizationSecurityContext = new AuthorizationSecurityContext();
+            authorizationSecurityContext.setPrincipal(TEST_USER_NAME);
+            authorizationSecurityContext.setAuthorities(GRANTED_AUTORITIES);
+            authorizationSecurityContext.setAuthenticated(true);
+            authorizationSecurityContext.setSessionId(REQUESTED_SESSION_ID);
+            Timestamp currentTimestamp = Timestamp.from(Instant.now());
+            authorizationSecurityContext.setCreatedDate(currentTimestamp);
+            authorizationSecurityContext.setUpdatedDate(currentTimestamp);
+            return Optional.of(authorizationSecurityContext);
+        });
+
+        databaseSecurityContextRepository.unauthenticatedContextInDb(REQUESTED_SESSION_ID);
+
+        assertTrue(interleaved[0]);
+        assertNull(cache.getIfPresent(REQUESTED_SESSION_ID));
+    }
+
+    private SecurityContextCache enabledCache() {
+        return new SecurityContextCache(authorizationSecurityContextRepository, null, true, CACHE_MAX_SIZE,
+            CACHE_EXPIRE_SECONDS, CACHE_TOUCH_INTERVAL_MS);
+    }
+}
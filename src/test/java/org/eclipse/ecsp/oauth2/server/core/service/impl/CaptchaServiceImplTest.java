@@ -19,6 +19,7 @@
 package org.eclipse.ecsp.oauth2.server.core.service.impl;
 
 import jakarta.servlet.http.HttpServletRequest;
+import org.eclipse.ecsp.oauth2.server.core.client.TenantWebClientRegistry;
 import org.eclipse.ecsp.oauth2.server.core.config.tenantproperties.CaptchaProperties;
 import org.eclipse.ecsp.oauth2.server.core.config.tenantproperties.TenantProperties;
 import org.eclipse.ecsp.oauth2.server.core.exception.ReCaptchaInvalidException;
@@ -35,6 +36,7 @@ import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientRequestException;
 
 import java.util.stream.Stream;
@@ -43,6 +45,7 @@ import static org.eclipse.ecsp.oauth2.server.core.test.TestConstants.RECAPTCHA_U
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -68,6 +71,9 @@ class CaptchaServiceImplTest {
     @Mock
     private HttpServletRequest httpServletRequest;
 
+    @Mock
+    private TenantWebClientRegistry webClientRegistry;
+
     /**
      * This method sets up the test environment before each test.
      * It initializes the mocks and sets up tenant context.
@@ -92,6 +98,7 @@ class CaptchaServiceImplTest {
         when(tenantConfigurationService.getTenantProperties()).thenReturn(tenantProperties);
         when(tenantProperties.getCaptcha()).thenReturn(mock(CaptchaProperties.class));
         when(tenantProperties.getCaptcha().getRecaptchaVerifyUrl()).thenReturn("verifyUrl");
+        when(webClientRegistry.getCaptchaClient(any())).thenReturn(WebClient.create());
         String recaptchaResponse = "recaptcha";
         assertThrows(WebClientRequestException.class, () -> {
             captchaService.processResponse(recaptchaResponse, httpServletRequest);
@@ -122,6 +129,7 @@ class CaptchaServiceImplTest {
         when(tenantConfigurationService.getTenantProperties()).thenReturn(tenantProperties);
         when(tenantProperties.getCaptcha()).thenReturn(mock(CaptchaProperties.class));
         when(tenantProperties.getCaptcha().getRecaptchaVerifyUrl()).thenReturn(RECAPTCHA_URL);
+        when(webClientRegistry.getCaptchaClient(any())).thenReturn(WebClient.create());
         String recaptchaResponse = "recaptcha";
         assertThrows(ReCaptchaInvalidException.class,
             () -> captchaService.processResponse(recaptchaResponse, httpServletRequest));
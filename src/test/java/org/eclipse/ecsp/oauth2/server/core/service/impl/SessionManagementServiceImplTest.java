@@ -20,8 +20,10 @@ package org.eclipse.ecsp.oauth2.server.core.service.impl;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.jsonwebtoken.Claims;
+import org.eclipse.ecsp.oauth2.server.core.cache.AuthorizationTokenCache;
 import org.eclipse.ecsp.oauth2.server.core.cache.CacheClientService;
 import org.eclipse.ecsp.oauth2.server.core.cache.ClientCacheDetails;
+import org.eclipse.ecsp.oauth2.server.core.cache.IntrospectionResultCache;
 import org.eclipse.ecsp.oauth2.server.core.entities.Authorization;
 import org.eclipse.ecsp.oauth2.server.core.repositories.AuthorizationRepository;
 import org.eclipse.ecsp.oauth2.server.core.response.dto.ActiveSessionsResponseDto;
@@ -37,6 +39,8 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
 
 import java.time.Instant;
 import java.util.Arrays;
@@ -70,6 +74,12 @@ class SessionManagementServiceImplTest {
     
     @Mock
     private JwtTokenValidator jwtTokenValidator;
+
+    @Mock
+    private AuthorizationTokenCache authorizationTokenCache;
+
+    @Mock
+    private IntrospectionResultCache introspectionResultCache;
     
     @Mock
     private Claims claims;
@@ -97,7 +107,9 @@ class SessionManagementServiceImplTest {
                 authorizationRepository, 
                 cacheClientService, 
                 objectMapper,
-                jwtTokenValidator);
+                jwtTokenValidator,
+                authorizationTokenCache,
+                introspectionResultCache);
     }
     
     @Test
@@ -126,9 +138,10 @@ class SessionManagementServiceImplTest {
     
     @Test
     void testGetActiveSessionsForUser_FilterInvalidated() {
-        // Arrange
+        // Arrange - the query filters on the invalidated column, which releases before the column left unset
         Authorization validAuth = createAuthorization(TOKEN_ID_1, USERNAME, CLIENT_ID, false);
         Authorization invalidAuth = createAuthorization(TOKEN_ID_2, USERNAME, CLIENT_ID, true);
+        invalidAuth.setAccessTokenInvalidated(false);
         
         when(authorizationRepository.findActiveSessionsByPrincipalNameAndGrantType(
                 eq(USERNAME), eq("authorization_code"), any(Instant.class)))
@@ -194,8 +207,30 @@ class SessionManagementServiceImplTest {
         assertNull(result.getFailedSessions());
         assertEquals("Sessions invalidated successfully", result.getMessage());
         verify(authorizationRepository, times(1)).save(any(Authorization.class));
+        verify(introspectionResultCache).evict(TOKEN_ID_1);
+        assertTrue(auth.isAccessTokenInvalidated());
     }
     
+    @Test
+    void testInvalidateSessionsForUser_EvictsCachesAgainAfterCommit() {
+        Authorization auth = createAuthorization(TOKEN_ID_1, USERNAME, CLIENT_ID, false);
+        when(authorizationRepository.findById(TOKEN_ID_1)).thenReturn(Optional.of(auth));
+        when(authorizationRepository.save(any(Authorization.class))).thenReturn(auth);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.invalidateSessionsForUser(USERNAME, Collections.singletonList(TOKEN_ID_1), TENANT_ID);
+            verify(authorizationTokenCache, times(1)).evict(TOKEN_ID_1);
+            verify(introspectionResultCache, times(1)).evict(TOKEN_ID_1);
+
+            TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(authorizationTokenCache, times(2)).evict(TOKEN_ID_1);
+        verify(introspectionResultCache, times(2)).evict(TOKEN_ID_1);
+    }
+
     @Test
     void testInvalidateSessionsForUser_SessionNotFound() {
         // Arrange
@@ -968,6 +1003,7 @@ class SessionManagementServiceImplTest {
         auth.setAccessTokenIssuedAt(Instant.now());
         auth.setAccessTokenExpiresAt(Instant.now().plusSeconds(TOKEN_EXPIRY_SECONDS));
         
+        auth.setAccessTokenInvalidated(invalidated);
         if (invalidated) {
             auth.setAccessTokenMetadata("{\"invalidated\":true,\"invalidationReason\":\"Test\"}");
         } else {
@@ -29,12 +29,22 @@ import org.mockito.Mockito;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
@@ -48,6 +58,7 @@ class SessionTenantResolverTest {
     }
 
     private static final Integer INVALID_TENANT_TYPE_VALUE = 123;
+    private static final int CONCURRENT_TASKS = 200;
     
     private MockedStatic<RequestContextHolder> requestContextHolderMock;
     private ServletRequestAttributes mockRequestAttributes;
@@ -432,4 +443,98 @@ class SessionTenantResolverTest {
         // Then
         assertFalse(TenantContext.hasTenant());
     }
+
+    @Test
+    void getCurrentTenant_shouldReturnTenantFromRequestAttribute_withoutSessionAccess() {
+        // Given - ThreadLocal is empty, tenant was stored on the request
+        requestContextHolderMock.when(RequestContextHolder::currentRequestAttributes)
+            .thenReturn(mockRequestAttributes);
+        when(mockRequest.getAttribute("RESOLVED_TENANT_ID")).thenReturn("request-tenant");
+
+        try (var mockStatic = Mockito.mockStatic(TenantContext.class)) {
+            mockStatic.when(TenantContext::getCurrentTenant).thenReturn(null);
+
+            // When
+            String result = SessionTenantResolver.getCurrentTenant();
+
+            // Then
+            assertEquals("request-tenant", result);
+            verify(mockRequest, never()).getSession(anyBoolean());
+        }
+    }
+
+    @Test
+    void setCurrentTenant_shouldStoreTenantInRequest() {
+        // Given
+        requestContextHolderMock.when(RequestContextHolder::currentRequestAttributes)
+            .thenReturn(mockRequestAttributes);
+        when(mockRequest.getSession(true)).thenReturn(mockSession);
+
+        // When
+        SessionTenantResolver.setCurrentTenant("new-tenant");
+
+        // Then
+        verify(mockRequest).setAttribute("RESOLVED_TENANT_ID", "new-tenant");
+    }
+
+    @Test
+    void callWithTenant_shouldBindTenantAndRestorePreviousTenant() {
+        // Given
+        TenantContext.setCurrentTenant("outer-tenant");
+
+        // When
+        String result = SessionTenantResolver.callWithTenant("inner-tenant", SessionTenantResolver::getCurrentTenant);
+
+        // Then
+        assertEquals("inner-tenant", result);
+        assertEquals("outer-tenant", TenantContext.getCurrentTenant());
+    }
+
+    @Test
+    void runWithTenant_shouldResolveScopedTenant_whenThreadLocalIsCleared() {
+        // When
+        SessionTenantResolver.runWithTenant("scoped-tenant", () -> {
+            TenantContext.clear();
+            assertEquals("scoped-tenant", SessionTenantResolver.getCurrentTenant());
+        });
+
+        // Then
+        assertFalse(TenantContext.hasTenant());
+        requestContextHolderMock.verifyNoInteractions();
+    }
+
+    @Test
+    void runWithTenant_shouldThrowExceptionForEmptyTenant() {
+        assertThrows(IllegalArgumentException.class, () -> SessionTenantResolver.runWithTenant(" ", () -> { }));
+    }
+
+    @Test
+    void callWithTenant_shouldKeepTenantsOfConcurrentVirtualThreadsApart() throws Exception {
+        // Given
+        List<Future<String>> results = new ArrayList<>();
+
+        // When
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CONCURRENT_TASKS; i++) {
+                String tenant = "tenant-" + i;
+                results.add(executor.submit(() -> SessionTenantResolver.callWithTenant(tenant, () -> {
+                    TenantContext.clear();
+                    return SessionTenantResolver.getCurrentTenant();
+                })));
+            }
+        }
+
+        // Then
+        for (int i = 0; i < CONCURRENT_TASKS; i++) {
+            assertEquals("tenant-" + i, results.get(i).get());
+        }
+    }
+
+    @Test
+    void resolver_shouldNotSynchronizeOnTheClass() {
+        // Threads with an empty ThreadLocal must not serialize on a JVM-wide monitor
+        for (Method method : SessionTenantResolver.class.getDeclaredMethods()) {
+            assertFalse(Modifier.isSynchronized(method.getModifiers()), method.getName());
+        }
+    }
 }
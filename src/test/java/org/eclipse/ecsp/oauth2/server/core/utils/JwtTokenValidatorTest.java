@@ -25,7 +25,13 @@ import com.nimbusds.jose.jwk.source.JWKSource;
 import com.nimbusds.jose.proc.SecurityContext;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import org.eclipse.ecsp.oauth2.server.core.cache.IntrospectionResultCache;
+import org.eclipse.ecsp.oauth2.server.core.config.KeyStoreConfigByJavaKeyStore;
+import org.eclipse.ecsp.oauth2.server.core.config.KeyStoreConfigByPubPvtKey;
+import org.eclipse.ecsp.oauth2.server.core.config.TenantAwareJwkSource;
+import org.eclipse.ecsp.oauth2.server.core.config.tenantproperties.TenantProperties;
 import org.eclipse.ecsp.oauth2.server.core.repositories.AuthorizationRepository;
+import org.eclipse.ecsp.oauth2.server.core.service.TenantConfigurationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -45,6 +51,10 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -52,6 +62,9 @@ class JwtTokenValidatorTest {
 
     public static final int EXPIRATION_MILLIS = 60000;
     private static final int TOKEN_VALIDITY_SECONDS = 3600;
+    private static final String TENANT_NAME = "ecsp";
+    private static final long INTROSPECTION_CACHE_MAX_SIZE = 100;
+    private static final long INTROSPECTION_CACHE_TTL_SECONDS = 60;
 
     @Mock
     private JWKSource<SecurityContext> jwkSource;
@@ -145,6 +158,7 @@ class JwtTokenValidatorTest {
                 + "\"metadata.token.invalidated\":false,"
                 + "\"invalidated\":true,"
                 + "\"invalidationReason\":\"User requested logout\"}";
+        // Only the metadata flag is set, as by releases before the invalidated column
         authorization.setAccessTokenMetadata(metadata);
         
         when(authorizationRepository.findByAccessTokenValue(any()))
@@ -531,6 +545,108 @@ class JwtTokenValidatorTest {
         assertFalse(result, "Should return false when required scope is missing");
     }
 
+    @Test
+    void testGetClaimsFromToken_ReusesVerifierAcrossCalls() throws Exception {
+        PrivateKey privateKey = KeyStoreLoader.loadPrivateKey("uidamauthserver.jks",
+                "uidam-dev", "uidam-test-pwd", "uidam-test-pwd");
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("scope", REVOKE_TOKEN_SCOPE);
+        String token = createValidToken(claims, EXPIRATION_MILLIS, privateKey);
+
+        assertTrue(jwtTokenValidator.validateToken(token));
+        assertTrue(jwtTokenValidator.validateToken(token));
+
+        verify(jwkSource, times(1)).get(any(JWKSelector.class), any());
+    }
+
+    @Test
+    void testGetClaimsFromToken_DoesNotKeepKeyLoadedWhileVerifierIsEvicted() throws Exception {
+        RSAKey rsaKey = new RSAKey.Builder((RSAPublicKey) this.publicKey).build();
+        boolean[] evicted = {false};
+        doAnswer(invocation -> {
+            if (!evicted[0]) {
+                evicted[0] = true;
+                jwtTokenValidator.evictVerifier("default");
+            }
+            return Collections.singletonList((JWK) rsaKey);
+        }).when(jwkSource).get(any(JWKSelector.class), any());
+        PrivateKey privateKey = KeyStoreLoader.loadPrivateKey("uidamauthserver.jks",
+                "uidam-dev", "uidam-test-pwd", "uidam-test-pwd");
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("scope", REVOKE_TOKEN_SCOPE);
+        String token = createValidToken(claims, EXPIRATION_MILLIS, privateKey);
+
+        assertTrue(jwtTokenValidator.validateToken(token));
+        assertTrue(jwtTokenValidator.validateToken(token));
+        assertTrue(jwtTokenValidator.validateToken(token));
+
+        final int expectedKeyLoads = 2;
+        verify(jwkSource, times(expectedKeyLoads)).get(any(JWKSelector.class), any());
+    }
+
+    @Test
+    void testGetClaimsFromToken_RebuildsVerifierWhenTenantKeysAreCleared() throws Exception {
+        TenantConfigurationService tenantConfigurationService = mock(TenantConfigurationService.class);
+        KeyStoreConfigByPubPvtKey keyStoreConfigByPubPvtKey = mock(KeyStoreConfigByPubPvtKey.class);
+        TenantProperties tenantProperties = new TenantProperties();
+        tenantProperties.setTenantName(TENANT_NAME);
+        when(tenantConfigurationService.getTenantProperties()).thenReturn(tenantProperties);
+        when(keyStoreConfigByPubPvtKey.generateRsaKey())
+                .thenReturn(new RSAKey.Builder((RSAPublicKey) this.publicKey).build());
+        TenantAwareJwkSource tenantAwareJwkSource = new TenantAwareJwkSource(tenantConfigurationService,
+                keyStoreConfigByPubPvtKey, mock(KeyStoreConfigByJavaKeyStore.class));
+        JwtTokenValidator validator = new JwtTokenValidator(tenantAwareJwkSource, authorizationRepository);
+        PrivateKey privateKey = KeyStoreLoader.loadPrivateKey("uidamauthserver.jks",
+                "uidam-dev", "uidam-test-pwd", "uidam-test-pwd");
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("scope", REVOKE_TOKEN_SCOPE);
+        String token = createValidToken(claims, EXPIRATION_MILLIS, privateKey);
+
+        assertTrue(validator.validateToken(token));
+        assertTrue(validator.validateToken(token));
+        verify(keyStoreConfigByPubPvtKey, times(1)).generateRsaKey();
+
+        tenantAwareJwkSource.clearCacheForTenant(TENANT_NAME);
+        assertTrue(validator.validateToken(token));
+        verify(keyStoreConfigByPubPvtKey, times(2)).generateRsaKey();
+
+        tenantAwareJwkSource.clearAllCache();
+        assertTrue(validator.validateToken(token));
+        final int expectedKeyLoads = 3;
+        verify(keyStoreConfigByPubPvtKey, times(expectedKeyLoads)).generateRsaKey();
+    }
+
+    @Test
+    void testIntrospectToken_ServesRepeatedIntrospectionFromCacheUntilRevoked() throws Exception {
+        IntrospectionResultCache introspectionResultCache = new IntrospectionResultCache(null, true,
+                INTROSPECTION_CACHE_MAX_SIZE, INTROSPECTION_CACHE_TTL_SECONDS, INTROSPECTION_CACHE_TTL_SECONDS);
+        JwtTokenValidator validator = new JwtTokenValidator(jwkSource, authorizationRepository,
+                introspectionResultCache);
+        PrivateKey privateKey = KeyStoreLoader.loadPrivateKey("uidamauthserver.jks",
+                "uidam-dev", "uidam-test-pwd", "uidam-test-pwd");
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("scope", "SelfManage ManageUsers");
+        String token = createValidToken(claims, EXPIRATION_MILLIS, privateKey);
+        org.eclipse.ecsp.oauth2.server.core.entities.Authorization authorization =
+                new org.eclipse.ecsp.oauth2.server.core.entities.Authorization();
+        authorization.setId("authorization-id");
+        authorization.setAccessTokenExpiresAt(java.time.Instant.now().plusSeconds(TOKEN_VALIDITY_SECONDS));
+        when(authorizationRepository.findByAccessTokenValue(any()))
+                .thenReturn(java.util.Optional.of(authorization));
+
+        assertTrue(validator.introspectToken(token, "SelfManage"));
+        assertTrue(validator.introspectToken(token, "ManageUsers"));
+        assertFalse(validator.introspectToken(token, "RevokeToken"));
+        verify(authorizationRepository, times(1)).findByAccessTokenValue(any());
+
+        authorization.setAccessTokenMetadata("{\"invalidated\":true}");
+        authorization.setAccessTokenInvalidated(true);
+        introspectionResultCache.evict("authorization-id");
+        assertFalse(validator.introspectToken(token, "SelfManage"));
+        assertFalse(validator.introspectToken(token, "SelfManage"));
+        verify(authorizationRepository, times(2)).findByAccessTokenValue(any());
+    }
+
     public static String createValidToken(Map<String, Object> claims, 
                                            long expirationMillis, PrivateKey privateKey) {
         return Jwts.builder()
@@ -2,11 +2,23 @@ package org.eclipse.ecsp.oauth2.server.core.utils;
 
 import org.junit.jupiter.api.Test;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -20,6 +32,10 @@ class TokenHashingUtilTest {
     private static final String TEST_SALT = "test-salt-123";
     private static final String TEST_ALGORITHM = "SHA-256";
     private static final int HASH_FORMAT_PARTS_COUNT = 2;
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final String TEST_PEPPER = "test-pepper";
+    private static final int LONG_TOKEN_LENGTH = 20000;
+    private static final int CONCURRENT_HASHES = 1000;
 
     @Test
     void testHashToken_WithAllParameters() {
@@ -126,6 +142,75 @@ class TokenHashingUtilTest {
         String[] parts = hash.split(":", HASH_FORMAT_PARTS_COUNT);
         
         // Verify the hash part is valid Base64
-        assertDoesNotThrow(() -> java.util.Base64.getDecoder().decode(parts[1]));
+        assertDoesNotThrow(() -> Base64.getDecoder().decode(parts[1]));
+    }
+
+    @Test
+    void testToDigest_ReturnsRawSha256Digest() {
+        final int sha256Length = 32;
+        String hash = TokenHashingUtil.hashToken(TEST_TOKEN, TEST_ALGORITHM, TEST_SALT);
+
+        byte[] digest = TokenHashingUtil.toDigest(hash);
+
+        assertNotNull(digest);
+        assertEquals(sha256Length, digest.length);
+        assertEquals(hash.split(":", HASH_FORMAT_PARTS_COUNT)[1],
+            Base64.getEncoder().encodeToString(digest));
+    }
+
+    @Test
+    void testToDigest_WithValueNotInHashFormat_ReturnsNull() {
+        assertNull(TokenHashingUtil.toDigest(null));
+        assertNull(TokenHashingUtil.toDigest(TEST_TOKEN));
+        assertNull(TokenHashingUtil.toDigest("SHA-256:not base64!"));
+    }
+
+    @Test
+    void testHashToken_MatchesDigestOfConcatenatedTokenAndSalt() throws Exception {
+        String nonAsciiToken = "t\u00f6ken-\u20ac";
+        for (String token : new String[] {TEST_TOKEN, nonAsciiToken, "x".repeat(LONG_TOKEN_LENGTH)}) {
+            byte[] expected = MessageDigest.getInstance(TEST_ALGORITHM)
+                .digest((token + TEST_SALT).getBytes(StandardCharsets.UTF_8));
+
+            assertEquals(TEST_ALGORITHM + ":" + Base64.getEncoder().encodeToString(expected),
+                TokenHashingUtil.hashToken(token, TEST_ALGORITHM, TEST_SALT));
+        }
+    }
+
+    @Test
+    void testHashToken_WithHmacAlgorithm_UsesPepperAsKey() throws Exception {
+        Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+        mac.init(new SecretKeySpec(TEST_PEPPER.getBytes(StandardCharsets.UTF_8),
+            HMAC_ALGORITHM));
+        byte[] expected = mac.doFinal((TEST_TOKEN + TEST_SALT).getBytes(StandardCharsets.UTF_8));
+
+        String hash = TokenHashingUtil.hashToken(TEST_TOKEN, HMAC_ALGORITHM, TEST_SALT, TEST_PEPPER);
+
+        assertEquals(HMAC_ALGORITHM + ":" + Base64.getEncoder().encodeToString(expected), hash);
+        assertNotEquals(hash, TokenHashingUtil.hashToken(TEST_TOKEN, HMAC_ALGORITHM, TEST_SALT, "other-pepper"));
+    }
+
+    @Test
+    void testHashToken_WithHmacAlgorithmAndNoPepper_ThrowsException() {
+        IllegalStateException exception = assertThrows(
+            IllegalStateException.class,
+            () -> TokenHashingUtil.hashToken(TEST_TOKEN, HMAC_ALGORITHM, TEST_SALT, null)
+        );
+
+        assertTrue(exception.getMessage().contains("pepper"));
+    }
+
+    @Test
+    void testHashToken_IsConsistentAcrossVirtualThreads() throws Exception {
+        String expected = TokenHashingUtil.hashToken(TEST_TOKEN, TEST_ALGORITHM, TEST_SALT);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<String>> hashes = new ArrayList<>();
+            for (int i = 0; i < CONCURRENT_HASHES; i++) {
+                hashes.add(executor.submit(() -> TokenHashingUtil.hashToken(TEST_TOKEN, TEST_ALGORITHM, TEST_SALT)));
+            }
+            for (Future<String> hash : hashes) {
+                assertEquals(expected, hash.get());
+            }
+        }
     }
 }
@@ -30,7 +30,10 @@
 
 package org.eclipse.ecsp.uidam.config;
 
+import org.eclipse.ecsp.oauth2.server.core.cache.AuthorizationTokenCache;
+import org.eclipse.ecsp.oauth2.server.core.client.TenantWebClientRegistry;
 import org.eclipse.ecsp.oauth2.server.core.config.LiquibaseConfig;
+import org.eclipse.ecsp.oauth2.server.core.filter.TenantPathRouter;
 import org.eclipse.ecsp.sql.multitenancy.TenantAwareDataSource;
 import org.eclipse.ecsp.sql.multitenancy.TenantDatabaseProperties;
 import org.junit.jupiter.api.BeforeEach;
@@ -86,6 +89,15 @@ class ConfigRefreshListenerTest {
     @Mock
     private LiquibaseConfig liquibaseConfig;
 
+    @Mock
+    private TenantWebClientRegistry tenantWebClientRegistry;
+
+    @Mock
+    private TenantPathRouter tenantPathRouter;
+
+    @Mock
+    private AuthorizationTokenCache authorizationTokenCache;
+
     @Mock
     private EnvironmentChangeEvent event;
 
@@ -216,6 +228,7 @@ class ConfigRefreshListenerTest {
         // Assert
         verify(tenantAwareDataSource).addOrUpdateTenantDataSource(eq("tenant3"), any(TenantDatabaseProperties.class));
         verify(liquibaseConfig).initializeTenantSchema("tenant3");
+        verify(tenantPathRouter).rebuild(Set.of("tenant1", "tenant2", "tenant3"));
     }
 
     @Test
@@ -232,6 +245,9 @@ class ConfigRefreshListenerTest {
 
         // Assert
         verify(tenantAwareDataSource).removeTenantDataSource("tenant2");
+        verify(tenantWebClientRegistry).evictTenant("tenant2");
+        verify(authorizationTokenCache).clearTenant("tenant2");
+        verify(tenantPathRouter).rebuild(Set.of("tenant1"));
     }
 
     @Test
@@ -436,6 +452,7 @@ class ConfigRefreshListenerTest {
 
         // Assert
         verify(tenantAwareDataSource).addOrUpdateTenantDataSource(eq("tenant1"), any(TenantDatabaseProperties.class));
+        verify(authorizationTokenCache).clearTenant("tenant1");
     }
 
     @Test
@@ -480,6 +497,25 @@ class ConfigRefreshListenerTest {
 
         // Assert - Should not call addOrUpdateTenantDataSource for non-database properties
         verify(tenantAwareDataSource, never()).addOrUpdateTenantDataSource(eq("tenant1"), any());
+        verify(tenantWebClientRegistry).evictTenant("tenant1");
+        verify(authorizationTokenCache, never()).clearTenant("tenant1");
+    }
+
+    @Test
+    void onApplicationEvent_withExternalUrlUpdate_shouldRebuildTenantWebClients() {
+        // Arrange
+        Set<String> changedKeys = new HashSet<>();
+        changedKeys.add("tenants.profile.tenant1.external-urls.user-management-base-url");
+
+        when(event.getKeys()).thenReturn(changedKeys);
+        when(environment.getProperty("tenant.ids")).thenReturn("tenant1,tenant2");
+
+        // Act
+        listener.onApplicationEvent(event);
+
+        // Assert
+        verify(tenantWebClientRegistry).evictTenant("tenant1");
+        verify(tenantWebClientRegistry, never()).evictTenant("tenant2");
     }
 
     @Test